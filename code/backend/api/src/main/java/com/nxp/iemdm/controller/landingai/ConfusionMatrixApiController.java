@@ -5,6 +5,7 @@ import com.nxp.iemdm.shared.aop.annotations.MethodLog;
 import com.nxp.iemdm.shared.dto.landingai.CellDetailResponse;
 import com.nxp.iemdm.shared.dto.landingai.ConfusionMatrixResponse;
 import com.nxp.iemdm.shared.dto.landingai.ImageWithLabelsDTO;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallCurveResponse;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,18 +34,21 @@ public class ConfusionMatrixApiController {
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
    * @return Confusion matrix response
    */
   @MethodLog
   @GetMapping("/{modelId}/{evaluationSet}")
   public ResponseEntity<ConfusionMatrixResponse> getConfusionMatrix(
-      @PathVariable Long modelId, @PathVariable String evaluationSet) {
+      @PathVariable Long modelId,
+      @PathVariable String evaluationSet,
+      @RequestParam(required = false) Double iouThreshold) {
     log.info(
         "API: Getting confusion matrix for modelId={}, evaluationSet={}", modelId, evaluationSet);
 
     try {
       ConfusionMatrixResponse response =
-          confusionMatrixServiceREST.calculateConfusionMatrix(modelId, evaluationSet);
+          confusionMatrixServiceREST.calculateConfusionMatrix(modelId, evaluationSet, iouThreshold);
       return ResponseEntity.ok(response);
     } catch (IllegalArgumentException e) {
       log.error("Invalid parameters: {}", e.getMessage());
@@ -62,6 +66,7 @@ public class ConfusionMatrixApiController {
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
    * @param gtClassId Ground truth class ID
    * @param predClassId Prediction class ID
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
    * @return Cell detail response with images
    */
   @MethodLog
@@ -70,7 +75,8 @@ public class ConfusionMatrixApiController {
       @PathVariable Long modelId,
       @PathVariable String evaluationSet,
       @RequestParam Long gtClassId,
-      @RequestParam Long predClassId) {
+      @RequestParam Long predClassId,
+      @RequestParam(required = false) Double iouThreshold) {
     log.info(
         "API: Getting cell detail for modelId={}, evaluationSet={}, gtClassId={}, predClassId={}",
         modelId,
@@ -80,7 +86,8 @@ public class ConfusionMatrixApiController {
 
     try {
       CellDetailResponse response =
-          confusionMatrixServiceREST.getCellDetail(modelId, evaluationSet, gtClassId, predClassId);
+          confusionMatrixServiceREST.getCellDetail(
+              modelId, evaluationSet, gtClassId, predClassId, iouThreshold);
       return ResponseEntity.ok(response);
     } catch (IllegalArgumentException e) {
       log.error("Invalid parameters: {}", e.getMessage());
@@ -96,17 +103,20 @@ public class ConfusionMatrixApiController {
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
    * @return List of images with ground truth and prediction labels
    */
   @MethodLog
   @GetMapping("/{modelId}/{evaluationSet}/all-images")
   public ResponseEntity<List<ImageWithLabelsDTO>> getAllImages(
-      @PathVariable Long modelId, @PathVariable String evaluationSet) {
+      @PathVariable Long modelId,
+      @PathVariable String evaluationSet,
+      @RequestParam(required = false) Double iouThreshold) {
     log.info("API: Getting all images for modelId={}, evaluationSet={}", modelId, evaluationSet);
 
     try {
       List<ImageWithLabelsDTO> images =
-          confusionMatrixServiceREST.getAllImages(modelId, evaluationSet);
+          confusionMatrixServiceREST.getAllImages(modelId, evaluationSet, iouThreshold);
       return ResponseEntity.ok(images);
     } catch (IllegalArgumentException e) {
       log.error("Invalid parameters: {}", e.getMessage());
@@ -117,6 +127,38 @@ public class ConfusionMatrixApiController {
     }
   }
 
+  /**
+   * Get precision-recall curves for every confidence threshold.
+   *
+   * @param modelId Model ID
+   * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
+   * @return Precision-recall curves per class and over all classes
+   */
+  @MethodLog
+  @GetMapping("/{modelId}/{evaluationSet}/pr-curve")
+  public ResponseEntity<PrecisionRecallCurveResponse> getPrecisionRecallCurve(
+      @PathVariable Long modelId,
+      @PathVariable String evaluationSet,
+      @RequestParam(required = false) Double iouThreshold) {
+    log.info(
+        "API: Getting precision-recall curve for modelId={}, evaluationSet={}",
+        modelId,
+        evaluationSet);
+
+    try {
+      PrecisionRecallCurveResponse response =
+          confusionMatrixServiceREST.getPrecisionRecallCurve(modelId, evaluationSet, iouThreshold);
+      return ResponseEntity.ok(response);
+    } catch (IllegalArgumentException e) {
+      log.error("Invalid parameters: {}", e.getMessage());
+      return ResponseEntity.badRequest().build();
+    } catch (Exception e) {
+      log.error("Failed to get precision-recall curve", e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
   /**
    * Get prediction labels for a model filtered by evaluation set. Backend 根據 evaluationSet 參數過濾資料，
    * 只回傳指定 evaluation set 的資料。 Requirements: 26.5, 31.1, 35.3
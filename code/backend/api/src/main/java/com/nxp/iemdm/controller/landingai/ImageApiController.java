@@ -8,22 +8,30 @@ import com.nxp.iemdm.model.landingai.ImageTag;
 import com.nxp.iemdm.service.ImageService;
 import com.nxp.iemdm.service.rest.landingai.ImageServiceREST;
 import com.nxp.iemdm.shared.aop.annotations.MethodLog;
+import com.nxp.iemdm.shared.dto.landingai.ImageUploadJobStatusDTO;
 import com.nxp.iemdm.shared.dto.landingai.ImageUploadResponse;
 import com.nxp.iemdm.spring.security.IEMDMPrincipal;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -38,6 +46,10 @@ public class ImageApiController {
 
   private final ImageServiceREST imageServiceREST;
   private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+  private static final int MAX_THUMBNAIL_BATCH_SIZE = 500;
+  private static final String THUMBNAIL_URL_PREFIX = "/api/landingai/images/";
+  // Thumbnails are immutable per image ID; private because the endpoints require authentication
+  private static final String THUMBNAIL_CACHE_CONTROL = "private, max-age=31536000, immutable";
 
   private final ImageService imageService;
 
@@ -135,8 +147,9 @@ public class ImageApiController {
           @RequestParam(value = "mediaId", required = false) String mediaId,
           @RequestParam(value = "noClass", required = false) Boolean noClass,
           @RequestParam(value = "predictionNoClass", required = false) Boolean predictionNoClass,
-          @RequestParam(value = "includeThumbnails", defaultValue = "true")
+          @RequestParam(value = "includeThumbnails", defaultValue = "false")
               boolean includeThumbnails,
+          @RequestParam(value = "cursor", required = false) String cursor,
           @AuthenticationPrincipal IEMDMPrincipal user) {
 
     log.info(
@@ -205,7 +218,15 @@ public class ImageApiController {
             com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO>
         response =
             imageService.getImagesForProject(
-                projectId, page, size, viewMode, sortBy, filters, includeThumbnails);
+                projectId, page, size, viewMode, sortBy, filters, includeThumbnails, cursor);
+
+    // Point every item at its cacheable thumbnail URL; base64 thumbnails are only sent on request
+    if (response != null && response.getContent() != null) {
+      response
+          .getContent()
+          .forEach(
+              item -> item.setThumbnailUrl(THUMBNAIL_URL_PREFIX + item.getId() + "/thumbnail"));
+    }
 
     return ResponseEntity.ok(response);
   }
@@ -236,29 +257,31 @@ public class ImageApiController {
   }
 
   /**
-   * Get image file content from file system by image ID
+   * Stream the image file of an image. The content is streamed from the operational layer with a
+   * fixed buffer, so memory use does not depend on the file size. Single byte ranges ({@code
+   * Range}) and conditional requests ({@code If-None-Match}) are passed through.
    *
    * @param imageId the image ID
-   * @return the image file as byte array with HTTP 200 status
+   * @param range the Range request header (optional)
+   * @param ifNoneMatch the If-None-Match request header (optional)
+   * @param response the response the file is streamed to
+   * @throws IOException if streaming the file fails
    */
   @MethodLog
   @GetMapping(path = "/{imageId}/file")
-  public ResponseEntity<byte[]> getImageFileById(@PathVariable("imageId") Long imageId) {
-    try {
-      if (imageId == null || imageId <= 0) {
-        return ResponseEntity.badRequest().build();
-      }
-
-      byte[] imageData = imageService.getImageFileById(imageId);
-
-      if (imageData == null || imageData.length == 0) {
-        return ResponseEntity.notFound().build();
-      }
+  public void getImageFileById(
+      @PathVariable("imageId") Long imageId,
+      @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      HttpServletResponse response)
+      throws IOException {
+    if (imageId == null || imageId <= 0) {
+      response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+      return;
+    }
 
-      return ResponseEntity.ok()
-          .contentLength(imageData.length)
-          .contentType(org.springframework.http.MediaType.APPLICATION_OCTET_STREAM)
-          .body(imageData);
+    try {
+      imageService.streamImageFileById(imageId, range, ifNoneMatch, response);
     } catch (Exception e) {
       log.error("Error getting image file by imageId {}: {}", imageId, e.getMessage());
       throw e;
@@ -523,18 +546,84 @@ public class ImageApiController {
   }
 
   /**
-   * Get thumbnail for an image.
+   * Start an asynchronous ZIP upload. Use this for large archives: images are committed in chunks
+   * while the job runs and the returned job ID can be polled for progress.
+   *
+   * @param file the ZIP file to upload
+   * @param projectId the project ID
+   * @param classified true if the ZIP contains class folders (classification projects)
+   * @param user the authenticated user
+   * @return the initial job status including the job ID
+   */
+  @MethodLog
+  @PostMapping(
+      path = "/upload-zip-jobs",
+      consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<ImageUploadJobStatusDTO> startZipUploadJob(
+      @RequestParam("file") MultipartFile file,
+      @RequestParam("projectId") @NotNull Long projectId,
+      @RequestParam(value = "classified", defaultValue = "false") boolean classified,
+      @AuthenticationPrincipal IEMDMPrincipal user) {
+
+    log.info(
+        "Starting ZIP upload job for project: {} by user: {}, classified: {}",
+        projectId,
+        user.getUsername(),
+        classified);
+
+    // Validate file type
+    String filename = file.getOriginalFilename();
+    if (filename == null || !filename.toLowerCase().endsWith(".zip")) {
+      throw new InvalidImageFormatException("Only ZIP files are supported");
+    }
+
+    ImageUploadJobStatusDTO status =
+        imageService.startZipUploadJob(file, projectId, user.getUsername(), classified);
+
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+  }
+
+  /**
+   * Get the progress of an asynchronous ZIP upload job.
+   *
+   * @param jobId the job ID
+   * @return the job status, or 404 if the job is unknown or has expired
+   */
+  @GetMapping(path = "/upload-zip-jobs/{jobId}", produces = MediaType.APPLICATION_JSON)
+  public ResponseEntity<ImageUploadJobStatusDTO> getZipUploadJobStatus(
+      @PathVariable("jobId") String jobId) {
+    ImageUploadJobStatusDTO status = imageService.getZipUploadJobStatus(jobId);
+    if (status == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(status);
+  }
+
+  /**
+   * Get thumbnail for an image. Thumbnails never change after upload, so the response carries a
+   * strong ETag derived from the image ID and may be cached indefinitely by the browser.
    *
    * @param id the image ID
+   * @param webRequest the request, used for If-None-Match handling
    * @param user the authenticated user
-   * @return the thumbnail image as byte array
+   * @return the thumbnail image as byte array, or 304 if the client copy is current
    */
   @MethodLog
   @GetMapping(
       path = "/{id}/thumbnail",
       produces = org.springframework.http.MediaType.IMAGE_JPEG_VALUE)
   public ResponseEntity<byte[]> getThumbnail(
-      @PathVariable("id") @NotNull Long id, @AuthenticationPrincipal IEMDMPrincipal user) {
+      @PathVariable("id") @NotNull Long id,
+      WebRequest webRequest,
+      @AuthenticationPrincipal IEMDMPrincipal user) {
+
+    String etag = "\"thumbnail-" + id + "\"";
+    if (webRequest.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .header(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL)
+          .build();
+    }
 
     log.info("Getting thumbnail for image: {} by user: {}", id, user.getUsername());
 
@@ -546,9 +635,53 @@ public class ImageApiController {
 
     return ResponseEntity.ok()
         .contentType(org.springframework.http.MediaType.IMAGE_JPEG)
+        .eTag(etag)
+        .header(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL)
         .body(thumbnail);
   }
 
+  /**
+   * Get the thumbnails of several images in one binary response, replacing base64 thumbnails in the
+   * list JSON. For every requested ID, in request order, the body holds the image ID (8 bytes, big
+   * endian), the thumbnail length (4 bytes, 0 if the image has no thumbnail) and the JPEG bytes.
+   * The ETag is derived from the ID list because thumbnails never change after upload.
+   *
+   * @param ids the image IDs (at most 500)
+   * @param webRequest the request, used for If-None-Match handling
+   * @return the length-prefixed thumbnail stream, or 304 if the client copy is current
+   */
+  @MethodLog
+  @GetMapping(
+      path = "/thumbnails",
+      produces = org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<byte[]> getThumbnails(
+      @RequestParam("ids") List<Long> ids, WebRequest webRequest) {
+
+    if (ids.isEmpty() || ids.size() > MAX_THUMBNAIL_BATCH_SIZE) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    String etag =
+        "\"thumbnails-"
+            + DigestUtils.md5DigestAsHex(idList.getBytes(StandardCharsets.UTF_8))
+            + "\"";
+    if (webRequest.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .header(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL)
+          .build();
+    }
+
+    byte[] thumbnails = imageService.getThumbnails(ids);
+
+    return ResponseEntity.ok()
+        .contentType(org.springframework.http.MediaType.APPLICATION_OCTET_STREAM)
+        .eTag(etag)
+        .header(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL)
+        .body(thumbnails);
+  }
+
   /**
    * Exception handler for InvalidImageFormatException.
    *
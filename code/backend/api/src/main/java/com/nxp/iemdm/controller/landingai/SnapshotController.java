@@ -3,13 +3,18 @@ package com.nxp.iemdm.controller.landingai;
 import com.nxp.iemdm.service.SnapshotService;
 import com.nxp.iemdm.shared.aop.annotations.MethodLog;
 import com.nxp.iemdm.shared.dto.landingai.CreateProjectFromSnapshotRequest;
+import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
+import com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO;
+import com.nxp.iemdm.shared.dto.landingai.PaginatedResponse;
 import com.nxp.iemdm.shared.dto.landingai.ProjectDTO;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotCreateRequest;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotDTO;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotPreviewStatsDTO;
 import com.nxp.iemdm.spring.security.IEMDMPrincipal;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +31,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST controller for Landing AI snapshot operations. Provides endpoints for creating and
@@ -36,6 +42,10 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/landingai/snapshots")
 public class SnapshotController {
 
+  private static final String SNAPSHOT_URL_PREFIX = "/api/landingai/snapshots/";
+  // Snapshot thumbnails never change; private because the endpoints require authentication
+  private static final String THUMBNAIL_CACHE_CONTROL = "private, max-age=31536000, immutable";
+
   private final SnapshotService snapshotService;
 
   @Autowired
@@ -118,19 +128,21 @@ public class SnapshotController {
    * @param page the page number (0-indexed)
    * @param size the page size
    * @param sortBy the sort method (optional, defaults to upload_time_desc)
+   * @param cursor keyset cursor from the previous page's nextCursor (optional); when set, the page
+   *     number is ignored and the page continues right after the cursor row
    * @param filterRequest the filter criteria (optional, sent in request body)
    * @param user the authenticated user
-   * @return paginated response with image list items
+   * @return paginated response with image list items; thumbnails are served by thumbnailUrl
    */
   @MethodLog
   @PostMapping("/{snapshotId}/images/search")
-  public ResponseEntity<?> getSnapshotImages(
+  public ResponseEntity<PaginatedResponse<ImageListItemDTO>> getSnapshotImages(
       @PathVariable("snapshotId") @NotNull Long snapshotId,
       @RequestParam(value = "page", defaultValue = "0") int page,
       @RequestParam(value = "size", defaultValue = "20") int size,
       @RequestParam(value = "sortBy", defaultValue = "upload_time_desc") String sortBy,
-      @RequestBody(required = false)
-          com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest filterRequest,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestBody(required = false) ImageFilterRequest filterRequest,
       @AuthenticationPrincipal IEMDMPrincipal user) {
 
     log.info(
@@ -142,8 +154,57 @@ public class SnapshotController {
         filterRequest,
         user.getUsername());
 
-    return ResponseEntity.ok(
-        snapshotService.getSnapshotImages(snapshotId, page, size, sortBy, filterRequest));
+    PaginatedResponse<ImageListItemDTO> response =
+        snapshotService.getSnapshotImages(snapshotId, page, size, sortBy, cursor, filterRequest);
+
+    // Point every item at the cacheable thumbnail URL of its snapshot version
+    if (response != null && response.getContent() != null) {
+      String prefix = SNAPSHOT_URL_PREFIX + snapshotId + "/images/";
+      response
+          .getContent()
+          .forEach(item -> item.setThumbnailUrl(prefix + item.getId() + "/thumbnail"));
+    }
+
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Get the thumbnail of a snapshot image. Snapshots never change, so the response carries a strong
+   * ETag derived from the snapshot and image ID and may be cached indefinitely by the browser.
+   *
+   * @param snapshotId the snapshot ID
+   * @param imageId the image ID
+   * @param webRequest the request, used for If-None-Match handling
+   * @return the thumbnail image as byte array, or 304 if the client copy is current
+   */
+  @MethodLog
+  @GetMapping(
+      path = "/{snapshotId}/images/{imageId}/thumbnail",
+      produces = MediaType.IMAGE_JPEG_VALUE)
+  public ResponseEntity<byte[]> getSnapshotImageThumbnail(
+      @PathVariable("snapshotId") @NotNull Long snapshotId,
+      @PathVariable("imageId") @NotNull Long imageId,
+      WebRequest webRequest) {
+
+    String etag = "\"snapshot-thumbnail-" + snapshotId + "-" + imageId + "\"";
+    if (webRequest.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .header(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL)
+          .build();
+    }
+
+    byte[] thumbnail = snapshotService.getSnapshotImageThumbnail(snapshotId, imageId);
+
+    if (thumbnail == null || thumbnail.length == 0) {
+      return ResponseEntity.notFound().build();
+    }
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.IMAGE_JPEG)
+        .eTag(etag)
+        .header(HttpHeaders.CACHE_CONTROL, THUMBNAIL_CACHE_CONTROL)
+        .body(thumbnail);
   }
 
   /**
@@ -201,28 +262,25 @@ public class SnapshotController {
   }
 
   /**
-   * Download snapshot dataset.
+   * Download snapshot dataset. The ZIP archive is streamed from the operational layer while it is
+   * written, so the download starts right away and memory use does not depend on its size.
    *
    * @param snapshotId the snapshot ID
    * @param user the authenticated user
-   * @return byte array with snapshot data
+   * @param response the response the archive is streamed to
+   * @throws IOException if streaming the archive fails
    */
   @MethodLog
   @GetMapping("/{snapshotId}/download")
-  public ResponseEntity<byte[]> downloadSnapshot(
+  public void downloadSnapshot(
       @PathVariable("snapshotId") @NotNull Long snapshotId,
-      @AuthenticationPrincipal IEMDMPrincipal user) {
+      @AuthenticationPrincipal IEMDMPrincipal user,
+      HttpServletResponse response)
+      throws IOException {
 
     log.info("Downloading snapshot: {} by user: {}", snapshotId, user.getUsername());
 
-    byte[] data = snapshotService.downloadSnapshotDataset(snapshotId);
-
-    HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-    headers.setContentDispositionFormData("attachment", "snapshot-" + snapshotId + ".zip");
-    headers.setContentLength(data.length);
-
-    return ResponseEntity.ok().headers(headers).body(data);
+    snapshotService.streamSnapshotDataset(snapshotId, response);
   }
 
   /**
@@ -2,8 +2,11 @@ package com.nxp.iemdm.service;
 
 import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
 import com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO;
+import com.nxp.iemdm.shared.dto.landingai.ImageUploadJobStatusDTO;
 import com.nxp.iemdm.shared.dto.landingai.ImageUploadResponse;
 import com.nxp.iemdm.shared.dto.landingai.PaginatedResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import org.springframework.web.multipart.MultipartFile;
@@ -44,6 +47,27 @@ public interface ImageService {
    */
   Map<String, Object> uploadBatchImagesZip(MultipartFile file, Long projectId, String userId);
 
+  /**
+   * Start an asynchronous ZIP upload. Images are committed in chunks while the job runs; poll
+   * {@link #getZipUploadJobStatus(String)} for progress.
+   *
+   * @param file the ZIP file to upload
+   * @param projectId the project ID
+   * @param userId the user identifier
+   * @param classified true if the ZIP contains class folders (classification projects)
+   * @return the initial job status including the job ID
+   */
+  ImageUploadJobStatusDTO startZipUploadJob(
+      MultipartFile file, Long projectId, String userId, boolean classified);
+
+  /**
+   * Get the progress of an asynchronous ZIP upload job.
+   *
+   * @param jobId the job ID
+   * @return the job status, or null if the job is unknown or has expired
+   */
+  ImageUploadJobStatusDTO getZipUploadJobStatus(String jobId);
+
   /**
    * Get thumbnail for an image.
    *
@@ -53,12 +77,27 @@ public interface ImageService {
   byte[] getThumbnail(Long id);
 
   /**
-   * Get full image file for an image.
+   * Get the thumbnails of several images as one binary stream. For every requested ID, in request
+   * order, the stream holds the image ID (8 bytes), the thumbnail length (4 bytes, 0 if the image
+   * has no thumbnail) and the JPEG bytes.
+   *
+   * @param ids the image IDs
+   * @return the length-prefixed thumbnail stream
+   */
+  byte[] getThumbnails(List<Long> ids);
+
+  /**
+   * Stream the full image file of an image to a servlet response. The operational response is
+   * copied through with a fixed buffer; status, length, range and ETag headers are passed on.
    *
    * @param id the image ID
-   * @return the full image file as byte array
+   * @param range the Range request header (optional)
+   * @param ifNoneMatch the If-None-Match request header (optional)
+   * @param response the response to write to
+   * @throws IOException if copying the content fails
    */
-  byte[] getImageFileById(Long id);
+  void streamImageFileById(
+      Long id, String range, String ifNoneMatch, HttpServletResponse response) throws IOException;
 
   /**
    * Get paginated images for a project with label information and optional filters.
@@ -69,6 +108,8 @@ public interface ImageService {
    * @param viewMode the view mode (images or instances)
    * @param sortBy the sort method
    * @param filters the filter criteria (optional)
+   * @param includeThumbnails whether to include thumbnail bytes in the list items
+   * @param cursor keyset cursor from the previous page's nextCursor (optional)
    * @return paginated response with image list items
    */
   PaginatedResponse<ImageListItemDTO> getImagesForProject(
@@ -78,5 +119,6 @@ public interface ImageService {
       String viewMode,
       String sortBy,
       ImageFilterRequest filters,
-      boolean includeThumbnails);
+      boolean includeThumbnails,
+      String cursor);
 }
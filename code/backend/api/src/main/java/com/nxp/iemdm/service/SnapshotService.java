@@ -1,11 +1,15 @@
 package com.nxp.iemdm.service;
 
 import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
+import com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO;
+import com.nxp.iemdm.shared.dto.landingai.PaginatedResponse;
 import com.nxp.iemdm.shared.dto.landingai.ProjectDTO;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotCreateRequest;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotDTO;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotPreviewStatsDTO;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
 import java.util.List;
 
 /** Service interface for Landing AI snapshot operations. */
@@ -60,16 +64,27 @@ public interface SnapshotService {
    * @param page the page number (0-indexed)
    * @param size the page size
    * @param sortBy the sort method
+   * @param cursor keyset cursor from the previous page's nextCursor (optional)
    * @param filterRequest the filter criteria (optional)
-   * @return paginated response with image list items
+   * @return paginated response with image list items, without thumbnail bytes
    */
-  Object getSnapshotImages(
+  PaginatedResponse<ImageListItemDTO> getSnapshotImages(
       @NotNull Long snapshotId,
       int page,
       int size,
       String sortBy,
+      String cursor,
       ImageFilterRequest filterRequest);
 
+  /**
+   * Get the thumbnail of a snapshot image.
+   *
+   * @param snapshotId the snapshot ID
+   * @param imageId the image ID
+   * @return the thumbnail bytes, or null if the image has no thumbnail
+   */
+  byte[] getSnapshotImageThumbnail(Long snapshotId, Long imageId);
+
   /**
    * Create a new project from a snapshot.
    *
@@ -89,6 +104,17 @@ public interface SnapshotService {
    */
   void revertProjectToSnapshot(Long snapshotId, Long projectId, String userId);
 
+  /**
+   * Stream the snapshot dataset archive (images with labels, tags and metadata) to a servlet
+   * response. The operational response is copied through with a fixed buffer, so memory use does
+   * not depend on the size of the snapshot.
+   *
+   * @param snapshotId the snapshot ID
+   * @param response the response to write to
+   * @throws IOException if copying the content fails
+   */
+  void streamSnapshotDataset(Long snapshotId, HttpServletResponse response) throws IOException;
+
   /**
    * Download snapshot dataset as a byte array.
    *
@@ -3,8 +3,10 @@ package com.nxp.iemdm.service.rest.landingai;
 import com.nxp.iemdm.shared.dto.landingai.CellDetailResponse;
 import com.nxp.iemdm.shared.dto.landingai.ConfusionMatrixResponse;
 import com.nxp.iemdm.shared.dto.landingai.ImageWithLabelsDTO;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallCurveResponse;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -37,20 +39,25 @@ public class ConfusionMatrixServiceREST {
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair, null for the default
    * @return Confusion matrix response
    */
-  public ConfusionMatrixResponse calculateConfusionMatrix(Long modelId, String evaluationSet) {
+  public ConfusionMatrixResponse calculateConfusionMatrix(
+      Long modelId, String evaluationSet, Double iouThreshold) {
     log.info(
         "REST Service: Calculating confusion matrix for modelId={}, evaluationSet={}",
         modelId,
         evaluationSet);
 
     String url =
-        operationalServiceURI
-            + "/operational/landingai/confusion-matrix/"
-            + modelId
-            + "/"
-            + evaluationSet;
+        UriComponentsBuilder.fromHttpUrl(
+                operationalServiceURI
+                    + "/operational/landingai/confusion-matrix/"
+                    + modelId
+                    + "/"
+                    + evaluationSet)
+            .queryParamIfPresent("iouThreshold", Optional.ofNullable(iouThreshold))
+            .toUriString();
 
     ResponseEntity<ConfusionMatrixResponse> responseEntity =
         restTemplate.getForEntity(url, ConfusionMatrixResponse.class);
@@ -65,10 +72,11 @@ public class ConfusionMatrixServiceREST {
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
    * @param gtClassId Ground truth class ID
    * @param predClassId Prediction class ID
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair, null for the default
    * @return Cell detail response with images
    */
   public CellDetailResponse getCellDetail(
-      Long modelId, String evaluationSet, Long gtClassId, Long predClassId) {
+      Long modelId, String evaluationSet, Long gtClassId, Long predClassId, Double iouThreshold) {
     log.info(
         "REST Service: Getting cell detail for modelId={}, evaluationSet={}, gtClassId={}, predClassId={}",
         modelId,
@@ -86,6 +94,7 @@ public class ConfusionMatrixServiceREST {
                     + "/cell")
             .queryParam("gtClassId", gtClassId)
             .queryParam("predClassId", predClassId)
+            .queryParamIfPresent("iouThreshold", Optional.ofNullable(iouThreshold))
             .toUriString();
 
     ResponseEntity<CellDetailResponse> responseEntity =
@@ -99,21 +108,26 @@ public class ConfusionMatrixServiceREST {
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair, null for the default
    * @return List of images with ground truth and prediction labels
    */
-  public List<ImageWithLabelsDTO> getAllImages(Long modelId, String evaluationSet) {
+  public List<ImageWithLabelsDTO> getAllImages(
+      Long modelId, String evaluationSet, Double iouThreshold) {
     log.info(
         "REST Service: Getting all images for modelId={}, evaluationSet={}",
         modelId,
         evaluationSet);
 
     String url =
-        operationalServiceURI
-            + "/operational/landingai/confusion-matrix/"
-            + modelId
-            + "/"
-            + evaluationSet
-            + "/all-images";
+        UriComponentsBuilder.fromHttpUrl(
+                operationalServiceURI
+                    + "/operational/landingai/confusion-matrix/"
+                    + modelId
+                    + "/"
+                    + evaluationSet
+                    + "/all-images")
+            .queryParamIfPresent("iouThreshold", Optional.ofNullable(iouThreshold))
+            .toUriString();
 
     ResponseEntity<ImageWithLabelsDTO[]> responseEntity =
         restTemplate.getForEntity(url, ImageWithLabelsDTO[].class);
@@ -121,6 +135,38 @@ public class ConfusionMatrixServiceREST {
     return Arrays.asList(responseEntity.getBody());
   }
 
+  /**
+   * Get precision-recall curves for every confidence threshold.
+   *
+   * @param modelId Model ID
+   * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair, null for the default
+   * @return Precision-recall curves per class and over all classes
+   */
+  public PrecisionRecallCurveResponse getPrecisionRecallCurve(
+      Long modelId, String evaluationSet, Double iouThreshold) {
+    log.info(
+        "REST Service: Getting precision-recall curve for modelId={}, evaluationSet={}",
+        modelId,
+        evaluationSet);
+
+    String url =
+        UriComponentsBuilder.fromHttpUrl(
+                operationalServiceURI
+                    + "/operational/landingai/confusion-matrix/"
+                    + modelId
+                    + "/"
+                    + evaluationSet
+                    + "/pr-curve")
+            .queryParamIfPresent("iouThreshold", Optional.ofNullable(iouThreshold))
+            .toUriString();
+
+    ResponseEntity<PrecisionRecallCurveResponse> responseEntity =
+        restTemplate.getForEntity(url, PrecisionRecallCurveResponse.class);
+
+    return responseEntity.getBody();
+  }
+
   /**
    * Get prediction labels for a model filtered by evaluation set. Backend 根據 evaluationSet 參數過濾資料，
    * 只回傳指定 evaluation set 的資料。
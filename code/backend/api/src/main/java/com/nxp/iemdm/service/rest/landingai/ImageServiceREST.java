@@ -4,15 +4,20 @@ import com.nxp.iemdm.model.landingai.Image;
 import com.nxp.iemdm.model.landingai.ImageMetadata;
 import com.nxp.iemdm.model.landingai.ImageTag;
 import com.nxp.iemdm.service.ImageService;
+import com.nxp.iemdm.shared.IemdmConstants;
 import com.nxp.iemdm.shared.aop.annotations.MethodLog;
 import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
 import com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO;
+import com.nxp.iemdm.shared.dto.landingai.ImageUploadJobStatusDTO;
 import com.nxp.iemdm.shared.dto.landingai.ImageUploadResponse;
 import com.nxp.iemdm.shared.dto.landingai.PaginatedResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,12 +26,16 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -39,15 +48,36 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Service
 public class ImageServiceREST implements ImageService {
 
+  /** Response headers passed on when streaming an image file through the gateway */
+  private static final List<String> STREAMED_FILE_HEADERS =
+      List.of(
+          HttpHeaders.CONTENT_TYPE,
+          HttpHeaders.CONTENT_LENGTH,
+          HttpHeaders.CONTENT_RANGE,
+          HttpHeaders.ACCEPT_RANGES,
+          HttpHeaders.ETAG,
+          HttpHeaders.CACHE_CONTROL);
+
   private final RestTemplate restTemplate;
   private final String operationalServiceURI;
 
+  /**
+   * RestTemplate for large request bodies. It has no interceptors and does not buffer the request
+   * body, so uploads are streamed to the operational service instead of being held on the heap.
+   * The user header normally added by the interceptor has to be set by the caller.
+   */
+  private final RestTemplate streamingRestTemplate;
+
   @Autowired
   public ImageServiceREST(
       RestTemplate restTemplate,
       @Value("${rest.iemdm-services.uri}") String operationalServiceURI) {
     this.restTemplate = restTemplate;
     this.operationalServiceURI = operationalServiceURI;
+
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setBufferRequestBody(false);
+    this.streamingRestTemplate = new RestTemplate(requestFactory);
   }
 
   @Override
@@ -180,6 +210,59 @@ public class ImageServiceREST implements ImageService {
     }
   }
 
+  @Override
+  public ImageUploadJobStatusDTO startZipUploadJob(
+      MultipartFile file, Long projectId, String userId, boolean classified) {
+
+    log.info(
+        "REST Service: Starting ZIP upload job for project: {} by user: {}, classified: {}",
+        projectId,
+        userId,
+        classified);
+
+    String url =
+        UriComponentsBuilder.fromHttpUrl(
+                operationalServiceURI + "/operational/landingai/images/upload-zip-jobs")
+            .queryParam("projectId", projectId)
+            .queryParam("userId", userId)
+            .queryParam("classified", classified)
+            .toUriString();
+
+    try {
+      MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+      // Read from the uploaded file while writing; the streaming template does not buffer it
+      body.add("file", file.getResource());
+
+      HttpHeaders headers = new HttpHeaders();
+      headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+      headers.set(IemdmConstants.USER_WBI_HEADER, userId);
+
+      HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+      ResponseEntity<ImageUploadJobStatusDTO> responseEntity =
+          streamingRestTemplate.postForEntity(url, requestEntity, ImageUploadJobStatusDTO.class);
+
+      return responseEntity.getBody();
+    } catch (Exception e) {
+      log.error("Error starting ZIP upload job: {}", e.getMessage(), e);
+      throw new RuntimeException("Failed to start ZIP upload job", e);
+    }
+  }
+
+  @Override
+  public ImageUploadJobStatusDTO getZipUploadJobStatus(String jobId) {
+    try {
+      ResponseEntity<ImageUploadJobStatusDTO> response =
+          restTemplate.getForEntity(
+              operationalServiceURI + "/operational/landingai/images/upload-zip-jobs/{jobId}",
+              ImageUploadJobStatusDTO.class,
+              jobId);
+      return response.getBody();
+    } catch (HttpClientErrorException.NotFound e) {
+      return null;
+    }
+  }
+
   @Override
   public byte[] getThumbnail(Long id) {
 
@@ -193,17 +276,68 @@ public class ImageServiceREST implements ImageService {
   }
 
   @Override
-  public byte[] getImageFileById(Long id) {
+  public byte[] getThumbnails(List<Long> ids) {
 
-    log.info("REST Service: Getting full image file for image: {}", id);
+    log.debug("REST Service: Getting {} thumbnails", ids.size());
 
-    String url = operationalServiceURI + "/operational/landingai/images/" + id + "/file";
+    String url =
+        UriComponentsBuilder.fromHttpUrl(
+                operationalServiceURI + "/operational/landingai/images/thumbnails")
+            .queryParam("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")))
+            .toUriString();
 
     ResponseEntity<byte[]> responseEntity = restTemplate.getForEntity(url, byte[].class);
 
     return responseEntity.getBody();
   }
 
+  @Override
+  public void streamImageFileById(
+      Long id, String range, String ifNoneMatch, HttpServletResponse response)
+      throws IOException {
+
+    log.info("REST Service: Streaming full image file for image: {}, range: {}", id, range);
+
+    String url = operationalServiceURI + "/operational/landingai/images/" + id + "/file";
+
+    try {
+      restTemplate.execute(
+          url,
+          HttpMethod.GET,
+          request -> {
+            if (range != null) {
+              request.getHeaders().set(HttpHeaders.RANGE, range);
+            }
+            if (ifNoneMatch != null) {
+              request.getHeaders().set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
+          },
+          operationalResponse -> {
+            response.setStatus(operationalResponse.getStatusCode().value());
+            copyHeaders(operationalResponse.getHeaders(), response);
+            if (operationalResponse.getStatusCode().value() != HttpStatus.NOT_MODIFIED.value()) {
+              StreamUtils.copy(operationalResponse.getBody(), response.getOutputStream());
+            }
+            return null;
+          });
+    } catch (HttpStatusCodeException e) {
+      // 404 and 416 are answered by the operational layer without a body worth passing on
+      response.setStatus(e.getStatusCode().value());
+      if (e.getResponseHeaders() != null) {
+        copyHeaders(e.getResponseHeaders(), response);
+      }
+    }
+  }
+
+  private static void copyHeaders(HttpHeaders headers, HttpServletResponse response) {
+    for (String name : STREAMED_FILE_HEADERS) {
+      String value = headers.getFirst(name);
+      if (value != null) {
+        response.setHeader(name, value);
+      }
+    }
+  }
+
   @Override
   public PaginatedResponse<ImageListItemDTO> getImagesForProject(
       Long projectId,
@@ -212,7 +346,8 @@ public class ImageServiceREST implements ImageService {
       String viewMode,
       String sortBy,
       ImageFilterRequest filters,
-      boolean includeThumbnails) {
+      boolean includeThumbnails,
+      String cursor) {
 
     log.info(
         "REST Service: Getting images for project: {}, page: {}, size: {}, viewMode: {}, sortBy: {}, filters: {}",
@@ -232,6 +367,10 @@ public class ImageServiceREST implements ImageService {
             .queryParam("sortBy", sortBy)
             .queryParam("includeThumbnails", includeThumbnails);
 
+    if (cursor != null && !cursor.isEmpty()) {
+      builder.queryParam("cursor", cursor);
+    }
+
     // Add filter parameters if provided
     if (filters != null) {
       if (filters.getMediaStatus() != null && !filters.getMediaStatus().isEmpty()) {
@@ -2,18 +2,28 @@ package com.nxp.iemdm.service.rest.landingai;
 
 import com.nxp.iemdm.service.SnapshotService;
 import com.nxp.iemdm.shared.dto.landingai.CreateProjectFromSnapshotRequest;
+import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
+import com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO;
+import com.nxp.iemdm.shared.dto.landingai.PaginatedResponse;
 import com.nxp.iemdm.shared.dto.landingai.ProjectDTO;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotCreateRequest;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotDTO;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotPreviewStatsDTO;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -22,6 +32,9 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Service
 public class SnapshotServiceREST implements SnapshotService {
 
+  private static final List<String> STREAMED_ARCHIVE_HEADERS =
+      List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_DISPOSITION);
+
   private final RestTemplate restTemplate;
   private final String snapshotServiceUri;
 
@@ -111,12 +124,13 @@ public class SnapshotServiceREST implements SnapshotService {
   }
 
   @Override
-  public Object getSnapshotImages(
+  public PaginatedResponse<ImageListItemDTO> getSnapshotImages(
       Long snapshotId,
       int page,
       int size,
       String sortBy,
-      com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest filterRequest) {
+      String cursor,
+      ImageFilterRequest filterRequest) {
 
     log.info(
         "REST Service: Getting snapshot images: snapshotId={}, page={}, size={}, sortBy={}, filters={}",
@@ -126,7 +140,7 @@ public class SnapshotServiceREST implements SnapshotService {
         sortBy,
         filterRequest);
 
-    String url =
+    UriComponentsBuilder builder =
         UriComponentsBuilder.fromHttpUrl(
                 snapshotServiceUri
                     + "/operational/landingai/snapshots/"
@@ -134,15 +148,40 @@ public class SnapshotServiceREST implements SnapshotService {
                     + "/images/search")
             .queryParam("page", page)
             .queryParam("size", size)
-            .queryParam("sortBy", sortBy)
-            .toUriString();
+            .queryParam("sortBy", sortBy);
+
+    if (cursor != null && !cursor.isEmpty()) {
+      builder.queryParam("cursor", cursor);
+    }
 
     // Send filter request in body
-    HttpEntity<com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest> requestEntity =
+    HttpEntity<ImageFilterRequest> requestEntity =
         filterRequest != null ? new HttpEntity<>(filterRequest) : new HttpEntity<>(null);
 
-    ResponseEntity<Object> responseEntity =
-        restTemplate.postForEntity(url, requestEntity, Object.class);
+    ResponseEntity<PaginatedResponse<ImageListItemDTO>> responseEntity =
+        restTemplate.exchange(
+            builder.toUriString(),
+            HttpMethod.POST,
+            requestEntity,
+            new ParameterizedTypeReference<PaginatedResponse<ImageListItemDTO>>() {});
+
+    return responseEntity.getBody();
+  }
+
+  @Override
+  public byte[] getSnapshotImageThumbnail(Long snapshotId, Long imageId) {
+
+    log.debug("REST Service: Getting thumbnail of image {} in snapshot {}", imageId, snapshotId);
+
+    String url =
+        snapshotServiceUri
+            + "/operational/landingai/snapshots/"
+            + snapshotId
+            + "/images/"
+            + imageId
+            + "/thumbnail";
+
+    ResponseEntity<byte[]> responseEntity = restTemplate.getForEntity(url, byte[].class);
 
     return responseEntity.getBody();
   }
@@ -242,6 +281,36 @@ public class SnapshotServiceREST implements SnapshotService {
     return responseEntity.getBody();
   }
 
+  @Override
+  public void streamSnapshotDataset(Long snapshotId, HttpServletResponse response)
+      throws IOException {
+    log.info("REST Service: Streaming snapshot dataset: snapshotId={}", snapshotId);
+
+    String url =
+        snapshotServiceUri + "/operational/landingai/snapshots/" + snapshotId + "/download";
+
+    try {
+      restTemplate.execute(
+          url,
+          HttpMethod.GET,
+          null,
+          operationalResponse -> {
+            response.setStatus(operationalResponse.getStatusCode().value());
+            for (String name : STREAMED_ARCHIVE_HEADERS) {
+              String value = operationalResponse.getHeaders().getFirst(name);
+              if (value != null) {
+                response.setHeader(name, value);
+              }
+            }
+            StreamUtils.copy(operationalResponse.getBody(), response.getOutputStream());
+            return null;
+          });
+    } catch (HttpStatusCodeException e) {
+      // Unknown snapshot; nothing has been written yet
+      response.setStatus(e.getStatusCode().value());
+    }
+  }
+
   @Override
   public byte[] downloadSnapshotDataset(Long snapshotId) {
     log.info("REST Service: Downloading snapshot dataset: snapshotId={}", snapshotId);
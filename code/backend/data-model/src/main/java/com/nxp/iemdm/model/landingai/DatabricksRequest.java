@@ -15,4 +15,7 @@ public class DatabricksRequest {
   private List<String> zipFilenames;
 
   private String zipPath;
+
+  /** Volumes of zipFilenames that were already uploaded while the dataset was being written */
+  private List<String> uploadedZipFilenames;
 }
@@ -53,8 +53,9 @@ public class Image implements Serializable {
   @Column(name = "is_labeled")
   private Boolean isLabeled = false;
 
-  @Column(name = "thumbnail_image")
-  private byte[] thumbnailImage;
+  // Stored in la_images_thumbnail (see ImageThumbnail) so that loading images does not load the
+  // thumbnail bytes; only filled in where a response needs to carry the thumbnail
+  @Transient private byte[] thumbnailImage;
 
   @Column(name = "thumbnail_width_ratio")
   private Double thumbnailWidthRatio;
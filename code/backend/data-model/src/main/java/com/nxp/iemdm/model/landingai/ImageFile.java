@@ -26,9 +26,18 @@ public class ImageFile implements Serializable {
   @Column(name = "file_name", length = 255)
   private String fileName;
 
-  @Column(name = "image_file_stream", nullable = false, columnDefinition = "bytea")
+  /** File content; null when the content is kept by another storage backend */
+  @Column(name = "image_file_stream", columnDefinition = "bytea")
   private byte[] imageFileStream;
 
+  /** Storage backend holding the content ("db" or "filesystem") */
+  @Column(name = "storage_backend", length = 16, nullable = false)
+  private String storageBackend = "db";
+
+  /** SHA-256 of the file content (hex), unique; identical uploads share one row */
+  @Column(name = "content_hash", length = 64, unique = true)
+  private String contentHash;
+
   @Column(name = "legacy_image_id")
   private Long legacyImageId;
 
@@ -0,0 +1,28 @@
+package com.nxp.iemdm.model.landingai;
+
+import jakarta.persistence.*;
+import java.io.Serial;
+import java.io.Serializable;
+import lombok.*;
+
+/**
+ * JPEG thumbnail of an image. Kept in its own table so that loading {@link Image} rows (listing,
+ * split assignment, snapshots) does not drag the thumbnail bytes along.
+ */
+@Getter
+@Setter
+@ToString(exclude = "thumbnailImage")
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "la_images_thumbnail")
+public class ImageThumbnail implements Serializable {
+  @Serial private static final long serialVersionUID = 1L;
+
+  @Id
+  @Column(name = "image_id")
+  private Long imageId;
+
+  @Column(name = "thumbnail_image", nullable = false, columnDefinition = "bytea")
+  private byte[] thumbnailImage;
+}
@@ -5,14 +5,19 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
 
-/** Entity representing a snapshot of an image record. Maps to the la_images_ss table. */
+/**
+ * Entity representing a snapshot of an image record. Maps to the la_images_ss view, which resolves
+ * the image versions (la_images_ver) of a snapshot; rows are written by the snapshot trigger only.
+ */
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Immutable
 @Table(name = "la_images_ss")
 @IdClass(SnapshotImageId.class)
 public class SnapshotImage implements Serializable {
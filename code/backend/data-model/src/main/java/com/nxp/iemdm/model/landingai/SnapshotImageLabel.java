@@ -5,9 +5,11 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
 
 /**
- * Entity representing a snapshot of an image label record. Maps to the la_images_label_ss table.
+ * Entity representing a snapshot of an image label record. Maps to the la_images_label_ss view
+ * over la_images_label_ver; rows are written by the snapshot trigger only.
  */
 @Getter
 @Setter
@@ -15,6 +17,7 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Immutable
 @Table(name = "la_images_label_ss")
 @IdClass(SnapshotImageLabelId.class)
 public class SnapshotImageLabel implements Serializable {
@@ -5,10 +5,11 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
 
 /**
  * Entity representing a snapshot of an image metadata record. Maps to the la_images_metadata_ss
- * table.
+ * view over la_images_metadata_ver; rows are written by the snapshot trigger only.
  */
 @Getter
 @Setter
@@ -16,6 +17,7 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Immutable
 @Table(name = "la_images_metadata_ss")
 @IdClass(SnapshotImageMetadataId.class)
 public class SnapshotImageMetadata implements Serializable {
@@ -5,14 +5,19 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
 
-/** Entity representing a snapshot of an image tag record. Maps to the la_images_tag_ss table. */
+/**
+ * Entity representing a snapshot of an image tag record. Maps to the la_images_tag_ss view over
+ * la_images_tag_ver; rows are written by the snapshot trigger only.
+ */
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Immutable
 @Table(name = "la_images_tag_ss")
 @IdClass(SnapshotImageTagId.class)
 public class SnapshotImageTag implements Serializable {
@@ -78,6 +78,17 @@ public class DatabricksConfig {
     return new ResultsConfig(localDownloadPath);
   }
 
+  /** Creates the Upload configuration bean for dataset volume uploads */
+  @Bean
+  public UploadConfig databricksUploadConfig(
+      @Value("${databricks.upload.base-url:}") String baseUrl,
+      @Value("${databricks.upload.max-concurrency:4}") int maxConcurrency,
+      @Value("${databricks.upload.max-attempts:3}") int maxAttempts,
+      @Value("${databricks.upload.retry-delay-ms:2000}") long retryDelayMs,
+      @Value("${databricks.upload.buffer-size-kb:4096}") int bufferSizeKb) {
+    return new UploadConfig(baseUrl, maxConcurrency, maxAttempts, retryDelayMs, bufferSizeKb);
+  }
+
   /** Creates the main Databricks configuration bean */
   @Bean
   public DatabricksProperties databricksProperties(
@@ -152,6 +163,17 @@ public class DatabricksConfig {
     private String localDownloadPath;
   }
 
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class UploadConfig {
+    private String baseUrl; // Files API host, defaults to the workspace URL when empty
+    private int maxConcurrency;
+    private int maxAttempts;
+    private long retryDelayMs;
+    private int bufferSizeKb;
+  }
+
   /** Main properties holder with convenience methods */
   @Data
   @NoArgsConstructor
@@ -3,9 +3,17 @@ package com.nxp.iemdm.mdminterface.controller.landingai;
 import com.nxp.iemdm.mdminterface.dto.request.*;
 import com.nxp.iemdm.mdminterface.dto.response.*;
 import com.nxp.iemdm.mdminterface.service.landingai.DatabricksService;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -47,6 +55,50 @@ public class DatabricksController {
     }
   }
 
+  /**
+   * Upload finished dataset volumes before the training is submitted POST
+   * /infc/databricks/training/volumes
+   */
+  @PostMapping(
+      value = "/training/volumes",
+      produces = "application/json",
+      consumes = "application/json")
+  public ResponseEntity<TrainingDataResponse> uploadTrainingVolumes(
+      @RequestBody TrainingDataRequest request) {
+    log.info(
+        "Received training volume upload - trackId: {}, zipFilenames: {}, zipPath: {}",
+        request.getTrackId(),
+        request.getZipFilenames(),
+        request.getZipPath());
+
+    try {
+      TrainingDataResponse response = databricksService.uploadTrainingVolumes(request);
+      if (response.getErrorMessage() != null && !response.getErrorMessage().isEmpty()) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+      }
+      return ResponseEntity.ok(response);
+    } catch (Exception e) {
+      log.error("Error uploading training volumes: {}", e.getMessage(), e);
+      TrainingDataResponse errorResponse =
+          new TrainingDataResponse("Error: " + e.getMessage(), request.getTrackId());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    }
+  }
+
+  /**
+   * Progress of the volume uploads of a training record GET
+   * /infc/databricks/training/volumes/progress
+   */
+  @GetMapping(value = "/training/volumes/progress", produces = "application/json")
+  public ResponseEntity<VolumeUploadProgressResponse> getVolumeUploadProgress(
+      @RequestParam String trackId) {
+    VolumeUploadProgressResponse response = databricksService.getVolumeUploadProgress(trackId);
+    if (response == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(response);
+  }
+
   // ==========================================================================
   // DEPRECATED: Old endpoint that returns parsed JSON data directly.
   // Replaced by /training/results/files which returns file paths instead.
@@ -150,23 +202,36 @@ public class DatabricksController {
   }
 
   /**
-   * Read file content from local file system and return as JSON. GET
+   * Stream file content from local file system as JSON, without reading the file into memory. GET
    * /infc/databricks/file/content?path=xxx
    */
   @GetMapping(value = "/file/content", produces = "application/json")
-  public ResponseEntity<String> getFileContent(@RequestParam String path) {
+  public ResponseEntity<Resource> getFileContent(@RequestParam String path) {
     log.info("Reading file content from path: {}", path);
 
     try {
-      String content = databricksService.readFileContent(path);
-      return ResponseEntity.ok(content);
+      Path file = databricksService.resolveLocalFile(path);
+      return ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_JSON)
+          .contentLength(Files.size(file))
+          .body(new FileSystemResource(file));
+    } catch (NoSuchFileException e) {
+      log.error("File not found: {}", path);
+      return errorContent(HttpStatus.NOT_FOUND, "File not found: " + path);
     } catch (Exception e) {
       log.error("Error reading file content from path {}: {}", path, e.getMessage(), e);
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body("{\"error\": \"Failed to read file: " + e.getMessage() + "\"}");
+      return errorContent(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Failed to read file: " + e.getMessage());
     }
   }
 
+  private static ResponseEntity<Resource> errorContent(HttpStatus status, String message) {
+    String body = "{\"error\": \"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    return ResponseEntity.status(status)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(new ByteArrayResource(body.getBytes(StandardCharsets.UTF_8)));
+  }
+
   /** Get download URL for a trained model GET /api/databricks/model/download */
   @GetMapping(value = "/model/download", produces = "application/json")
   public ResponseEntity<DownloadModelResponse> downloadModel(
@@ -8,7 +8,8 @@ import lombok.NoArgsConstructor;
 
 /**
  * Request for submitting training data. Supports multiple zip files for large datasets that need to
- * be split (>5GB limit per file).
+ * be split (>5GB limit per file). Each zip file is a self-contained volume of the dataset, volumes
+ * listed in uploadedZipFilenames were uploaded ahead of the submit and are not uploaded again.
  */
 @Data
 @NoArgsConstructor
@@ -24,6 +25,9 @@ public class TrainingDataRequest {
   @JsonProperty("zipPath")
   private String zipPath; // e.g., "C:/path/to/files/"
 
+  @JsonProperty("uploadedZipFilenames")
+  private List<String> uploadedZipFilenames; // volumes already uploaded, skipped on submit
+
   /** Gets the first zip filename (for mock processing or single-file scenarios). */
   public String getFirstZipFilename() {
     if (zipFilenames != null && !zipFilenames.isEmpty()) {
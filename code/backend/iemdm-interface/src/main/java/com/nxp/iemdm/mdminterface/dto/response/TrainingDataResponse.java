@@ -1,6 +1,7 @@
 package com.nxp.iemdm.mdminterface.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,6 +17,9 @@ public class TrainingDataResponse {
   /** Databricks run ID returned when a job is submitted. Used to poll job status. */
   private Long runId;
 
+  /** SHA-256 (hex) of the volumes uploaded by this request, by file name */
+  private Map<String, String> volumeChecksums;
+
   /** Constructor for mock responses (trackId only, no runId) */
   public TrainingDataResponse(String errorMessage, String trackId) {
     this.errorMessage = errorMessage;
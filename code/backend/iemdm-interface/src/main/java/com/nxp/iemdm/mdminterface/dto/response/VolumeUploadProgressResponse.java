@@ -0,0 +1,54 @@
+package com.nxp.iemdm.mdminterface.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Progress of the dataset volume uploads of one training record. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VolumeUploadProgressResponse {
+
+  /** Track ID of the training record */
+  @JsonProperty("trackId")
+  private String trackId;
+
+  /** UPLOADING, COMPLETED or FAILED */
+  @JsonProperty("status")
+  private String status;
+
+  /** Number of volumes to upload */
+  @JsonProperty("totalVolumes")
+  private int totalVolumes;
+
+  /** Number of volumes uploaded completely */
+  @JsonProperty("uploadedVolumes")
+  private int uploadedVolumes;
+
+  /** Total size of the volumes in bytes */
+  @JsonProperty("totalBytes")
+  private long totalBytes;
+
+  /** Bytes sent so far, excluding attempts that were retried */
+  @JsonProperty("uploadedBytes")
+  private long uploadedBytes;
+
+  /** Number of retried attempts over all volumes */
+  @JsonProperty("retries")
+  private int retries;
+
+  /** SHA-256 (hex) of every volume uploaded so far, by file name */
+  @JsonProperty("checksums")
+  private Map<String, String> checksums;
+
+  /** Error message if the upload failed */
+  @JsonProperty("error")
+  private String error;
+}
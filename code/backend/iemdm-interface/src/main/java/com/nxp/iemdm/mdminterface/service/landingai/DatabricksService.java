@@ -2,6 +2,8 @@ package com.nxp.iemdm.mdminterface.service.landingai;
 
 import com.nxp.iemdm.mdminterface.dto.request.*;
 import com.nxp.iemdm.mdminterface.dto.response.*;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * Service interface for Databricks operations. Implementations can be Mock or Real based on
@@ -12,6 +14,20 @@ public interface DatabricksService {
   /** Submit training data to Databricks for model training */
   TrainingDataResponse submitTraining(TrainingDataRequest request);
 
+  /**
+   * Upload dataset volumes ahead of {@link #submitTraining}, without starting a job. Lets the
+   * caller upload finished volumes while the rest of the dataset is still being written.
+   */
+  TrainingDataResponse uploadTrainingVolumes(TrainingDataRequest request);
+
+  /**
+   * Progress of the volume uploads of a training record, started by {@link #submitTraining} or
+   * {@link #uploadTrainingVolumes}.
+   *
+   * @return the progress, or null if no upload is known for the track ID
+   */
+  VolumeUploadProgressResponse getVolumeUploadProgress(String trackId);
+
   // DEPRECATED: Old method that returns parsed JSON data directly.
   // Replaced by getTrainingResultsAsFilePaths() which returns file paths.
   // Kept for backward compatibility reference. Remove once confirmed no longer needed.
@@ -42,10 +58,12 @@ public interface DatabricksService {
   DeleteModelResponse deleteModel(DeleteModelRequest request);
 
   /**
-   * Read file content from local file system.
+   * Resolve a downloaded result file on the local file system. The caller streams the file rather
+   * than reading it into memory.
    *
-   * @param filePath Local file path to read
-   * @return File content as String (JSON format)
+   * @param filePath Local file path, relative paths are resolved from the working directory
+   * @return the absolute path of the file
+   * @throws java.nio.file.NoSuchFileException if the file does not exist
    */
-  String readFileContent(String filePath);
+  Path resolveLocalFile(String filePath) throws IOException;
 }
@@ -3,7 +3,6 @@ package com.nxp.iemdm.mdminterface.service.landingai;
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.DatabricksConfig;
 import com.databricks.sdk.service.files.DirectoryEntry;
-import com.databricks.sdk.service.files.UploadRequest;
 import com.databricks.sdk.service.jobs.Run;
 import com.databricks.sdk.service.jobs.RunLifeCycleState;
 import com.databricks.sdk.service.jobs.RunNow;
@@ -17,15 +16,18 @@ import com.nxp.iemdm.mdminterface.configuration.landingai.DatabricksConfig.Works
 import com.nxp.iemdm.mdminterface.dto.request.*;
 import com.nxp.iemdm.mdminterface.dto.response.*;
 import jakarta.annotation.PostConstruct;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,8 +43,8 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class DatabricksServiceImpl implements DatabricksService {
 
-  // Threshold for using direct HTTP upload (100MB) - SDK doesn't set Content-Length for streams
-  private static final long LARGE_FILE_THRESHOLD = 100L * 1024 * 1024;
+  // Suffix of the file holding the volume version of a downloaded result file
+  private static final String VERSION_SUFFIX = ".version";
 
   @Autowired private WorkspaceConfig workspaceConfig;
 
@@ -52,6 +54,8 @@ public class DatabricksServiceImpl implements DatabricksService {
 
   @Autowired private TrainingConfig trainingConfig;
 
+  @Autowired private VolumeUploader volumeUploader;
+
   private WorkspaceClient client;
 
   @PostConstruct
@@ -84,56 +88,23 @@ public class DatabricksServiceImpl implements DatabricksService {
         return new TrainingDataResponse("No zip files provided", request.getTrackId());
       }
 
-      // Upload all zip files sequentially
-      int totalFiles = request.getZipFilenames().size();
-      int uploadedCount = 0;
-
-      for (String zipFilename : request.getZipFilenames()) {
-        uploadedCount++;
-        log.info("[DATABRICKS] Uploading file {}/{}: {}", uploadedCount, totalFiles, zipFilename);
-
-        // Build local zip file path
-        String localZipPath = request.getZipPath() + zipFilename;
-        Path zipFile = Paths.get(localZipPath);
-
-        if (!Files.exists(zipFile)) {
-          log.error("[DATABRICKS] Zip file not found: {}", localZipPath);
-          return new TrainingDataResponse(
-              "Zip file not found: " + localZipPath, request.getTrackId());
-        }
-
-        // Get file size for logging
-        long fileSize = Files.size(zipFile);
-        log.info(
-            "[DATABRICKS] Zip file size: {} bytes ({} MB)", fileSize, fileSize / (1024 * 1024));
-
-        // Build destination path in Databricks volume
-        String destinationPath = volumeConfig.getVolumePath() + "/" + zipFilename;
-        log.info("[DATABRICKS] Uploading zip to volume: {}", destinationPath);
-
-        // Choose upload method based on file size
-        // SDK doesn't set Content-Length header for streams, causing issues with large files
-        if (fileSize > LARGE_FILE_THRESHOLD) {
-          log.info(
-              "[DATABRICKS] Using direct HTTP upload for large file (>{} MB)",
-              LARGE_FILE_THRESHOLD / (1024 * 1024));
-          uploadFileWithContentLength(zipFile, destinationPath, fileSize);
-        } else {
-          log.info("[DATABRICKS] Using SDK upload for small file");
-          try (FileInputStream fis = new FileInputStream(zipFile.toFile())) {
-            UploadRequest uploadRequest =
-                new UploadRequest().setFilePath(destinationPath).setContents(fis);
-            client.files().upload(uploadRequest);
-          }
-        }
-
-        log.info("[DATABRICKS] Zip file uploaded successfully to: {}", destinationPath);
+      // Upload the volumes that were not already uploaded while the dataset was written
+      List<String> pendingFilenames = new ArrayList<>(request.getZipFilenames());
+      if (request.getUploadedZipFilenames() != null) {
+        pendingFilenames.removeAll(request.getUploadedZipFilenames());
+      }
+      Map<String, String> checksums = new LinkedHashMap<>();
+      String uploadError =
+          uploadZipFiles(request.getTrackId(), request.getZipPath(), pendingFilenames, checksums);
+      if (uploadError != null) {
+        return new TrainingDataResponse(uploadError, request.getTrackId());
       }
 
       log.info(
-          "[DATABRICKS] All {} files uploaded successfully for trackId: {}",
-          totalFiles,
-          request.getTrackId());
+          "[DATABRICKS] All {} files uploaded successfully for trackId: {} ({} uploaded ahead)",
+          request.getZipFilenames().size(),
+          request.getTrackId(),
+          request.getZipFilenames().size() - pendingFilenames.size());
 
       // Submit Databricks job using runNow on existing job
       log.info(
@@ -156,6 +127,7 @@ public class DatabricksServiceImpl implements DatabricksService {
 
       TrainingDataResponse response = new TrainingDataResponse("", request.getTrackId());
       response.setRunId(runId);
+      response.setVolumeChecksums(checksums.isEmpty() ? null : checksums);
       return response;
 
     } catch (IOException e) {
@@ -167,64 +139,64 @@ public class DatabricksServiceImpl implements DatabricksService {
     }
   }
 
-  /**
-   * Upload file using direct HTTP PUT with explicit Content-Length header. This is needed for large
-   * files because the SDK doesn't set Content-Length for streams. The Databricks Files API has a
-   * 5GB limit per file.
-   */
-  private void uploadFileWithContentLength(Path localFile, String volumePath, long fileSize)
-      throws IOException {
-    // Build the API URL: https://<workspace>/api/2.0/fs/files/<volume_path>
-    String apiUrl = workspaceConfig.getUrl() + "/api/2.0/fs/files" + volumePath;
-    log.info("[DATABRICKS] Upload URL: {}", apiUrl);
+  @Override
+  public TrainingDataResponse uploadTrainingVolumes(TrainingDataRequest request) {
+    log.info(
+        "[DATABRICKS] Uploading training volumes - trackId: {}, zipFilenames: {}",
+        request.getTrackId(),
+        request.getZipFilenames());
 
-    URL url = new URL(apiUrl);
-    HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+    if (request.getZipFilenames() == null || request.getZipFilenames().isEmpty()) {
+      return new TrainingDataResponse("No zip files provided", request.getTrackId());
+    }
 
     try {
-      conn.setRequestMethod("PUT");
-      conn.setDoOutput(true);
-      conn.setRequestProperty("Authorization", "Bearer " + workspaceConfig.getToken());
-      conn.setRequestProperty("Content-Type", "application/octet-stream");
-      conn.setFixedLengthStreamingMode(fileSize); // This sets Content-Length header
-      conn.setConnectTimeout(30000); // 30 seconds connect timeout
-      conn.setReadTimeout(0); // No read timeout for large uploads
-
-      // Stream the file content
-      try (FileInputStream fis = new FileInputStream(localFile.toFile());
-          OutputStream os = conn.getOutputStream()) {
-        byte[] buffer = new byte[8192];
-        int bytesRead;
-        long totalWritten = 0;
-        long lastLogTime = System.currentTimeMillis();
-
-        while ((bytesRead = fis.read(buffer)) != -1) {
-          os.write(buffer, 0, bytesRead);
-          totalWritten += bytesRead;
-
-          // Log progress every 30 seconds
-          long now = System.currentTimeMillis();
-          if (now - lastLogTime > 30000) {
-            double percent = (totalWritten * 100.0) / fileSize;
-            log.info(
-                "[DATABRICKS] Upload progress: {}/{} bytes ({}%)",
-                totalWritten, fileSize, String.format("%.1f", percent));
-            lastLogTime = now;
-          }
-        }
-      }
+      Map<String, String> checksums = new LinkedHashMap<>();
+      String uploadError =
+          uploadZipFiles(
+              request.getTrackId(), request.getZipPath(), request.getZipFilenames(), checksums);
+      TrainingDataResponse response =
+          new TrainingDataResponse(uploadError != null ? uploadError : "", request.getTrackId());
+      response.setVolumeChecksums(checksums.isEmpty() ? null : checksums);
+      return response;
+    } catch (IOException e) {
+      log.error("[DATABRICKS] IO error uploading training volumes", e);
+      return new TrainingDataResponse("IO error: " + e.getMessage(), request.getTrackId());
+    } catch (Exception e) {
+      log.error("[DATABRICKS] Error uploading training volumes to Databricks", e);
+      return new TrainingDataResponse("Error: " + e.getMessage(), request.getTrackId());
+    }
+  }
 
-      int responseCode = conn.getResponseCode();
-      if (responseCode != 200 && responseCode != 204) {
-        String errorMsg = new String(conn.getErrorStream().readAllBytes());
-        throw new IOException("Upload failed with HTTP " + responseCode + ": " + errorMsg);
+  /**
+   * Upload zip files from the local zip path into the Databricks volume. The volumes are sent
+   * concurrently by the {@link VolumeUploader}, failed volumes are retried.
+   *
+   * @param checksums receives the SHA-256 of every uploaded volume by file name
+   * @return an error message if a file does not exist, null if all files were uploaded
+   */
+  private String uploadZipFiles(
+      String trackId, String zipPath, List<String> zipFilenames, Map<String, String> checksums)
+      throws IOException {
+    for (String zipFilename : zipFilenames) {
+      Path zipFile = Paths.get(zipPath + zipFilename);
+      if (!Files.exists(zipFile)) {
+        log.error("[DATABRICKS] Zip file not found: {}", zipFile);
+        return "Zip file not found: " + zipPath + zipFilename;
       }
+    }
+    if (zipFilenames.isEmpty()) {
+      return null;
+    }
 
-      log.info("[DATABRICKS] Upload completed with HTTP {}", responseCode);
+    checksums.putAll(
+        volumeUploader.upload(trackId, zipPath, zipFilenames, volumeConfig.getVolumePath()));
+    return null;
+  }
 
-    } finally {
-      conn.disconnect();
-    }
+  @Override
+  public VolumeUploadProgressResponse getVolumeUploadProgress(String trackId) {
+    return volumeUploader.getProgress(trackId);
   }
 
   // DEPRECATED: Old method replaced by getTrainingResultsAsFilePaths().
@@ -347,11 +319,12 @@ public class DatabricksServiceImpl implements DatabricksService {
           String sourcePath = sourceDir + "/" + fileName;
           Path localPath = localDir.resolve(fileName);
 
-          log.info("[DATABRICKS] Downloading {} to {}", sourcePath, localPath);
-          downloadFileFromVolume(sourcePath, localPath);
-
+          if (downloadFileFromVolume(file, sourcePath, localPath)) {
+            log.info("[DATABRICKS] Downloaded {} to {}", sourcePath, localPath);
+          } else {
+            log.info("[DATABRICKS] {} unchanged, using cached {}", sourcePath, localPath);
+          }
           downloadedPaths.put(fieldName, localPath.toString());
-          log.info("[DATABRICKS] Downloaded {} successfully", fileName);
         }
       }
 
@@ -384,18 +357,53 @@ public class DatabricksServiceImpl implements DatabricksService {
     }
   }
 
-  /** Download a file from Databricks volume to local path using SDK. */
-  private void downloadFileFromVolume(String volumePath, Path localPath) throws IOException {
+  /**
+   * Download a file from Databricks volume to local path using SDK, unless the local copy is of the
+   * same version. The version of a file is its size and modification time as listed in the volume,
+   * kept in a {@code .version} file next to the local copy. The content is streamed to a temporary
+   * file that is moved into place when complete, so a failed download never leaves a truncated
+   * copy behind and the heap use does not depend on the file size.
+   *
+   * @return true if the file was downloaded, false if the local copy was current
+   */
+  private boolean downloadFileFromVolume(DirectoryEntry entry, String volumePath, Path localPath)
+      throws IOException {
+    String version = fileVersion(entry);
+    Path versionFile = localPath.resolveSibling(localPath.getFileName() + VERSION_SUFFIX);
+    if (version != null
+        && Files.exists(localPath)
+        && Files.exists(versionFile)
+        && version.equals(Files.readString(versionFile, StandardCharsets.UTF_8))
+        && (entry.getFileSize() == null || entry.getFileSize() == Files.size(localPath))) {
+      return false;
+    }
+
+    Path tempFile = localPath.resolveSibling(localPath.getFileName() + ".part");
     try {
-      var downloadResponse = client.files().download(volumePath);
-      byte[] content = downloadResponse.getContents().readAllBytes();
-      Files.write(localPath, content);
+      Files.deleteIfExists(versionFile);
+      try (InputStream in = client.files().download(volumePath).getContents()) {
+        Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.move(tempFile, localPath, StandardCopyOption.REPLACE_EXISTING);
+      if (version != null) {
+        Files.writeString(versionFile, version, StandardCharsets.UTF_8);
+      }
+      return true;
     } catch (Exception e) {
+      Files.deleteIfExists(tempFile);
       throw new IOException(
           "Failed to download file from " + volumePath + ": " + e.getMessage(), e);
     }
   }
 
+  /** Version of a volume file, or null if the listing has neither size nor modification time */
+  private static String fileVersion(DirectoryEntry entry) {
+    if (entry.getFileSize() == null && entry.getLastModified() == null) {
+      return null;
+    }
+    return entry.getFileSize() + ":" + entry.getLastModified();
+  }
+
   @Override
   public TrainingDataResponse testModel(ModelTestRequest request) {
     log.info(
@@ -410,47 +418,18 @@ public class DatabricksServiceImpl implements DatabricksService {
         return new TrainingDataResponse("No zip files provided", request.getTrackId());
       }
 
-      // Upload all zip files sequentially (same as submitTraining)
-      int totalFiles = request.getZipFilenames().size();
-      int uploadedCount = 0;
-
-      for (String zipFilename : request.getZipFilenames()) {
-        uploadedCount++;
-        log.info(
-            "[DATABRICKS] Uploading test file {}/{}: {}", uploadedCount, totalFiles, zipFilename);
-
-        String localZipPath = request.getZipPath() + zipFilename;
-        Path zipFile = Paths.get(localZipPath);
-
-        if (!Files.exists(zipFile)) {
-          log.error("[DATABRICKS] Zip file not found: {}", localZipPath);
-          return new TrainingDataResponse(
-              "Zip file not found: " + localZipPath, request.getTrackId());
-        }
-
-        long fileSize = Files.size(zipFile);
-        log.info(
-            "[DATABRICKS] Zip file size: {} bytes ({} MB)", fileSize, fileSize / (1024 * 1024));
-
-        String destinationPath = volumeConfig.getVolumePath() + "/" + zipFilename;
-        log.info("[DATABRICKS] Uploading zip to volume: {}", destinationPath);
-
-        if (fileSize > LARGE_FILE_THRESHOLD) {
-          uploadFileWithContentLength(zipFile, destinationPath, fileSize);
-        } else {
-          try (FileInputStream fis = new FileInputStream(zipFile.toFile())) {
-            UploadRequest uploadRequest =
-                new UploadRequest().setFilePath(destinationPath).setContents(fis);
-            client.files().upload(uploadRequest);
-          }
-        }
-
-        log.info("[DATABRICKS] Test zip uploaded successfully to: {}", destinationPath);
+      // Upload all zip files concurrently (same as submitTraining)
+      Map<String, String> checksums = new LinkedHashMap<>();
+      String uploadError =
+          uploadZipFiles(
+              request.getTrackId(), request.getZipPath(), request.getZipFilenames(), checksums);
+      if (uploadError != null) {
+        return new TrainingDataResponse(uploadError, request.getTrackId());
       }
 
       log.info(
           "[DATABRICKS] All {} test files uploaded for trackId: {}",
-          totalFiles,
+          request.getZipFilenames().size(),
           request.getTrackId());
 
       // Trigger Databricks job using the shared job ID
@@ -474,6 +453,7 @@ public class DatabricksServiceImpl implements DatabricksService {
 
       TrainingDataResponse response = new TrainingDataResponse("", request.getTrackId());
       response.setRunId(runId);
+      response.setVolumeChecksums(checksums.isEmpty() ? null : checksums);
       return response;
 
     } catch (IOException e) {
@@ -586,11 +566,12 @@ public class DatabricksServiceImpl implements DatabricksService {
           String sourcePath = sourceDir + "/" + fileName;
           Path localPath = localDir.resolve(fileName);
 
-          log.info("[DATABRICKS] Downloading {} to {}", sourcePath, localPath);
-          downloadFileFromVolume(sourcePath, localPath);
-
+          if (downloadFileFromVolume(file, sourcePath, localPath)) {
+            log.info("[DATABRICKS] Downloaded {} to {}", sourcePath, localPath);
+          } else {
+            log.info("[DATABRICKS] {} unchanged, using cached {}", sourcePath, localPath);
+          }
           downloadedPaths.put(fieldName, localPath.toString());
-          log.info("[DATABRICKS] Downloaded {} successfully", fileName);
         }
       }
 
@@ -645,35 +626,20 @@ public class DatabricksServiceImpl implements DatabricksService {
   }
 
   @Override
-  public String readFileContent(String filePath) {
-    log.info("[DATABRICKS] Reading file content from: {}", filePath);
+  public Path resolveLocalFile(String filePath) throws IOException {
+    Path path = Paths.get(filePath);
 
-    try {
-      // 將相對路徑轉換為絕對路徑
-      Path path = Paths.get(filePath);
-
-      // 如果是相對路徑，從當前工作目錄解析
-      if (!path.isAbsolute()) {
-        path = Paths.get(System.getProperty("user.dir"), filePath);
-      }
-
-      log.debug("[DATABRICKS] Resolved absolute path: {}", path.toAbsolutePath());
-
-      // 檢查檔案是否存在
-      if (!Files.exists(path)) {
-        log.error("[DATABRICKS] File not found: {}", path.toAbsolutePath());
-        throw new IOException("File not found: " + filePath);
-      }
-
-      // 讀取檔案內容
-      String content = Files.readString(path);
-      log.info("[DATABRICKS] Successfully read file, size: {} bytes", content.length());
+    // Relative paths are resolved from the current working directory
+    if (!path.isAbsolute()) {
+      path = Paths.get(System.getProperty("user.dir"), filePath);
+    }
 
-      return content;
+    log.debug("[DATABRICKS] Resolved absolute path: {}", path.toAbsolutePath());
 
-    } catch (IOException e) {
-      log.error("[DATABRICKS] Error reading file {}: {}", filePath, e.getMessage(), e);
-      throw new RuntimeException("Failed to read file: " + filePath, e);
+    if (!Files.isRegularFile(path)) {
+      log.error("[DATABRICKS] File not found: {}", path.toAbsolutePath());
+      throw new NoSuchFileException(filePath);
     }
+    return path;
   }
 }
@@ -50,18 +50,21 @@ public class MockDatabricksService implements DatabricksService {
         request.getZipPath());
 
     try {
-      String firstZipFilename = request.getFirstZipFilename();
-      if (firstZipFilename == null) {
+      if (request.getFirstZipFilename() == null) {
         log.error("[MOCK] No zip files provided");
         return new TrainingDataResponse("No zip files provided", request.getTrackId());
       }
 
-      String zipFullPath = request.getZipPath() + firstZipFilename;
-      Path zipFile = Paths.get(zipFullPath);
-
-      if (!Files.exists(zipFile)) {
-        log.error("[MOCK] Zip file not found: {}", zipFullPath);
-        return new TrainingDataResponse("Zip file not found: " + zipFullPath, request.getTrackId());
+      List<Path> zipFiles = new ArrayList<>();
+      for (String zipFilename : request.getZipFilenames()) {
+        String zipFullPath = request.getZipPath() + zipFilename;
+        Path zipFile = Paths.get(zipFullPath);
+        if (!Files.exists(zipFile)) {
+          log.error("[MOCK] Zip file not found: {}", zipFullPath);
+          return new TrainingDataResponse(
+              "Zip file not found: " + zipFullPath, request.getTrackId());
+        }
+        zipFiles.add(zipFile);
       }
 
       // Create temp directory
@@ -69,9 +72,13 @@ public class MockDatabricksService implements DatabricksService {
       Files.createDirectories(tempBaseDir);
       Path tempDir = tempBaseDir.resolve(request.getTrackId() + "_" + System.currentTimeMillis());
       Files.createDirectories(tempDir);
-      log.info("[MOCK] Extracting zip to: {}", tempDir.toAbsolutePath());
+      log.info(
+          "[MOCK] Extracting {} zip file(s) to: {}", zipFiles.size(), tempDir.toAbsolutePath());
 
-      unzip(zipFile, tempDir);
+      // Every volume is a self-contained archive, together they form the dataset
+      for (Path zipFile : zipFiles) {
+        unzip(zipFile, tempDir);
+      }
 
       Path datasetRoot = findDatasetRoot(tempDir);
       log.info("[MOCK] Dataset root detected at: {}", datasetRoot.toAbsolutePath());
@@ -154,6 +161,22 @@ public class MockDatabricksService implements DatabricksService {
     }
   }
 
+  @Override
+  public TrainingDataResponse uploadTrainingVolumes(TrainingDataRequest request) {
+    // Nothing to upload in mock mode, submitTraining reads the volumes from the local zip path
+    log.info(
+        "[MOCK] Skipping upload of training volumes - trackId: {}, zipFilenames: {}",
+        request.getTrackId(),
+        request.getZipFilenames());
+    return new TrainingDataResponse("", request.getTrackId());
+  }
+
+  @Override
+  public VolumeUploadProgressResponse getVolumeUploadProgress(String trackId) {
+    // Volumes are never uploaded in mock mode
+    return null;
+  }
+
   /** Process a dataset split (train/val/test) and generate predictions. */
   private List<Map<String, Object>> processDatasetSplit(
       Path datasetRoot, String split, List<String> classNames) throws IOException {
@@ -834,36 +857,23 @@ public class MockDatabricksService implements DatabricksService {
   }
 
   @Override
-  public String readFileContent(String filePath) {
-    log.info("[MOCK] Reading file content from: {}", filePath);
-
-    try {
-      // Convert relative path to absolute path
-      Path path = Paths.get(filePath);
+  public Path resolveLocalFile(String filePath) throws IOException {
+    // Convert relative path to absolute path
+    Path path = Paths.get(filePath);
 
-      // If relative path, resolve from current working directory
-      if (!path.isAbsolute()) {
-        path = Paths.get(System.getProperty("user.dir"), filePath);
-      }
-
-      log.debug("[MOCK] Resolved absolute path: {}", path.toAbsolutePath());
-
-      // Check if file exists
-      if (!Files.exists(path)) {
-        log.error("[MOCK] File not found: {}", path.toAbsolutePath());
-        throw new IOException("File not found: " + filePath);
-      }
-
-      // Read file content
-      String content = Files.readString(path);
-      log.info("[MOCK] Successfully read file, size: {} bytes", content.length());
+    // If relative path, resolve from current working directory
+    if (!path.isAbsolute()) {
+      path = Paths.get(System.getProperty("user.dir"), filePath);
+    }
 
-      return content;
+    log.debug("[MOCK] Resolved absolute path: {}", path.toAbsolutePath());
 
-    } catch (IOException e) {
-      log.error("[MOCK] Error reading file {}: {}", filePath, e.getMessage(), e);
-      throw new RuntimeException("Failed to read file: " + filePath, e);
+    // Check if file exists
+    if (!Files.isRegularFile(path)) {
+      log.error("[MOCK] File not found: {}", path.toAbsolutePath());
+      throw new NoSuchFileException(filePath);
     }
+    return path;
   }
 
   // ============ Helper Methods ============
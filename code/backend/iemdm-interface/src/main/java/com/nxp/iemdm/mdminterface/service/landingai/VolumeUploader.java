@@ -0,0 +1,452 @@
+package com.nxp.iemdm.mdminterface.service.landingai;
+
+import com.nxp.iemdm.mdminterface.configuration.landingai.DatabricksConfig.UploadConfig;
+import com.nxp.iemdm.mdminterface.configuration.landingai.DatabricksConfig.WorkspaceConfig;
+import com.nxp.iemdm.mdminterface.dto.response.VolumeUploadProgressResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Uploads the ZIP volumes of a dataset to a Unity Catalog volume through the Files API ({@code PUT
+ * /api/2.0/fs/files/<path>}). Volumes are sent concurrently, each over its own connection with an
+ * explicit Content-Length, read from a {@link FileChannel} into a direct buffer of the upload
+ * thread. A volume whose upload fails on an I/O error, 429 or 5xx is sent again with exponential
+ * backoff. The SHA-256 of every volume is computed while it is sent, and the progress of each
+ * training record, over all its uploads, can be queried while its volumes are uploading.
+ *
+ * <p>The Files API host is {@code databricks.upload.base-url}, or the workspace URL when empty, so
+ * the uploads can be pointed at a local stand-in that implements the PUT.
+ */
+@Component
+@ConditionalOnProperty(name = "databricks.mode", havingValue = "real")
+@Slf4j
+public class VolumeUploader {
+
+  private static final String FILES_API = "/api/2.0/fs/files";
+
+  /** How long the progress of a finished upload stays available */
+  private static final long PROGRESS_RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+
+  private static final long PROGRESS_LOG_INTERVAL_MS = 30000;
+
+  @Autowired private WorkspaceConfig workspaceConfig;
+
+  @Autowired private UploadConfig uploadConfig;
+
+  private final Map<String, UploadProgress> progressByTrackId = new ConcurrentHashMap<>();
+
+  private ExecutorService executor;
+
+  /** Read buffer of every upload thread, allocated once per thread */
+  private ThreadLocal<ByteBuffer> buffers;
+
+  @PostConstruct
+  public void init() {
+    int bufferSize = Math.max(64, uploadConfig.getBufferSizeKb()) * 1024;
+    this.buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(bufferSize));
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, uploadConfig.getMaxConcurrency()),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "volume-upload-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    log.info(
+        "[DATABRICKS] Volume uploader started - host: {}, concurrency: {}, attempts: {}",
+        baseUrl(),
+        uploadConfig.getMaxConcurrency(),
+        uploadConfig.getMaxAttempts());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Upload volumes of a training record into the volume directory and wait until all are done. The
+   * largest volumes are started first so the last one to finish is a small one. When a volume fails
+   * after all attempts, the volumes not yet started are cancelled.
+   *
+   * <p>A training record can upload its volumes in several calls, e.g. while the dataset is still
+   * being written. The progress adds up over the calls, until an upload fails; the next upload
+   * after a failure starts the progress over.
+   *
+   * @param trackId the track ID of the training record, used for progress reporting
+   * @param zipPath local directory of the volumes, ending with a separator
+   * @param zipFilenames file names of the volumes
+   * @param volumePath destination directory in the Unity Catalog volume
+   * @return SHA-256 (hex) of every volume of this call by file name
+   * @throws IOException if a volume could not be read or uploaded
+   */
+  public Map<String, String> upload(
+      String trackId, String zipPath, List<String> zipFilenames, String volumePath)
+      throws IOException {
+    List<Path> files = new ArrayList<>(zipFilenames.size());
+    Map<String, Long> sizes = new LinkedHashMap<>();
+    long totalBytes = 0;
+    for (String zipFilename : zipFilenames) {
+      Path file = Paths.get(zipPath + zipFilename);
+      long size = Files.size(file);
+      sizes.put(file.getFileName().toString(), size);
+      totalBytes += size;
+      files.add(file);
+    }
+    files.sort(Comparator.comparingLong(VolumeUploader::sizeOf).reversed());
+
+    evictFinishedProgress();
+    UploadProgress progress =
+        progressByTrackId.compute(
+            trackId,
+            (id, existing) -> {
+              UploadProgress current =
+                  existing == null || existing.isFailed() ? new UploadProgress() : existing;
+              current.add(sizes);
+              return current;
+            });
+    log.info(
+        "[DATABRICKS] Uploading {} volumes ({} MB) for trackId: {}",
+        files.size(),
+        totalBytes / (1024 * 1024),
+        trackId);
+
+    long started = System.currentTimeMillis();
+    List<Future<?>> futures = new ArrayList<>(files.size());
+    for (Path file : files) {
+      String destination = volumePath + "/" + file.getFileName();
+      futures.add(executor.submit(() -> uploadWithRetry(trackId, file, destination, progress)));
+    }
+
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      Throwable cause = e.getCause();
+      progress.fail(cause.getMessage());
+      throw cause instanceof IOException ioe ? ioe : new IOException(cause.getMessage(), cause);
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      progress.fail("Upload interrupted");
+      throw new IOException("Upload interrupted", e);
+    }
+
+    progress.complete();
+    long elapsed = Math.max(1, System.currentTimeMillis() - started);
+    log.info(
+        "[DATABRICKS] Uploaded {} volumes for trackId: {} in {} s ({} MB/s)",
+        files.size(),
+        trackId,
+        elapsed / 1000,
+        String.format("%.1f", totalBytes / (1024.0 * 1024) / (elapsed / 1000.0)));
+    return progress.sortedChecksums(sizes.keySet());
+  }
+
+  /**
+   * Progress of the uploads of a training record.
+   *
+   * @return the progress, or null if nothing was uploaded for the track ID recently
+   */
+  public VolumeUploadProgressResponse getProgress(String trackId) {
+    UploadProgress progress = progressByTrackId.get(trackId);
+    return progress == null ? null : progress.toResponse(trackId);
+  }
+
+  private Void uploadWithRetry(
+      String trackId, Path file, String destination, UploadProgress progress) throws IOException {
+    int maxAttempts = Math.max(1, uploadConfig.getMaxAttempts());
+    for (int attempt = 1; ; attempt++) {
+      AtomicLong sent = new AtomicLong();
+      try {
+        String checksum = put(file, destination, progress, sent);
+        progress.volumeDone(file.getFileName().toString(), checksum);
+        log.info(
+            "[DATABRICKS] Uploaded {} for trackId: {} (sha256 {})", destination, trackId, checksum);
+        return null;
+      } catch (IOException e) {
+        progress.rewind(sent.get());
+        if (attempt >= maxAttempts || !isRetryable(e) || Thread.currentThread().isInterrupted()) {
+          throw new IOException(
+              String.format(
+                  "Upload of %s failed after %d attempt(s): %s",
+                  file.getFileName(), attempt, e.getMessage()),
+              e);
+        }
+        long delay = uploadConfig.getRetryDelayMs() << (attempt - 1);
+        log.warn(
+            "[DATABRICKS] Upload of {} failed (attempt {}/{}), retrying in {} ms: {}",
+            destination,
+            attempt,
+            maxAttempts,
+            delay,
+            e.getMessage());
+        progress.retried();
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Upload of " + file.getFileName() + " interrupted", ie);
+        }
+      }
+    }
+  }
+
+  /**
+   * Send one volume with a single PUT.
+   *
+   * @param sent receives the number of bytes written, so a failed attempt can be taken back out of
+   *     the progress
+   * @return SHA-256 (hex) of the bytes sent
+   */
+  private String put(Path file, String destination, UploadProgress progress, AtomicLong sent)
+      throws IOException {
+    long fileSize = Files.size(file);
+    URL url = new URL(baseUrl() + FILES_API + destination + "?overwrite=true");
+    HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+    MessageDigest digest = sha256();
+
+    try {
+      conn.setRequestMethod("PUT");
+      conn.setDoOutput(true);
+      conn.setRequestProperty("Authorization", "Bearer " + workspaceConfig.getToken());
+      conn.setRequestProperty("Content-Type", "application/octet-stream");
+      conn.setFixedLengthStreamingMode(fileSize);
+      conn.setConnectTimeout(30000);
+      conn.setReadTimeout(0); // No read timeout for large uploads
+
+      ByteBuffer buffer = buffers.get();
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+          OutputStream os = conn.getOutputStream()) {
+        WritableByteChannel out = Channels.newChannel(os);
+        long lastLogTime = System.currentTimeMillis();
+        int bytesRead;
+        while ((bytesRead = channel.read(buffer.clear())) != -1) {
+          if (Thread.currentThread().isInterrupted()) {
+            throw new IOException("Upload cancelled");
+          }
+          buffer.flip();
+          digest.update(buffer);
+          buffer.rewind();
+          while (buffer.hasRemaining()) {
+            out.write(buffer);
+          }
+          progress.sent(bytesRead);
+          long total = sent.addAndGet(bytesRead);
+
+          long now = System.currentTimeMillis();
+          if (now - lastLogTime > PROGRESS_LOG_INTERVAL_MS) {
+            log.info(
+                "[DATABRICKS] Upload progress of {}: {}/{} bytes ({}%)",
+                destination,
+                total,
+                fileSize,
+                String.format("%.1f", total * 100.0 / fileSize));
+            lastLogTime = now;
+          }
+        }
+      }
+
+      int responseCode = conn.getResponseCode();
+      if (responseCode != 200 && responseCode != 201 && responseCode != 204) {
+        throw new HttpStatusException(responseCode, readError(conn));
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } finally {
+      conn.disconnect();
+    }
+  }
+
+  private String baseUrl() {
+    String baseUrl = uploadConfig.getBaseUrl();
+    if (baseUrl == null || baseUrl.isBlank()) {
+      baseUrl = workspaceConfig.getUrl();
+    }
+    return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+  }
+
+  private void evictFinishedProgress() {
+    long cutoff = System.currentTimeMillis() - PROGRESS_RETENTION_MS;
+    progressByTrackId.values().removeIf(progress -> progress.isFinishedBefore(cutoff));
+  }
+
+  private static boolean isRetryable(IOException e) {
+    if (e instanceof HttpStatusException httpError) {
+      return httpError.status == 429 || httpError.status >= 500;
+    }
+    return true;
+  }
+
+  private static String readError(HttpURLConnection conn) throws IOException {
+    try (InputStream errorStream = conn.getErrorStream()) {
+      return errorStream == null
+          ? ""
+          : new String(errorStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static long sizeOf(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /** Non-success HTTP status of a PUT */
+  private static class HttpStatusException extends IOException {
+    private final int status;
+
+    HttpStatusException(int status, String body) {
+      super("HTTP " + status + ": " + body);
+      this.status = status;
+    }
+  }
+
+  /**
+   * Progress of the volumes of one training record over all its uploads, updated by the upload
+   * threads
+   */
+  private static class UploadProgress {
+    private final Map<String, Long> volumeSizes = new ConcurrentHashMap<>();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private final Map<String, String> checksums = new ConcurrentHashMap<>();
+    private volatile String status = "UPLOADING";
+    private volatile String error;
+    private volatile long finishedAt;
+
+    /** Start an upload of volumes by file name; a volume sent again is counted once */
+    void add(Map<String, Long> sizes) {
+      sizes.forEach(
+          (fileName, size) -> {
+            Long previous = volumeSizes.put(fileName, size);
+            if (previous != null && checksums.remove(fileName) != null) {
+              uploadedBytes.addAndGet(-previous);
+            }
+          });
+      activeUploads.incrementAndGet();
+      status = "UPLOADING";
+      finishedAt = 0;
+    }
+
+    void sent(long bytes) {
+      uploadedBytes.addAndGet(bytes);
+    }
+
+    void rewind(long bytes) {
+      uploadedBytes.addAndGet(-bytes);
+    }
+
+    void retried() {
+      retries.incrementAndGet();
+    }
+
+    void volumeDone(String fileName, String checksum) {
+      checksums.put(fileName, checksum);
+    }
+
+    /** Finish an upload; the progress is completed when no other upload is running */
+    void complete() {
+      if (activeUploads.decrementAndGet() == 0 && !isFailed()) {
+        status = "COMPLETED";
+        finishedAt = System.currentTimeMillis();
+      }
+    }
+
+    void fail(String message) {
+      activeUploads.decrementAndGet();
+      error = message;
+      status = "FAILED";
+      finishedAt = System.currentTimeMillis();
+    }
+
+    boolean isFailed() {
+      return "FAILED".equals(status);
+    }
+
+    boolean isFinishedBefore(long cutoff) {
+      return finishedAt != 0 && finishedAt < cutoff;
+    }
+
+    Map<String, String> sortedChecksums() {
+      return sortedChecksums(checksums.keySet());
+    }
+
+    Map<String, String> sortedChecksums(Collection<String> fileNames) {
+      Map<String, String> sorted = new LinkedHashMap<>();
+      fileNames.stream()
+          .sorted()
+          .forEach(
+              name -> {
+                String checksum = checksums.get(name);
+                if (checksum != null) {
+                  sorted.put(name, checksum);
+                }
+              });
+      return sorted;
+    }
+
+    VolumeUploadProgressResponse toResponse(String trackId) {
+      return VolumeUploadProgressResponse.builder()
+          .trackId(trackId)
+          .status(status)
+          .totalVolumes(volumeSizes.size())
+          .uploadedVolumes(checksums.size())
+          .totalBytes(volumeSizes.values().stream().mapToLong(Long::longValue).sum())
+          .uploadedBytes(uploadedBytes.get())
+          .retries(retries.get())
+          .checksums(sortedChecksums())
+          .error(error)
+          .build();
+    }
+  }
+}
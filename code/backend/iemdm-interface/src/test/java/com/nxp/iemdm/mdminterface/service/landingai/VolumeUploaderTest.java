@@ -0,0 +1,166 @@
+package com.nxp.iemdm.mdminterface.service.landingai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nxp.iemdm.mdminterface.configuration.landingai.DatabricksConfig.UploadConfig;
+import com.nxp.iemdm.mdminterface.configuration.landingai.DatabricksConfig.WorkspaceConfig;
+import com.nxp.iemdm.mdminterface.dto.response.VolumeUploadProgressResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Uploads against a local stand-in of the Files API PUT */
+public class VolumeUploaderTest {
+
+  private static final String VOLUME_PATH = "/Volumes/catalog/schema/volume/TR-1";
+
+  @TempDir Path zipDir;
+
+  private HttpServer server;
+  private VolumeUploader uploader;
+
+  /** Bodies received by destination path */
+  private final Map<String, byte[]> received = new ConcurrentHashMap<>();
+
+  /** Status codes to answer before accepting a PUT, by destination path */
+  private final Map<String, Queue<Integer>> failures = new ConcurrentHashMap<>();
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/api/2.0/fs/files", this::handlePut);
+    server.start();
+
+    String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    uploader = new VolumeUploader();
+    ReflectionTestUtils.setField(uploader, "workspaceConfig", new WorkspaceConfig("", "token"));
+    ReflectionTestUtils.setField(
+        uploader, "uploadConfig", new UploadConfig(baseUrl, 2, 3, 1, 64));
+    uploader.init();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    uploader.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  public void uploadSendsVolumesWithTheirChecksums() throws Exception {
+    byte[] first = writeVolume("dataset_1.zip", 200 * 1024 + 17);
+    byte[] second = writeVolume("dataset_2.zip", 1024);
+
+    Map<String, String> checksums =
+        uploader.upload(
+            "TR-1", zipDir + "/", List.of("dataset_1.zip", "dataset_2.zip"), VOLUME_PATH);
+
+    assertArrayEquals(first, received.get(VOLUME_PATH + "/dataset_1.zip"));
+    assertArrayEquals(second, received.get(VOLUME_PATH + "/dataset_2.zip"));
+    assertEquals(List.of("dataset_1.zip", "dataset_2.zip"), List.copyOf(checksums.keySet()));
+    assertEquals(sha256(first), checksums.get("dataset_1.zip"));
+    assertEquals(sha256(second), checksums.get("dataset_2.zip"));
+
+    VolumeUploadProgressResponse progress = uploader.getProgress("TR-1");
+    assertEquals("COMPLETED", progress.getStatus());
+    assertEquals(2, progress.getUploadedVolumes());
+    assertEquals(first.length + second.length, progress.getUploadedBytes());
+  }
+
+  @Test
+  public void uploadRetriesOnServerErrorAndThrottling() throws Exception {
+    byte[] volume = writeVolume("dataset_1.zip", 4096);
+    failures.put(VOLUME_PATH + "/dataset_1.zip", new ConcurrentLinkedQueue<>(List.of(500, 429)));
+
+    Map<String, String> checksums =
+        uploader.upload("TR-1", zipDir + "/", List.of("dataset_1.zip"), VOLUME_PATH);
+
+    assertArrayEquals(volume, received.get(VOLUME_PATH + "/dataset_1.zip"));
+    assertEquals(sha256(volume), checksums.get("dataset_1.zip"));
+    VolumeUploadProgressResponse progress = uploader.getProgress("TR-1");
+    assertEquals(2, progress.getRetries());
+    assertEquals(volume.length, progress.getUploadedBytes());
+  }
+
+  @Test
+  public void uploadFailsOnClientError() throws Exception {
+    writeVolume("dataset_1.zip", 4096);
+    failures.put(VOLUME_PATH + "/dataset_1.zip", new ConcurrentLinkedQueue<>(List.of(403)));
+
+    assertThrows(
+        IOException.class,
+        () -> uploader.upload("TR-1", zipDir + "/", List.of("dataset_1.zip"), VOLUME_PATH));
+
+    VolumeUploadProgressResponse progress = uploader.getProgress("TR-1");
+    assertEquals("FAILED", progress.getStatus());
+    assertEquals(0, progress.getRetries());
+  }
+
+  @Test
+  public void progressAddsUpOverUploadsOfOneTrack() throws Exception {
+    byte[] first = writeVolume("dataset_1.zip", 3000);
+    byte[] second = writeVolume("dataset_2.zip", 5000);
+
+    Map<String, String> firstChecksums =
+        uploader.upload("TR-1", zipDir + "/", List.of("dataset_1.zip"), VOLUME_PATH);
+    Map<String, String> secondChecksums =
+        uploader.upload("TR-1", zipDir + "/", List.of("dataset_2.zip"), VOLUME_PATH);
+
+    assertEquals(List.of("dataset_1.zip"), List.copyOf(firstChecksums.keySet()));
+    assertEquals(List.of("dataset_2.zip"), List.copyOf(secondChecksums.keySet()));
+
+    VolumeUploadProgressResponse progress = uploader.getProgress("TR-1");
+    assertEquals("COMPLETED", progress.getStatus());
+    assertEquals(2, progress.getTotalVolumes());
+    assertEquals(2, progress.getUploadedVolumes());
+    assertEquals(first.length + second.length, progress.getTotalBytes());
+    assertEquals(first.length + second.length, progress.getUploadedBytes());
+  }
+
+  private void handlePut(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      byte[] body = exchange.getRequestBody().readAllBytes();
+      String path = exchange.getRequestURI().getPath().substring("/api/2.0/fs/files".length());
+      if (!"PUT".equals(exchange.getRequestMethod())
+          || !"Bearer token".equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+        exchange.sendResponseHeaders(400, -1);
+        return;
+      }
+      Integer failure = failures.getOrDefault(path, new ConcurrentLinkedQueue<>()).poll();
+      if (failure != null) {
+        exchange.sendResponseHeaders(failure, -1);
+        return;
+      }
+      received.put(path, body);
+      exchange.sendResponseHeaders(204, -1);
+    }
+  }
+
+  private byte[] writeVolume(String fileName, int size) throws IOException {
+    byte[] content = new byte[size];
+    new Random(size).nextBytes(content);
+    Files.write(zipDir.resolve(fileName), content);
+    return content;
+  }
+
+  private static String sha256(byte[] content) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+  }
+}
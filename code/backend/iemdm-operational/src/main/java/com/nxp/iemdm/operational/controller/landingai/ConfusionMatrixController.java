@@ -3,6 +3,7 @@ package com.nxp.iemdm.operational.controller.landingai;
 import com.nxp.iemdm.shared.dto.landingai.CellDetailResponse;
 import com.nxp.iemdm.shared.dto.landingai.ConfusionMatrixResponse;
 import com.nxp.iemdm.shared.dto.landingai.ImageWithLabelsDTO;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallCurveResponse;
 import com.nxp.iemdm.shared.intf.operational.landingai.ConfusionMatrixService;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -32,11 +33,14 @@ public class ConfusionMatrixController {
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
    * @return Confusion matrix response
    */
   @GetMapping("/{modelId}/{evaluationSet}")
   public ResponseEntity<ConfusionMatrixResponse> getConfusionMatrix(
-      @PathVariable Long modelId, @PathVariable String evaluationSet) {
+      @PathVariable Long modelId,
+      @PathVariable String evaluationSet,
+      @RequestParam(required = false) Double iouThreshold) {
     log.info(
         "Operational API: Getting confusion matrix for modelId={}, evaluationSet={}",
         modelId,
@@ -44,7 +48,7 @@ public class ConfusionMatrixController {
 
     try {
       ConfusionMatrixResponse response =
-          confusionMatrixService.calculateConfusionMatrix(modelId, evaluationSet);
+          confusionMatrixService.calculateConfusionMatrix(modelId, evaluationSet, iouThreshold);
       return ResponseEntity.ok(response);
     } catch (IllegalArgumentException e) {
       log.error("Invalid parameters: {}", e.getMessage());
@@ -62,6 +66,7 @@ public class ConfusionMatrixController {
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
    * @param gtClassId Ground truth class ID
    * @param predClassId Prediction class ID
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
    * @return Cell detail response with images
    */
   @GetMapping("/{modelId}/{evaluationSet}/cell")
@@ -69,7 +74,8 @@ public class ConfusionMatrixController {
       @PathVariable Long modelId,
       @PathVariable String evaluationSet,
       @RequestParam Long gtClassId,
-      @RequestParam Long predClassId) {
+      @RequestParam Long predClassId,
+      @RequestParam(required = false) Double iouThreshold) {
     log.info(
         "Operational API: Getting cell detail for modelId={}, evaluationSet={}, gtClassId={}, predClassId={}",
         modelId,
@@ -79,7 +85,8 @@ public class ConfusionMatrixController {
 
     try {
       CellDetailResponse response =
-          confusionMatrixService.getCellDetail(modelId, evaluationSet, gtClassId, predClassId);
+          confusionMatrixService.getCellDetail(
+              modelId, evaluationSet, gtClassId, predClassId, iouThreshold);
       return ResponseEntity.ok(response);
     } catch (IllegalArgumentException e) {
       log.error("Invalid parameters: {}", e.getMessage());
@@ -95,18 +102,22 @@ public class ConfusionMatrixController {
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
    * @return List of images with ground truth and prediction labels
    */
   @GetMapping("/{modelId}/{evaluationSet}/all-images")
   public ResponseEntity<List<ImageWithLabelsDTO>> getAllImages(
-      @PathVariable Long modelId, @PathVariable String evaluationSet) {
+      @PathVariable Long modelId,
+      @PathVariable String evaluationSet,
+      @RequestParam(required = false) Double iouThreshold) {
     log.info(
         "Operational API: Getting all images for modelId={}, evaluationSet={}",
         modelId,
         evaluationSet);
 
     try {
-      List<ImageWithLabelsDTO> images = confusionMatrixService.getAllImages(modelId, evaluationSet);
+      List<ImageWithLabelsDTO> images =
+          confusionMatrixService.getAllImages(modelId, evaluationSet, iouThreshold);
       return ResponseEntity.ok(images);
     } catch (IllegalArgumentException e) {
       log.error("Invalid parameters: {}", e.getMessage());
@@ -117,6 +128,37 @@ public class ConfusionMatrixController {
     }
   }
 
+  /**
+   * Get precision-recall curves for every confidence threshold.
+   *
+   * @param modelId Model ID
+   * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching GT×Pred pair (optional)
+   * @return Precision-recall curves per class and over all classes
+   */
+  @GetMapping("/{modelId}/{evaluationSet}/pr-curve")
+  public ResponseEntity<PrecisionRecallCurveResponse> getPrecisionRecallCurve(
+      @PathVariable Long modelId,
+      @PathVariable String evaluationSet,
+      @RequestParam(required = false) Double iouThreshold) {
+    log.info(
+        "Operational API: Getting precision-recall curve for modelId={}, evaluationSet={}",
+        modelId,
+        evaluationSet);
+
+    try {
+      PrecisionRecallCurveResponse response =
+          confusionMatrixService.getPrecisionRecallCurve(modelId, evaluationSet, iouThreshold);
+      return ResponseEntity.ok(response);
+    } catch (IllegalArgumentException e) {
+      log.error("Invalid parameters: {}", e.getMessage());
+      return ResponseEntity.badRequest().build();
+    } catch (Exception e) {
+      log.error("Failed to get precision-recall curve", e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
   /**
    * Get prediction labels for a model filtered by evaluation set. Backend 根據 evaluationSet 參數過濾資料，
    * 只回傳指定 evaluation set 的資料。 Requirements: 26.5, 31.1, 35.3
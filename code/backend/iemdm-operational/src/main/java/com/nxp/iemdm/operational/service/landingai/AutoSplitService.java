@@ -1,25 +1,27 @@
 package com.nxp.iemdm.operational.service.landingai;
 
-import com.nxp.iemdm.model.landingai.Image;
-import com.nxp.iemdm.model.landingai.ImageLabel;
 import com.nxp.iemdm.model.landingai.Project;
 import com.nxp.iemdm.model.landingai.ProjectClass;
 import com.nxp.iemdm.model.landingai.ProjectSplit;
 import com.nxp.iemdm.shared.dto.landingai.AutoSplitRequestDTO;
 import com.nxp.iemdm.shared.dto.landingai.AutoSplitStatsDTO;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImageLabelRepository;
-import com.nxp.iemdm.shared.repository.jpa.landingai.ImageRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectClassRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectSplitRepository;
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,11 +30,14 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class AutoSplitService {
 
-  private final ImageRepository imageRepository;
   private final ImageLabelRepository imageLabelRepository;
   private final ProjectClassRepository projectClassRepository;
   private final ProjectSplitRepository projectSplitRepository;
   private final ProjectRepository projectRepository;
+  private final EntityManager entityManager;
+
+  @Value("${landingai.auto-split.update-batch-size:1000}")
+  private int updateBatchSize;
 
   /**
    * Get statistics for auto-split feature
@@ -48,12 +53,18 @@ public class AutoSplitService {
         projectId,
         includeAssigned);
 
-    // Count total images to split directly from ImageLabel table
-    long totalImagesToSplit;
-    if (includeAssigned) {
-      totalImagesToSplit = imageLabelRepository.countDistinctImagesWithLabels(projectId);
-    } else {
-      totalImagesToSplit = imageLabelRepository.countDistinctImagesWithLabelsNoSplit(projectId);
+    // Images per class and in total with one grouped query
+    Map<Long, Long> imagesPerClass = new HashMap<>();
+    long totalImagesToSplit = 0;
+    for (Object[] row :
+        imageLabelRepository.countDistinctImagesPerClass(
+            projectId, Boolean.TRUE.equals(includeAssigned))) {
+      long imageCount = ((Number) row[1]).longValue();
+      if (row[0] == null) {
+        totalImagesToSplit = imageCount;
+      } else {
+        imagesPerClass.put(((Number) row[0]).longValue(), imageCount);
+      }
     }
     log.info("Total images to split: {}", totalImagesToSplit);
 
@@ -61,29 +72,14 @@ public class AutoSplitService {
     List<ProjectClass> classes = projectClassRepository.findByProject_IdOrderByCreatedAt(projectId);
     log.info("Found {} classes for project {}", classes.size(), projectId);
 
-    // Count images per class directly from ImageLabel table
-    List<AutoSplitStatsDTO.ClassStatsDTO> classStats = new ArrayList<>();
+    List<AutoSplitStatsDTO.ClassStatsDTO> classStats = new ArrayList<>(classes.size());
     for (ProjectClass projectClass : classes) {
-      long imageCount;
-      if (includeAssigned) {
-        imageCount =
-            imageLabelRepository.countDistinctImagesByClass(projectId, projectClass.getId());
-      } else {
-        imageCount =
-            imageLabelRepository.countDistinctImagesByClassNoSplit(projectId, projectClass.getId());
-      }
-      log.info(
-          "Class {} ({}) has {} images",
-          projectClass.getId(),
-          projectClass.getClassName(),
-          imageCount);
-
       classStats.add(
           new AutoSplitStatsDTO.ClassStatsDTO(
               projectClass.getId(),
               projectClass.getClassName(),
               projectClass.getColorCode(),
-              imageCount));
+              imagesPerClass.getOrDefault(projectClass.getId(), 0L)));
     }
 
     return new AutoSplitStatsDTO(totalImagesToSplit, classStats);
@@ -113,61 +109,61 @@ public class AutoSplitService {
             .orElseThrow(
                 () -> new RuntimeException("Project not found: " + request.getProjectId()));
 
-    // Get all images for the project
-    List<Image> allImages = imageRepository.findByProject_Id(request.getProjectId());
-    log.info("Found {} total images for project {}", allImages.size(), request.getProjectId());
-
-    // Filter images that have labels (from ImageLabel table) and optionally no split assigned
-    List<Image> images = new ArrayList<>();
-    for (Image image : allImages) {
-      // Check if image has labels in ImageLabel table
-      long labelCount = imageLabelRepository.countByImage_Id(image.getId());
-      boolean hasLabels = labelCount > 0;
-
-      log.debug(
-          "Image {} - hasLabels={}, currentSplit={}", image.getId(), hasLabels, image.getSplit());
-
-      if (hasLabels) {
-        if (Boolean.TRUE.equals(request.getIncludeAssigned())) {
-          // Include all labeled images
-          images.add(image);
-          log.debug("Image {} added (includeAssigned=true)", image.getId());
-        } else {
-          // Only include images with no split assigned
-          if (image.getSplit() == null || image.getSplit().isEmpty()) {
-            images.add(image);
-            log.debug("Image {} added (no split assigned)", image.getId());
-          } else {
-            log.debug("Image {} skipped (already has split: {})", image.getId(), image.getSplit());
-          }
-        }
-      }
-    }
+    // Labeled images to split with the class of their first label, in image ID order
+    List<Object[]> candidates =
+        imageLabelRepository.findSplitCandidates(
+            request.getProjectId(), Boolean.TRUE.equals(request.getIncludeAssigned()));
+    int total = candidates.size();
 
     log.info(
-        "Filtered to {} images to split (includeAssigned={})",
-        images.size(),
+        "Found {} images to split for project {} (includeAssigned={})",
+        total,
+        request.getProjectId(),
         request.getIncludeAssigned());
 
-    if (images.isEmpty()) {
+    if (total == 0) {
       log.warn("No images to split for project {}", request.getProjectId());
       return 0;
     }
 
-    // 1. Assign splits to images
-    if (request.getAdjustAllTogether()) {
-      // Apply global ratio to all images
-      assignSplitsGlobally(
-          images, request.getTrainRatio(), request.getDevRatio(), request.getTestRatio());
+    long[] imageIds = new long[total];
+    long[] classIds = new long[total];
+    String[] currentSplits = new String[total];
+    for (int i = 0; i < total; i++) {
+      Object[] row = candidates.get(i);
+      imageIds[i] = ((Number) row[0]).longValue();
+      classIds[i] = ((Number) row[1]).longValue();
+      currentSplits[i] = (String) row[2];
+    }
+
+    // 1. Assign splits to images, stratified by class. Globally the counts are taken from all
+    // images and shared out across the classes; per class every class is cut by its own ratios
+    long seed = request.getSeed() != null ? request.getSeed() : new SplittableRandom().nextLong();
+    log.info("Assigning splits for project {} with seed {}", request.getProjectId(), seed);
+
+    int[] globalRatios = {request.getTrainRatio(), request.getDevRatio(), request.getTestRatio()};
+    byte[] splits;
+    if (Boolean.TRUE.equals(request.getAdjustAllTogether()) || request.getClassRatios() == null) {
+      splits = StratifiedSplitter.assignGlobal(classIds, globalRatios, seed);
     } else {
-      // Apply per-class ratios
-      assignSplitsPerClass(images, request);
+      Map<Long, AutoSplitRequestDTO.ClassRatioDTO> classRatios = request.getClassRatios();
+      LongFunction<int[]> ratiosOf =
+          classId -> {
+            AutoSplitRequestDTO.ClassRatioDTO ratio = classRatios.get(classId);
+            return ratio != null
+                ? new int[] {ratio.getTrain(), ratio.getDev(), ratio.getTest()}
+                : globalRatios;
+          };
+      splits = StratifiedSplitter.assign(classIds, ratiosOf, seed);
     }
 
+    int updated = updateSplits(imageIds, splits, currentSplits);
+    log.info("Assigned splits to {} images, {} changed", total, updated);
+
     // 2. Save split configuration to la_project_split table
     saveSplitConfiguration(project, request);
 
-    return images.size();
+    return total;
   }
 
   /** Save split configuration to la_project_split table */
@@ -234,77 +230,49 @@ public class AutoSplitService {
     }
   }
 
-  /** Assign splits globally (same ratio for all images) */
-  private void assignSplitsGlobally(
-      List<Image> images, Integer trainRatio, Integer devRatio, Integer testRatio) {
-    // Shuffle images for random distribution
-    Collections.shuffle(images);
-
-    int totalImages = images.size();
-
-    // Calculate train count first (round to nearest)
-    int trainCount = (int) Math.round(totalImages * trainRatio / 100.0);
-    // Ensure trainCount doesn't exceed total
-    trainCount = Math.min(trainCount, totalImages);
-
-    // Calculate dev count from remaining images
-    int remaining = totalImages - trainCount;
-    int devCount = (int) Math.round(remaining * devRatio / (double) (devRatio + testRatio));
-    // Ensure devCount doesn't exceed remaining
-    devCount = Math.min(devCount, remaining);
-
-    // Test gets whatever is left (can be 0)
-    int testCount = totalImages - trainCount - devCount;
-
-    log.info(
-        "Assigning splits globally: train={}, dev={}, test={} (total={})",
-        trainCount,
-        devCount,
-        testCount,
-        totalImages);
-
-    for (int i = 0; i < images.size(); i++) {
-      Image image = images.get(i);
-      if (i < trainCount) {
-        image.setSplit("training");
-      } else if (i < trainCount + devCount) {
-        image.setSplit("dev");
-      } else {
-        image.setSplit("test");
+  /**
+   * Write the assigned splits with batched {@code UPDATE ... FROM (VALUES ...)} statements. Images
+   * whose split does not change are not written. The rows are updated directly, without loading
+   * the image entities.
+   *
+   * @return number of images whose split changed
+   */
+  private int updateSplits(long[] imageIds, byte[] splits, String[] currentSplits) {
+    List<Integer> changed = new ArrayList<>();
+    for (int i = 0; i < imageIds.length; i++) {
+      if (!StratifiedSplitter.SPLITS[splits[i]].equals(currentSplits[i])) {
+        changed.add(i);
       }
-      imageRepository.save(image);
     }
-  }
-
-  /** Assign splits per class (different ratio for each class) */
-  private void assignSplitsPerClass(List<Image> images, AutoSplitRequestDTO request) {
-    // Group images by their primary class (first label's class)
-    Map<Long, List<Image>> imagesByClass = new HashMap<>();
-
-    for (Image image : images) {
-      // Get the first label's class for this image (any annotation type)
-      List<ImageLabel> labels = imageLabelRepository.findByImage_Id(image.getId());
 
-      if (!labels.isEmpty()) {
-        Long classId = labels.get(0).getProjectClass().getId();
-        imagesByClass.computeIfAbsent(classId, k -> new ArrayList<>()).add(image);
-      }
+    entityManager.flush();
+    int batchSize = Math.max(1, updateBatchSize);
+    for (int from = 0; from < changed.size(); from += batchSize) {
+      List<Integer> batch = changed.subList(from, Math.min(from + batchSize, changed.size()));
+      entityManager
+          .unwrap(Session.class)
+          .doWork(
+              connection -> {
+                try (PreparedStatement statement =
+                    connection.prepareStatement(updateSql(batch.size()))) {
+                  int parameter = 1;
+                  for (int i : batch) {
+                    statement.setLong(parameter++, imageIds[i]);
+                    statement.setString(parameter++, StratifiedSplitter.SPLITS[splits[i]]);
+                  }
+                  statement.executeUpdate();
+                }
+              });
     }
+    return changed.size();
+  }
 
-    // Assign splits for each class
-    for (Map.Entry<Long, List<Image>> entry : imagesByClass.entrySet()) {
-      Long classId = entry.getKey();
-      List<Image> classImages = entry.getValue();
-
-      AutoSplitRequestDTO.ClassRatioDTO ratio = request.getClassRatios().get(classId);
-      if (ratio == null) {
-        // Use global ratio if class ratio not specified
-        ratio =
-            new AutoSplitRequestDTO.ClassRatioDTO(
-                request.getTrainRatio(), request.getDevRatio(), request.getTestRatio());
-      }
-
-      assignSplitsGlobally(classImages, ratio.getTrain(), ratio.getDev(), ratio.getTest());
+  private static String updateSql(int rows) {
+    StringBuilder sql =
+        new StringBuilder("UPDATE la_images AS i SET split = v.split FROM (VALUES ");
+    for (int r = 0; r < rows; r++) {
+      sql.append(r == 0 ? "(CAST(? AS bigint), CAST(? AS varchar))" : ", (?, ?)");
     }
+    return sql.append(") AS v(id, split) WHERE i.id = v.id").toString();
   }
 }
@@ -3,7 +3,6 @@ package com.nxp.iemdm.operational.service.landingai;
 import com.nxp.iemdm.exception.NotFoundException;
 import com.nxp.iemdm.model.landingai.ImagePredictionLabel;
 import com.nxp.iemdm.model.landingai.Model;
-import com.nxp.iemdm.model.landingai.SnapshotImage;
 import com.nxp.iemdm.model.landingai.SnapshotImageLabel;
 import com.nxp.iemdm.model.landingai.SnapshotProjectClass;
 import com.nxp.iemdm.shared.dto.landingai.CellDetailResponse;
@@ -14,6 +13,8 @@ import com.nxp.iemdm.shared.dto.landingai.GroundTruthLabelDTO;
 import com.nxp.iemdm.shared.dto.landingai.ImageWithLabelsDTO;
 import com.nxp.iemdm.shared.dto.landingai.LabelInfoDTO;
 import com.nxp.iemdm.shared.dto.landingai.MatrixCellDTO;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallCurveDTO;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallCurveResponse;
 import com.nxp.iemdm.shared.dto.landingai.PredictionLabelDTO;
 import com.nxp.iemdm.shared.intf.operational.landingai.ConfusionMatrixService;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImagePredictionLabelRepository;
@@ -21,7 +22,6 @@ import com.nxp.iemdm.shared.repository.jpa.landingai.ModelRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageLabelRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotProjectClassRepository;
-import jakarta.persistence.EntityManager;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -41,18 +41,25 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
 
+  /** Images whose prediction labels are loaded with one query */
+  private static final int IMAGE_BATCH_SIZE = 500;
+
   private final SnapshotImageLabelRepository snapshotImageLabelRepository;
   private final ImagePredictionLabelRepository imagePredictionLabelRepository;
   private final SnapshotProjectClassRepository snapshotProjectClassRepository;
   private final SnapshotImageRepository snapshotImageRepository;
   private final ModelRepository modelRepository;
-  private final EntityManager entityManager;
+  private final ModelEvaluationService modelEvaluationService;
 
   @Override
   @Transactional(readOnly = true)
-  public ConfusionMatrixResponse calculateConfusionMatrix(Long modelId, String evaluationSet) {
+  public ConfusionMatrixResponse calculateConfusionMatrix(
+      Long modelId, String evaluationSet, Double iouThreshold) {
     log.info(
-        "Calculating confusion matrix for modelId={}, evaluationSet={}", modelId, evaluationSet);
+        "Calculating confusion matrix for modelId={}, evaluationSet={}, iouThreshold={}",
+        modelId,
+        evaluationSet,
+        iouThreshold);
 
     // 1. Get model and snapshot ID
     Model model =
@@ -107,40 +114,16 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
             .color("#CCCCCC") // Gray color for "No prediction"
             .build());
 
-    // 4. Query images for evaluation set from snapshot
+    // 4. Match predictions with ground truth of the evaluation set by IoU
     String splitValue = convertEvaluationSetToSplit(evaluationSet);
-    List<SnapshotImage> images =
-        snapshotImageRepository.findBySnapshotIdAndSplit(snapshotId, splitValue);
-    if (images.isEmpty()) {
+    ModelEvaluation evaluation =
+        modelEvaluationService.evaluate(modelId, snapshotId, splitValue, iouThreshold);
+    if (evaluation.getImages().isEmpty()) {
       log.warn("No images found for snapshotId={}, split={}", snapshotId, splitValue);
       return buildEmptyResponseWithClasses(classInfoList);
     }
 
-    List<Long> imageIds = images.stream().map(SnapshotImage::getId).collect(Collectors.toList());
-
-    // 5. Query ground truth labels and predictions
-    List<SnapshotImageLabel> gtLabels =
-        snapshotImageLabelRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds);
-    List<ImagePredictionLabel> predLabels =
-        imagePredictionLabelRepository.findByModelId(modelId).stream()
-            .filter(p -> imageIds.contains(p.getImage().getId()))
-            .collect(Collectors.toList());
-
-    // 6. Build GT and Pred maps: (imageId + position) -> label
-    // Use position-based matching to handle multiple labels per image
-    Map<String, SnapshotImageLabel> gtLabelMap = new HashMap<>();
-    for (SnapshotImageLabel label : gtLabels) {
-      String key = label.getImageId() + "_" + label.getPosition();
-      gtLabelMap.put(key, label);
-    }
-
-    Map<String, ImagePredictionLabel> predLabelMap = new HashMap<>();
-    for (ImagePredictionLabel label : predLabels) {
-      String key = label.getImage().getId() + "_" + label.getPosition();
-      predLabelMap.put(key, label);
-    }
-
-    // 7. Calculate confusion matrix counts (per-label matching)
+    // 5. Read counts of matched pairs, unmatched ground truth and unmatched predictions
     Map<String, Integer> confusionCounts = new HashMap<>();
     Map<Long, Integer> noPredictionCounts =
         new HashMap<>(); // Track GT labels with no prediction per GT class
@@ -148,40 +131,22 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
         new HashMap<>(); // Track predictions with no GT per Pred class
     int maxCount = 0;
 
-    // Process all GT labels
-    for (SnapshotImageLabel gtLabel : gtLabels) {
-      String key = gtLabel.getImageId() + "_" + gtLabel.getPosition();
-      ImagePredictionLabel predLabel = predLabelMap.get(key);
-      Long gtClassId = gtLabel.getClassId();
-
-      if (predLabel != null) {
-        // Has matching prediction
-        Long predClassId = predLabel.getProjectClass().getId();
-        String countKey = gtClassId + "_" + predClassId;
-        int count = confusionCounts.getOrDefault(countKey, 0) + 1;
-        confusionCounts.put(countKey, count);
-        maxCount = Math.max(maxCount, count);
-      } else {
-        // Has GT but no matching prediction
-        int count = noPredictionCounts.getOrDefault(gtClassId, 0) + 1;
-        noPredictionCounts.put(gtClassId, count);
+    for (SnapshotProjectClass gtClass : classes) {
+      for (SnapshotProjectClass predClass : classes) {
+        int count = evaluation.getCount(gtClass.getId(), predClass.getId());
+        confusionCounts.put(gtClass.getId() + "_" + predClass.getId(), count);
         maxCount = Math.max(maxCount, count);
       }
-    }
+      int noPredCount = evaluation.getCount(gtClass.getId(), ModelEvaluation.NO_PREDICTION);
+      noPredictionCounts.put(gtClass.getId(), noPredCount);
+      maxCount = Math.max(maxCount, noPredCount);
 
-    // Process predictions without GT (False Positives)
-    for (ImagePredictionLabel predLabel : predLabels) {
-      String key = predLabel.getImage().getId() + "_" + predLabel.getPosition();
-      if (!gtLabelMap.containsKey(key)) {
-        // Has prediction but no GT (No label case)
-        Long predClassId = predLabel.getProjectClass().getId();
-        int count = noLabelCounts.getOrDefault(predClassId, 0) + 1;
-        noLabelCounts.put(predClassId, count);
-        maxCount = Math.max(maxCount, count);
-      }
+      int noLabelCount = evaluation.getCount(ModelEvaluation.NO_LABEL, gtClass.getId());
+      noLabelCounts.put(gtClass.getId(), noLabelCount);
+      maxCount = Math.max(maxCount, noLabelCount);
     }
 
-    // 8. Build matrix cells (including "No prediction" column)
+    // 6. Build matrix cells (including "No prediction" column)
     List<List<MatrixCellDTO>> matrix = new ArrayList<>();
     for (SnapshotProjectClass gtClass : classes) {
       List<MatrixCellDTO> row = new ArrayList<>();
@@ -236,7 +201,7 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
             .build());
     matrix.add(noLabelRow);
 
-    // 9. Calculate class-level metrics
+    // 7. Calculate class-level metrics
     log.info(
         "Calculating class-level metrics. noLabelCounts: {}, noPredictionCounts: {}",
         noLabelCounts,
@@ -346,13 +311,15 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
   @Override
   @Transactional(readOnly = true)
   public CellDetailResponse getCellDetail(
-      Long modelId, String evaluationSet, Long gtClassId, Long predClassId) {
+      Long modelId, String evaluationSet, Long gtClassId, Long predClassId, Double iouThreshold) {
     log.info(
-        "Getting cell detail for modelId={}, evaluationSet={}, gtClassId={}, predClassId={}",
+        "Getting cell detail for modelId={}, evaluationSet={}, gtClassId={}, predClassId={},"
+            + " iouThreshold={}",
         modelId,
         evaluationSet,
         gtClassId,
-        predClassId);
+        predClassId,
+        iouThreshold);
 
     // 1. Get model and snapshot ID
     Model model =
@@ -391,119 +358,54 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
       predClassName = predClass.getClassName();
     }
 
-    // 3. Query images for evaluation set from snapshot
+    // 3. Match predictions with ground truth of the evaluation set by IoU
     String splitValue = convertEvaluationSetToSplit(evaluationSet);
-    List<SnapshotImage> images =
-        snapshotImageRepository.findBySnapshotIdAndSplit(snapshotId, splitValue);
-    List<Long> imageIds = images.stream().map(SnapshotImage::getId).collect(Collectors.toList());
+    ModelEvaluation evaluation =
+        modelEvaluationService.evaluate(modelId, snapshotId, splitValue, iouThreshold);
 
-    if (imageIds.isEmpty()) {
+    if (evaluation.getImages().isEmpty()) {
       return buildEmptyCellDetailResponse(gtClassName, predClassName, gtClassId, predClassId);
     }
 
-    // 4. Query ground truth labels and predictions
-    List<SnapshotImageLabel> gtLabels =
-        snapshotImageLabelRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds);
-    List<ImagePredictionLabel> predLabels =
-        imagePredictionLabelRepository.findByModelId(modelId).stream()
-            .filter(p -> imageIds.contains(p.getImage().getId()))
-            .collect(Collectors.toList());
-
-    // 5. Build GT and Pred maps: (imageId + position) -> label (per-label matching)
-    Map<String, SnapshotImageLabel> gtLabelMap = new HashMap<>();
-    for (SnapshotImageLabel label : gtLabels) {
-      String key = label.getImageId() + "_" + label.getPosition();
-      gtLabelMap.put(key, label);
-    }
-
-    Map<String, ImagePredictionLabel> predLabelMap = new HashMap<>();
-    for (ImagePredictionLabel label : predLabels) {
-      String key = label.getImage().getId() + "_" + label.getPosition();
-      predLabelMap.put(key, label);
-    }
-
-    // 6. Build image map for grouping labels by image
-    Map<Long, SnapshotImage> imageMap = new HashMap<>();
-    for (SnapshotImage image : images) {
-      imageMap.put(image.getId(), image);
-    }
-
-    // 7. Find matching label pairs and group by image
-    Map<Long, ImageWithLabelsDTO> imageResultMap = new HashMap<>();
+    // 4. Collect the label pairs of the cell, grouped by image
+    List<ImageWithLabelsDTO> matchingImages = new ArrayList<>();
     int totalLabelPairCount = 0; // Count actual label pairs, not unique images
 
-    if (gtClassId == -2L) {
-      // "No label" case: predictions without GT
-      for (ImagePredictionLabel predLabel : predLabels) {
-        if (!predLabel.getProjectClass().getId().equals(predClassId)) {
-          continue;
-        }
-        String key = predLabel.getImage().getId() + "_" + predLabel.getPosition();
-        if (!gtLabelMap.containsKey(key)) {
-          // Has prediction but no GT at this position
-          totalLabelPairCount++; // Count this label pair
-          Long imageId = predLabel.getImage().getId();
-          if (!imageResultMap.containsKey(imageId)) {
-            imageResultMap.put(
-                imageId,
-                buildImageWithLabelsDTO(
-                    imageMap.get(imageId), new ArrayList<>(), new ArrayList<>()));
+    for (ModelEvaluation.ImageResult image : evaluation.getImages()) {
+      List<LabelInfoDTO> cellGtLabels = new ArrayList<>();
+      List<LabelInfoDTO> cellPredLabels = new ArrayList<>();
+
+      if (gtClassId == -2L) {
+        // "No label" case: predictions that matched no GT
+        for (int p = 0; p < image.getPredictions().size(); p++) {
+          LabelInfoDTO predLabel = image.getPredictions().get(p);
+          if (!image.isMatched(p) && predLabel.getClassId().equals(predClassId)) {
+            cellPredLabels.add(predLabel);
           }
-          imageResultMap.get(imageId).getPredictionLabels().add(buildLabelInfoDTO(predLabel));
-        }
-      }
-    } else if (predClassId == -1L) {
-      // "No prediction" case: GT labels without predictions
-      for (SnapshotImageLabel gtLabel : gtLabels) {
-        if (!gtLabel.getClassId().equals(gtClassId)) {
-          continue;
         }
-        String key = gtLabel.getImageId() + "_" + gtLabel.getPosition();
-        if (!predLabelMap.containsKey(key)) {
-          // Has GT but no prediction at this position
-          totalLabelPairCount++; // Count this label pair
-          Long imageId = gtLabel.getImageId();
-          if (!imageResultMap.containsKey(imageId)) {
-            imageResultMap.put(
-                imageId,
-                buildImageWithLabelsDTO(
-                    imageMap.get(imageId), new ArrayList<>(), new ArrayList<>()));
+        totalLabelPairCount += cellPredLabels.size();
+      } else {
+        // "No prediction" case (predClassId = -1) or a matched GT×Pred pair
+        for (int g = 0; g < image.getGroundTruth().size(); g++) {
+          LabelInfoDTO gtLabel = image.getGroundTruth().get(g);
+          if (!gtClassId.equals(gtLabel.getClassId())) {
+            continue;
           }
-          imageResultMap
-              .get(imageId)
-              .getGroundTruthLabels()
-              .add(buildLabelInfoDTO(gtLabel, snapshotId));
-        }
-      }
-    } else {
-      // Normal case: match GT and Pred by position
-      for (SnapshotImageLabel gtLabel : gtLabels) {
-        if (!gtLabel.getClassId().equals(gtClassId)) {
-          continue;
-        }
-        String key = gtLabel.getImageId() + "_" + gtLabel.getPosition();
-        ImagePredictionLabel predLabel = predLabelMap.get(key);
-
-        if (predLabel != null && predLabel.getProjectClass().getId().equals(predClassId)) {
-          // Found matching GT×Pred pair
-          totalLabelPairCount++; // Count this label pair
-          Long imageId = gtLabel.getImageId();
-          if (!imageResultMap.containsKey(imageId)) {
-            imageResultMap.put(
-                imageId,
-                buildImageWithLabelsDTO(
-                    imageMap.get(imageId), new ArrayList<>(), new ArrayList<>()));
+          LabelInfoDTO predLabel = image.getMatch(g);
+          if (predClassId == -1L ? predLabel == null : isOfClass(predLabel, predClassId)) {
+            totalLabelPairCount++; // Count this label pair
+            cellGtLabels.add(gtLabel);
+            if (predLabel != null) {
+              cellPredLabels.add(predLabel);
+            }
           }
-          imageResultMap
-              .get(imageId)
-              .getGroundTruthLabels()
-              .add(buildLabelInfoDTO(gtLabel, snapshotId));
-          imageResultMap.get(imageId).getPredictionLabels().add(buildLabelInfoDTO(predLabel));
         }
       }
-    }
 
-    List<ImageWithLabelsDTO> matchingImages = new ArrayList<>(imageResultMap.values());
+      if (!cellGtLabels.isEmpty() || !cellPredLabels.isEmpty()) {
+        matchingImages.add(buildImageWithLabelsDTO(image, cellGtLabels, cellPredLabels));
+      }
+    }
 
     return CellDetailResponse.builder()
         .groundTruthClassId(gtClassId)
@@ -517,8 +419,13 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
 
   @Override
   @Transactional(readOnly = true)
-  public List<ImageWithLabelsDTO> getAllImages(Long modelId, String evaluationSet) {
-    log.info("Getting all images for modelId={}, evaluationSet={}", modelId, evaluationSet);
+  public List<ImageWithLabelsDTO> getAllImages(
+      Long modelId, String evaluationSet, Double iouThreshold) {
+    log.info(
+        "Getting all images for modelId={}, evaluationSet={}, iouThreshold={}",
+        modelId,
+        evaluationSet,
+        iouThreshold);
 
     // 1. Get model and snapshot ID
     Model model =
@@ -531,50 +438,19 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
       throw new IllegalStateException("Model has no associated snapshot");
     }
 
-    // 2. Query images for evaluation set from snapshot
+    // 2. Match predictions with ground truth of the evaluation set by IoU
     String splitValue = convertEvaluationSetToSplit(evaluationSet);
-    List<SnapshotImage> images =
-        snapshotImageRepository.findBySnapshotIdAndSplit(snapshotId, splitValue);
-
-    if (images.isEmpty()) {
-      return new ArrayList<>();
-    }
-
-    List<Long> imageIds = images.stream().map(SnapshotImage::getId).collect(Collectors.toList());
-
-    // 3. Query ground truth labels and predictions
-    List<SnapshotImageLabel> gtLabels =
-        snapshotImageLabelRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds);
-    List<ImagePredictionLabel> predLabels =
-        imagePredictionLabelRepository.findByModelId(modelId).stream()
-            .filter(p -> imageIds.contains(p.getImage().getId()))
-            .collect(Collectors.toList());
+    ModelEvaluation evaluation =
+        modelEvaluationService.evaluate(modelId, snapshotId, splitValue, iouThreshold);
 
-    // 4. Build GT and Pred maps: imageId -> labels
-    Map<Long, List<SnapshotImageLabel>> gtLabelMap = new HashMap<>();
-    for (SnapshotImageLabel label : gtLabels) {
-      gtLabelMap.computeIfAbsent(label.getImageId(), k -> new ArrayList<>()).add(label);
-    }
-
-    Map<Long, List<ImagePredictionLabel>> predLabelMap = new HashMap<>();
-    for (ImagePredictionLabel label : predLabels) {
-      predLabelMap.computeIfAbsent(label.getImage().getId(), k -> new ArrayList<>()).add(label);
-    }
-
-    // 5. Build image DTOs with correctness flag
+    // 3. Build image DTOs with correctness flag
     List<ImageWithLabelsDTO> result = new ArrayList<>();
-    for (SnapshotImage image : images) {
-      List<SnapshotImageLabel> imageGtLabels =
-          gtLabelMap.getOrDefault(image.getId(), new ArrayList<>());
-      List<ImagePredictionLabel> imagePredLabels =
-          predLabelMap.getOrDefault(image.getId(), new ArrayList<>());
-
+    for (ModelEvaluation.ImageResult image : evaluation.getImages()) {
       ImageWithLabelsDTO dto =
-          buildImageWithLabelsDTO(image, imageGtLabels, imagePredLabels, snapshotId);
+          buildImageWithLabelsDTO(image, image.getGroundTruth(), image.getPredictions());
 
-      // Calculate isCorrect: all GT classes match Pred classes
-      boolean isCorrect = calculateIsCorrect(imageGtLabels, imagePredLabels);
-      dto.setIsCorrect(isCorrect);
+      // Correct: every GT is matched by a prediction of its class and no prediction is left over
+      dto.setIsCorrect(image.isCorrect());
 
       result.add(dto);
     }
@@ -582,108 +458,74 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
     return result;
   }
 
-  private ImageWithLabelsDTO buildImageWithLabelsDTO(
-      SnapshotImage image,
-      List<SnapshotImageLabel> gtLabels,
-      List<ImagePredictionLabel> predLabels) {
-    List<LabelInfoDTO> gtLabelDTOs =
-        gtLabels.stream()
-            .map(l -> buildLabelInfoDTO(l, image.getSnapshotId()))
-            .collect(Collectors.toList());
+  @Override
+  @Transactional(readOnly = true)
+  public PrecisionRecallCurveResponse getPrecisionRecallCurve(
+      Long modelId, String evaluationSet, Double iouThreshold) {
+    log.info(
+        "Getting precision-recall curve for modelId={}, evaluationSet={}, iouThreshold={}",
+        modelId,
+        evaluationSet,
+        iouThreshold);
+
+    Model model =
+        modelRepository
+            .findById(modelId)
+            .orElseThrow(() -> new NotFoundException("Model not found with ID: " + modelId));
 
-    List<LabelInfoDTO> predLabelDTOs =
-        predLabels.stream().map(this::buildLabelInfoDTO).collect(Collectors.toList());
+    Long snapshotId = model.getTrainingRecord().getSnapshotId();
+    if (snapshotId == null) {
+      throw new IllegalStateException("Model has no associated snapshot");
+    }
 
-    return ImageWithLabelsDTO.builder()
-        .imageId(image.getId())
-        .fileName(image.getFileName())
-        .imageUrl("/api/images/" + image.getId() + "/file")
-        .evaluationSet(image.getSplit())
-        .groundTruthLabels(gtLabelDTOs)
-        .predictionLabels(predLabelDTOs)
-        .isCorrect(null) // Will be set by caller if needed
+    String splitValue = convertEvaluationSetToSplit(evaluationSet);
+    ThresholdSweep sweep =
+        modelEvaluationService.sweepThresholds(modelId, snapshotId, splitValue, iouThreshold);
+
+    List<PrecisionRecallCurveDTO> classCurves = new ArrayList<>();
+    for (SnapshotProjectClass snapshotClass :
+        snapshotProjectClassRepository.findBySnapshotIdOrderBySequence(snapshotId)) {
+      classCurves.add(
+          PrecisionRecallCurveDTO.builder()
+              .classId(snapshotClass.getId())
+              .className(snapshotClass.getClassName())
+              .classColor(snapshotClass.getColorCode())
+              .groundTruthCount(sweep.getGroundTruthCount(snapshotClass.getId()))
+              .points(sweep.getPoints(snapshotClass.getId()))
+              .build());
+    }
+
+    return PrecisionRecallCurveResponse.builder()
+        .modelId(modelId)
+        .evaluationSet(evaluationSet)
+        .iouThreshold(modelEvaluationService.resolveIouThreshold(iouThreshold))
+        .overall(
+            PrecisionRecallCurveDTO.builder()
+                .className("All classes")
+                .groundTruthCount(sweep.getGroundTruthCount(null))
+                .points(sweep.getPoints(null))
+                .build())
+        .classes(classCurves)
         .build();
   }
 
   private ImageWithLabelsDTO buildImageWithLabelsDTO(
-      SnapshotImage image,
-      List<SnapshotImageLabel> gtLabels,
-      List<ImagePredictionLabel> predLabels,
-      Long snapshotId) {
-    List<LabelInfoDTO> gtLabelDTOs =
-        gtLabels.stream().map(l -> buildLabelInfoDTO(l, snapshotId)).collect(Collectors.toList());
-
-    List<LabelInfoDTO> predLabelDTOs =
-        predLabels.stream().map(this::buildLabelInfoDTO).collect(Collectors.toList());
-
+      ModelEvaluation.ImageResult image,
+      List<LabelInfoDTO> gtLabels,
+      List<LabelInfoDTO> predLabels) {
     return ImageWithLabelsDTO.builder()
-        .imageId(image.getId())
+        .imageId(image.getImageId())
         .fileName(image.getFileName())
-        .imageUrl("/api/images/" + image.getId() + "/file")
+        .imageUrl("/api/images/" + image.getImageId() + "/file")
         .evaluationSet(image.getSplit())
-        .groundTruthLabels(gtLabelDTOs)
-        .predictionLabels(predLabelDTOs)
+        .groundTruthLabels(new ArrayList<>(gtLabels))
+        .predictionLabels(new ArrayList<>(predLabels))
         .isCorrect(null) // Will be set by caller if needed
         .build();
   }
 
-  private LabelInfoDTO buildLabelInfoDTO(SnapshotImageLabel label, Long snapshotId) {
-    // Get class info from snapshot
-    SnapshotProjectClass projectClass =
-        snapshotProjectClassRepository.findBySnapshotId(snapshotId).stream()
-            .filter(c -> c.getId().equals(label.getClassId()))
-            .findFirst()
-            .orElse(null);
-
-    if (projectClass == null) {
-      log.warn("Class not found for classId={} in snapshotId={}", label.getClassId(), snapshotId);
-      return LabelInfoDTO.builder()
-          .labelId(label.getId())
-          .classId(label.getClassId())
-          .className("Unknown")
-          .classColor("#000000")
-          .position(label.getPosition())
-          .confidenceRate(null)
-          .build();
-    }
-
-    return LabelInfoDTO.builder()
-        .labelId(label.getId())
-        .classId(label.getClassId())
-        .className(projectClass.getClassName())
-        .classColor(projectClass.getColorCode())
-        .position(label.getPosition())
-        .confidenceRate(null) // Ground truth labels don't have confidence rate
-        .build();
-  }
-
-  private LabelInfoDTO buildLabelInfoDTO(ImagePredictionLabel label) {
-    return LabelInfoDTO.builder()
-        .labelId(label.getId())
-        .classId(label.getProjectClass().getId())
-        .className(label.getProjectClass().getClassName())
-        .classColor(label.getProjectClass().getColorCode())
-        .position(label.getPosition())
-        .confidenceRate(label.getConfidenceRate())
-        .build();
-  }
-
-  private boolean calculateIsCorrect(
-      List<SnapshotImageLabel> gtLabels, List<ImagePredictionLabel> predLabels) {
-    if (gtLabels.isEmpty() || predLabels.isEmpty()) {
-      return false;
-    }
-
-    // Simple correctness check: GT class IDs match Pred class IDs
-    List<Long> gtClassIds =
-        gtLabels.stream().map(SnapshotImageLabel::getClassId).sorted().collect(Collectors.toList());
-    List<Long> predClassIds =
-        predLabels.stream()
-            .map(l -> l.getProjectClass().getId())
-            .sorted()
-            .collect(Collectors.toList());
-
-    return gtClassIds.equals(predClassIds);
+  private static boolean isOfClass(LabelInfoDTO label, Long classId) {
+    return label != null && classId.equals(label.getClassId());
   }
 
   private CellDetailResponse buildEmptyCellDetailResponse(
@@ -718,10 +560,12 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
 
     // 2. Query images for evaluation set from snapshot
     String splitValue = convertEvaluationSetToSplit(evaluationSet);
-    List<SnapshotImage> images =
-        snapshotImageRepository.findBySnapshotIdAndSplit(snapshotId, splitValue);
+    List<Long> imageIds =
+        snapshotImageRepository.findImageNamesBySnapshotIdAndSplit(snapshotId, splitValue).stream()
+            .map(row -> (Long) row[0])
+            .collect(Collectors.toList());
 
-    if (images.isEmpty()) {
+    if (imageIds.isEmpty()) {
       log.info(
           "No images found for snapshotId={}, split={}, returning empty list",
           snapshotId,
@@ -729,13 +573,12 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
       return new ArrayList<>();
     }
 
-    List<Long> imageIds = images.stream().map(SnapshotImage::getId).collect(Collectors.toList());
-
-    // 3. Query prediction labels for this model, filtered by imageIds
-    List<ImagePredictionLabel> labels =
-        imagePredictionLabelRepository.findByModelId(modelId).stream()
-            .filter(p -> imageIds.contains(p.getImage().getId()))
-            .collect(Collectors.toList());
+    // 3. Query prediction labels for this model, in batches of imageIds
+    List<ImagePredictionLabel> labels = new ArrayList<>();
+    for (int from = 0; from < imageIds.size(); from += IMAGE_BATCH_SIZE) {
+      List<Long> batch = imageIds.subList(from, Math.min(from + IMAGE_BATCH_SIZE, imageIds.size()));
+      labels.addAll(imagePredictionLabelRepository.findByModelIdAndImageIdIn(modelId, batch));
+    }
 
     // 4. Convert to DTO with className
     List<PredictionLabelDTO> dtos =
@@ -787,10 +630,12 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
 
     // 2. Query images for evaluation set from snapshot
     String splitValue = convertEvaluationSetToSplit(evaluationSet);
-    List<SnapshotImage> images =
-        snapshotImageRepository.findBySnapshotIdAndSplit(snapshotId, splitValue);
+    List<Long> imageIds =
+        snapshotImageRepository.findImageNamesBySnapshotIdAndSplit(snapshotId, splitValue).stream()
+            .map(row -> (Long) row[0])
+            .collect(Collectors.toList());
 
-    if (images.isEmpty()) {
+    if (imageIds.isEmpty()) {
       log.info(
           "No images found for snapshotId={}, split={}, returning empty list",
           snapshotId,
@@ -798,8 +643,6 @@ public class ConfusionMatrixServiceImpl implements ConfusionMatrixService {
       return new ArrayList<>();
     }
 
-    List<Long> imageIds = images.stream().map(SnapshotImage::getId).collect(Collectors.toList());
-
     // 3. Query ground truth labels from snapshot, filtered by imageIds
     List<SnapshotImageLabel> labels =
         snapshotImageLabelRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds);
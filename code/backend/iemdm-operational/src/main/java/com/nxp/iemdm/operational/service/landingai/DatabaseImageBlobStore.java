@@ -0,0 +1,131 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ImageBlobStore} that keeps file content in the {@code image_file_stream} bytea column of
+ * {@code la_images_file}. Ranges are read with {@code substring()} in fixed size slices, so the
+ * heap used per request is bounded by the slice size instead of the file size, and byte ranges can
+ * be served without reading the bytes in front of them.
+ */
+@Slf4j
+@Component
+public class DatabaseImageBlobStore implements ImageBlobStore {
+
+  public static final String BACKEND = "db";
+
+  /** Size of one slice read from the database and written to the output */
+  private static final int SLICE_SIZE = 1024 * 1024; // 1MB
+
+  /** Upper bound of IDs bound into one IN list, well below the PostgreSQL parameter limit. */
+  private static final int MAX_IDS_PER_QUERY = 500;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public String getBackend() {
+    return BACKEND;
+  }
+
+  @Override
+  public void write(Long fileId, byte[] content) {
+    entityManager
+        .createNativeQuery("UPDATE la_images_file SET image_file_stream = :content WHERE id = :id")
+        .setParameter("content", content)
+        .setParameter("id", fileId)
+        .executeUpdate();
+  }
+
+  @Override
+  public byte[] read(Long fileId) {
+    List<byte[]> result =
+        entityManager
+            .createQuery(
+                "SELECT imf.imageFileStream FROM ImageFile imf WHERE imf.id = :fileId",
+                byte[].class)
+            .setParameter("fileId", fileId)
+            .getResultList();
+    return result.isEmpty() ? null : result.get(0);
+  }
+
+  @Override
+  public Map<Long, byte[]> readAll(Collection<Long> fileIds) {
+    Map<Long, byte[]> result = new HashMap<>();
+    List<Long> ids = new ArrayList<>(fileIds);
+    for (int i = 0; i < ids.size(); i += MAX_IDS_PER_QUERY) {
+      List<Object[]> rows =
+          entityManager
+              .createQuery(
+                  "SELECT imf.id, imf.imageFileStream FROM ImageFile imf WHERE imf.id IN :ids",
+                  Object[].class)
+              .setParameter("ids", ids.subList(i, Math.min(i + MAX_IDS_PER_QUERY, ids.size())))
+              .getResultList();
+      for (Object[] row : rows) {
+        if (row[1] != null) {
+          result.put((Long) row[0], (byte[]) row[1]);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Long getLength(Long fileId) {
+    List<?> result =
+        entityManager
+            .createNativeQuery(
+                "SELECT octet_length(image_file_stream) FROM la_images_file WHERE id = :fileId")
+            .setParameter("fileId", fileId)
+            .getResultList();
+    if (result.isEmpty() || result.get(0) == null) {
+      return null;
+    }
+    return ((Number) result.get(0)).longValue();
+  }
+
+  @Override
+  public void copyRange(Long fileId, long offset, long length, OutputStream out)
+      throws IOException {
+    long position = offset;
+    long end = offset + length;
+    while (position < end) {
+      int sliceLength = (int) Math.min(SLICE_SIZE, end - position);
+      byte[] slice =
+          (byte[])
+              entityManager
+                  .createNativeQuery(
+                      "SELECT substring(image_file_stream"
+                          + " FROM CAST(:start AS integer) FOR CAST(:length AS integer))"
+                          + " FROM la_images_file WHERE id = :fileId")
+                  .setParameter("start", (int) (position + 1)) // SQL substring is 1-based
+                  .setParameter("length", sliceLength)
+                  .setParameter("fileId", fileId)
+                  .getSingleResult();
+      if (slice == null || slice.length == 0) {
+        log.warn("File {} ended at byte {} before the expected end {}", fileId, position, end);
+        break;
+      }
+      out.write(slice);
+      position += slice.length;
+    }
+    out.flush();
+  }
+
+  @Override
+  public void delete(Long fileId) {
+    entityManager
+        .createNativeQuery("UPDATE la_images_file SET image_file_stream = NULL WHERE id = :id")
+        .setParameter("id", fileId)
+        .executeUpdate();
+  }
+}
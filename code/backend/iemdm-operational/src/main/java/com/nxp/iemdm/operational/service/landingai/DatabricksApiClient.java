@@ -1,11 +1,18 @@
 package com.nxp.iemdm.operational.service.landingai;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nxp.iemdm.shared.dto.landingai.TrainingResultResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
@@ -23,18 +30,22 @@ import org.springframework.web.util.UriComponentsBuilder;
 public class DatabricksApiClient {
 
   private final RestTemplate restTemplate;
+  private final ObjectMapper objectMapper;
 
   @Value("${databricks.api.base-url:http://localhost:8083}")
   private String databricksBaseUrl;
 
   /**
-   * Call Databricks API to get training results.
+   * Call Databricks API to get training results, telling results that do not exist yet apart from
+   * failed calls. A 404, 409 or 425 response or an empty body means the run has no results yet.
+   * The response is written to a temporary file and only its summary is bound; the caller must
+   * close the returned fetch to delete the file.
    *
    * @param modelFullName Model full name
    * @param trackId Track ID
-   * @return TrainingResultResponse or null if failed
+   * @return the outcome, never null
    */
-  public TrainingResultResponse getTrainingResults(String modelFullName, String trackId) {
+  public TrainingResultFetch fetchTrainingResults(String modelFullName, String trackId) {
     try {
       // Build URL with query parameters
       String url =
@@ -46,28 +57,22 @@ public class DatabricksApiClient {
 
       log.debug("Calling Databricks API: {}", url);
 
-      // Call API using RestTemplate
-      ResponseEntity<TrainingResultResponse> response =
-          restTemplate.getForEntity(url, TrainingResultResponse.class);
-
-      if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-        log.debug("Successfully retrieved training results for trackId: {}", trackId);
-        return response.getBody();
-      } else {
-        log.error(
-            "Databricks API returned non-OK status: {} for trackId: {}",
-            response.getStatusCode(),
-            trackId);
-        return null;
-      }
+      // Call API using RestTemplate, spooling the body instead of binding it
+      return restTemplate.execute(
+          url, HttpMethod.GET, null, response -> spoolResponse(response, trackId));
 
     } catch (HttpClientErrorException e) {
+      if (isNotReadyStatus(e.getStatusCode().value())) {
+        log.debug(
+            "Training results not available yet for trackId {}: {}", trackId, e.getStatusCode());
+        return TrainingResultFetch.notReady();
+      }
       log.error(
           "HTTP client error calling Databricks API for trackId {}: {} - {}",
           trackId,
           e.getStatusCode(),
           e.getMessage());
-      return null;
+      return TrainingResultFetch.failed();
 
     } catch (HttpServerErrorException e) {
       log.error(
@@ -75,22 +80,72 @@ public class DatabricksApiClient {
           trackId,
           e.getStatusCode(),
           e.getMessage());
-      return null;
+      return TrainingResultFetch.failed();
 
     } catch (ResourceAccessException e) {
       log.error(
           "Timeout or connection error calling Databricks API for trackId {}: {}",
           trackId,
           e.getMessage());
-      return null;
+      return TrainingResultFetch.failed();
 
     } catch (Exception e) {
       log.error(
           "Unexpected error calling Databricks API for trackId {}: {}", trackId, e.getMessage(), e);
-      return null;
+      return TrainingResultFetch.failed();
+    }
+  }
+
+  /**
+   * Copy a training result response to a temporary file and read its summary. The prediction images
+   * are left in the file, to be streamed by {@link TrainingResultReader} while they are persisted.
+   */
+  private TrainingResultFetch spoolResponse(ClientHttpResponse response, String trackId)
+      throws IOException {
+    if (response.getStatusCode() != HttpStatus.OK) {
+      if (response.getStatusCode().is2xxSuccessful()) {
+        log.debug(
+            "Databricks API returned no results yet: {} for trackId: {}",
+            response.getStatusCode(),
+            trackId);
+        return TrainingResultFetch.notReady();
+      }
+      log.error(
+          "Databricks API returned non-OK status: {} for trackId: {}",
+          response.getStatusCode(),
+          trackId);
+      return TrainingResultFetch.failed();
+    }
+
+    Path document = Files.createTempFile("training-result-", ".json");
+    try {
+      try (InputStream body = response.getBody()) {
+        Files.copy(body, document, StandardCopyOption.REPLACE_EXISTING);
+      }
+      if (Files.size(document) == 0) {
+        Files.delete(document);
+        log.debug("Databricks API returned an empty body for trackId: {}", trackId);
+        return TrainingResultFetch.notReady();
+      }
+
+      TrainingResultResponse summary = TrainingResultReader.readSummary(objectMapper, document);
+      log.debug(
+          "Successfully retrieved training results for trackId: {} ({} bytes)",
+          trackId,
+          Files.size(document));
+      return TrainingResultFetch.ready(summary, document);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(document);
+      throw e;
     }
   }
 
+  private static boolean isNotReadyStatus(int status) {
+    return status == HttpStatus.NOT_FOUND.value()
+        || status == HttpStatus.CONFLICT.value()
+        || status == HttpStatus.TOO_EARLY.value();
+  }
+
   /**
    * Validate that required fields are present in the API response.
    *
@@ -169,11 +224,7 @@ public class DatabricksApiClient {
       isValid = false;
     }
 
-    // prediction_images 可以是空陣列,不強制要求
-    if (response.getPredictionImages() == null) {
-      log.warn("API response missing prediction_images (will use empty list)");
-      // 不設為 invalid,因為 training 可能沒有 prediction images
-    }
+    // prediction_images 不在此驗證，由 TrainingResultReader 串流讀取
 
     return isValid;
   }
@@ -0,0 +1,281 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+/**
+ * Region of a label used for IoU matching. Boxes stay axis aligned so the common box-to-box case
+ * needs no polygon clipping; oriented boxes and polygons are kept as counter-clockwise polygons.
+ *
+ * <p>The intersection of two polygons is computed exactly by clipping against the convex one
+ * (Sutherland-Hodgman). Only when both polygons are concave is it estimated by sampling a grid over
+ * the overlap of their bounding boxes.
+ */
+final class EvaluationShape {
+
+  /** Labels without position (classification): cover the whole image, overlap only each other */
+  static final EvaluationShape WHOLE_IMAGE =
+      new EvaluationShape(
+          Double.NEGATIVE_INFINITY,
+          Double.NEGATIVE_INFINITY,
+          Double.POSITIVE_INFINITY,
+          Double.POSITIVE_INFINITY,
+          null,
+          true,
+          Double.POSITIVE_INFINITY);
+
+  /** Samples per axis when both polygons are concave */
+  private static final int SAMPLES = 64;
+
+  final double minX;
+  final double minY;
+  final double maxX;
+  final double maxY;
+
+  /** Counter-clockwise x, y pairs, null for axis aligned boxes */
+  private final double[] polygon;
+
+  private final boolean convex;
+  private final double area;
+
+  private EvaluationShape(
+      double minX,
+      double minY,
+      double maxX,
+      double maxY,
+      double[] polygon,
+      boolean convex,
+      double area) {
+    this.minX = minX;
+    this.minY = minY;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    this.polygon = polygon;
+    this.convex = convex;
+    this.area = area;
+  }
+
+  /**
+   * Build the shape of a label.
+   *
+   * @param position the stored position JSON, null for labels without position
+   * @param geometry the compiled position, null if it could not be parsed
+   * @return the shape, or null if the position has no usable geometry
+   */
+  static EvaluationShape of(String position, LabelGeometry geometry) {
+    if (position == null || position.isBlank()) {
+      return WHOLE_IMAGE;
+    }
+    if (geometry == null) {
+      return null;
+    }
+
+    double[] corners = geometry.getCorners();
+    if (corners != null && (geometry.isObb() || !geometry.hasBox())) {
+      return ofPolygon(corners);
+    }
+    if (geometry.hasPolygon() && geometry.getPolygon().length >= 6) {
+      return ofPolygon(geometry.getPolygon());
+    }
+    if (geometry.hasBox() && geometry.getWidth() > 0 && geometry.getHeight() > 0) {
+      // Center format, see TrainingService#generateDetectionLabel
+      double halfWidth = geometry.getWidth() / 2;
+      double halfHeight = geometry.getHeight() / 2;
+      return new EvaluationShape(
+          geometry.getX() - halfWidth,
+          geometry.getY() - halfHeight,
+          geometry.getX() + halfWidth,
+          geometry.getY() + halfHeight,
+          null,
+          true,
+          geometry.getWidth() * geometry.getHeight());
+    }
+    return null;
+  }
+
+  private static EvaluationShape ofPolygon(double[] coords) {
+    int length = coords.length & ~1;
+    if (length >= 4 && coords[0] == coords[length - 2] && coords[1] == coords[length - 1]) {
+      length -= 2; // explicitly closed ring
+    }
+    if (length < 6) {
+      return null;
+    }
+
+    double[] points = new double[length];
+    System.arraycopy(coords, 0, points, 0, length);
+    double signedArea = signedArea(points, length);
+    if (signedArea == 0) {
+      return null;
+    }
+    if (signedArea < 0) {
+      reverse(points);
+    }
+
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < length; i += 2) {
+      minX = Math.min(minX, points[i]);
+      maxX = Math.max(maxX, points[i]);
+      minY = Math.min(minY, points[i + 1]);
+      maxY = Math.max(maxY, points[i + 1]);
+    }
+    return new EvaluationShape(
+        minX, minY, maxX, maxY, points, isConvex(points), Math.abs(signedArea));
+  }
+
+  boolean isWholeImage() {
+    return this == WHOLE_IMAGE;
+  }
+
+  /**
+   * Intersection over union of two shapes.
+   *
+   * @return the IoU in [0, 1]; whole-image shapes have IoU 1 with each other and 0 with others
+   */
+  static double iou(EvaluationShape a, EvaluationShape b) {
+    if (a.isWholeImage() || b.isWholeImage()) {
+      return a.isWholeImage() && b.isWholeImage() ? 1 : 0;
+    }
+    double overlapWidth = Math.min(a.maxX, b.maxX) - Math.max(a.minX, b.minX);
+    double overlapHeight = Math.min(a.maxY, b.maxY) - Math.max(a.minY, b.minY);
+    if (overlapWidth <= 0 || overlapHeight <= 0) {
+      return 0;
+    }
+
+    double intersection;
+    if (a.polygon == null && b.polygon == null) {
+      intersection = overlapWidth * overlapHeight;
+    } else if (b.convex) {
+      intersection = clippedArea(a.points(), b.points());
+    } else if (a.convex) {
+      intersection = clippedArea(b.points(), a.points());
+    } else {
+      intersection = sampledIntersection(a, b);
+    }
+
+    double union = a.area + b.area - intersection;
+    return union > 0 ? Math.min(1, intersection / union) : 0;
+  }
+
+  private double[] points() {
+    if (polygon != null) {
+      return polygon;
+    }
+    return new double[] {minX, minY, maxX, minY, maxX, maxY, minX, maxY};
+  }
+
+  /** Area of {@code subject} clipped by the convex counter-clockwise polygon {@code clip} */
+  private static double clippedArea(double[] subject, double[] clip) {
+    double[] output = subject;
+    int outputLength = subject.length;
+    for (int c = 0; c < clip.length && outputLength > 0; c += 2) {
+      double cx1 = clip[c];
+      double cy1 = clip[c + 1];
+      double cx2 = clip[(c + 2) % clip.length];
+      double cy2 = clip[(c + 3) % clip.length];
+
+      double[] input = output;
+      int inputLength = outputLength;
+      output = new double[inputLength * 2 + 4];
+      outputLength = 0;
+
+      double px = input[inputLength - 2];
+      double py = input[inputLength - 1];
+      double pSide = side(cx1, cy1, cx2, cy2, px, py);
+      for (int i = 0; i < inputLength; i += 2) {
+        double qx = input[i];
+        double qy = input[i + 1];
+        double qSide = side(cx1, cy1, cx2, cy2, qx, qy);
+        if ((qSide >= 0) != (pSide >= 0)) {
+          double t = pSide / (pSide - qSide);
+          output[outputLength++] = px + t * (qx - px);
+          output[outputLength++] = py + t * (qy - py);
+        }
+        if (qSide >= 0) {
+          output[outputLength++] = qx;
+          output[outputLength++] = qy;
+        }
+        px = qx;
+        py = qy;
+        pSide = qSide;
+      }
+    }
+    return outputLength < 6 ? 0 : Math.abs(signedArea(output, outputLength));
+  }
+
+  /** Estimate the intersection of two concave polygons on a grid over their bounding box overlap */
+  private static double sampledIntersection(EvaluationShape a, EvaluationShape b) {
+    double x0 = Math.max(a.minX, b.minX);
+    double y0 = Math.max(a.minY, b.minY);
+    double stepX = (Math.min(a.maxX, b.maxX) - x0) / SAMPLES;
+    double stepY = (Math.min(a.maxY, b.maxY) - y0) / SAMPLES;
+    int inside = 0;
+    for (int i = 0; i < SAMPLES; i++) {
+      double y = y0 + (i + 0.5) * stepY;
+      for (int j = 0; j < SAMPLES; j++) {
+        double x = x0 + (j + 0.5) * stepX;
+        if (contains(a.polygon, x, y) && contains(b.polygon, x, y)) {
+          inside++;
+        }
+      }
+    }
+    return inside * stepX * stepY;
+  }
+
+  /** Even-odd point in polygon test */
+  private static boolean contains(double[] points, double x, double y) {
+    boolean inside = false;
+    for (int i = 0, j = points.length - 2; i < points.length; j = i, i += 2) {
+      double xi = points[i];
+      double yi = points[i + 1];
+      double xj = points[j];
+      double yj = points[j + 1];
+      if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
+
+  /** Positive if (x, y) is left of the directed edge (x1, y1) -> (x2, y2) */
+  private static double side(double x1, double y1, double x2, double y2, double x, double y) {
+    return (x2 - x1) * (y - y1) - (y2 - y1) * (x - x1);
+  }
+
+  private static double signedArea(double[] points, int length) {
+    double sum = 0;
+    for (int i = 0, j = length - 2; i < length; j = i, i += 2) {
+      sum += points[j] * points[i + 1] - points[i] * points[j + 1];
+    }
+    return sum / 2;
+  }
+
+  private static boolean isConvex(double[] points) {
+    int n = points.length;
+    for (int i = 0; i < n; i += 2) {
+      double cross =
+          side(
+              points[i],
+              points[i + 1],
+              points[(i + 2) % n],
+              points[(i + 3) % n],
+              points[(i + 4) % n],
+              points[(i + 5) % n]);
+      if (cross < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void reverse(double[] points) {
+    for (int i = 0, j = points.length - 2; i < j; i += 2, j -= 2) {
+      double x = points[i];
+      double y = points[i + 1];
+      points[i] = points[j];
+      points[i + 1] = points[j + 1];
+      points[j] = x;
+      points[j + 1] = y;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ImageBlobStore} that keeps file content on a local (or mounted) file system below a root
+ * directory. Files are spread over two levels of 256 directories taken from the low bytes of the
+ * file ID ({@code <root>/4f/02/12345.bin}), which keeps every directory small even with millions of
+ * files. Writes go to a temporary file that is moved into place, so readers never see partial
+ * content. Ranges are served with {@link FileChannel#transferTo}, without copying the file through
+ * the heap.
+ */
+@Slf4j
+@Component
+public class FileSystemImageBlobStore implements ImageBlobStore {
+
+  public static final String BACKEND = "filesystem";
+
+  private static final String FILE_SUFFIX = ".bin";
+
+  private final Path root;
+
+  public FileSystemImageBlobStore(
+      @Value("${landingai.image.storage.filesystem.root:${user.home}/landingai/images}")
+          String root) {
+    this.root = Path.of(root).toAbsolutePath();
+  }
+
+  @Override
+  public String getBackend() {
+    return BACKEND;
+  }
+
+  @Override
+  public void write(Long fileId, byte[] content) throws IOException {
+    Path target = pathFor(fileId);
+    Files.createDirectories(target.getParent());
+    Path temp = Files.createTempFile(target.getParent(), fileId + "-", ".tmp");
+    try {
+      Files.write(temp, content, StandardOpenOption.WRITE);
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Override
+  public byte[] read(Long fileId) throws IOException {
+    try {
+      return Files.readAllBytes(pathFor(fileId));
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public Long getLength(Long fileId) throws IOException {
+    Path path = pathFor(fileId);
+    return Files.exists(path) ? Files.size(path) : null;
+  }
+
+  @Override
+  public void copyRange(Long fileId, long offset, long length, OutputStream out)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(pathFor(fileId), StandardOpenOption.READ)) {
+      WritableByteChannel target = Channels.newChannel(out);
+      long position = offset;
+      long end = Math.min(offset + length, channel.size());
+      while (position < end) {
+        long transferred = channel.transferTo(position, end - position, target);
+        if (transferred <= 0) {
+          log.warn("File {} ended at byte {} before the expected end {}", fileId, position, end);
+          break;
+        }
+        position += transferred;
+      }
+    }
+    out.flush();
+  }
+
+  @Override
+  public void delete(Long fileId) throws IOException {
+    Files.deleteIfExists(pathFor(fileId));
+  }
+
+  /**
+   * Location of a file below the root directory.
+   *
+   * @param fileId the file ID
+   * @return the path, whether or not the file exists
+   */
+  Path pathFor(Long fileId) {
+    String level1 = String.format("%02x", fileId & 0xff);
+    String level2 = String.format("%02x", (fileId >> 8) & 0xff);
+    return root.resolve(level1).resolve(level2).resolve(fileId + FILE_SUFFIX);
+  }
+}
@@ -0,0 +1,81 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that moves existing image files into the active storage backend, for example from
+ * the database into the file system after {@code landingai.image.storage.backend} was switched.
+ * Files are moved in small batches, each committed on its own with a pause in between, so the
+ * migration can run next to normal traffic and simply resumes after a restart.
+ */
+@Slf4j
+@Component
+public class ImageBlobMigrator {
+
+  private final ImageFileStore imageFileStore;
+
+  @Value("${landingai.image.storage.migrate.enabled:false}")
+  private boolean enabled;
+
+  @Value("${landingai.image.storage.migrate.batch-size:100}")
+  private int batchSize;
+
+  @Value("${landingai.image.storage.migrate.pause-ms:500}")
+  private long pauseMs;
+
+  private ExecutorService executor;
+
+  @Autowired
+  public ImageBlobMigrator(ImageFileStore imageFileStore) {
+    this.imageFileStore = imageFileStore;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      return;
+    }
+    executor = Executors.newSingleThreadExecutor();
+    executor.submit(this::migrate);
+    log.info(
+        "Image file migration to backend '{}' started, batch size {}",
+        imageFileStore.getActiveBackend(),
+        batchSize);
+  }
+
+  /** Stop the migration when the bean is destroyed; the current batch is rolled back */
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private void migrate() {
+    long total = 0;
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        int moved = imageFileStore.migrateBatch(batchSize);
+        if (moved == 0) {
+          break;
+        }
+        total += moved;
+        log.info("Moved {} image files to '{}'", total, imageFileStore.getActiveBackend());
+        Thread.sleep(pauseMs);
+      }
+      log.info("Image file migration finished, {} files moved", total);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.info("Image file migration interrupted after {} files", total);
+    } catch (Exception e) {
+      log.error("Image file migration stopped after {} files: {}", total, e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Storage backend for the bytes of {@code la_images_file} rows. The row itself (name, hash,
+ * creator) always stays in the database; {@code la_images_file.storage_backend} names the store
+ * that holds its content, so files can live in different stores while a migration runs. Content is
+ * addressed by file ID and never changes once written.
+ *
+ * <p>Callers go through {@link ImageFileStore}, which looks up the backend of each file and
+ * dispatches to the matching implementation.
+ */
+public interface ImageBlobStore {
+
+  /**
+   * @return the backend name stored in {@code la_images_file.storage_backend}
+   */
+  String getBackend();
+
+  /**
+   * Write the content of a file. Runs in the caller's transaction; the row must already exist.
+   *
+   * @param fileId the file ID
+   * @param content the file content
+   * @throws IOException if the content cannot be written
+   */
+  void write(Long fileId, byte[] content) throws IOException;
+
+  /**
+   * Read the whole content of a file.
+   *
+   * @param fileId the file ID
+   * @return the content, or null if this store holds no content for the file
+   * @throws IOException if the content cannot be read
+   */
+  byte[] read(Long fileId) throws IOException;
+
+  /**
+   * Read the content of several files. Implementations override this when they can load a batch
+   * cheaper than one file at a time.
+   *
+   * @param fileIds the file IDs
+   * @return file ID to content; files without content are absent from the map
+   * @throws IOException if the content cannot be read
+   */
+  default Map<Long, byte[]> readAll(Collection<Long> fileIds) throws IOException {
+    Map<Long, byte[]> result = new HashMap<>();
+    for (Long fileId : fileIds) {
+      byte[] content = read(fileId);
+      if (content != null) {
+        result.put(fileId, content);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the size of a file without reading its content.
+   *
+   * @param fileId the file ID
+   * @return the size in bytes, or null if this store holds no content for the file
+   * @throws IOException if the size cannot be determined
+   */
+  Long getLength(Long fileId) throws IOException;
+
+  /**
+   * Copy a byte range of a file to an output stream.
+   *
+   * @param fileId the file ID
+   * @param offset the first byte to copy (0-based)
+   * @param length the number of bytes to copy
+   * @param out the stream to write to
+   * @throws IOException if reading the file or writing to the stream fails
+   */
+  void copyRange(Long fileId, long offset, long length, OutputStream out) throws IOException;
+
+  /**
+   * Remove the content of a file. Called once the row is deleted or its content was moved to
+   * another store; missing content is not an error.
+   *
+   * @param fileId the file ID
+   * @throws IOException if the content cannot be removed
+   */
+  void delete(Long fileId) throws IOException;
+}
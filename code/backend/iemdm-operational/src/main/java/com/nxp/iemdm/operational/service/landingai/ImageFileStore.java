@@ -0,0 +1,293 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.shared.repository.jpa.landingai.ImageFileRepository;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Component that writes, reads and releases image files. Each row of {@code la_images_file} names
+ * the {@link ImageBlobStore} holding its content; new files go to the store selected with {@code
+ * landingai.image.storage.backend} and reads are dispatched per file, so files written before a
+ * backend switch stay readable until {@link ImageBlobMigrator} has moved them.
+ *
+ * <p>Files are addressed by the SHA-256 of their content: uploading content that is already stored
+ * (re-importing a capture folder into another project, retrying a ZIP) reuses the existing file ID
+ * instead of writing the bytes again. A file is deleted only when no image and no snapshot image
+ * references it anymore.
+ */
+@Slf4j
+@Component
+public class ImageFileStore {
+
+  private final ImageFileRepository imageFileRepository;
+  private final Map<String, ImageBlobStore> stores;
+
+  @Value("${landingai.image.storage.backend:" + DatabaseImageBlobStore.BACKEND + "}")
+  private String activeBackend;
+
+  @Autowired
+  public ImageFileStore(ImageFileRepository imageFileRepository, List<ImageBlobStore> stores) {
+    this.imageFileRepository = imageFileRepository;
+    this.stores =
+        stores.stream().collect(Collectors.toMap(ImageBlobStore::getBackend, Function.identity()));
+  }
+
+  @PostConstruct
+  public void init() {
+    storeFor(activeBackend);
+    log.info("Image files are written to storage backend '{}'", activeBackend);
+  }
+
+  /**
+   * @return the backend new files are written to
+   */
+  public String getActiveBackend() {
+    return activeBackend;
+  }
+
+  /**
+   * Store file content, reusing an existing file with identical content. Runs in the caller's
+   * transaction, which keeps a reused file locked against {@link #release} until it commits.
+   *
+   * @param fileName the file name to store for new content
+   * @param content the file content
+   * @param contentHash SHA-256 of the content, see {@link ImageIngestPipeline#sha256Hex}
+   * @param userId the user identifier
+   * @return the ID of the new or existing file
+   */
+  public Long store(String fileName, byte[] content, String contentHash, String userId) {
+    Optional<Long> existing = imageFileRepository.findIdByContentHashForKeyShare(contentHash);
+    if (existing.isPresent()) {
+      log.debug("Reusing image file {} for {} (hash {})", existing.get(), fileName, contentHash);
+      return existing.get();
+    }
+
+    // A concurrent upload of the same content may have inserted it since the lookup above
+    Optional<Long> inserted =
+        imageFileRepository.insertIfAbsent(fileName, contentHash, activeBackend, userId);
+    if (inserted.isEmpty()) {
+      return imageFileRepository
+          .findIdByContentHashForKeyShare(contentHash)
+          .orElseThrow(
+              () -> new IllegalStateException("Image file could not be stored: " + fileName));
+    }
+
+    // Content lands before the row commits; a rollback leaves at most an unreferenced blob behind
+    Long fileId = inserted.get();
+    try {
+      storeFor(activeBackend).write(fileId, content);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Image file content could not be written: " + fileName, e);
+    }
+    return fileId;
+  }
+
+  /**
+   * Read the whole content of a file.
+   *
+   * @param fileId the file ID
+   * @return the content, or empty if the file does not exist or has no content
+   */
+  public Optional<byte[]> read(Long fileId) {
+    if (fileId == null) {
+      return Optional.empty();
+    }
+    Optional<String> backend = imageFileRepository.findStorageBackendById(fileId);
+    if (backend.isEmpty()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.ofNullable(storeFor(backend.get()).read(fileId));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Image file " + fileId + " could not be read", e);
+    }
+  }
+
+  /**
+   * Read the content of several files with one lookup and one batch read per backend.
+   *
+   * @param fileIds the file IDs (nulls are ignored)
+   * @return file ID to content; missing files are absent from the map
+   */
+  public Map<Long, byte[]> readAll(Collection<Long> fileIds) {
+    List<Long> ids = fileIds.stream().filter(Objects::nonNull).distinct().toList();
+    Map<Long, byte[]> result = new HashMap<>();
+    if (ids.isEmpty()) {
+      return result;
+    }
+
+    Map<String, List<Long>> idsByBackend = new HashMap<>();
+    for (Object[] row : imageFileRepository.findStorageBackendsByIdIn(ids)) {
+      idsByBackend.computeIfAbsent((String) row[1], b -> new ArrayList<>()).add((Long) row[0]);
+    }
+    for (Map.Entry<String, List<Long>> entry : idsByBackend.entrySet()) {
+      try {
+        result.putAll(storeFor(entry.getKey()).readAll(entry.getValue()));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Image files could not be read", e);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the size of a file without reading its content.
+   *
+   * @param fileId the file ID
+   * @return the size in bytes, or null if the file does not exist or has no content
+   * @throws IOException if the size cannot be determined
+   */
+  public Long getFileLength(Long fileId) throws IOException {
+    Optional<String> backend = imageFileRepository.findStorageBackendById(fileId);
+    return backend.isPresent() ? storeFor(backend.get()).getLength(fileId) : null;
+  }
+
+  /**
+   * Copy a byte range of a file to an output stream.
+   *
+   * @param fileId the file ID
+   * @param offset the first byte to copy (0-based)
+   * @param length the number of bytes to copy
+   * @param out the stream to write to
+   * @throws IOException if reading the file or writing to the stream fails
+   */
+  public void copyRange(Long fileId, long offset, long length, OutputStream out)
+      throws IOException {
+    String backend =
+        imageFileRepository
+            .findStorageBackendById(fileId)
+            .orElseThrow(() -> new IOException("Image file not found: " + fileId));
+    storeFor(backend).copyRange(fileId, offset, length, out);
+  }
+
+  /**
+   * Delete the given files if nothing references them anymore. Call after the referencing images
+   * have been deleted, in the same transaction. Content outside the database is removed once the
+   * transaction commits.
+   *
+   * @param fileIds file IDs of the deleted images (nulls are ignored)
+   * @return number of files deleted
+   */
+  public int release(Collection<Long> fileIds) {
+    Collection<Long> candidates =
+        fileIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    if (candidates.isEmpty()) {
+      return 0;
+    }
+
+    List<Object[]> deleted = imageFileRepository.deleteUnreferenced(candidates);
+    for (Object[] row : deleted) {
+      String backend = (String) row[1];
+      if (!DatabaseImageBlobStore.BACKEND.equals(backend)) {
+        deleteAfterCommit(storeFor(backend), ((Number) row[0]).longValue());
+      }
+    }
+    log.debug("Released {} of {} candidate image files", deleted.size(), candidates.size());
+    return deleted.size();
+  }
+
+  /**
+   * Move the content of the oldest files that are not in the active backend into it. Each file is
+   * copied, re-pointed and then removed from its old backend, so it stays readable throughout.
+   *
+   * @param batchSize maximum number of files to move
+   * @return number of files moved; 0 when every file is in the active backend
+   */
+  @Transactional
+  public int migrateBatch(int batchSize) {
+    ImageBlobStore target = storeFor(activeBackend);
+    List<Long> fileIds =
+        imageFileRepository.findIdsNotInBackend(activeBackend, PageRequest.of(0, batchSize));
+    Map<Long, String> sourceBackends = new HashMap<>();
+    for (Object[] row : imageFileRepository.findStorageBackendsByIdIn(fileIds)) {
+      sourceBackends.put((Long) row[0], (String) row[1]);
+    }
+
+    int moved = 0;
+    for (Long fileId : fileIds) {
+      ImageBlobStore source = storeFor(sourceBackends.get(fileId));
+      try {
+        byte[] content = source.read(fileId);
+        if (content == null) {
+          log.warn("Image file {} has no content in backend {}", fileId, source.getBackend());
+          continue;
+        }
+        target.write(fileId, content);
+        imageFileRepository.updateStorageBackend(fileId, activeBackend);
+        if (DatabaseImageBlobStore.BACKEND.equals(source.getBackend())) {
+          source.delete(fileId);
+        } else {
+          deleteAfterCommit(source, fileId);
+        }
+        moved++;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Image file " + fileId + " could not be migrated", e);
+      }
+    }
+    return moved;
+  }
+
+  /**
+   * Strong ETag for a stored file. File content never changes once written, so the file ID
+   * identifies the content.
+   *
+   * @param fileId the file ID
+   * @return the quoted ETag value
+   */
+  public static String etagFor(Long fileId) {
+    return "\"file-" + fileId + "\"";
+  }
+
+  private ImageBlobStore storeFor(String backend) {
+    ImageBlobStore store = stores.get(backend);
+    if (store == null) {
+      throw new IllegalStateException("Unknown image storage backend: " + backend);
+    }
+    return store;
+  }
+
+  private void deleteAfterCommit(ImageBlobStore store, Long fileId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      deleteQuietly(store, fileId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            deleteQuietly(store, fileId);
+          }
+        });
+  }
+
+  private static void deleteQuietly(ImageBlobStore store, Long fileId) {
+    try {
+      store.delete(fileId);
+    } catch (IOException e) {
+      log.warn(
+          "Could not delete content of image file {} from {}: {}",
+          fileId,
+          store.getBackend(),
+          e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,249 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.exception.landingai.ImageProcessingException;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component for turning uploaded image bytes into everything the image tables need: dimensions,
+ * JPEG thumbnail, thumbnail scale ratios and the JPEG file content. Each file is decoded exactly
+ * once; dimensions are read from the image header and the thumbnail and transcode are both drawn
+ * from that single raster. JPEG input is stored as-is without a transcode. The SHA-256 of the
+ * stored content is computed here as well, on the decode workers, for file deduplication.
+ */
+@Component
+@Slf4j
+public class ImageIngestPipeline {
+
+  public static final String STAGE_HEADER = "header";
+  public static final String STAGE_DECODE = "decode";
+  public static final String STAGE_THUMBNAIL = "thumbnail";
+  public static final String STAGE_TRANSCODE = "transcode";
+  public static final String STAGE_HASH = "hash";
+  public static final String STAGE_PERSIST = "persist";
+
+  private static final int THUMBNAIL_MAX_SIZE = 200;
+
+  /**
+   * Process the raw bytes of one image.
+   *
+   * @param fileName the original filename (used for logging and error messages)
+   * @param data the raw image bytes
+   * @return the ingested image with dimensions, thumbnail, ratios, JPEG content and stage timings
+   * @throws ImageProcessingException if the bytes cannot be decoded as an image
+   */
+  public IngestedImage ingest(String fileName, byte[] data) {
+    Map<String, Long> timings = new LinkedHashMap<>();
+
+    try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+      long start = System.nanoTime();
+      Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+      if (readers == null || !readers.hasNext()) {
+        throw new ImageProcessingException(
+            fileName, "read image", new IOException("Unable to read image"));
+      }
+
+      ImageReader reader = readers.next();
+      BufferedImage raster;
+      int width;
+      int height;
+      boolean jpeg;
+      try {
+        reader.setInput(input, true, true);
+        jpeg = "jpeg".equalsIgnoreCase(reader.getFormatName());
+        width = reader.getWidth(0);
+        height = reader.getHeight(0);
+        start = lap(timings, STAGE_HEADER, start);
+
+        raster = reader.read(0);
+        start = lap(timings, STAGE_DECODE, start);
+      } finally {
+        reader.dispose();
+      }
+
+      int thumbnailWidth;
+      int thumbnailHeight;
+      if (width > height) {
+        thumbnailWidth = THUMBNAIL_MAX_SIZE;
+        thumbnailHeight = (int) ((double) height / width * THUMBNAIL_MAX_SIZE);
+      } else {
+        thumbnailHeight = THUMBNAIL_MAX_SIZE;
+        thumbnailWidth = (int) ((double) width / height * THUMBNAIL_MAX_SIZE);
+      }
+
+      BufferedImage thumbnailImage =
+          new BufferedImage(thumbnailWidth, thumbnailHeight, BufferedImage.TYPE_INT_RGB);
+      Graphics2D thumbnailGraphics = thumbnailImage.createGraphics();
+      thumbnailGraphics.drawImage(raster, 0, 0, thumbnailWidth, thumbnailHeight, null);
+      thumbnailGraphics.dispose();
+      byte[] thumbnail = writeJpg(thumbnailImage);
+      start = lap(timings, STAGE_THUMBNAIL, start);
+
+      byte[] fileContent;
+      if (jpeg) {
+        fileContent = data;
+      } else {
+        // Flatten onto white so transparent areas don't turn black in the JPEG
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgbImage.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.drawImage(raster, 0, 0, null);
+        graphics.dispose();
+        fileContent = writeJpg(rgbImage);
+      }
+      start = lap(timings, STAGE_TRANSCODE, start);
+
+      String contentHash = sha256Hex(fileContent);
+      lap(timings, STAGE_HASH, start);
+
+      double widthRatio = (double) thumbnailWidth / width;
+      double heightRatio = (double) thumbnailHeight / height;
+
+      log.debug(
+          "Ingested {}: {}x{} -> thumbnail {}x{}, jpeg input: {}, stored size: {} bytes, timings: {}",
+          fileName,
+          width,
+          height,
+          thumbnailWidth,
+          thumbnailHeight,
+          jpeg,
+          fileContent.length,
+          timings);
+
+      return new IngestedImage(
+          width, height, thumbnail, widthRatio, heightRatio, fileContent, contentHash, timings);
+
+    } catch (IOException e) {
+      throw new ImageProcessingException(fileName, "process image", e);
+    }
+  }
+
+  /**
+   * Add per-stage timings of one image to a running total.
+   *
+   * @param totals the running totals (stage name to milliseconds)
+   * @param timings the timings of a single image
+   */
+  public static void accumulate(Map<String, Long> totals, Map<String, Long> timings) {
+    timings.forEach((stage, millis) -> totals.merge(stage, millis, Long::sum));
+  }
+
+  /**
+   * Convert filename extension to .jpg. Handles .png, .jpeg, and .jpg extensions.
+   *
+   * @param originalFilename the original filename
+   * @return filename with .jpg extension
+   */
+  public static String convertFilenameToJpg(String originalFilename) {
+    if (originalFilename == null || originalFilename.isEmpty()) {
+      return "image.jpg";
+    }
+
+    int lastDotIndex = originalFilename.lastIndexOf('.');
+    if (lastDotIndex > 0) {
+      // Replace extension with .jpg
+      return originalFilename.substring(0, lastDotIndex) + ".jpg";
+    }
+
+    // No extension found, append .jpg
+    return originalFilename + ".jpg";
+  }
+
+  /**
+   * Generate a unique filename to prevent overwrites during export. Format:
+   * {imageId}_{timestamp}_{originalFilename}
+   *
+   * @param imageId the image ID
+   * @param originalFilename the original filename
+   * @return unique filename
+   */
+  public static String generateUniqueFilename(Long imageId, String originalFilename) {
+    if (originalFilename == null || originalFilename.isEmpty()) {
+      originalFilename = "image.jpg";
+    }
+
+    // Sanitize original filename (remove path separators and special chars)
+    String sanitized = originalFilename.replaceAll("[/\\\\:*?\"<>|]", "_");
+
+    // Generate unique filename: {imageId}_{timestamp}_{originalFilename}
+    String timestamp = String.valueOf(System.currentTimeMillis());
+    String uniqueFilename = imageId + "_" + timestamp + "_" + sanitized;
+
+    log.debug("Generated unique filename: {} from original: {}", uniqueFilename, originalFilename);
+
+    return uniqueFilename;
+  }
+
+  /**
+   * SHA-256 of stored file content as lower case hex, the key used to deduplicate image files.
+   *
+   * @param content the file content
+   * @return the 64 character hex digest
+   */
+  public static String sha256Hex(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static long lap(Map<String, Long> timings, String stage, long start) {
+    long now = System.nanoTime();
+    timings.merge(stage, (now - start) / 1_000_000, Long::sum);
+    return now;
+  }
+
+  private static byte[] writeJpg(BufferedImage image) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ImageIO.write(image, "jpg", outputStream);
+    return outputStream.toByteArray();
+  }
+
+  /** Result of ingesting one image. */
+  public static class IngestedImage {
+    public final int width;
+    public final int height;
+    public final byte[] thumbnail;
+    public final double thumbnailWidthRatio;
+    public final double thumbnailHeightRatio;
+    public final byte[] fileContent;
+    public final String contentHash;
+    public final Map<String, Long> stageTimingsMs;
+
+    public IngestedImage(
+        int width,
+        int height,
+        byte[] thumbnail,
+        double thumbnailWidthRatio,
+        double thumbnailHeightRatio,
+        byte[] fileContent,
+        String contentHash,
+        Map<String, Long> stageTimingsMs) {
+      this.width = width;
+      this.height = height;
+      this.thumbnail = thumbnail;
+      this.thumbnailWidthRatio = thumbnailWidthRatio;
+      this.thumbnailHeightRatio = thumbnailHeightRatio;
+      this.fileContent = fileContent;
+      this.contentHash = contentHash;
+      this.stageTimingsMs = stageTimingsMs;
+    }
+  }
+}
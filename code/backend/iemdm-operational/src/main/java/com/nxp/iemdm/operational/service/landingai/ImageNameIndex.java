@@ -0,0 +1,136 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the image names of a training result to the images of a project. Names in results may
+ * carry a prefix the stored file name does not have, or the other way around, so besides exact
+ * matches a name also matches a file name it is a suffix of, or that is a suffix of it. Of several
+ * matching images the one with the lowest ID wins.
+ *
+ * <p>The index is built once per result set from the IDs and names of the project's images. File
+ * names are kept reversed and sorted, so all names ending with a given name form one range, and a
+ * sparse table gives the lowest ID of any range in constant time. A lookup therefore costs a hash
+ * lookup per suffix of the name plus two binary searches, independent of the project size.
+ */
+final class ImageNameIndex {
+
+  /** Lowest image ID per exact file name */
+  private final Map<String, Long> byName = new HashMap<>();
+
+  /** Reversed file names, sorted */
+  private final String[] reversedNames;
+
+  /** Lowest image ID of ranges of 2^level entries of {@link #reversedNames} */
+  private final long[][] minIds;
+
+  /**
+   * Build the index.
+   *
+   * @param rows rows of [id, fileName]
+   */
+  ImageNameIndex(List<Object[]> rows) {
+    List<Object[]> entries = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      Long id = (Long) row[0];
+      String fileName = (String) row[1];
+      if (fileName == null) {
+        continue;
+      }
+      byName.merge(fileName, id, Math::min);
+      entries.add(new Object[] {new StringBuilder(fileName).reverse().toString(), id});
+    }
+    entries.sort((a, b) -> ((String) a[0]).compareTo((String) b[0]));
+
+    int n = entries.size();
+    reversedNames = new String[n];
+    int levels = n == 0 ? 1 : 32 - Integer.numberOfLeadingZeros(n);
+    minIds = new long[levels][];
+    minIds[0] = new long[n];
+    for (int i = 0; i < n; i++) {
+      reversedNames[i] = (String) entries.get(i)[0];
+      minIds[0][i] = (Long) entries.get(i)[1];
+    }
+    for (int level = 1; level < levels; level++) {
+      int half = 1 << (level - 1);
+      long[] previous = minIds[level - 1];
+      long[] current = new long[n - (1 << level) + 1];
+      for (int i = 0; i < current.length; i++) {
+        current[i] = Math.min(previous[i], previous[i + half]);
+      }
+      minIds[level] = current;
+    }
+  }
+
+  /**
+   * Find the image for a name from a training result.
+   *
+   * @param imageName the image name
+   * @return the image ID, or null if no image matches
+   */
+  Long find(String imageName) {
+    Long exact = byName.get(imageName);
+    if (exact != null) {
+      return exact;
+    }
+
+    long best = Long.MAX_VALUE;
+
+    // File names ending with the image name
+    String reversed = new StringBuilder(imageName).reverse().toString();
+    int from = lowerBound(reversed);
+    int to = prefixEnd(reversed, from);
+    if (from < to) {
+      best = rangeMin(from, to);
+    }
+
+    // File names the image name ends with
+    for (int start = 1; start <= imageName.length(); start++) {
+      Long id = byName.get(imageName.substring(start));
+      if (id != null && id < best) {
+        best = id;
+      }
+    }
+
+    return best == Long.MAX_VALUE ? null : best;
+  }
+
+  /** First entry not less than {@code key} */
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = reversedNames.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (reversedNames[mid].compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** End of the range of entries starting at {@code from} that start with {@code prefix} */
+  private int prefixEnd(String prefix, int from) {
+    int low = from;
+    int high = reversedNames.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (reversedNames[mid].startsWith(prefix)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** Lowest ID of the entries from {@code from} (inclusive) to {@code to} (exclusive) */
+  private long rangeMin(int from, int to) {
+    int level = 31 - Integer.numberOfLeadingZeros(to - from);
+    return Math.min(minIds[level][from], minIds[level][to - (1 << level)]);
+  }
+}
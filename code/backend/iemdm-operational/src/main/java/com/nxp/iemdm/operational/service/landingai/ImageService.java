@@ -6,7 +6,6 @@ import com.nxp.iemdm.model.landingai.ImageMetadata;
 import com.nxp.iemdm.model.landingai.ImageTag;
 import com.nxp.iemdm.model.landingai.ProjectMetadata;
 import com.nxp.iemdm.model.landingai.ProjectTag;
-import com.nxp.iemdm.shared.repository.jpa.landingai.ImageFileRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImageLabelRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImageMetadataRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImagePredictionLabelRepository;
@@ -14,6 +13,7 @@ import com.nxp.iemdm.shared.repository.jpa.landingai.ImageRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImageTagRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectMetadataRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectTagRepository;
+import java.util.Collections;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -31,28 +31,31 @@ public class ImageService {
   private final ImageLabelRepository imageLabelRepository;
   private final ImageTagRepository imageTagRepository;
   private final ImageMetadataRepository imageMetadataRepository;
-  private final ImageFileRepository imageFileRepository;
   private final ImagePredictionLabelRepository imagePredictionLabelRepository;
   private final ProjectTagRepository projectTagRepository;
   private final ProjectMetadataRepository projectMetadataRepository;
+  private final ImageFileStore imageFileStore;
+  private final ThumbnailCache thumbnailCache;
 
   public ImageService(
       ImageRepository imageRepository,
       ImageLabelRepository imageLabelRepository,
       ImageTagRepository imageTagRepository,
       ImageMetadataRepository imageMetadataRepository,
-      ImageFileRepository imageFileRepository,
       ImagePredictionLabelRepository imagePredictionLabelRepository,
       ProjectTagRepository projectTagRepository,
-      ProjectMetadataRepository projectMetadataRepository) {
+      ProjectMetadataRepository projectMetadataRepository,
+      ImageFileStore imageFileStore,
+      ThumbnailCache thumbnailCache) {
     this.imageRepository = imageRepository;
     this.imageLabelRepository = imageLabelRepository;
     this.imageTagRepository = imageTagRepository;
     this.imageMetadataRepository = imageMetadataRepository;
-    this.imageFileRepository = imageFileRepository;
     this.imagePredictionLabelRepository = imagePredictionLabelRepository;
     this.projectTagRepository = projectTagRepository;
     this.projectMetadataRepository = projectMetadataRepository;
+    this.imageFileStore = imageFileStore;
+    this.thumbnailCache = thumbnailCache;
   }
 
   /**
@@ -100,17 +103,19 @@ public class ImageService {
   }
 
   /**
-   * Delete an image and all associated data (labels, tags, metadata, prediction labels) Note:
-   * Physical file is NOT deleted from file system
+   * Delete an image and all associated data (labels, tags, metadata, prediction labels). The image
+   * file is deleted as well unless another image or a snapshot still references it.
    *
    * @param imageId the image ID to delete
    * @throws NotFoundException if image not found
    */
   @Transactional
   public void deleteImage(Long imageId) {
-    if (!imageRepository.existsById(imageId)) {
-      throw new NotFoundException("Image not found with id: " + imageId);
-    }
+    Image image =
+        imageRepository
+            .findById(imageId)
+            .orElseThrow(() -> new NotFoundException("Image not found with id: " + imageId));
+    Long fileId = image.getFileId();
 
     // Cascade delete associated data
     imageLabelRepository.deleteByImage_Id(imageId);
@@ -118,15 +123,17 @@ public class ImageService {
     imageTagRepository.deleteByImage_Id(imageId);
     imageMetadataRepository.deleteByImage_Id(imageId);
 
-    // Delete the image record
+    // Delete the image record, the thumbnail row is removed by ON DELETE CASCADE
     imageRepository.deleteById(imageId);
+    thumbnailCache.evict(imageId);
+    imageFileStore.release(Collections.singleton(fileId));
 
     log.info("Deleted image {} and all associated data", imageId);
   }
 
   /**
-   * Delete multiple images and all associated data Note: Physical files are NOT deleted from file
-   * system
+   * Delete multiple images and all associated data, including image files nothing references
+   * anymore
    *
    * @param imageIds the list of image IDs to delete
    */
@@ -234,13 +241,13 @@ public class ImageService {
             .findByFileName(fileName)
             .orElseThrow(() -> new NotFoundException("Image not found with fileName: " + fileName));
 
-    // Get image file stream from database using file_id
+    // Get image file content from its storage backend using file_id
     if (image.getFileId() == null) {
       throw new NotFoundException("Image has no file reference for fileName: " + fileName);
     }
 
-    return imageFileRepository
-        .findImageFileStreamById(image.getFileId())
+    return imageFileStore
+        .read(image.getFileId())
         .orElseThrow(() -> new NotFoundException("Image file not found for fileName: " + fileName));
   }
 
@@ -268,8 +275,8 @@ public class ImageService {
       throw new NotFoundException("Image has no file reference for imageId: " + imageId);
     }
 
-    return imageFileRepository
-        .findImageFileStreamById(image.getFileId())
+    return imageFileStore
+        .read(image.getFileId())
         .orElseThrow(() -> new NotFoundException("Image file not found for imageId: " + imageId));
   }
 
@@ -0,0 +1,185 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.model.landingai.Image;
+import com.nxp.iemdm.model.landingai.ImageLabel;
+import com.nxp.iemdm.model.landingai.Project;
+import com.nxp.iemdm.model.landingai.ProjectClass;
+import com.nxp.iemdm.shared.repository.jpa.landingai.ImageLabelRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.ImageRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectClassRepository;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Component that persists already-decoded upload images in short transactions. Used by the
+ * asynchronous ZIP ingest so that every chunk is committed on its own and a failure late in an
+ * archive does not roll back the images imported before it.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ImageUploadChunkWriter {
+
+  private final ImageRepository imageRepository;
+  private final ImageFileStore imageFileStore;
+  private final ImageLabelRepository imageLabelRepository;
+  private final ProjectClassRepository projectClassRepository;
+  private final ThumbnailCache thumbnailCache;
+
+  /**
+   * Create the classes referenced by a chunk that do not exist yet. The caller's cache and colors
+   * are only read: the created classes are returned so the caller can add them once this
+   * transaction has committed, and a rolled-back class never ends up in the cache.
+   *
+   * @param projectId the project ID
+   * @param userId the user identifier
+   * @param classNames class names referenced by the chunk
+   * @param classCache lower case class name to existing class
+   * @param usedColors color codes already in use in the project
+   * @return lower case class name to created class
+   */
+  @Transactional
+  public Map<String, ProjectClass> createMissingClasses(
+      Long projectId,
+      String userId,
+      Set<String> classNames,
+      Map<String, ProjectClass> classCache,
+      Set<String> usedColors) {
+    Map<String, ProjectClass> created = new LinkedHashMap<>();
+    Set<String> colors = new HashSet<>(usedColors);
+    for (String className : classNames) {
+      String key = className.toLowerCase();
+      if (classCache.containsKey(key) || created.containsKey(key)) {
+        continue;
+      }
+
+      ProjectClass projectClass = new ProjectClass();
+      projectClass.setClassName(className);
+      projectClass.setColorCode(generateRandomColor(colors));
+      projectClass.setCreatedBy(userId);
+
+      Project project = new Project();
+      project.setId(projectId);
+      projectClass.setProject(project);
+
+      projectClass = projectClassRepository.save(projectClass);
+      created.put(key, projectClass);
+      colors.add(projectClass.getColorCode());
+      log.info("Created new class: {} with color: {}", className, projectClass.getColorCode());
+    }
+    return created;
+  }
+
+  /**
+   * Save one chunk of decoded images (file row unless the content is already stored, image row,
+   * thumbnail row and, for classified uploads, the ground truth label) in a single transaction.
+   *
+   * @param projectId the project ID
+   * @param userId the user identifier
+   * @param images the decoded images of the chunk
+   * @param classCache lower case class name to class, only used for classified uploads
+   * @return number of images saved
+   */
+  @Transactional
+  public int saveChunk(
+      Long projectId,
+      String userId,
+      List<PendingImage> images,
+      Map<String, ProjectClass> classCache) {
+    for (PendingImage pending : images) {
+      ImageIngestPipeline.IngestedImage ingested = pending.ingested;
+      String jpgFilename = ImageIngestPipeline.convertFilenameToJpg(pending.fileName);
+
+      Long fileId =
+          imageFileStore.store(
+              ImageIngestPipeline.generateUniqueFilename(System.currentTimeMillis(), jpgFilename),
+              ingested.fileContent,
+              ingested.contentHash,
+              userId);
+
+      Image image = new Image();
+      image.setFileName(jpgFilename);
+      image.setFileSize((long) ingested.fileContent.length);
+      image.setWidth(ingested.width);
+      image.setHeight(ingested.height);
+      image.setThumbnailWidthRatio(ingested.thumbnailWidthRatio);
+      image.setThumbnailHeightRatio(ingested.thumbnailHeightRatio);
+      image.setCreatedBy(userId);
+      image.setFileId(fileId);
+
+      Project project = new Project();
+      project.setId(projectId);
+      image.setProject(project);
+
+      Image savedImage = imageRepository.save(image);
+      thumbnailCache.save(savedImage.getId(), ingested.thumbnail);
+
+      if (pending.className != null) {
+        ImageLabel label = new ImageLabel();
+        label.setImage(savedImage);
+        label.setProjectClass(classCache.get(pending.className.toLowerCase()));
+        label.setCreatedBy(userId);
+        imageLabelRepository.save(label);
+      }
+    }
+
+    log.debug("Committed upload chunk of {} images to project: {}", images.size(), projectId);
+    return images.size();
+  }
+
+  /** Generate a random hex color code that is not already used. */
+  public static String generateRandomColor(Set<String> usedColors) {
+    // Predefined set of visually distinct colors
+    String[] predefinedColors = {
+      "#FF6B6B", "#4ECDC4", "#45B7D1", "#96CEB4", "#FFEAA7",
+      "#DDA0DD", "#98D8C8", "#F7DC6F", "#BB8FCE", "#85C1E9",
+      "#F8B500", "#00CED1", "#FF69B4", "#32CD32", "#FF7F50",
+      "#9370DB", "#20B2AA", "#FFD700", "#87CEEB", "#FFA07A",
+      "#8FBC8F", "#DEB887", "#5F9EA0", "#D2691E", "#6495ED",
+      "#DC143C", "#00FFFF", "#008B8B", "#B8860B", "#A9A9A9"
+    };
+
+    // Try predefined colors first
+    for (String color : predefinedColors) {
+      if (!usedColors.contains(color)) {
+        return color;
+      }
+    }
+
+    // Generate random color if all predefined are used
+    Random random = new Random();
+    String color;
+    int attempts = 0;
+    do {
+      int r = random.nextInt(200) + 55; // Avoid too dark colors
+      int g = random.nextInt(200) + 55;
+      int b = random.nextInt(200) + 55;
+      color = String.format("#%02X%02X%02X", r, g, b);
+      attempts++;
+    } while (usedColors.contains(color) && attempts < 100);
+
+    return color;
+  }
+
+  /** A decoded image waiting to be committed. */
+  public static class PendingImage {
+    public final String fileName;
+    public final String className;
+    public final ImageIngestPipeline.IngestedImage ingested;
+
+    public PendingImage(
+        String fileName, String className, ImageIngestPipeline.IngestedImage ingested) {
+      this.fileName = fileName;
+      this.className = className;
+      this.ingested = ingested;
+    }
+  }
+}
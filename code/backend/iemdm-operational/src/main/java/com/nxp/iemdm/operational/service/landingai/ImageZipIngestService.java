@@ -0,0 +1,415 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.model.landingai.ProjectClass;
+import com.nxp.iemdm.shared.dto.landingai.ImageUploadJobStatusDTO;
+import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectClassRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Service for asynchronous ZIP image uploads. The archive is spooled to a temporary file, entries
+ * are decoded on a bounded worker pool sized to the operational node's cores and the results are
+ * committed in chunks through {@link ImageUploadChunkWriter}. Progress is kept per job ID so the
+ * UI can poll it while the import runs.
+ */
+@Slf4j
+@Service
+public class ImageZipIngestService {
+
+  private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+  private static final long MAX_ENTRY_SIZE = 10 * 1024 * 1024; // 10MB, same as single upload
+  private static final int MAX_REPORTED_ERRORS = 200;
+
+  private final ImageIngestPipeline imageIngestPipeline;
+  private final ImageUploadChunkWriter imageUploadChunkWriter;
+  private final ProjectClassRepository projectClassRepository;
+
+  private final Map<String, ImageUploadJobStatusDTO> jobs = new ConcurrentHashMap<>();
+
+  @Value("${landingai.upload.zip.thread.pool.size:0}")
+  private int workerPoolSize; // 0 = one worker per available core
+
+  @Value("${landingai.upload.zip.chunk.size:50}")
+  private int chunkSize;
+
+  @Value("${landingai.upload.zip.max.concurrent.jobs:2}")
+  private int maxConcurrentJobs;
+
+  @Value("${landingai.upload.zip.temp-dir:${java.io.tmpdir}}")
+  private String tempDir;
+
+  private ExecutorService workerExecutor;
+  private ExecutorService jobExecutor;
+
+  @Autowired
+  public ImageZipIngestService(
+      ImageIngestPipeline imageIngestPipeline,
+      ImageUploadChunkWriter imageUploadChunkWriter,
+      ProjectClassRepository projectClassRepository) {
+    this.imageIngestPipeline = imageIngestPipeline;
+    this.imageUploadChunkWriter = imageUploadChunkWriter;
+    this.projectClassRepository = projectClassRepository;
+  }
+
+  @PostConstruct
+  public void init() {
+    int workers = workerPoolSize > 0 ? workerPoolSize : Runtime.getRuntime().availableProcessors();
+    workerExecutor = Executors.newFixedThreadPool(workers);
+    jobExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentJobs));
+    log.info(
+        "ZIP ingest initialized with {} decode workers, chunk size {}, {} concurrent jobs",
+        workers,
+        chunkSize,
+        maxConcurrentJobs);
+  }
+
+  /** Shutdown the executor services when the bean is destroyed */
+  @PreDestroy
+  public void shutdown() {
+    log.info("Shutting down ZIP ingest executor services");
+    jobExecutor.shutdownNow();
+    workerExecutor.shutdownNow();
+  }
+
+  /**
+   * Start an asynchronous ZIP upload. The multipart content is copied to a temporary file before
+   * this method returns, so the job does not depend on the request lifecycle.
+   *
+   * @param file the ZIP file
+   * @param projectId the project ID
+   * @param userId the user identifier
+   * @param classified true if the ZIP contains class folders (classification projects)
+   * @return the initial job status including the job ID to poll
+   * @throws IOException if the upload cannot be spooled to disk
+   */
+  public ImageUploadJobStatusDTO startJob(
+      MultipartFile file, Long projectId, String userId, boolean classified) throws IOException {
+    evictFinishedJobs();
+
+    Path tempDirPath = Path.of(tempDir);
+    Files.createDirectories(tempDirPath);
+    Path zipPath = Files.createTempFile(tempDirPath, "image-upload-", ".zip");
+    try (InputStream in = file.getInputStream()) {
+      Files.copy(in, zipPath, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      Files.deleteIfExists(zipPath);
+      throw e;
+    }
+
+    ImageUploadJobStatusDTO status = new ImageUploadJobStatusDTO();
+    status.setJobId(UUID.randomUUID().toString());
+    status.setProjectId(projectId);
+    status.setStatus(ImageUploadJobStatusDTO.STATUS_RUNNING);
+    status.setStartedAt(Instant.now());
+    jobs.put(status.getJobId(), status);
+
+    log.info(
+        "Starting ZIP upload job {} for project: {} by user: {}, classified: {}",
+        status.getJobId(),
+        projectId,
+        userId,
+        classified);
+
+    jobExecutor.submit(() -> runJob(status, zipPath, projectId, userId, classified));
+    return getJobStatus(status.getJobId());
+  }
+
+  /**
+   * Get a snapshot of the status of an upload job.
+   *
+   * @param jobId the job ID
+   * @return the job status, or null if the job is unknown or has expired
+   */
+  public ImageUploadJobStatusDTO getJobStatus(String jobId) {
+    ImageUploadJobStatusDTO status = jobs.get(jobId);
+    if (status == null) {
+      return null;
+    }
+    synchronized (status) {
+      return new ImageUploadJobStatusDTO(status);
+    }
+  }
+
+  private void runJob(
+      ImageUploadJobStatusDTO status,
+      Path zipPath,
+      Long projectId,
+      String userId,
+      boolean classified) {
+    try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+      List<ZipEntry> entries = collectImageEntries(zipFile, classified, status);
+      synchronized (status) {
+        status.setTotalEntries(entries.size());
+      }
+
+      Map<String, ProjectClass> classCache = new HashMap<>();
+      Set<String> usedColors = new HashSet<>();
+      if (classified) {
+        for (ProjectClass pc : projectClassRepository.findByProject_IdOrderByCreatedAt(projectId)) {
+          classCache.put(pc.getClassName().toLowerCase(), pc);
+          if (pc.getColorCode() != null) {
+            usedColors.add(pc.getColorCode());
+          }
+        }
+      }
+
+      // Decode of the next chunk overlaps with the commit of the current one; at most two chunks
+      // of decoded images are held in memory at any time.
+      List<Future<DecodeResult>> current = submitChunk(zipFile, entries, 0, classified);
+      for (int offset = 0; offset < entries.size(); offset += chunkSize) {
+        List<Future<DecodeResult>> next =
+            submitChunk(zipFile, entries, offset + chunkSize, classified);
+        commitChunk(current, projectId, userId, classified, classCache, usedColors, status);
+        current = next;
+      }
+
+      synchronized (status) {
+        status.setStatus(ImageUploadJobStatusDTO.STATUS_COMPLETED);
+        status.setFinishedAt(Instant.now());
+      }
+      log.info(
+          "ZIP upload job {} complete: {} images imported, {} failed, {} chunks",
+          status.getJobId(),
+          status.getImportedImages(),
+          status.getFailedImages(),
+          status.getCommittedChunks());
+
+    } catch (Exception e) {
+      log.error("ZIP upload job {} failed: {}", status.getJobId(), e.getMessage(), e);
+      synchronized (status) {
+        status.setStatus(ImageUploadJobStatusDTO.STATUS_FAILED);
+        status.setErrorMessage(e.getMessage());
+        status.setFinishedAt(Instant.now());
+      }
+    } finally {
+      try {
+        Files.deleteIfExists(zipPath);
+      } catch (IOException e) {
+        log.warn("Failed to delete temporary upload file {}: {}", zipPath, e.getMessage());
+      }
+    }
+  }
+
+  private List<ZipEntry> collectImageEntries(
+      ZipFile zipFile, boolean classified, ImageUploadJobStatusDTO status) {
+    List<ZipEntry> entries = new ArrayList<>();
+    Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+    while (enumeration.hasMoreElements()) {
+      ZipEntry entry = enumeration.nextElement();
+      String entryName = entry.getName();
+
+      // Skip directories and hidden files
+      if (entry.isDirectory() || entryName.startsWith("__MACOSX") || entryName.startsWith(".")) {
+        continue;
+      }
+
+      String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+      if (fileName.startsWith(".")) {
+        continue;
+      }
+
+      String lowerFileName = fileName.toLowerCase();
+      if (!lowerFileName.endsWith(".jpg")
+          && !lowerFileName.endsWith(".jpeg")
+          && !lowerFileName.endsWith(".png")) {
+        log.warn("Skipping non-image file: {}", entryName);
+        continue;
+      }
+
+      if (classified && !entryName.contains("/")) {
+        log.warn("Skipping file at root level: {}", entryName);
+        addError(status, "Skipped file at root level: " + entryName);
+        continue;
+      }
+
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  private List<Future<DecodeResult>> submitChunk(
+      ZipFile zipFile, List<ZipEntry> entries, int offset, boolean classified) {
+    List<Future<DecodeResult>> futures = new ArrayList<>();
+    int end = Math.min(offset + chunkSize, entries.size());
+    for (int i = offset; i < end; i++) {
+      ZipEntry entry = entries.get(i);
+      futures.add(workerExecutor.submit(() -> decode(zipFile, entry, classified)));
+    }
+    return futures;
+  }
+
+  private DecodeResult decode(ZipFile zipFile, ZipEntry entry, boolean classified)
+      throws IOException {
+    String entryName = entry.getName();
+    String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+    String className = classified ? entryName.substring(0, entryName.indexOf('/')) : null;
+
+    if (entry.getSize() > MAX_ENTRY_SIZE) {
+      return DecodeResult.failed(
+          entryName,
+          String.format(
+              "File size exceeds maximum allowed size of %d MB for file '%s'",
+              MAX_ENTRY_SIZE / (1024 * 1024), fileName));
+    }
+
+    // ZipFile supports concurrent reads of different entries
+    byte[] data;
+    try (InputStream in = zipFile.getInputStream(entry)) {
+      data = in.readAllBytes();
+    }
+
+    try {
+      ImageIngestPipeline.IngestedImage ingested = imageIngestPipeline.ingest(fileName, data);
+      return new DecodeResult(
+          entryName, new ImageUploadChunkWriter.PendingImage(fileName, className, ingested), null);
+    } catch (RuntimeException e) {
+      return DecodeResult.failed(entryName, e.getMessage());
+    }
+  }
+
+  private void commitChunk(
+      List<Future<DecodeResult>> futures,
+      Long projectId,
+      String userId,
+      boolean classified,
+      Map<String, ProjectClass> classCache,
+      Set<String> usedColors,
+      ImageUploadJobStatusDTO status)
+      throws InterruptedException {
+    List<ImageUploadChunkWriter.PendingImage> pending = new ArrayList<>();
+    Map<String, Long> chunkTimings = new HashMap<>();
+    int failed = 0;
+
+    for (Future<DecodeResult> future : futures) {
+      DecodeResult result;
+      try {
+        result = future.get();
+      } catch (ExecutionException e) {
+        failed++;
+        addError(status, "Failed to process entry: " + e.getCause().getMessage());
+        continue;
+      }
+      if (result.error != null) {
+        failed++;
+        addError(status, "Failed to process " + result.entryName + ": " + result.error);
+      } else {
+        pending.add(result.pendingImage);
+        ImageIngestPipeline.accumulate(chunkTimings, result.pendingImage.ingested.stageTimingsMs);
+      }
+    }
+
+    int imported = 0;
+    int classesCreated = 0;
+    int classesReused = 0;
+    if (!pending.isEmpty()) {
+      long persistStart = System.nanoTime();
+      try {
+        if (classified) {
+          Set<String> classNames =
+              pending.stream()
+                  .map(p -> p.className)
+                  .collect(Collectors.toCollection(LinkedHashSet::new));
+          classesReused =
+              (int)
+                  pending.stream()
+                      .filter(p -> classCache.containsKey(p.className.toLowerCase()))
+                      .count();
+          // Returns after the class transaction has committed, so only committed classes are cached
+          Map<String, ProjectClass> created =
+              imageUploadChunkWriter.createMissingClasses(
+                  projectId, userId, classNames, classCache, usedColors);
+          for (ProjectClass projectClass : created.values()) {
+            usedColors.add(projectClass.getColorCode());
+          }
+          classCache.putAll(created);
+          classesCreated = created.size();
+        }
+        imported = imageUploadChunkWriter.saveChunk(projectId, userId, pending, classCache);
+      } catch (RuntimeException e) {
+        // Only this chunk is rolled back; earlier chunks stay committed
+        log.error(
+            "Failed to commit upload chunk for job {}: {}", status.getJobId(), e.getMessage());
+        failed += pending.size();
+        addError(status, "Failed to save " + pending.size() + " images: " + e.getMessage());
+      }
+      chunkTimings.merge(
+          ImageIngestPipeline.STAGE_PERSIST,
+          (System.nanoTime() - persistStart) / 1_000_000,
+          Long::sum);
+    }
+
+    synchronized (status) {
+      status.setProcessedEntries(status.getProcessedEntries() + futures.size());
+      status.setImportedImages(status.getImportedImages() + imported);
+      status.setFailedImages(status.getFailedImages() + failed);
+      status.setClassesCreated(status.getClassesCreated() + classesCreated);
+      status.setClassesReused(status.getClassesReused() + classesReused);
+      if (imported > 0) {
+        status.setCommittedChunks(status.getCommittedChunks() + 1);
+      }
+      ImageIngestPipeline.accumulate(status.getStageTimingsMs(), chunkTimings);
+    }
+  }
+
+  private void addError(ImageUploadJobStatusDTO status, String error) {
+    synchronized (status) {
+      if (status.getErrors().size() < MAX_REPORTED_ERRORS) {
+        status.getErrors().add(error);
+      }
+    }
+  }
+
+  private void evictFinishedJobs() {
+    Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+    jobs.values()
+        .removeIf(
+            status -> status.getFinishedAt() != null && status.getFinishedAt().isBefore(cutoff));
+  }
+
+  /** Result of decoding one ZIP entry on a worker thread. */
+  private static class DecodeResult {
+    private final String entryName;
+    private final ImageUploadChunkWriter.PendingImage pendingImage;
+    private final String error;
+
+    private DecodeResult(
+        String entryName, ImageUploadChunkWriter.PendingImage pendingImage, String error) {
+      this.entryName = entryName;
+      this.pendingImage = pendingImage;
+      this.error = error;
+    }
+
+    private static DecodeResult failed(String entryName, String error) {
+      return new DecodeResult(entryName, null, error);
+    }
+  }
+}
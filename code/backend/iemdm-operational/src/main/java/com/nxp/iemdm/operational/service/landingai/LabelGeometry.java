@@ -0,0 +1,258 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compiled form of a label {@code position} JSON. The stored JSON is parsed once with a streaming
+ * parser into primitive fields, so exporters and evaluators do not build a {@code Map} per label.
+ *
+ * <p>Supported fields, all others are ignored. Coordinates may be numbers or quoted numbers:
+ *
+ * <ul>
+ *   <li>{@code type}, e.g. {@code "rectangle"} or {@code "obb"}
+ *   <li>{@code x}, {@code y}, {@code width}, {@code height}: the box (YOLO center format,
+ *       normalized)
+ *   <li>{@code x1}, {@code y1} ... {@code x4}, {@code y4}: the corners of an oriented box
+ *   <li>{@code points}: polygon points, either {@code {"x":..,"y":..}} objects or {@code [x, y]}
+ *       arrays
+ * </ul>
+ *
+ * <p>A position can also be a bare {@code [x, y, width, height]} array, the center format box in
+ * which training results store predictions (see {@code TrainingResultReader}).
+ *
+ * Instances are immutable; use {@link LabelGeometryCache} to parse each label only once.
+ */
+public final class LabelGeometry {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final String[] CORNER_FIELDS = {"x1", "y1", "x2", "y2", "x3", "y3", "x4", "y4"};
+
+  private final String type;
+  private final double x;
+  private final double y;
+  private final double width;
+  private final double height;
+  private final double[] corners;
+  private final double[] polygon;
+
+  private LabelGeometry(
+      String type,
+      double x,
+      double y,
+      double width,
+      double height,
+      double[] corners,
+      double[] polygon) {
+    this.type = type;
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.corners = corners;
+    this.polygon = polygon;
+  }
+
+  /**
+   * Parse a position JSON object or box array.
+   *
+   * @param json the stored position JSON
+   * @return the compiled geometry
+   * @throws IOException if the JSON is malformed, or neither an object nor a box array
+   */
+  public static LabelGeometry parse(String json) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      JsonToken start = parser.nextToken();
+      if (start == JsonToken.START_ARRAY) {
+        return parseBox(parser);
+      }
+      if (start != JsonToken.START_OBJECT) {
+        throw new IOException("Position must be a valid JSON object");
+      }
+
+      String type = null;
+      double x = Double.NaN;
+      double y = Double.NaN;
+      double width = Double.NaN;
+      double height = Double.NaN;
+      double[] corners = null;
+      double[] polygon = null;
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "type" -> type = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+          case "x" -> x = number(parser, value);
+          case "y" -> y = number(parser, value);
+          case "width" -> width = number(parser, value);
+          case "height" -> height = number(parser, value);
+          case "points" -> polygon = value == JsonToken.START_ARRAY ? parsePoints(parser) : null;
+          default -> {
+            int corner = Arrays.asList(CORNER_FIELDS).indexOf(field);
+            if (corner >= 0) {
+              if (corners == null) {
+                corners = new double[CORNER_FIELDS.length];
+                Arrays.fill(corners, Double.NaN);
+              }
+              corners[corner] = number(parser, value);
+            } else {
+              parser.skipChildren();
+            }
+          }
+        }
+      }
+      return new LabelGeometry(type, x, y, width, height, corners, polygon);
+    }
+  }
+
+  /** Read a {@code [x, y, width, height]} box array */
+  private static LabelGeometry parseBox(JsonParser parser) throws IOException {
+    double[] box = new double[4];
+    int count = 0;
+    JsonToken value;
+    while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (count == box.length) {
+        throw new IOException("Position array must be [x, y, width, height]");
+      }
+      box[count++] = number(parser, value);
+    }
+    if (count != box.length) {
+      throw new IOException("Position array must be [x, y, width, height]");
+    }
+    return new LabelGeometry(null, box[0], box[1], box[2], box[3], null, null);
+  }
+
+  /** Read polygon points; points without two numeric coordinates are skipped */
+  private static double[] parsePoints(JsonParser parser) throws IOException {
+    double[] coords = new double[16];
+    int count = 0;
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      double px = Double.NaN;
+      double py = Double.NaN;
+      if (token == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.getCurrentName();
+          JsonToken value = parser.nextToken();
+          if ("x".equals(field)) {
+            px = number(parser, value);
+          } else if ("y".equals(field)) {
+            py = number(parser, value);
+          } else {
+            parser.skipChildren();
+          }
+        }
+      } else if (token == JsonToken.START_ARRAY) {
+        int index = 0;
+        JsonToken value;
+        while ((value = parser.nextToken()) != JsonToken.END_ARRAY) {
+          if (index == 0) {
+            px = number(parser, value);
+          } else if (index == 1) {
+            py = number(parser, value);
+          }
+          parser.skipChildren();
+          index++;
+        }
+      } else {
+        parser.skipChildren();
+      }
+
+      if (!Double.isNaN(px) && !Double.isNaN(py)) {
+        if (count + 2 > coords.length) {
+          coords = Arrays.copyOf(coords, coords.length * 2);
+        }
+        coords[count++] = px;
+        coords[count++] = py;
+      }
+    }
+    return Arrays.copyOf(coords, count);
+  }
+
+  /** Read a coordinate; quoted numbers ({@code "x":"0.5"}) are accepted, other values are NaN */
+  private static double number(JsonParser parser, JsonToken value) throws IOException {
+    if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+      return parser.getDoubleValue();
+    }
+    if (value == JsonToken.VALUE_STRING) {
+      try {
+        return Double.parseDouble(parser.getText());
+      } catch (NumberFormatException e) {
+        return Double.NaN;
+      }
+    }
+    parser.skipChildren();
+    return Double.NaN;
+  }
+
+  /** The {@code type} field, or null if absent */
+  public String getType() {
+    return type;
+  }
+
+  /** Whether the label is an oriented bounding box ({@code "type": "obb"}) */
+  public boolean isObb() {
+    return "obb".equalsIgnoreCase(type);
+  }
+
+  /** Whether x, y, width and height are all present */
+  public boolean hasBox() {
+    return !Double.isNaN(x) && !Double.isNaN(y) && !Double.isNaN(width) && !Double.isNaN(height);
+  }
+
+  /** Box x, NaN if absent */
+  public double getX() {
+    return x;
+  }
+
+  /** Box y, NaN if absent */
+  public double getY() {
+    return y;
+  }
+
+  /** Box width, NaN if absent */
+  public double getWidth() {
+    return width;
+  }
+
+  /** Box height, NaN if absent */
+  public double getHeight() {
+    return height;
+  }
+
+  /**
+   * Corners of an oriented box.
+   *
+   * @return x1, y1, x2, y2, x3, y3, x4, y4, or null unless all eight are present
+   */
+  public double[] getCorners() {
+    if (corners == null) {
+      return null;
+    }
+    for (double corner : corners) {
+      if (Double.isNaN(corner)) {
+        return null;
+      }
+    }
+    return corners.clone();
+  }
+
+  /**
+   * Polygon points as x, y pairs.
+   *
+   * @return the coordinates, empty for an empty points array, null if there is no points array
+   */
+  public double[] getPolygon() {
+    return polygon == null ? null : polygon.clone();
+  }
+
+  /** Whether the position has a points array */
+  public boolean hasPolygon() {
+    return polygon != null;
+  }
+}
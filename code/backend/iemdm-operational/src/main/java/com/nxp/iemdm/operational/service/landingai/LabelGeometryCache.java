@@ -0,0 +1,121 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of compiled label geometry keyed by label table and label ID, so the position JSON of a
+ * label is parsed once instead of on every export, dataset build or metric calculation. Each entry
+ * keeps the JSON it was compiled from; a label whose position was edited is compiled again. The
+ * cache is split into segments with a lock each, so concurrent lookups rarely wait on each other.
+ * Every segment is bounded by entry count and evicts its least recently used entries first.
+ */
+@Slf4j
+@Component
+public class LabelGeometryCache {
+
+  /** The table a label ID belongs to; IDs of different tables may overlap */
+  public enum Source {
+    IMAGE_LABEL,
+    SNAPSHOT_LABEL,
+    PREDICTION_LABEL
+  }
+
+  /** Number of segments, a power of two */
+  private static final int SEGMENTS = 32;
+
+  /** Access-ordered maps, each guarded by itself */
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  @Value("${landingai.label.geometry.cache.max-entries:500000}")
+  private int maxEntries; // roughly 200 bytes per box label, including its JSON
+
+  public LabelGeometryCache() {
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment();
+    }
+  }
+
+  /**
+   * Get the compiled geometry of a label.
+   *
+   * @param source the table the label comes from
+   * @param labelId the label ID, null for labels that are not saved yet (never cached)
+   * @param positionJson the stored position JSON
+   * @return the geometry, or null if the position is missing or not a valid JSON object
+   */
+  public LabelGeometry get(Source source, Long labelId, String positionJson) {
+    if (positionJson == null) {
+      return null;
+    }
+    if (labelId == null) {
+      return parseQuietly(positionJson, null);
+    }
+
+    Long key = labelId * Source.values().length + source.ordinal();
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      Entry cached = segment.get(key);
+      if (cached != null && cached.positionJson.equals(positionJson)) {
+        return cached.geometry;
+      }
+    }
+
+    LabelGeometry geometry = parseQuietly(positionJson, labelId);
+    if (geometry != null) {
+      int maxSegmentEntries = Math.max(1, maxEntries / SEGMENTS);
+      synchronized (segment) {
+        segment.put(key, new Entry(positionJson, geometry));
+        Iterator<Entry> lru = segment.values().iterator();
+        while (segment.size() > maxSegmentEntries && lru.hasNext()) {
+          lru.next();
+          lru.remove();
+        }
+      }
+    }
+    return geometry;
+  }
+
+  /** Drop all cached geometry, e.g. after bulk label changes */
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  private Segment segmentFor(Long key) {
+    int hash = key.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+  }
+
+  private static LabelGeometry parseQuietly(String positionJson, Long labelId) {
+    try {
+      return LabelGeometry.parse(positionJson);
+    } catch (IOException e) {
+      log.warn("Failed to parse label position for label ID: {}: {}", labelId, e.getMessage());
+      return null;
+    }
+  }
+
+  private static class Segment extends LinkedHashMap<Long, Entry> {
+    Segment() {
+      super(256, 0.75f, true);
+    }
+  }
+
+  private static class Entry {
+    private final String positionJson;
+    private final LabelGeometry geometry;
+
+    Entry(String positionJson, LabelGeometry geometry) {
+      this.positionJson = positionJson;
+      this.geometry = geometry;
+    }
+  }
+}
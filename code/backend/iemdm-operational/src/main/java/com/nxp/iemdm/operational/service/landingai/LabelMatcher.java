@@ -0,0 +1,273 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Matches the ground truth labels of one image with its predictions by IoU.
+ *
+ * <p>Predictions are put into a uniform grid over their bounding boxes, so each ground truth label
+ * is only compared with predictions in the cells it overlaps and dense images stay close to
+ * linear. Candidate pairs at or above the IoU threshold are then assigned greedily: pairs of the
+ * same class first, so a wrong-class prediction cannot take the ground truth away from a correct
+ * one, then by descending IoU and confidence. Each label is used at most once.
+ */
+final class LabelMatcher {
+
+  /** Upper bound of grid cells per axis */
+  private static final int MAX_CELLS = 64;
+
+  private static final Comparator<Candidate> ORDER =
+      Comparator.comparing((Candidate c) -> !c.sameClass)
+          .thenComparingDouble(c -> -c.iou)
+          .thenComparingInt(c -> -c.confidence)
+          .thenComparingInt(c -> c.gt)
+          .thenComparingInt(c -> c.pred);
+
+  private LabelMatcher() {}
+
+  /**
+   * Match the labels of one image.
+   *
+   * @param gtShapes ground truth shapes, null entries are never matched
+   * @param gtClasses ground truth class IDs
+   * @param predShapes prediction shapes, null entries are never matched
+   * @param predClasses prediction class IDs
+   * @param predConfidence prediction confidence, used to break ties
+   * @param iouThreshold minimum IoU of a match; pairs without any overlap never match
+   * @return for every ground truth label the index of its prediction, or -1
+   */
+  static int[] match(
+      EvaluationShape[] gtShapes,
+      Long[] gtClasses,
+      EvaluationShape[] predShapes,
+      Long[] predClasses,
+      int[] predConfidence,
+      double iouThreshold) {
+    int[] gtToPred = new int[gtShapes.length];
+    Arrays.fill(gtToPred, -1);
+    if (gtShapes.length == 0 || predShapes.length == 0) {
+      return gtToPred;
+    }
+
+    List<Candidate> candidates = new ArrayList<>();
+    Grid grid = new Grid(predShapes);
+    int[] seen = new int[predShapes.length];
+    for (int g = 0; g < gtShapes.length; g++) {
+      EvaluationShape gt = gtShapes[g];
+      if (gt == null) {
+        continue;
+      }
+      for (int p : grid.query(gt, seen, g + 1)) {
+        double iou = EvaluationShape.iou(gt, predShapes[p]);
+        if (iou > 0 && iou >= iouThreshold) {
+          boolean sameClass = Objects.equals(gtClasses[g], predClasses[p]);
+          candidates.add(new Candidate(g, p, iou, predConfidence[p], sameClass));
+        }
+      }
+    }
+
+    candidates.sort(ORDER);
+    boolean[] predUsed = new boolean[predShapes.length];
+    for (Candidate candidate : candidates) {
+      if (gtToPred[candidate.gt] < 0 && !predUsed[candidate.pred]) {
+        gtToPred[candidate.gt] = candidate.pred;
+        predUsed[candidate.pred] = true;
+      }
+    }
+    return gtToPred;
+  }
+
+  /**
+   * Match the labels of one image in descending prediction confidence, as used for precision-recall
+   * curves. Each prediction takes the unmatched ground truth label with the highest IoU, preferring
+   * one of its own class. A prediction is never affected by predictions of lower confidence, so the
+   * matching at any confidence threshold is the prefix of this one above the threshold.
+   *
+   * @param gtShapes ground truth shapes, null entries are never matched
+   * @param gtClasses ground truth class IDs
+   * @param predShapes prediction shapes, null entries are never matched
+   * @param predClasses prediction class IDs
+   * @param predConfidence prediction confidence
+   * @param iouThreshold minimum IoU of a match; pairs without any overlap never match
+   * @return for every prediction the index of its ground truth label, or -1
+   */
+  static int[] matchInConfidenceOrder(
+      EvaluationShape[] gtShapes,
+      Long[] gtClasses,
+      EvaluationShape[] predShapes,
+      Long[] predClasses,
+      int[] predConfidence,
+      double iouThreshold) {
+    int[] predToGt = new int[predShapes.length];
+    Arrays.fill(predToGt, -1);
+    if (gtShapes.length == 0 || predShapes.length == 0) {
+      return predToGt;
+    }
+
+    Integer[] order = new Integer[predShapes.length];
+    for (int p = 0; p < order.length; p++) {
+      order[p] = p;
+    }
+    Arrays.sort(order, (a, b) -> Integer.compare(predConfidence[b], predConfidence[a]));
+
+    Grid grid = new Grid(gtShapes);
+    int[] seen = new int[gtShapes.length];
+    boolean[] gtUsed = new boolean[gtShapes.length];
+    for (int p : order) {
+      EvaluationShape pred = predShapes[p];
+      if (pred == null) {
+        continue;
+      }
+      int best = -1;
+      double bestIou = 0;
+      boolean bestSameClass = false;
+      for (int g : grid.query(pred, seen, p + 1)) {
+        if (gtUsed[g]) {
+          continue;
+        }
+        double iou = EvaluationShape.iou(gtShapes[g], pred);
+        if (iou <= 0 || iou < iouThreshold) {
+          continue;
+        }
+        boolean sameClass = Objects.equals(gtClasses[g], predClasses[p]);
+        if (best < 0
+            || (sameClass && !bestSameClass)
+            || (sameClass == bestSameClass && iou > bestIou)) {
+          best = g;
+          bestIou = iou;
+          bestSameClass = sameClass;
+        }
+      }
+      if (best >= 0) {
+        predToGt[p] = best;
+        gtUsed[best] = true;
+      }
+    }
+    return predToGt;
+  }
+
+  private static final class Candidate {
+    private final int gt;
+    private final int pred;
+    private final double iou;
+    private final int confidence;
+    private final boolean sameClass;
+
+    Candidate(int gt, int pred, double iou, int confidence, boolean sameClass) {
+      this.gt = gt;
+      this.pred = pred;
+      this.iou = iou;
+      this.confidence = confidence;
+      this.sameClass = sameClass;
+    }
+  }
+
+  /** Uniform grid of label indices; whole-image shapes are kept in a separate list */
+  private static final class Grid {
+    private final List<Integer> wholeImage = new ArrayList<>();
+    private final int[][] cells;
+    private final int[] cellSizes;
+    private final int cellsPerAxis;
+    private final double minX;
+    private final double minY;
+    private final double cellWidth;
+    private final double cellHeight;
+
+    Grid(EvaluationShape[] shapes) {
+      double x0 = Double.POSITIVE_INFINITY;
+      double y0 = Double.POSITIVE_INFINITY;
+      double x1 = Double.NEGATIVE_INFINITY;
+      double y1 = Double.NEGATIVE_INFINITY;
+      for (EvaluationShape shape : shapes) {
+        if (shape != null && !shape.isWholeImage()) {
+          x0 = Math.min(x0, shape.minX);
+          y0 = Math.min(y0, shape.minY);
+          x1 = Math.max(x1, shape.maxX);
+          y1 = Math.max(y1, shape.maxY);
+        }
+      }
+
+      int n = (int) Math.ceil(Math.sqrt(shapes.length));
+      cellsPerAxis = x0 <= x1 ? Math.max(1, Math.min(MAX_CELLS, n)) : 1;
+      minX = x0;
+      minY = y0;
+      cellWidth = x0 < x1 ? (x1 - x0) / cellsPerAxis : 1;
+      cellHeight = y0 < y1 ? (y1 - y0) / cellsPerAxis : 1;
+      cells = new int[cellsPerAxis * cellsPerAxis][];
+      cellSizes = new int[cells.length];
+
+      for (int p = 0; p < shapes.length; p++) {
+        EvaluationShape shape = shapes[p];
+        if (shape == null) {
+          continue;
+        }
+        if (shape.isWholeImage()) {
+          wholeImage.add(p);
+          continue;
+        }
+        int[] range = cellRange(shape);
+        for (int row = range[0]; row <= range[1]; row++) {
+          for (int col = range[2]; col <= range[3]; col++) {
+            add(row * cellsPerAxis + col, p);
+          }
+        }
+      }
+    }
+
+    /**
+     * Labels whose cells overlap the bounding box of {@code shape}. {@code seen} is a scratch
+     * array marked with {@code stamp}, which must be unique per query.
+     */
+    List<Integer> query(EvaluationShape shape, int[] seen, int stamp) {
+      if (shape.isWholeImage()) {
+        return wholeImage;
+      }
+      List<Integer> result = new ArrayList<>();
+      if (shape.maxX < minX || shape.maxY < minY) {
+        return result;
+      }
+      int[] range = cellRange(shape);
+      for (int row = range[0]; row <= range[1]; row++) {
+        for (int col = range[2]; col <= range[3]; col++) {
+          int index = row * cellsPerAxis + col;
+          for (int i = 0; i < cellSizes[index]; i++) {
+            int p = cells[index][i];
+            if (seen[p] != stamp) {
+              seen[p] = stamp;
+              result.add(p);
+            }
+          }
+        }
+      }
+      return result;
+    }
+
+    /** First row, last row, first column and last column covered by the bounding box */
+    private int[] cellRange(EvaluationShape shape) {
+      return new int[] {
+        cell(shape.minY, minY, cellHeight),
+        cell(shape.maxY, minY, cellHeight),
+        cell(shape.minX, minX, cellWidth),
+        cell(shape.maxX, minX, cellWidth)
+      };
+    }
+
+    private int cell(double value, double origin, double size) {
+      int cell = (int) ((value - origin) / size);
+      return Math.max(0, Math.min(cellsPerAxis - 1, cell));
+    }
+
+    private void add(int index, int label) {
+      if (cells[index] == null) {
+        cells[index] = new int[4];
+      } else if (cellSizes[index] == cells[index].length) {
+        cells[index] = Arrays.copyOf(cells[index], cellSizes[index] * 2);
+      }
+      cells[index][cellSizes[index]++] = label;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.shared.dto.landingai.LabelInfoDTO;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Result of matching the predictions of a model with the ground truth of one evaluation set. The
+ * confusion matrix, cell details and the image list are all read from the same result, so they
+ * always agree with each other.
+ *
+ * <p>Rows of the matrix are ground truth class IDs plus {@link #NO_LABEL}, columns are prediction
+ * class IDs plus {@link #NO_PREDICTION}. Instances and the label DTOs they hold are shared between
+ * requests and must not be modified.
+ */
+public final class ModelEvaluation {
+
+  /** Column of ground truth labels that no prediction matched */
+  public static final Long NO_PREDICTION = -1L;
+
+  /** Row of predictions that matched no ground truth label */
+  public static final Long NO_LABEL = -2L;
+
+  private final Long snapshotId;
+  private final List<ImageResult> images;
+  private final Map<Long, Map<Long, Integer>> counts = new HashMap<>();
+
+  ModelEvaluation(Long snapshotId, List<ImageResult> images) {
+    this.snapshotId = snapshotId;
+    this.images = Collections.unmodifiableList(images);
+    for (ImageResult image : images) {
+      for (int g = 0; g < image.groundTruth.size(); g++) {
+        int p = image.gtToPred[g];
+        increment(
+            image.groundTruth.get(g).getClassId(),
+            p < 0 ? NO_PREDICTION : image.predictions.get(p).getClassId());
+      }
+      for (int p = 0; p < image.predictions.size(); p++) {
+        if (!image.predMatched[p]) {
+          increment(NO_LABEL, image.predictions.get(p).getClassId());
+        }
+      }
+    }
+  }
+
+  private void increment(Long gtClassId, Long predClassId) {
+    counts.computeIfAbsent(gtClassId, k -> new HashMap<>()).merge(predClassId, 1, Integer::sum);
+  }
+
+  public Long getSnapshotId() {
+    return snapshotId;
+  }
+
+  /** Images of the evaluation set in image ID order */
+  public List<ImageResult> getImages() {
+    return images;
+  }
+
+  /**
+   * Number of label pairs in a matrix cell.
+   *
+   * @param gtClassId ground truth class ID or {@link #NO_LABEL}
+   * @param predClassId prediction class ID or {@link #NO_PREDICTION}
+   * @return the count
+   */
+  public int getCount(Long gtClassId, Long predClassId) {
+    return counts.getOrDefault(gtClassId, Map.of()).getOrDefault(predClassId, 0);
+  }
+
+  /** Labels and matches of one image */
+  public static final class ImageResult {
+    private final Long imageId;
+    private final String fileName;
+    private final String split;
+    private final List<LabelInfoDTO> groundTruth;
+    private final List<LabelInfoDTO> predictions;
+    private final int[] gtToPred;
+    private final boolean[] predMatched;
+
+    ImageResult(
+        Long imageId,
+        String fileName,
+        String split,
+        List<LabelInfoDTO> groundTruth,
+        List<LabelInfoDTO> predictions,
+        int[] gtToPred) {
+      this.imageId = imageId;
+      this.fileName = fileName;
+      this.split = split;
+      this.groundTruth = Collections.unmodifiableList(groundTruth);
+      this.predictions = Collections.unmodifiableList(predictions);
+      this.gtToPred = gtToPred;
+      this.predMatched = new boolean[predictions.size()];
+      for (int p : gtToPred) {
+        if (p >= 0) {
+          predMatched[p] = true;
+        }
+      }
+    }
+
+    public Long getImageId() {
+      return imageId;
+    }
+
+    public String getFileName() {
+      return fileName;
+    }
+
+    public String getSplit() {
+      return split;
+    }
+
+    public List<LabelInfoDTO> getGroundTruth() {
+      return groundTruth;
+    }
+
+    public List<LabelInfoDTO> getPredictions() {
+      return predictions;
+    }
+
+    /** The prediction matched to a ground truth label, or null */
+    public LabelInfoDTO getMatch(int gtIndex) {
+      int p = gtToPred[gtIndex];
+      return p < 0 ? null : predictions.get(p);
+    }
+
+    /** Whether a prediction matched a ground truth label */
+    public boolean isMatched(int predIndex) {
+      return predMatched[predIndex];
+    }
+
+    /**
+     * Whether the model got the image right: it has labels, every ground truth label is matched
+     * by a prediction of the same class, and there are no unmatched predictions.
+     */
+    public boolean isCorrect() {
+      if (groundTruth.isEmpty() || predictions.isEmpty()) {
+        return false;
+      }
+      for (int g = 0; g < groundTruth.size(); g++) {
+        LabelInfoDTO match = getMatch(g);
+        if (match == null || !Objects.equals(groundTruth.get(g).getClassId(), match.getClassId())) {
+          return false;
+        }
+      }
+      for (boolean matched : predMatched) {
+        if (!matched) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
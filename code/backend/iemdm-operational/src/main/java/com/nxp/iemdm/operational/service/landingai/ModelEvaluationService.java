@@ -0,0 +1,349 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.model.landingai.ImagePredictionLabel;
+import com.nxp.iemdm.model.landingai.ProjectClass;
+import com.nxp.iemdm.model.landingai.SnapshotImageLabel;
+import com.nxp.iemdm.model.landingai.SnapshotProjectClass;
+import com.nxp.iemdm.operational.service.landingai.LabelGeometryCache.Source;
+import com.nxp.iemdm.operational.service.landingai.ModelEvaluation.ImageResult;
+import com.nxp.iemdm.shared.dto.landingai.LabelInfoDTO;
+import com.nxp.iemdm.shared.repository.jpa.landingai.ImagePredictionLabelRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageLabelRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotProjectClassRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Evaluates the predictions of a model against the ground truth of its training snapshot by
+ * matching labels per image with {@link LabelMatcher}. Labels are loaded in batches of images, so
+ * memory and query size do not depend on the number of predictions the model has outside the
+ * evaluation set.
+ *
+ * <p>Evaluations and precision-recall sweeps are cached per model, split and IoU threshold. The
+ * snapshot never changes, and predictions are only inserted or deleted, so a cached result is
+ * reused as long as the count and highest ID of the model's predictions are unchanged. Callers must
+ * run inside a transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModelEvaluationService {
+
+  /** Images whose labels are loaded with one query */
+  private static final int IMAGE_BATCH_SIZE = 500;
+
+  private final SnapshotImageRepository snapshotImageRepository;
+  private final SnapshotImageLabelRepository snapshotImageLabelRepository;
+  private final ImagePredictionLabelRepository imagePredictionLabelRepository;
+  private final SnapshotProjectClassRepository snapshotProjectClassRepository;
+  private final LabelGeometryCache labelGeometryCache;
+  private final EntityManager entityManager;
+
+  /** Access-ordered map, guarded by {@code this} */
+  private final LinkedHashMap<String, CachedResult> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+  @Value("${landingai.evaluation.iou-threshold:0.5}")
+  private double defaultIouThreshold;
+
+  @Value("${landingai.evaluation.cache.max-entries:16}")
+  private int maxCacheEntries;
+
+  /**
+   * Get the evaluation of a model, computing it on a cache miss.
+   *
+   * @param modelId the model ID
+   * @param snapshotId the snapshot the model was trained on
+   * @param split the split value (training/dev/test)
+   * @param iouThreshold minimum IoU of a match, null for the configured default
+   * @return the evaluation
+   * @throws IllegalArgumentException if the threshold is outside [0, 1]
+   */
+  public ModelEvaluation evaluate(
+      Long modelId, Long snapshotId, String split, Double iouThreshold) {
+    double threshold = resolveIouThreshold(iouThreshold);
+    String key = modelId + "/" + snapshotId + "/" + split + "/" + threshold;
+    return cached(
+        "evaluation/" + key,
+        modelId,
+        ModelEvaluation.class,
+        () -> {
+          long start = System.currentTimeMillis();
+          ModelEvaluation evaluation = compute(modelId, snapshotId, split, threshold);
+          log.info(
+              "Evaluated modelId={} on snapshotId={}, split={}, iouThreshold={}:"
+                  + " {} images in {} ms",
+              modelId,
+              snapshotId,
+              split,
+              threshold,
+              evaluation.getImages().size(),
+              System.currentTimeMillis() - start);
+          return evaluation;
+        });
+  }
+
+  /**
+   * Get precision, recall and F1 of a model for every confidence threshold, computing them on a
+   * cache miss.
+   *
+   * @param modelId the model ID
+   * @param snapshotId the snapshot the model was trained on
+   * @param split the split value (training/dev/test)
+   * @param iouThreshold minimum IoU of a match, null for the configured default
+   * @return the sweep
+   * @throws IllegalArgumentException if the threshold is outside [0, 1]
+   */
+  public ThresholdSweep sweepThresholds(
+      Long modelId, Long snapshotId, String split, Double iouThreshold) {
+    double threshold = resolveIouThreshold(iouThreshold);
+    String key = modelId + "/" + snapshotId + "/" + split + "/" + threshold;
+    return cached(
+        "sweep/" + key,
+        modelId,
+        ThresholdSweep.class,
+        () -> {
+          ThresholdSweep sweep = new ThresholdSweep();
+          forEachImage(
+              modelId,
+              snapshotId,
+              split,
+              (imageId, fileName, gtLabels, predLabels) -> {
+                ImageLabels labels = new ImageLabels(gtLabels, predLabels);
+                int[] predToGt =
+                    LabelMatcher.matchInConfidenceOrder(
+                        labels.gtShapes,
+                        labels.gtClasses,
+                        labels.predShapes,
+                        labels.predClasses,
+                        labels.predConfidence,
+                        threshold);
+                sweep.addImage(
+                    labels.gtClasses, labels.predClasses, labels.predConfidence, predToGt);
+              });
+          sweep.finish();
+          return sweep;
+        });
+  }
+
+  /** The IoU threshold to use, validated */
+  public double resolveIouThreshold(Double iouThreshold) {
+    double threshold = iouThreshold != null ? iouThreshold : defaultIouThreshold;
+    if (!(threshold >= 0 && threshold <= 1)) {
+      throw new IllegalArgumentException("IoU threshold must be between 0 and 1: " + threshold);
+    }
+    return threshold;
+  }
+
+  private <T> T cached(String key, Long modelId, Class<T> type, Supplier<T> loader) {
+    String version = predictionVersion(modelId);
+    synchronized (this) {
+      CachedResult cachedResult = cache.get(key);
+      if (cachedResult != null && cachedResult.version.equals(version)) {
+        return type.cast(cachedResult.result);
+      }
+    }
+
+    T result = loader.get();
+    synchronized (this) {
+      cache.put(key, new CachedResult(version, result));
+      Iterator<CachedResult> lru = cache.values().iterator();
+      while (cache.size() > maxCacheEntries && lru.hasNext()) {
+        lru.next();
+        lru.remove();
+      }
+    }
+    return result;
+  }
+
+  private String predictionVersion(Long modelId) {
+    List<Object[]> rows = imagePredictionLabelRepository.findPredictionVersionByModelId(modelId);
+    Object[] row = rows.isEmpty() ? new Object[] {0L, null} : rows.get(0);
+    return row[0] + ":" + row[1];
+  }
+
+  private ModelEvaluation compute(Long modelId, Long snapshotId, String split, double threshold) {
+    Map<Long, SnapshotProjectClass> classes = new HashMap<>();
+    for (SnapshotProjectClass snapshotClass :
+        snapshotProjectClassRepository.findBySnapshotId(snapshotId)) {
+      classes.put(snapshotClass.getId(), snapshotClass);
+    }
+
+    List<ImageResult> images = new ArrayList<>();
+    forEachImage(
+        modelId,
+        snapshotId,
+        split,
+        (imageId, fileName, gtLabels, predLabels) -> {
+          ImageLabels labels = new ImageLabels(gtLabels, predLabels);
+          int[] gtToPred =
+              LabelMatcher.match(
+                  labels.gtShapes,
+                  labels.gtClasses,
+                  labels.predShapes,
+                  labels.predClasses,
+                  labels.predConfidence,
+                  threshold);
+
+          List<LabelInfoDTO> groundTruth = new ArrayList<>(gtLabels.size());
+          for (SnapshotImageLabel label : gtLabels) {
+            groundTruth.add(toLabelInfo(label, classes.get(label.getClassId())));
+          }
+          List<LabelInfoDTO> predicted = new ArrayList<>(labels.predictions.size());
+          for (ImagePredictionLabel label : labels.predictions) {
+            predicted.add(toLabelInfo(label));
+          }
+          images.add(new ImageResult(imageId, fileName, split, groundTruth, predicted, gtToPred));
+        });
+    return new ModelEvaluation(snapshotId, images);
+  }
+
+  /**
+   * Load the labels of all images of a snapshot split in batches and pass them on image by image,
+   * in image ID order.
+   */
+  private void forEachImage(Long modelId, Long snapshotId, String split, ImageVisitor visitor) {
+    List<Object[]> imageRows =
+        snapshotImageRepository.findImageNamesBySnapshotIdAndSplit(snapshotId, split);
+
+    for (int from = 0; from < imageRows.size(); from += IMAGE_BATCH_SIZE) {
+      List<Object[]> batch =
+          imageRows.subList(from, Math.min(from + IMAGE_BATCH_SIZE, imageRows.size()));
+      List<Long> imageIds = new ArrayList<>(batch.size());
+      for (Object[] row : batch) {
+        imageIds.add((Long) row[0]);
+      }
+
+      Map<Long, List<SnapshotImageLabel>> gtByImage =
+          groupByImage(
+              snapshotImageLabelRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds),
+              SnapshotImageLabel::getImageId);
+      Map<Long, List<ImagePredictionLabel>> predByImage =
+          groupByImage(
+              imagePredictionLabelRepository.findByModelIdAndImageIdIn(modelId, imageIds),
+              label -> label.getImage().getId());
+
+      for (Object[] row : batch) {
+        Long imageId = (Long) row[0];
+        visitor.visit(
+            imageId,
+            (String) row[1],
+            gtByImage.getOrDefault(imageId, List.of()),
+            predByImage.getOrDefault(imageId, List.of()));
+      }
+
+      // Detach the batch so the persistence context does not grow with the evaluation set
+      entityManager.clear();
+    }
+  }
+
+  private EvaluationShape shapeOf(Source source, Long labelId, String position) {
+    return EvaluationShape.of(position, labelGeometryCache.get(source, labelId, position));
+  }
+
+  private static <T> Map<Long, List<T>> groupByImage(
+      List<T> labels, Function<T, Long> imageIdGetter) {
+    Map<Long, List<T>> byImage = new HashMap<>();
+    for (T label : labels) {
+      byImage.computeIfAbsent(imageIdGetter.apply(label), k -> new ArrayList<>()).add(label);
+    }
+    return byImage;
+  }
+
+  private static LabelInfoDTO toLabelInfo(
+      SnapshotImageLabel label, SnapshotProjectClass projectClass) {
+    if (projectClass == null) {
+      log.warn(
+          "Class not found for classId={} in snapshotId={}",
+          label.getClassId(),
+          label.getSnapshotId());
+    }
+    return LabelInfoDTO.builder()
+        .labelId(label.getId())
+        .classId(label.getClassId())
+        .className(projectClass != null ? projectClass.getClassName() : "Unknown")
+        .classColor(projectClass != null ? projectClass.getColorCode() : "#000000")
+        .position(label.getPosition())
+        .confidenceRate(null) // Ground truth labels don't have confidence rate
+        .build();
+  }
+
+  private static LabelInfoDTO toLabelInfo(ImagePredictionLabel label) {
+    ProjectClass projectClass = label.getProjectClass();
+    return LabelInfoDTO.builder()
+        .labelId(label.getId())
+        .classId(projectClass.getId())
+        .className(projectClass.getClassName())
+        .classColor(projectClass.getColorCode())
+        .position(label.getPosition())
+        .confidenceRate(label.getConfidenceRate())
+        .build();
+  }
+
+  /** Receives the labels of one image */
+  @FunctionalInterface
+  private interface ImageVisitor {
+    void visit(
+        Long imageId,
+        String fileName,
+        List<SnapshotImageLabel> gtLabels,
+        List<ImagePredictionLabel> predLabels);
+  }
+
+  /** Shapes, classes and confidence of the labels of one image, as input of the matcher */
+  private final class ImageLabels {
+    private final EvaluationShape[] gtShapes;
+    private final Long[] gtClasses;
+    private final List<ImagePredictionLabel> predictions = new ArrayList<>();
+    private final EvaluationShape[] predShapes;
+    private final Long[] predClasses;
+    private final int[] predConfidence;
+
+    ImageLabels(List<SnapshotImageLabel> gtLabels, List<ImagePredictionLabel> predLabels) {
+      gtShapes = new EvaluationShape[gtLabels.size()];
+      gtClasses = new Long[gtLabels.size()];
+      for (int g = 0; g < gtLabels.size(); g++) {
+        SnapshotImageLabel label = gtLabels.get(g);
+        gtShapes[g] = shapeOf(Source.SNAPSHOT_LABEL, label.getId(), label.getPosition());
+        gtClasses[g] = label.getClassId();
+      }
+
+      for (ImagePredictionLabel label : predLabels) {
+        if (label.getProjectClass() != null) {
+          predictions.add(label);
+        }
+      }
+      predShapes = new EvaluationShape[predictions.size()];
+      predClasses = new Long[predictions.size()];
+      predConfidence = new int[predictions.size()];
+      for (int p = 0; p < predictions.size(); p++) {
+        ImagePredictionLabel label = predictions.get(p);
+        predShapes[p] = shapeOf(Source.PREDICTION_LABEL, label.getId(), label.getPosition());
+        predClasses[p] = label.getProjectClass().getId();
+        predConfidence[p] = Objects.requireNonNullElse(label.getConfidenceRate(), 0);
+      }
+    }
+  }
+
+  private static final class CachedResult {
+    private final String version;
+    private final Object result;
+
+    CachedResult(String version, Object result) {
+      this.version = version;
+      this.result = result;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes prediction labels with JDBC batch inserts instead of persisting one entity per label. IDs
+ * for a whole batch are drawn from {@code hibernate_sequence} with one query, so a batch costs two
+ * round trips regardless of its size. Runs on the connection of the current transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PredictionLabelBatchWriter {
+
+  private static final String NEXT_IDS_SQL =
+      "SELECT nextval('hibernate_sequence') FROM generate_series(1, ?)";
+
+  private static final String INSERT_SQL =
+      "INSERT INTO la_images_prediction_label"
+          + " (id, image_id, class_id, model_id, position, confidence_rate, created_at, created_by)"
+          + " VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, ?)";
+
+  private final EntityManager entityManager;
+
+  @Value("${landingai.prediction.insert-batch-size:1000}")
+  private int batchSize;
+
+  /**
+   * Start writing prediction labels of a model. Pending entity changes are flushed first, so the
+   * labels can reference a model saved in the same transaction.
+   *
+   * @param modelId the model the labels belong to
+   * @param createdBy the user identifier
+   * @return the batch; call {@link Batch#finish()} to write the remaining labels
+   */
+  public Batch begin(Long modelId, String createdBy) {
+    entityManager.flush();
+    return new Batch(modelId, createdBy);
+  }
+
+  /** Labels of one model, written whenever a full batch is collected */
+  public final class Batch {
+    private final Long modelId;
+    private final String createdBy;
+    private final List<Object[]> pending = new ArrayList<>();
+    private int written;
+
+    private Batch(Long modelId, String createdBy) {
+      this.modelId = modelId;
+      this.createdBy = createdBy;
+    }
+
+    /**
+     * Add a prediction label.
+     *
+     * @param imageId the image ID
+     * @param classId the project class ID
+     * @param position the position JSON
+     * @param confidenceRate the confidence rate (0-100)
+     */
+    public void add(Long imageId, Long classId, String position, Integer confidenceRate) {
+      pending.add(new Object[] {imageId, classId, position, confidenceRate});
+      if (pending.size() >= batchSize) {
+        write();
+      }
+    }
+
+    /**
+     * Write the remaining labels.
+     *
+     * @return number of labels written by this batch in total
+     */
+    public int finish() {
+      write();
+      return written;
+    }
+
+    private void write() {
+      if (pending.isEmpty()) {
+        return;
+      }
+      entityManager.unwrap(Session.class).doWork(connection -> insert(connection, pending));
+      written += pending.size();
+      log.debug("Inserted {} prediction labels for model ID {}", pending.size(), modelId);
+      pending.clear();
+    }
+
+    private void insert(Connection connection, List<Object[]> rows) throws SQLException {
+      long[] ids = new long[rows.size()];
+      try (PreparedStatement statement = connection.prepareStatement(NEXT_IDS_SQL)) {
+        statement.setInt(1, rows.size());
+        try (ResultSet resultSet = statement.executeQuery()) {
+          for (int i = 0; i < ids.length && resultSet.next(); i++) {
+            ids[i] = resultSet.getLong(1);
+          }
+        }
+      }
+
+      try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+        for (int i = 0; i < rows.size(); i++) {
+          Object[] row = rows.get(i);
+          statement.setLong(1, ids[i]);
+          statement.setLong(2, (Long) row[0]);
+          statement.setLong(3, (Long) row[1]);
+          statement.setLong(4, modelId);
+          statement.setString(5, (String) row[2]);
+          if (row[3] != null) {
+            statement.setInt(6, (Integer) row[3]);
+          } else {
+            statement.setNull(6, Types.INTEGER);
+          }
+          statement.setString(7, createdBy);
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Stratified split assignment over primitive arrays. Images are grouped by their class, each class
+ * is shuffled with its own random generator and then cut into training, dev and test. The
+ * generator of a class is derived from the seed and the class ID, so the same seed and images
+ * always give the same assignment, and the images of one class do not change the shuffle of
+ * another.
+ */
+final class StratifiedSplitter {
+
+  /** Split values, indexed by the codes returned from {@link #assign} */
+  static final String[] SPLITS = {"training", "dev", "test"};
+
+  static final byte TRAINING = 0;
+  static final byte DEV = 1;
+  static final byte TEST = 2;
+
+  private StratifiedSplitter() {}
+
+  /**
+   * Assign a split to every image, cutting every class by its own ratios.
+   *
+   * @param classIds class of every image; images are expected in a stable order (by image ID)
+   * @param ratiosOf train, dev and test ratio (percent) of a class ID
+   * @param seed the seed
+   * @return split code of every image, see {@link #SPLITS}
+   */
+  static byte[] assign(long[] classIds, LongFunction<int[]> ratiosOf, long seed) {
+    Strata strata = new Strata(classIds);
+    int[][] counts = new int[strata.size()][];
+    for (int c = 0; c < strata.size(); c++) {
+      int[] ratios = ratiosOf.apply(strata.classId(c));
+      counts[c] = counts(strata.count(c), ratios[0], ratios[1], ratios[2]);
+    }
+    return strata.cut(counts, seed);
+  }
+
+  /**
+   * Assign a split to every image with one set of ratios for all images. The training, dev and
+   * test counts are rounded once for all images and then shared out across the classes by largest
+   * remainder, so the project gets the requested ratio and every class gets close to it. Ties
+   * between classes are broken in a seeded random order.
+   *
+   * @param classIds class of every image; images are expected in a stable order (by image ID)
+   * @param ratios train, dev and test ratio (percent)
+   * @param seed the seed
+   * @return split code of every image, see {@link #SPLITS}
+   */
+  static byte[] assignGlobal(long[] classIds, int[] ratios, long seed) {
+    Strata strata = new Strata(classIds);
+    int classes = strata.size();
+    int[] total = counts(classIds.length, ratios[0], ratios[1], ratios[2]);
+
+    int[] priority = new int[classes];
+    for (int c = 0; c < classes; c++) {
+      priority[c] = c;
+    }
+    shuffle(priority, 0, classes, new SplittableRandom(seed));
+
+    int[] sizes = new int[classes];
+    for (int c = 0; c < classes; c++) {
+      sizes[c] = strata.count(c);
+    }
+    int[] train = shareOut(total[0], sizes, priority);
+    int[] remaining = new int[classes];
+    for (int c = 0; c < classes; c++) {
+      remaining[c] = sizes[c] - train[c];
+    }
+    int[] dev = shareOut(total[1], remaining, priority);
+
+    int[][] counts = new int[classes][];
+    for (int c = 0; c < classes; c++) {
+      counts[c] = new int[] {train[c], dev[c]};
+    }
+    return strata.cut(counts, seed);
+  }
+
+  /**
+   * Number of training and dev images of a group. Training is rounded from the total, dev from
+   * the remainder by the dev/test ratio; test gets whatever is left (can be 0).
+   *
+   * @return [trainCount, devCount]
+   */
+  static int[] counts(int total, int trainRatio, int devRatio, int testRatio) {
+    int trainCount = Math.min((int) Math.round(total * trainRatio / 100.0), total);
+    int remaining = total - trainCount;
+    int devCount =
+        devRatio + testRatio > 0
+            ? (int) Math.round(remaining * devRatio / (double) (devRatio + testRatio))
+            : 0;
+    return new int[] {trainCount, Math.min(devCount, remaining)};
+  }
+
+  /**
+   * Share an amount out across groups in proportion to their weights with the largest remainder
+   * method. No group gets more than its weight as long as the amount does not exceed the total
+   * weight.
+   *
+   * @param amount the amount to share out
+   * @param weights weight of every group
+   * @param priority groups in the order in which ties are broken
+   * @return share of every group; the shares add up to the amount
+   */
+  static int[] shareOut(int amount, int[] weights, int[] priority) {
+    int groups = weights.length;
+    int[] shares = new int[groups];
+    long totalWeight = 0;
+    for (int weight : weights) {
+      totalWeight += weight;
+    }
+    if (totalWeight == 0) {
+      return shares;
+    }
+
+    long[] remainders = new long[groups];
+    int leftover = amount;
+    for (int g = 0; g < groups; g++) {
+      long quota = (long) amount * weights[g];
+      shares[g] = (int) (quota / totalWeight);
+      remainders[g] = quota % totalWeight;
+      leftover -= shares[g];
+    }
+
+    Integer[] byRemainder = new Integer[groups];
+    for (int k = 0; k < groups; k++) {
+      byRemainder[k] = priority[k];
+    }
+    // Stable sort, so groups with equal remainders keep the priority order
+    Arrays.sort(byRemainder, (a, b) -> Long.compare(remainders[b], remainders[a]));
+    for (int k = 0; k < leftover; k++) {
+      shares[byRemainder[k]]++;
+    }
+    return shares;
+  }
+
+  /** Fisher-Yates shuffle of order[from, to) */
+  private static void shuffle(int[] order, int from, int to, SplittableRandom random) {
+    for (int k = to - 1; k > from; k--) {
+      int j = from + random.nextInt(k - from + 1);
+      int swap = order[k];
+      order[k] = order[j];
+      order[j] = swap;
+    }
+  }
+
+  /** Spread the bits of a class ID, so neighbouring IDs get unrelated generators */
+  private static long mix(long value) {
+    long z = value * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /** Image indexes grouped by class, classes in order of first appearance */
+  private static final class Strata {
+    private final long[] classIds;
+    private final int[] start;
+    private final int[] order;
+
+    Strata(long[] classIds) {
+      this.classIds = classIds;
+      int total = classIds.length;
+
+      // Dense class ordinals in order of first appearance
+      Map<Long, Integer> ordinals = new HashMap<>();
+      int[] classOrdinal = new int[total];
+      for (int i = 0; i < total; i++) {
+        Integer ordinal = ordinals.putIfAbsent(classIds[i], ordinals.size());
+        classOrdinal[i] = ordinal != null ? ordinal : ordinals.size() - 1;
+      }
+
+      // Counting sort of the image indexes by class; keeps image order within a class
+      int classes = ordinals.size();
+      start = new int[classes + 1];
+      for (int i = 0; i < total; i++) {
+        start[classOrdinal[i] + 1]++;
+      }
+      for (int c = 0; c < classes; c++) {
+        start[c + 1] += start[c];
+      }
+      order = new int[total];
+      int[] next = start.clone();
+      for (int i = 0; i < total; i++) {
+        order[next[classOrdinal[i]]++] = i;
+      }
+    }
+
+    int size() {
+      return start.length - 1;
+    }
+
+    int count(int c) {
+      return start[c + 1] - start[c];
+    }
+
+    long classId(int c) {
+      return classIds[order[start[c]]];
+    }
+
+    /**
+     * Shuffle every class and cut it into training, dev and test.
+     *
+     * @param counts [trainCount, devCount] of every class
+     */
+    byte[] cut(int[][] counts, long seed) {
+      byte[] splits = new byte[classIds.length];
+      for (int c = 0; c < size(); c++) {
+        int from = start[c];
+        int to = start[c + 1];
+        shuffle(order, from, to, new SplittableRandom(seed ^ mix(classId(c))));
+
+        int train = counts[c][0];
+        int dev = counts[c][1];
+        for (int k = from; k < to; k++) {
+          int position = k - from;
+          splits[order[k]] = position < train ? TRAINING : position < train + dev ? DEV : TEST;
+        }
+      }
+      return splits;
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallPointDTO;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precision, recall and F1 of a model for every confidence threshold from 0 to 99, per class and
+ * micro-averaged over all classes.
+ *
+ * <p>Predictions are matched once in descending confidence (see {@link
+ * LabelMatcher#matchInConfidenceOrder}) and counted into one bucket per confidence rate, which is
+ * an integer from 0 to 100. Suffix sums over the buckets then give the counts of all predictions at
+ * or above each threshold, so the whole sweep is a single pass over primitive arrays.
+ */
+public final class ThresholdSweep {
+
+  /** Thresholds 0 to 99 */
+  public static final int THRESHOLDS = 100;
+
+  private static final int BUCKETS = 101;
+
+  private final Map<Long, Integer> classIndex = new HashMap<>();
+  private final List<int[]> predictions = new ArrayList<>();
+  private final List<int[]> truePositives = new ArrayList<>();
+  private final List<int[]> groundTruth = new ArrayList<>();
+
+  /** Counts at or above each threshold, filled by {@link #finish()} */
+  private int[] totalPredictions;
+
+  private int[] totalTruePositives;
+  private int totalGroundTruth;
+
+  ThresholdSweep() {}
+
+  /**
+   * Count the labels of one image.
+   *
+   * @param gtClasses ground truth class IDs
+   * @param predClasses prediction class IDs
+   * @param predConfidence prediction confidence rates
+   * @param predToGt matched ground truth label of every prediction, or -1
+   */
+  void addImage(Long[] gtClasses, Long[] predClasses, int[] predConfidence, int[] predToGt) {
+    for (Long gtClass : gtClasses) {
+      groundTruth.get(index(gtClass))[0]++;
+    }
+    for (int p = 0; p < predClasses.length; p++) {
+      int cls = index(predClasses[p]);
+      int bucket = Math.max(0, Math.min(BUCKETS - 1, predConfidence[p]));
+      predictions.get(cls)[bucket]++;
+      int g = predToGt[p];
+      if (g >= 0 && predClasses[p].equals(gtClasses[g])) {
+        truePositives.get(cls)[bucket]++;
+      }
+    }
+  }
+
+  /** Turn the buckets into suffix sums; no images can be added afterwards */
+  void finish() {
+    totalPredictions = new int[BUCKETS];
+    totalTruePositives = new int[BUCKETS];
+    for (int cls = 0; cls < predictions.size(); cls++) {
+      int[] pred = predictions.get(cls);
+      int[] tp = truePositives.get(cls);
+      for (int bucket = BUCKETS - 2; bucket >= 0; bucket--) {
+        pred[bucket] += pred[bucket + 1];
+        tp[bucket] += tp[bucket + 1];
+      }
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        totalPredictions[bucket] += pred[bucket];
+        totalTruePositives[bucket] += tp[bucket];
+      }
+      totalGroundTruth += groundTruth.get(cls)[0];
+    }
+  }
+
+  /**
+   * Number of ground truth labels.
+   *
+   * @param classId the class ID, null for all classes
+   */
+  public int getGroundTruthCount(Long classId) {
+    if (classId == null) {
+      return totalGroundTruth;
+    }
+    Integer cls = classIndex.get(classId);
+    return cls == null ? 0 : groundTruth.get(cls)[0];
+  }
+
+  /**
+   * Metrics at one threshold.
+   *
+   * @param classId the class ID, null for the micro average of all classes
+   * @param threshold the confidence threshold (0-99)
+   */
+  public PrecisionRecallPointDTO getPoint(Long classId, int threshold) {
+    if (classId == null) {
+      return point(
+          threshold, totalPredictions[threshold], totalTruePositives[threshold], totalGroundTruth);
+    }
+    Integer cls = classIndex.get(classId);
+    if (cls == null) {
+      return point(threshold, 0, 0, 0);
+    }
+    return point(
+        threshold,
+        predictions.get(cls)[threshold],
+        truePositives.get(cls)[threshold],
+        groundTruth.get(cls)[0]);
+  }
+
+  /**
+   * Metrics at every threshold from 0 to 99.
+   *
+   * @param classId the class ID, null for the micro average of all classes
+   */
+  public List<PrecisionRecallPointDTO> getPoints(Long classId) {
+    List<PrecisionRecallPointDTO> points = new ArrayList<>(THRESHOLDS);
+    for (int threshold = 0; threshold < THRESHOLDS; threshold++) {
+      points.add(getPoint(classId, threshold));
+    }
+    return points;
+  }
+
+  private static PrecisionRecallPointDTO point(int threshold, int pred, int tp, int gt) {
+    Double precision = pred > 0 ? (double) tp / pred * 100 : null;
+    Double recall = gt > 0 ? (double) tp / gt * 100 : null;
+    Double f1 = null;
+    if (precision != null && recall != null) {
+      f1 = precision + recall > 0 ? 2 * precision * recall / (precision + recall) : 0.0;
+    }
+    return PrecisionRecallPointDTO.builder()
+        .threshold(threshold)
+        .truePositives(tp)
+        .falsePositives(pred - tp)
+        .falseNegatives(gt - tp)
+        .precision(precision)
+        .recall(recall)
+        .f1(f1)
+        .build();
+  }
+
+  private int index(Long classId) {
+    return classIndex.computeIfAbsent(
+        classId,
+        k -> {
+          predictions.add(new int[BUCKETS]);
+          truePositives.add(new int[BUCKETS]);
+          groundTruth.add(new int[1]);
+          return predictions.size() - 1;
+        });
+  }
+}
@@ -0,0 +1,130 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.model.landingai.ImageThumbnail;
+import com.nxp.iemdm.shared.repository.jpa.landingai.ImageThumbnailRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through cache for image thumbnails stored in {@code la_images_thumbnail}. The cache is
+ * bounded by the total number of thumbnail bytes it holds and evicts the least recently used
+ * entries first. Thumbnails never change for an image ID, so entries are only removed on eviction
+ * or when the image is deleted.
+ */
+@Component
+public class ThumbnailCache {
+
+  private final ImageThumbnailRepository imageThumbnailRepository;
+
+  /** Access-ordered map, guarded by {@code this} */
+  private final LinkedHashMap<Long, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+  private long currentBytes;
+
+  @Value("${landingai.thumbnail.cache.max-bytes:67108864}")
+  private long maxBytes; // 64MB, roughly 6000 thumbnails
+
+  @Autowired
+  public ThumbnailCache(ImageThumbnailRepository imageThumbnailRepository) {
+    this.imageThumbnailRepository = imageThumbnailRepository;
+  }
+
+  /**
+   * Get the thumbnail of one image, loading it from the database on a cache miss.
+   *
+   * @param imageId the image ID
+   * @return the thumbnail bytes, or null if the image has no thumbnail
+   */
+  public byte[] get(Long imageId) {
+    byte[] cached = lookup(imageId);
+    if (cached != null) {
+      return cached;
+    }
+
+    byte[] thumbnail = imageThumbnailRepository.findThumbnailImageByImageId(imageId).orElse(null);
+    if (thumbnail != null) {
+      put(imageId, thumbnail);
+    }
+    return thumbnail;
+  }
+
+  /**
+   * Get the thumbnails of several images. All cache misses are loaded with a single query.
+   *
+   * @param imageIds the image IDs
+   * @return image ID to thumbnail bytes; images without a thumbnail are absent from the map
+   */
+  public Map<Long, byte[]> getAll(Collection<Long> imageIds) {
+    Map<Long, byte[]> result = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long imageId : imageIds) {
+      byte[] cached = lookup(imageId);
+      if (cached != null) {
+        result.put(imageId, cached);
+      } else {
+        missing.add(imageId);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      for (ImageThumbnail thumbnail : imageThumbnailRepository.findByImageIdIn(missing)) {
+        result.put(thumbnail.getImageId(), thumbnail.getThumbnailImage());
+        put(thumbnail.getImageId(), thumbnail.getThumbnailImage());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Persist the thumbnail of a newly created image. Runs in the caller's transaction; the cache
+   * itself is only filled on read.
+   *
+   * @param imageId the image ID
+   * @param thumbnail the JPEG thumbnail bytes (ignored if null)
+   */
+  public void save(Long imageId, byte[] thumbnail) {
+    if (thumbnail == null) {
+      return;
+    }
+    imageThumbnailRepository.save(new ImageThumbnail(imageId, thumbnail));
+  }
+
+  /**
+   * Remove the thumbnail of a deleted image from the cache.
+   *
+   * @param imageId the image ID
+   */
+  public synchronized void evict(Long imageId) {
+    byte[] removed = entries.remove(imageId);
+    if (removed != null) {
+      currentBytes -= removed.length;
+    }
+  }
+
+  private synchronized byte[] lookup(Long imageId) {
+    return entries.get(imageId);
+  }
+
+  private synchronized void put(Long imageId, byte[] thumbnail) {
+    if (thumbnail.length > maxBytes) {
+      return;
+    }
+
+    byte[] previous = entries.put(imageId, thumbnail);
+    currentBytes += thumbnail.length - (previous != null ? previous.length : 0);
+
+    Iterator<Map.Entry<Long, byte[]>> eldest = entries.entrySet().iterator();
+    while (currentBytes > maxBytes && eldest.hasNext()) {
+      currentBytes -= eldest.next().getValue().length;
+      eldest.remove();
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.nxp.iemdm.shared.dto.landingai.TrainingResultResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outcome of asking Databricks for the results of a training run. Ready results keep the response
+ * document in a temporary file, from which the prediction images are streamed; closing the fetch
+ * deletes it.
+ */
+@Slf4j
+public final class TrainingResultFetch implements AutoCloseable {
+
+  /** Remote state of the results */
+  public enum State {
+    /** Results were returned */
+    READY,
+    /** The run has no results yet */
+    NOT_READY,
+    /** The call failed; the state of the run is unknown */
+    FAILED
+  }
+
+  private final State state;
+  private final TrainingResultResponse response;
+  private final Path document;
+
+  private TrainingResultFetch(State state, TrainingResultResponse response, Path document) {
+    this.state = state;
+    this.response = response;
+    this.document = document;
+  }
+
+  static TrainingResultFetch ready(TrainingResultResponse response, Path document) {
+    return new TrainingResultFetch(State.READY, response, document);
+  }
+
+  static TrainingResultFetch notReady() {
+    return new TrainingResultFetch(State.NOT_READY, null, null);
+  }
+
+  static TrainingResultFetch failed() {
+    return new TrainingResultFetch(State.FAILED, null, null);
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  /** The results without prediction images, or null unless {@link State#READY} */
+  public TrainingResultResponse getResponse() {
+    return response;
+  }
+
+  /**
+   * The response document, to read the prediction images from with {@link TrainingResultReader},
+   * or null unless {@link State#READY}
+   */
+  public Path getDocument() {
+    return document;
+  }
+
+  /** Delete the response document */
+  @Override
+  public void close() {
+    if (document == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(document);
+    } catch (IOException e) {
+      log.warn("Could not delete training result document {}: {}", document, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nxp.iemdm.shared.dto.landingai.TrainingResultResponse;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for the training result JSON document. The summary (metrics and charts) is small
+ * and bound to {@link TrainingResultResponse} as usual. The {@code prediction_images} array, which
+ * holds every image of the dataset, is never bound: its predictions are read token by token and
+ * handed out in batches of a fixed size, so memory is bounded by the batch size rather than by the
+ * size of the dataset. Ground truth in the document is skipped, it is already stored.
+ */
+final class TrainingResultReader {
+
+  private static final String PREDICTION_IMAGES = "prediction_images";
+
+  private TrainingResultReader() {}
+
+  /**
+   * Read the training result without its prediction images.
+   *
+   * @param mapper the object mapper
+   * @param file the training result JSON document
+   * @return the result, {@code predictionImages} is null
+   */
+  static TrainingResultResponse readSummary(ObjectMapper mapper, Path file) throws IOException {
+    try (JsonParser parser = mapper.getFactory().createParser(file.toFile())) {
+      expectObject(parser);
+      ObjectNode summary = mapper.createObjectNode();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        if (PREDICTION_IMAGES.equals(field)) {
+          parser.skipChildren();
+        } else {
+          summary.set(field, mapper.readTree(parser));
+        }
+      }
+      return mapper.treeToValue(summary, TrainingResultResponse.class);
+    }
+  }
+
+  /**
+   * Read the predictions of all prediction images.
+   *
+   * @param mapper the object mapper
+   * @param file the training result JSON document
+   * @param batchSize number of predictions per batch
+   * @param handler receives every full batch and the remainder; the list is reused afterwards
+   * @return number of predictions read
+   */
+  static long readPredictions(
+      ObjectMapper mapper, Path file, int batchSize, Consumer<List<PredictionRecord>> handler)
+      throws IOException {
+    List<PredictionRecord> batch = new ArrayList<>(batchSize);
+    long total = 0;
+
+    try (JsonParser parser = mapper.getFactory().createParser(file.toFile())) {
+      expectObject(parser);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (!PREDICTION_IMAGES.equals(field) || value != JsonToken.START_ARRAY) {
+          parser.skipChildren();
+          continue;
+        }
+
+        List<PredictionRecord> imagePredictions = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+          if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            continue;
+          }
+          imagePredictions.clear();
+          String image = readImage(parser, imagePredictions);
+          for (PredictionRecord prediction : imagePredictions) {
+            prediction.image = image;
+            batch.add(prediction);
+            total++;
+            if (batch.size() >= batchSize) {
+              handler.accept(batch);
+              batch.clear();
+            }
+          }
+        }
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      handler.accept(batch);
+    }
+    return total;
+  }
+
+  /**
+   * Read one prediction image object. The image name may follow its predictions, so the
+   * predictions of the image are collected first.
+   *
+   * @return the image name
+   */
+  private static String readImage(JsonParser parser, List<PredictionRecord> predictions)
+      throws IOException {
+    String image = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("image".equals(field) && value == JsonToken.VALUE_STRING) {
+        image = parser.getText();
+      } else if ("predictions".equals(field) && value == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          predictions.add(readPrediction(parser));
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return image;
+  }
+
+  private static PredictionRecord readPrediction(JsonParser parser) throws IOException {
+    PredictionRecord prediction = new PredictionRecord();
+    prediction.bbox = "[]";
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      switch (field) {
+        case "confidence" ->
+            prediction.confidence = value.isNumeric() ? parser.getDoubleValue() : 0;
+        case "class_id" -> prediction.classId = value.isNumeric() ? parser.getIntValue() : 0;
+        case "bbox" -> prediction.bbox = readBbox(parser, value);
+        default -> parser.skipChildren();
+      }
+    }
+    return prediction;
+  }
+
+  /** Copy the bbox array as a JSON array of doubles: [xcenter, ycenter, width, height] */
+  private static String readBbox(JsonParser parser, JsonToken value) throws IOException {
+    if (value != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return "[]";
+    }
+    StringBuilder json = new StringBuilder("[");
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (!token.isNumeric()) {
+        parser.skipChildren();
+        continue;
+      }
+      if (json.length() > 1) {
+        json.append(',');
+      }
+      json.append(parser.getDoubleValue());
+    }
+    return json.append(']').toString();
+  }
+
+  private static void expectObject(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Training result is not a JSON object");
+    }
+  }
+
+  /** One prediction of a prediction image */
+  static final class PredictionRecord {
+    /** Image name as reported by the training job */
+    String image;
+
+    /** Class sequence of the prediction */
+    int classId;
+
+    /** Confidence from 0 to 1 */
+    double confidence;
+
+    /** Bounding box as JSON array */
+    String bbox;
+  }
+}
@@ -1,23 +1,46 @@
 package com.nxp.iemdm.operational.service.landingai;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nxp.iemdm.model.landingai.*;
 import com.nxp.iemdm.shared.dto.landingai.*;
 import com.nxp.iemdm.shared.intf.operational.landingai.TrainingResultService;
 import com.nxp.iemdm.shared.repository.jpa.landingai.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service implementation for processing training results from Databricks API. Orchestrates the
  * entire flow from querying pending records to persisting results.
+ *
+ * <p>Records are polled concurrently on a bounded pool. The Databricks call runs outside any
+ * transaction and the results of each record are persisted in a transaction of their own, so a
+ * slow download or a failing record does not hold up or roll back the others. A record whose
+ * results are not available yet, or whose poll failed, is polled again after a delay that doubles
+ * with every unsuccessful attempt.
  */
 @Service
 @Slf4j
@@ -30,20 +53,64 @@ public class TrainingResultServiceImpl implements TrainingResultService {
   private final ConfidentialReportRepository confidentialReportRepository;
   private final LossChartRepository lossChartRepository;
   private final ValidationChartRepository validationChartRepository;
-  private final ImagePredictionLabelRepository imagePredictionLabelRepository;
   private final SnapshotProjectClassRepository snapshotProjectClassRepository;
   private final ImageRepository imageRepository;
   private final ProjectClassRepository projectClassRepository;
 
   // Helper components
   private final DatabricksApiClient databricksApiClient;
-  private final PredictionFileProcessor predictionFileProcessor;
   private final ClassIdMapper classIdMapper;
+  private final PredictionLabelBatchWriter predictionLabelBatchWriter;
+  private final ObjectMapper objectMapper;
 
   private final EntityManager entityManager;
+  private final PlatformTransactionManager transactionManager;
+
+  /** Next poll of records whose last poll did not complete them */
+  private final Map<Long, PollState> pollStates = new ConcurrentHashMap<>();
+
+  /** Records being polled, possibly by a previous cycle */
+  private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+  @Value("${landingai.training-result.max-concurrency:4}")
+  private int maxConcurrency;
+
+  @Value("${landingai.training-result.cycle-timeout-seconds:50}")
+  private long cycleTimeoutSeconds;
+
+  @Value("${landingai.training-result.not-ready-delay-seconds:60}")
+  private long notReadyDelaySeconds;
+
+  @Value("${landingai.training-result.failure-delay-seconds:120}")
+  private long failureDelaySeconds;
+
+  @Value("${landingai.training-result.max-delay-seconds:1800}")
+  private long maxDelaySeconds;
+
+  /** Predictions read from the result document per batch, one JDBC batch each */
+  @Value("${landingai.prediction.insert-batch-size:1000}")
+  private int predictionReadBatchSize;
+
+  private ThreadPoolExecutor pollExecutor;
+  private TransactionTemplate transactionTemplate;
+
+  @PostConstruct
+  public void init() {
+    int workers = Math.max(1, maxConcurrency);
+    pollExecutor =
+        new ThreadPoolExecutor(
+            workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    log.info("Training result polling initialized with {} workers", workers);
+  }
+
+  /** Shutdown the executor service when the bean is destroyed */
+  @PreDestroy
+  public void shutdown() {
+    pollExecutor.shutdownNow();
+  }
 
   @Override
-  @Transactional
   public ProcessingResult processWaitingTrainingRecords() {
     log.info("Starting processing of training records with status WAITFORRESULT");
 
@@ -57,35 +124,131 @@ public class TrainingResultServiceImpl implements TrainingResultService {
     ProcessingResult result = new ProcessingResult();
     result.setTotalRecords(totalRecords);
 
-    // Process each record
+    // Forget the backoff of records that are no longer waiting
+    Set<Long> waitingIds = new HashSet<>();
     for (TrainingRecord record : waitingRecords) {
+      waitingIds.add(record.getId());
+    }
+    pollStates.keySet().retainAll(waitingIds);
+
+    // Submit the records that are due and not still being polled by a previous cycle
+    Instant now = Instant.now();
+    Map<Long, Future<PollOutcome>> submitted = new LinkedHashMap<>();
+    int deferredCount = 0;
+    for (TrainingRecord record : waitingRecords) {
+      Long recordId = record.getId();
+      PollState state = pollStates.get(recordId);
+      if (state != null && state.nextPollAt.isAfter(now)) {
+        deferredCount++;
+        continue;
+      }
+      if (!inFlight.add(recordId)) {
+        continue;
+      }
+      submitted.put(recordId, pollExecutor.submit(() -> pollAndReschedule(recordId)));
+    }
+    result.setDeferredCount(deferredCount);
+
+    // Wait for the cycle's records, but not beyond the cycle timeout
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(cycleTimeoutSeconds);
+    for (Map.Entry<Long, Future<PollOutcome>> entry : submitted.entrySet()) {
+      Long recordId = entry.getKey();
       try {
-        boolean success = processSingleTrainingRecord(record.getId());
-        if (success) {
-          result.incrementSuccess();
-        } else {
-          result.incrementFailure();
-          result.addError("Failed to process training record ID: " + record.getId());
+        PollOutcome outcome =
+            entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        switch (outcome) {
+          case COMPLETED -> result.incrementSuccess();
+          case NOT_READY -> result.incrementNotReady();
+          case FAILED -> {
+            result.incrementFailure();
+            result.addError("Failed to process training record ID: " + recordId);
+          }
         }
-      } catch (Exception e) {
-        log.error("Error processing training record ID {}: {}", record.getId(), e.getMessage(), e);
+      } catch (TimeoutException e) {
+        // Still running; the next cycle skips it until it finishes
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (ExecutionException e) {
+        log.error(
+            "Error processing training record ID {}: {}",
+            recordId,
+            e.getCause().getMessage(),
+            e.getCause());
         result.incrementFailure();
         result.addError(
-            "Error processing training record ID " + record.getId() + ": " + e.getMessage());
+            "Error processing training record ID " + recordId + ": " + e.getCause().getMessage());
       }
     }
+    result.setQueueDepth(pollExecutor.getQueue().size());
+    result.setInProgressCount(inFlight.size());
 
     log.info(
-        "Completed processing. Total: {}, Success: {}, Failure: {}",
+        "Completed processing. Total: {}, Success: {}, Not ready: {}, Failure: {}, Deferred: {},"
+            + " In progress: {}, Queued: {}",
         totalRecords,
         result.getSuccessCount(),
-        result.getFailureCount());
+        result.getNotReadyCount(),
+        result.getFailureCount(),
+        result.getDeferredCount(),
+        result.getInProgressCount(),
+        result.getQueueDepth());
 
     return result;
   }
 
   @Override
   public boolean processSingleTrainingRecord(Long trainingRecordId) {
+    // Same guard as the scheduled polls, so a record is never polled twice at the same time
+    if (!inFlight.add(trainingRecordId)) {
+      log.info("Training record ID {} is already being processed", trainingRecordId);
+      return false;
+    }
+    try {
+      return pollTrainingRecord(trainingRecordId) == PollOutcome.COMPLETED;
+    } finally {
+      inFlight.remove(trainingRecordId);
+    }
+  }
+
+  private PollOutcome pollAndReschedule(Long trainingRecordId) {
+    PollOutcome outcome = PollOutcome.FAILED;
+    try {
+      outcome = pollTrainingRecord(trainingRecordId);
+      return outcome;
+    } finally {
+      reschedule(trainingRecordId, outcome);
+      inFlight.remove(trainingRecordId);
+    }
+  }
+
+  /** Schedule the next poll of a record with exponential backoff, or drop it once completed */
+  private void reschedule(Long trainingRecordId, PollOutcome outcome) {
+    if (outcome == PollOutcome.COMPLETED) {
+      pollStates.remove(trainingRecordId);
+      return;
+    }
+    long baseDelay = outcome == PollOutcome.NOT_READY ? notReadyDelaySeconds : failureDelaySeconds;
+    pollStates.compute(
+        trainingRecordId,
+        (id, previous) -> {
+          int attempts = previous == null ? 1 : previous.attempts + 1;
+          long delay = Math.min(maxDelaySeconds, baseDelay << Math.min(attempts - 1, 20));
+          log.debug(
+              "Training record ID {} is {} after {} attempts, next poll in {} s",
+              id,
+              outcome,
+              attempts,
+              delay);
+          return new PollState(attempts, Instant.now().plusSeconds(delay));
+        });
+  }
+
+  /**
+   * Poll one training record: fetch its results outside of any transaction, then persist them in a
+   * transaction of their own.
+   */
+  private PollOutcome pollTrainingRecord(Long trainingRecordId) {
     log.debug("Processing training record ID: {}", trainingRecordId);
 
     // Load training record
@@ -96,93 +259,117 @@ public class TrainingResultServiceImpl implements TrainingResultService {
                 () ->
                     new IllegalArgumentException("Training record not found: " + trainingRecordId));
 
-    // Extract required data
     String trackId = trainingRecord.getTrackId();
-    String modelAlias = trainingRecord.getModelAlias();
-    Long projectId = trainingRecord.getProject().getId();
-    Long snapshotId = trainingRecord.getSnapshotId();
-
-    log.debug(
-        "Processing trackId: {}, projectId: {}, snapshotId: {}", trackId, projectId, snapshotId);
 
-    // Check if model exists with same track_id
+    // Scenario A: Model exists with status COMPLETED, skip API processing
     Model existingModel = modelRepository.findByTrackId(trackId);
+    if (existingModel != null && "COMPLETED".equalsIgnoreCase(existingModel.getStatus())) {
+      log.info(
+          "Model already completed for trackId: {}. Updating training record status.", trackId);
+      transactionTemplate.executeWithoutResult(
+          status -> markTrainingRecordCompleted(trainingRecordId));
+      return PollOutcome.COMPLETED;
+    }
 
-    if (existingModel != null) {
-      // Model exists
-      if ("COMPLETED".equalsIgnoreCase(existingModel.getStatus())) {
-        // Scenario A: Model exists with status COMPLETED
-        log.info(
-            "Model already completed for trackId: {}. Updating training record status.", trackId);
-
-        // Update training record status
-        trainingRecord.setStatus("COMPLETED");
-        if (trainingRecord.getCompletedAt() == null) {
-          trainingRecord.setCompletedAt(Instant.now());
-        }
-        trainingRecordRepository.save(trainingRecord);
-
-        return true; // Skip API processing
+    // Call Databricks API
+    log.debug("Calling Databricks API for trackId: {}", trackId);
+    String modelFullName = trainingRecord.getModelAlias(); // TODO: Build proper modelFullName
+    try (TrainingResultFetch fetch =
+        databricksApiClient.fetchTrainingResults(modelFullName, trackId)) {
+      if (fetch.getState() == TrainingResultFetch.State.NOT_READY) {
+        log.debug("Training results not available yet for trackId: {}", trackId);
+        return PollOutcome.NOT_READY;
+      }
+      if (fetch.getState() == TrainingResultFetch.State.FAILED) {
+        log.error("Failed to get API response for trackId: {}", trackId);
+        return PollOutcome.FAILED;
+      }
 
-      } else {
-        // Scenario B: Model exists but not completed
-        log.debug(
-            "Model exists but not completed for trackId: {}. Continuing processing.", trackId);
-        // Continue to API processing (don't create new model)
+      // Validate response; incomplete metrics mean the results are still being written
+      TrainingResultResponse apiResponse = fetch.getResponse();
+      if (!databricksApiClient.validateResponse(apiResponse)) {
+        log.warn("API response validation failed for trackId: {}", trackId);
+        return PollOutcome.NOT_READY;
       }
-    } else {
-      // Scenario C: Model does not exist - create initial model
-      log.debug("Creating initial model for trackId: {}", trackId);
-
-      existingModel = new Model();
-      existingModel.setTrackId(trackId);
-      existingModel.setModelAlias(modelAlias);
-      existingModel.setProjectId(projectId);
-      existingModel.setTrainingRecord(trainingRecord);
-      existingModel.setStatus("WAITFORRESULT");
-      existingModel.setCreatedBy(trainingRecord.getCreatedBy());
-      existingModel.setIsFavorite(false);
-
-      existingModel = modelRepository.save(existingModel);
-      log.debug("Created initial model with ID: {}", existingModel.getId());
+
+      Boolean persisted =
+          transactionTemplate.execute(
+              status -> {
+                boolean success =
+                    persistTrainingResults(trainingRecordId, apiResponse, fetch.getDocument());
+                if (!success) {
+                  status.setRollbackOnly();
+                }
+                return success;
+              });
+      return Boolean.TRUE.equals(persisted) ? PollOutcome.COMPLETED : PollOutcome.FAILED;
     }
+  }
 
-    // Continue with API processing
-    return processTrainingResults(trainingRecord, existingModel);
+  private void markTrainingRecordCompleted(Long trainingRecordId) {
+    trainingRecordRepository
+        .findById(trainingRecordId)
+        .ifPresent(
+            trainingRecord -> {
+              trainingRecord.setStatus("COMPLETED");
+              if (trainingRecord.getCompletedAt() == null) {
+                trainingRecord.setCompletedAt(Instant.now());
+              }
+              trainingRecordRepository.save(trainingRecord);
+            });
   }
 
   /**
-   * Process training results by calling API and persisting data.
+   * Persist the training results of one record. Must run inside a transaction, which the caller
+   * rolls back when this returns false. The record row is locked for the transaction, so results
+   * are persisted once even when another instance polls the same record.
    *
-   * @param trainingRecord Training record
-   * @param model Model entity
+   * @param trainingRecordId Training record ID
+   * @param apiResponse Validated API response, without prediction images
+   * @param document Response document the prediction images are streamed from
    * @return true if successful, false otherwise
    */
-  private boolean processTrainingResults(TrainingRecord trainingRecord, Model model) {
-    String trackId = trainingRecord.getTrackId();
-    Path zipPath = null;
-    Path csvPath = null;
-    Path extractDir = null;
+  private boolean persistTrainingResults(
+      Long trainingRecordId, TrainingResultResponse apiResponse, Path document) {
+    TrainingRecord trainingRecord =
+        trainingRecordRepository.findByIdForUpdate(trainingRecordId).orElse(null);
+    if (trainingRecord == null || !"WAITFORRESULT".equalsIgnoreCase(trainingRecord.getStatus())) {
+      log.info("Training record ID {} is no longer waiting for results", trainingRecordId);
+      return true;
+    }
 
-    try {
-      // Step 1: Call Databricks API
-      log.debug("Calling Databricks API for trackId: {}", trackId);
-      String modelFullName = trainingRecord.getModelAlias(); // TODO: Build proper modelFullName
-      TrainingResultResponse apiResponse =
-          databricksApiClient.getTrainingResults(modelFullName, trackId);
+    String trackId = trainingRecord.getTrackId();
+    Long projectId = trainingRecord.getProject().getId();
+    Long snapshotId = trainingRecord.getSnapshotId();
 
-      if (apiResponse == null) {
-        log.error("Failed to get API response for trackId: {}", trackId);
-        return false;
-      }
+    log.debug(
+        "Processing trackId: {}, projectId: {}, snapshotId: {}", trackId, projectId, snapshotId);
 
-      // Validate response
-      if (!databricksApiClient.validateResponse(apiResponse)) {
-        log.error("API response validation failed for trackId: {}", trackId);
-        return false;
+    try {
+      // Check if model exists with same track_id
+      Model model = modelRepository.findByTrackId(trackId);
+      if (model == null) {
+        // Scenario C: Model does not exist - create initial model
+        log.debug("Creating initial model for trackId: {}", trackId);
+
+        model = new Model();
+        model.setTrackId(trackId);
+        model.setModelAlias(trainingRecord.getModelAlias());
+        model.setProjectId(projectId);
+        model.setTrainingRecord(trainingRecord);
+        model.setStatus("WAITFORRESULT");
+        model.setCreatedBy(trainingRecord.getCreatedBy());
+        model.setIsFavorite(false);
+
+        model = modelRepository.save(model);
+        log.debug("Created initial model with ID: {}", model.getId());
+      } else {
+        // Scenario B: Model exists but not completed, continue without creating a new model
+        log.debug(
+            "Model exists but not completed for trackId: {}. Continuing processing.", trackId);
       }
 
-      // Step 2: Extract chart data from API response
+      // Step 1: Extract chart data from API response
       // Note: prediction_file is no longer used, data comes directly from API response
       List<EpochMetrics> epochMetricsList = new ArrayList<>();
 
@@ -214,28 +401,26 @@ public class TrainingResultServiceImpl implements TrainingResultService {
         log.debug("Converted {} validation chart points", apiResponse.getValidationChart().size());
       }
 
-      // Step 3: Build class ID mapping
+      // Step 2: Build class ID mapping
       Map<Integer, Long> classIdMapping =
-          classIdMapper.buildSequenceToClassIdMap(
-              trainingRecord.getProject().getId(), trainingRecord.getSnapshotId());
+          classIdMapper.buildSequenceToClassIdMap(projectId, snapshotId);
 
-      // Step 4: Update model with training results
+      // Step 3: Update model with training results
       updateModelWithResults(model, apiResponse);
 
-      // Step 5: Create confidential report
+      // Step 4: Create confidential report
       createConfidentialReport(model, apiResponse);
 
-      // Step 6: Create loss charts
+      // Step 5: Create loss charts
       createLossCharts(model, epochMetricsList);
 
-      // Step 7: Create validation charts
+      // Step 6: Create validation charts
       createValidationCharts(model, epochMetricsList);
 
-      // Step 8: Create prediction labels from prediction_images
-      createPredictionLabelsFromImages(
-          model, apiResponse.getPredictionImages(), trainingRecord.getProject().getId());
+      // Step 7: Create prediction labels from prediction_images
+      createPredictionLabelsFromImages(model, document, projectId);
 
-      // Step 9: Update training record
+      // Step 8: Update training record
       trainingRecord.setStatus("COMPLETED");
       trainingRecord.setCompletedAt(Instant.now());
       trainingRecordRepository.save(trainingRecord);
@@ -250,12 +435,6 @@ public class TrainingResultServiceImpl implements TrainingResultService {
     } catch (Exception e) {
       log.error("Error processing training results for trackId {}: {}", trackId, e.getMessage(), e);
       return false;
-
-    } finally {
-      // Clean up temporary files
-      if (zipPath != null || csvPath != null || extractDir != null) {
-        predictionFileProcessor.cleanupTempFiles(zipPath, csvPath, extractDir);
-      }
     }
   }
 
@@ -365,176 +544,113 @@ public class TrainingResultServiceImpl implements TrainingResultService {
   }
 
   /**
-   * 從 prediction_images 建立 prediction label 記錄。
+   * 從 prediction_images 建立 prediction label 記錄。 Image 名稱與 class sequence 的對照表只建立一次，
+   * predictions 由 response 文件串流讀取，每批以 JDBC batch 寫入，記憶體用量只與批次大小有關。
    *
    * @param model Model entity
-   * @param predictionImages API response 中的 prediction_images 列表
+   * @param document API response 文件 (含 prediction_images)
    * @param projectId 專案 ID
    */
-  private void createPredictionLabelsFromImages(
-      Model model, List<TrainingResultResponse.PredictionImage> predictionImages, Long projectId) {
-    if (predictionImages == null || predictionImages.isEmpty()) {
+  private void createPredictionLabelsFromImages(Model model, Path document, Long projectId)
+      throws IOException {
+    if (document == null) {
       log.debug("No prediction images available");
       return;
     }
 
-    log.debug(
-        "Creating prediction labels for model ID {} from {} prediction images",
-        model.getId(),
-        predictionImages.size());
-
-    List<ImagePredictionLabel> imagePredictionLabels = new ArrayList<>();
-    int totalPredictions = 0;
-    int skippedCount = 0;
-
-    // 處理每個 prediction image
-    for (TrainingResultResponse.PredictionImage predictionImage : predictionImages) {
-      String imageName = predictionImage.getImage();
-      List<TrainingResultResponse.Prediction> predictions = predictionImage.getPredictions();
-
-      if (predictions == null || predictions.isEmpty()) {
-        log.debug("No predictions for image: {}", imageName);
-        continue;
-      }
-
-      // 根據 image 名稱查詢 Image entity
-      // 使用模糊匹配,因為檔名可能包含前綴
-      Image image = findImageByName(imageName, projectId);
-      if (image == null) {
-        log.warn(
-            "Image not found for name: {}, skipping {} predictions", imageName, predictions.size());
-        skippedCount += predictions.size();
-        continue;
-      }
-
-      // 處理每個 prediction
-      for (TrainingResultResponse.Prediction prediction : predictions) {
-        totalPredictions++;
+    log.debug("Creating prediction labels for model ID {} from {}", model.getId(), document);
 
-        // 根據 class_id (實際上是 sequence) 查詢 ProjectClass
-        ProjectClass projectClass = findProjectClassBySequence(prediction.getClassId(), projectId);
-        if (projectClass == null) {
-          log.warn(
-              "ProjectClass not found for sequence: {}, image: {}, skipping prediction",
-              prediction.getClassId(),
-              imageName);
-          skippedCount++;
-          continue;
-        }
+    // 建立 image 名稱索引 (只載入 ID 與檔名，不載入 image 內容)
+    ImageNameIndex imageNameIndex =
+        new ImageNameIndex(imageRepository.findIdAndFileNameByProjectId(projectId));
 
-        // 建立 ImagePredictionLabel
-        ImagePredictionLabel imagePredictionLabel = new ImagePredictionLabel();
-        imagePredictionLabel.setImage(image);
-        imagePredictionLabel.setProjectClass(projectClass);
-        imagePredictionLabel.setModel(model);
-
-        // 將 bbox (List<Double>) 轉換為 JSON 字串
-        imagePredictionLabel.setPosition(convertBboxToJson(prediction.getBbox()));
-
-        // 將 confidence (0.82) 轉換為 confidenceRate (82)
-        imagePredictionLabel.setConfidenceRate((int) Math.round(prediction.getConfidence() * 100));
+    // sequence 是依 class ID 排序後從 0 開始的索引
+    List<ProjectClass> projectClasses =
+        projectClassRepository.findByProjectIdOrderByIdAsc(projectId);
 
-        imagePredictionLabel.setCreatedBy("SYSTEM");
+    PredictionLabelBatchWriter.Batch batch =
+        predictionLabelBatchWriter.begin(model.getId(), "SYSTEM");
+    PredictionLabelMapper mapper = new PredictionLabelMapper(imageNameIndex, projectClasses, batch);
 
-        imagePredictionLabels.add(imagePredictionLabel);
-      }
-    }
+    // 逐批讀取 predictions 並寫入
+    long totalPredictions =
+        TrainingResultReader.readPredictions(
+            objectMapper, document, predictionReadBatchSize, mapper::addAll);
 
-    // 批次儲存
-    if (!imagePredictionLabels.isEmpty()) {
-      imagePredictionLabelRepository.saveAll(imagePredictionLabels);
+    // 寫入剩餘的 prediction labels
+    int createdCount = batch.finish();
+    if (createdCount > 0) {
       log.info(
           "Created {} prediction label records from {} total predictions (skipped: {})",
-          imagePredictionLabels.size(),
+          createdCount,
           totalPredictions,
-          skippedCount);
+          mapper.skippedCount);
     } else {
       log.warn(
           "No prediction labels created. Total predictions: {}, skipped: {}",
           totalPredictions,
-          skippedCount);
-    }
-  }
-
-  /**
-   * 根據 image 名稱查詢 Image entity。 使用模糊匹配,因為檔名可能包含前綴。
-   *
-   * @param imageName image 名稱
-   * @param projectId 專案 ID
-   * @return Image entity 或 null
-   */
-  private Image findImageByName(String imageName, Long projectId) {
-    // 先嘗試精確匹配
-    java.util.Optional<Image> exactMatch = imageRepository.findByFileName(imageName);
-    if (exactMatch.isPresent() && exactMatch.get().getProject().getId().equals(projectId)) {
-      return exactMatch.get();
-    }
-
-    // 如果精確匹配失敗,嘗試模糊匹配 (檔名可能有前綴)
-    // 取得專案的所有 images,然後比對檔名結尾
-    List<Image> projectImages = imageRepository.findByProject_Id(projectId);
-    for (Image image : projectImages) {
-      if (image.getFileName() != null && image.getFileName().endsWith(imageName)) {
-        log.debug("Found image by suffix match: {} -> {}", imageName, image.getFileName());
-        return image;
-      }
-      // 也嘗試反向匹配 (imageName 可能包含前綴)
-      if (imageName.endsWith(image.getFileName())) {
-        log.debug("Found image by reverse suffix match: {} -> {}", imageName, image.getFileName());
-        return image;
-      }
+          mapper.skippedCount);
     }
-
-    return null;
   }
 
-  /**
-   * 根據 sequence (class_id) 查詢 ProjectClass entity。
-   *
-   * @param sequence class sequence (API 中的 class_id)
-   * @param projectId 專案 ID
-   * @return ProjectClass entity 或 null
-   */
-  private ProjectClass findProjectClassBySequence(int sequence, Long projectId) {
-    // 取得專案的所有 classes,按 ID 排序
-    List<ProjectClass> projectClasses =
-        projectClassRepository.findByProjectIdOrderByIdAsc(projectId);
-
-    // sequence 是從 0 開始的索引
-    if (sequence >= 0 && sequence < projectClasses.size()) {
-      return projectClasses.get(sequence);
+  /** Resolves streamed predictions to images and classes and adds them to a batch */
+  private static final class PredictionLabelMapper {
+    private final ImageNameIndex imageNameIndex;
+    private final List<ProjectClass> projectClasses;
+    private final PredictionLabelBatchWriter.Batch batch;
+    private boolean resolved;
+    private String lastImageName;
+    private Long lastImageId;
+    private int skippedCount;
+
+    PredictionLabelMapper(
+        ImageNameIndex imageNameIndex,
+        List<ProjectClass> projectClasses,
+        PredictionLabelBatchWriter.Batch batch) {
+      this.imageNameIndex = imageNameIndex;
+      this.projectClasses = projectClasses;
+      this.batch = batch;
     }
 
-    log.warn(
-        "Invalid sequence {} for project {}, total classes: {}",
-        sequence,
-        projectId,
-        projectClasses.size());
-    return null;
-  }
+    void addAll(List<TrainingResultReader.PredictionRecord> predictions) {
+      for (TrainingResultReader.PredictionRecord prediction : predictions) {
+        // 根據 image 名稱查詢 Image ID，同一張 image 的 predictions 相鄰，只查一次
+        // 使用模糊匹配,因為檔名可能包含前綴
+        String imageName = prediction.image;
+        if (!resolved || !Objects.equals(imageName, lastImageName)) {
+          resolved = true;
+          lastImageName = imageName;
+          lastImageId = imageName != null ? imageNameIndex.find(imageName) : null;
+          if (lastImageId == null) {
+            log.warn("Image not found for name: {}, skipping its predictions", imageName);
+          }
+        }
+        if (lastImageId == null) {
+          skippedCount++;
+          continue;
+        }
 
-  /**
-   * 將 bbox (List<Double>) 轉換為 JSON 字串。 格式: [xcenter, ycenter, width, height]
-   *
-   * @param bbox bbox 列表
-   * @return JSON 字串
-   */
-  private String convertBboxToJson(List<Double> bbox) {
-    if (bbox == null || bbox.isEmpty()) {
-      return "[]";
-    }
+        // 根據 class_id (實際上是 sequence) 查詢 ProjectClass
+        int sequence = prediction.classId;
+        if (sequence < 0 || sequence >= projectClasses.size()) {
+          log.warn(
+              "ProjectClass not found for sequence: {}, image: {}, total classes: {}, skipping"
+                  + " prediction",
+              sequence,
+              imageName,
+              projectClasses.size());
+          skippedCount++;
+          continue;
+        }
 
-    // 使用簡單的字串拼接建立 JSON 陣列
-    StringBuilder json = new StringBuilder("[");
-    for (int i = 0; i < bbox.size(); i++) {
-      if (i > 0) {
-        json.append(",");
+        // 將 confidence (0.82) 轉換為 confidenceRate (82)
+        batch.add(
+            lastImageId,
+            projectClasses.get(sequence).getId(),
+            prediction.bbox,
+            (int) Math.round(prediction.confidence * 100));
       }
-      json.append(bbox.get(i));
     }
-    json.append("]");
-
-    return json.toString();
   }
 
   /** Parse string to Double, return null if parsing fails. */
@@ -592,4 +708,25 @@ public class TrainingResultServiceImpl implements TrainingResultService {
       return null;
     }
   }
+
+  /** Outcome of polling one training record */
+  private enum PollOutcome {
+    /** Results persisted, or the model was already completed */
+    COMPLETED,
+    /** Results are not available yet */
+    NOT_READY,
+    /** The poll or the persisting failed */
+    FAILED
+  }
+
+  /** Backoff state of a training record */
+  private static final class PollState {
+    private final int attempts;
+    private final Instant nextPollAt;
+
+    PollState(int attempts, Instant nextPollAt) {
+      this.attempts = attempts;
+      this.nextPollAt = nextPollAt;
+    }
+  }
 }
@@ -0,0 +1,467 @@
+package com.nxp.iemdm.operational.service.rest.landingai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Disk cache of generated training datasets. Snapshots never change, so the ZIP volumes built for
+ * a snapshot can be reused by every training run on it, e.g. by all runs of a multi-config
+ * training. Artifacts are keyed by snapshot ID, project type and {@link #FORMAT_VERSION}; each one
+ * lives in its own directory with a {@code manifest.json} listing the volumes with size and
+ * SHA-256.
+ *
+ * <p>Runs get the volumes as hard links in their own directory (a copy where the file system has
+ * no hard links), so evicting an artifact never breaks a run that is still uploading it.
+ * Concurrent requests for the same artifact wait for a single build. The least recently used
+ * artifacts are evicted once the cache grows beyond {@code landingai.dataset.cache.max-bytes};
+ * the most recent one is always kept.
+ */
+@Slf4j
+@Component
+public class DatasetArtifactCache {
+
+  /** Base name of the cached volumes, replaced by the run's base name when linked */
+  public static final String VOLUME_BASE_NAME = "dataset";
+
+  /** Bump when the content or layout of generated datasets changes, old artifacts are rebuilt */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final String MANIFEST_FILE = "manifest.json";
+  private static final String BUILDING_MARKER = ".building-";
+
+  private final ObjectMapper objectMapper;
+
+  /** Defaults to a folder next to the run directories, hard links need the same file system */
+  @Value(
+      "${landingai.dataset.cache.path:${adc.yolo.zip.file.path:C:/NXP/landingai/yolo/}.dataset-cache}")
+  private String cachePath;
+
+  @Value("${landingai.dataset.cache.max-bytes:21474836480}")
+  private long maxBytes; // Default 20GB
+
+  private Path cacheRoot;
+
+  /** Artifacts in access order, least recently used first. Guarded by this. */
+  private final Map<String, Artifact> artifacts = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long totalBytes;
+
+  /** Builds in progress, so concurrent requests for the same key wait on one build */
+  private final Map<String, CompletableFuture<Artifact>> builds = new ConcurrentHashMap<>();
+
+  /** Writes the volumes of a dataset into a build directory. */
+  @FunctionalInterface
+  public interface DatasetBuilder {
+
+    /**
+     * @param buildDir the directory to write the volumes to
+     * @param baseName the base name of the volumes, see {@link RollingZipWriter}
+     * @return paths of the written volumes, in order
+     * @throws IOException if building fails
+     */
+    List<Path> build(Path buildDir, String baseName) throws IOException;
+  }
+
+  @Autowired
+  public DatasetArtifactCache(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /** Load the artifacts left by earlier runs and remove incomplete or outdated ones */
+  @PostConstruct
+  public void init() {
+    cacheRoot = Paths.get(cachePath);
+    List<Artifact> found = new ArrayList<>();
+    try {
+      Files.createDirectories(cacheRoot);
+      try (DirectoryStream<Path> dirs = Files.newDirectoryStream(cacheRoot, Files::isDirectory)) {
+        for (Path dir : dirs) {
+          Artifact artifact = loadArtifact(dir);
+          if (artifact == null) {
+            log.info("Removing incomplete or outdated dataset artifact {}", dir);
+            FileSystemUtils.deleteRecursively(dir);
+          } else {
+            found.add(artifact);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot open dataset artifact cache at " + cacheRoot, e);
+    }
+
+    found.sort(Comparator.comparing(artifact -> artifact.lastUsed));
+    synchronized (this) {
+      for (Artifact artifact : found) {
+        artifacts.put(artifact.key, artifact);
+        totalBytes += artifact.totalBytes;
+      }
+    }
+    log.info(
+        "Dataset artifact cache at {} holds {} artifacts, {} bytes (limit {})",
+        cacheRoot,
+        found.size(),
+        totalBytes,
+        maxBytes);
+    evict();
+  }
+
+  /**
+   * Get the dataset volumes of a snapshot as files in a run directory, building and caching them
+   * first if needed. A cached volume {@code dataset_2.zip} is linked as {@code
+   * <targetBaseName>_2.zip}, a single volume {@code dataset.zip} as {@code <targetBaseName>.zip}.
+   *
+   * @param snapshotId the snapshot the dataset is generated from
+   * @param projectType the project type, which decides the dataset format
+   * @param builder writes the volumes on a cache miss
+   * @param targetDir the run directory
+   * @param targetBaseName the base name of the run's volumes, usually the training track ID
+   * @return the volumes in the run directory, in order
+   * @throws IOException if building or linking fails
+   */
+  public List<Path> linkVolumes(
+      Long snapshotId,
+      String projectType,
+      DatasetBuilder builder,
+      Path targetDir,
+      String targetBaseName)
+      throws IOException {
+    String key = keyFor(snapshotId, projectType);
+
+    // An artifact can be evicted between lookup and linking; it is then simply built again
+    for (int attempt = 1; ; attempt++) {
+      Artifact artifact = getOrBuild(key, builder);
+      synchronized (artifact) {
+        if (!artifact.evicted) {
+          List<Path> linked = new ArrayList<>();
+          for (VolumeInfo volume : artifact.manifest.getVolumes()) {
+            Path target = targetDir.resolve(runVolumeName(volume.getName(), targetBaseName));
+            linkOrCopy(artifact.dir.resolve(volume.getName()), target);
+            linked.add(target);
+          }
+          touch(artifact);
+          return linked;
+        }
+      }
+      if (attempt >= 2) {
+        throw new IOException("Dataset artifact " + key + " was evicted while linking");
+      }
+    }
+  }
+
+  /**
+   * Name of a cached volume inside a run directory.
+   *
+   * @param cachedName the volume name in the cache, e.g. {@code dataset_2.zip}
+   * @param targetBaseName the base name of the run's volumes
+   * @return e.g. {@code <targetBaseName>_2.zip}
+   */
+  public static String runVolumeName(String cachedName, String targetBaseName) {
+    return targetBaseName + cachedName.substring(VOLUME_BASE_NAME.length());
+  }
+
+  /**
+   * Hard link a file, or copy it if the file system does not support links. An existing target of
+   * the same size is kept, since volumes are immutable and it may be in use by an upload.
+   *
+   * @param source the file to link
+   * @param target the link to create
+   * @throws IOException if neither linking nor copying works
+   */
+  public static void linkOrCopy(Path source, Path target) throws IOException {
+    if (Files.exists(target)) {
+      if (Files.size(target) == Files.size(source)) {
+        return;
+      }
+      Files.delete(target);
+    }
+    try {
+      Files.createLink(target, source);
+    } catch (UnsupportedOperationException | FileSystemException e) {
+      log.debug("Cannot link {} to {}, copying instead: {}", target, source, e.getMessage());
+      Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private Artifact getOrBuild(String key, DatasetBuilder builder) throws IOException {
+    Artifact cached = lookup(key);
+    if (cached != null) {
+      log.info("Reusing cached dataset artifact {}", key);
+      return cached;
+    }
+
+    CompletableFuture<Artifact> ownBuild = new CompletableFuture<>();
+    CompletableFuture<Artifact> runningBuild = builds.putIfAbsent(key, ownBuild);
+    if (runningBuild != null) {
+      log.info("Waiting for the running build of dataset artifact {}", key);
+      return await(runningBuild);
+    }
+
+    try {
+      // Another build may have finished between the lookup and registering this one
+      Artifact artifact = lookup(key);
+      if (artifact == null) {
+        artifact = build(key, builder);
+        synchronized (this) {
+          artifacts.put(key, artifact);
+          totalBytes += artifact.totalBytes;
+        }
+        evict();
+      }
+      ownBuild.complete(artifact);
+      return artifact;
+    } catch (IOException | RuntimeException e) {
+      ownBuild.completeExceptionally(e);
+      throw e;
+    } finally {
+      builds.remove(key, ownBuild);
+    }
+  }
+
+  /** Find a usable artifact, artifacts loaded from disk are checked against the manifest once */
+  private Artifact lookup(String key) throws IOException {
+    Artifact artifact;
+    synchronized (this) {
+      artifact = artifacts.get(key);
+    }
+    if (artifact == null) {
+      return null;
+    }
+
+    boolean valid;
+    synchronized (artifact) {
+      if (artifact.evicted) {
+        return null;
+      }
+      valid = artifact.verified || verify(artifact);
+      artifact.verified = valid;
+      artifact.evicted = !valid;
+    }
+    if (!valid) {
+      log.warn("Dataset artifact {} does not match its manifest, rebuilding it", key);
+      remove(artifact);
+      return null;
+    }
+    return artifact;
+  }
+
+  private Artifact await(CompletableFuture<Artifact> build) throws IOException {
+    try {
+      return build.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the dataset build", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException("Dataset build failed: " + e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  private Artifact build(String key, DatasetBuilder builder) throws IOException {
+    Path buildDir = cacheRoot.resolve(key + BUILDING_MARKER + UUID.randomUUID());
+    Files.createDirectories(buildDir);
+    try {
+      long start = System.currentTimeMillis();
+      List<Path> volumes = builder.build(buildDir, VOLUME_BASE_NAME);
+
+      DatasetManifest manifest = new DatasetManifest();
+      manifest.setKey(key);
+      manifest.setFormatVersion(FORMAT_VERSION);
+      manifest.setCreatedAt(Instant.now().toString());
+      List<VolumeInfo> volumeInfos = new ArrayList<>();
+      for (Path volume : volumes) {
+        volumeInfos.add(
+            new VolumeInfo(volume.getFileName().toString(), Files.size(volume), sha256(volume)));
+      }
+      manifest.setVolumes(volumeInfos);
+      // The manifest is written last, a directory without one is an incomplete build
+      objectMapper.writeValue(buildDir.resolve(MANIFEST_FILE).toFile(), manifest);
+
+      Path artifactDir = cacheRoot.resolve(key);
+      FileSystemUtils.deleteRecursively(artifactDir);
+      Files.move(buildDir, artifactDir, StandardCopyOption.ATOMIC_MOVE);
+
+      Artifact artifact = new Artifact(key, artifactDir, manifest);
+      artifact.verified = true;
+      log.info(
+          "Built dataset artifact {} with {} volume(s), {} bytes in {} ms",
+          key,
+          volumeInfos.size(),
+          artifact.totalBytes,
+          System.currentTimeMillis() - start);
+      return artifact;
+    } finally {
+      FileSystemUtils.deleteRecursively(buildDir);
+    }
+  }
+
+  /** Evict least recently used artifacts until the cache fits its limit */
+  private void evict() {
+    List<Artifact> evicted = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Artifact> lru = artifacts.values().iterator();
+      while (totalBytes > maxBytes && artifacts.size() > 1 && lru.hasNext()) {
+        Artifact artifact = lru.next();
+        lru.remove();
+        totalBytes -= artifact.totalBytes;
+        evicted.add(artifact);
+      }
+    }
+    for (Artifact artifact : evicted) {
+      log.info("Evicting dataset artifact {} ({} bytes)", artifact.key, artifact.totalBytes);
+      synchronized (artifact) {
+        artifact.evicted = true;
+        deleteQuietly(artifact.dir);
+      }
+    }
+  }
+
+  private void remove(Artifact artifact) {
+    synchronized (this) {
+      if (artifacts.remove(artifact.key, artifact)) {
+        totalBytes -= artifact.totalBytes;
+      }
+    }
+    deleteQuietly(artifact.dir);
+  }
+
+  private Artifact loadArtifact(Path dir) {
+    Path manifestFile = dir.resolve(MANIFEST_FILE);
+    if (dir.getFileName().toString().contains(BUILDING_MARKER) || !Files.exists(manifestFile)) {
+      return null;
+    }
+    try {
+      DatasetManifest manifest =
+          objectMapper.readValue(manifestFile.toFile(), DatasetManifest.class);
+      if (manifest.getFormatVersion() != FORMAT_VERSION
+          || !dir.getFileName().toString().equals(manifest.getKey())) {
+        return null;
+      }
+      Artifact artifact = new Artifact(manifest.getKey(), dir, manifest);
+      artifact.lastUsed = Files.getLastModifiedTime(manifestFile).toInstant();
+      return artifact;
+    } catch (IOException e) {
+      log.warn("Cannot read dataset manifest {}: {}", manifestFile, e.getMessage());
+      return null;
+    }
+  }
+
+  private boolean verify(Artifact artifact) throws IOException {
+    for (VolumeInfo volume : artifact.manifest.getVolumes()) {
+      Path file = artifact.dir.resolve(volume.getName());
+      if (!Files.exists(file)
+          || Files.size(file) != volume.getSize()
+          || !sha256(file).equals(volume.getSha256())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Record the access on the manifest, so the LRU order survives a restart */
+  private void touch(Artifact artifact) {
+    artifact.lastUsed = Instant.now();
+    try {
+      Files.setLastModifiedTime(
+          artifact.dir.resolve(MANIFEST_FILE), FileTime.from(artifact.lastUsed));
+    } catch (IOException e) {
+      log.debug("Cannot touch manifest of dataset artifact {}: {}", artifact.key, e.getMessage());
+    }
+  }
+
+  private static String keyFor(Long snapshotId, String projectType) {
+    String type = projectType.replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
+    return "snapshot-" + snapshotId + "-" + type + "-v" + FORMAT_VERSION;
+  }
+
+  private static String sha256(Path file) throws IOException {
+    try (DigestInputStream in =
+        new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance("SHA-256"))) {
+      byte[] buffer = new byte[64 * 1024];
+      while (in.read(buffer) != -1) {
+        // the digest is updated while reading
+      }
+      return HexFormat.of().formatHex(in.getMessageDigest().digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static void deleteQuietly(Path dir) {
+    try {
+      FileSystemUtils.deleteRecursively(dir);
+    } catch (IOException e) {
+      log.warn("Cannot delete dataset artifact directory {}: {}", dir, e.getMessage());
+    }
+  }
+
+  /** A cached dataset in memory. Linking and eviction synchronize on the instance. */
+  private static class Artifact {
+    private final String key;
+    private final Path dir;
+    private final DatasetManifest manifest;
+    private final long totalBytes;
+    private Instant lastUsed = Instant.now();
+    private boolean verified;
+    private boolean evicted;
+
+    Artifact(String key, Path dir, DatasetManifest manifest) {
+      this.key = key;
+      this.dir = dir;
+      this.manifest = manifest;
+      this.totalBytes = manifest.getVolumes().stream().mapToLong(VolumeInfo::getSize).sum();
+    }
+  }
+
+  /** Content of {@code manifest.json} */
+  @Data
+  @NoArgsConstructor
+  public static class DatasetManifest {
+    private String key;
+    private int formatVersion;
+    private String createdAt;
+    private List<VolumeInfo> volumes;
+  }
+
+  /** One volume listed in the manifest */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class VolumeInfo {
+    private String name;
+    private long size;
+    private String sha256;
+  }
+}
@@ -1,6 +1,10 @@
 package com.nxp.iemdm.operational.service.rest.landingai;
 
 import com.nxp.iemdm.model.landingai.*;
+import com.nxp.iemdm.operational.service.landingai.ImageFileStore;
+import com.nxp.iemdm.operational.service.landingai.LabelGeometry;
+import com.nxp.iemdm.operational.service.landingai.LabelGeometryCache;
+import com.nxp.iemdm.operational.service.landingai.LabelGeometryCache.Source;
 import com.nxp.iemdm.shared.repository.jpa.landingai.*;
 import java.io.*;
 import java.nio.file.Files;
@@ -28,6 +32,8 @@ public class DatasetExportService {
   private final ImageRepository imageRepository;
   private final ImageLabelRepository imageLabelRepository;
   private final ImageFileRepository imageFileRepository;
+  private final ImageFileStore imageFileStore;
+  private final LabelGeometryCache labelGeometryCache;
   private final ProjectClassRepository projectClassRepository;
   private final SnapshotImageRepository snapshotImageRepository;
   private final SnapshotImageLabelRepository snapshotImageLabelRepository;
@@ -59,7 +65,7 @@ public class DatasetExportService {
         BufferedOutputStream bos = new BufferedOutputStream(fos, 64 * 1024);
         ZipOutputStream zipOut = new ZipOutputStream(bos)) {
 
-      // Use fast compression for better performance
+      // Fast compression for labels and YAML; images are STORED, see DatasetZipEntries
       zipOut.setLevel(Deflater.BEST_SPEED);
 
       // Export based on project type
@@ -195,9 +201,10 @@ public class DatasetExportService {
       // Build ZIP path: train/class1/unique_image.jpg
       String zipPath = String.format("%s/%s/%s", splitFolder, className, uniqueFileName);
 
+      ZipEntry zipEntry = DatasetZipEntries.forContent(zipPath, imageFileData.data);
       // Write to ZIP (synchronized for thread safety)
       synchronized (zipOut) {
-        zipOut.putNextEntry(new ZipEntry(zipPath));
+        zipOut.putNextEntry(zipEntry);
         zipOut.write(imageFileData.data);
         zipOut.closeEntry();
       }
@@ -339,8 +346,9 @@ public class DatasetExportService {
 
       // Write image file: dataset/images/train/unique_image.jpg
       String imagePath = String.format("dataset/images/%s/%s", splitFolder, uniqueFileName);
+      ZipEntry imageEntry = DatasetZipEntries.forContent(imagePath, imageFileData.data);
       synchronized (zipOut) {
-        zipOut.putNextEntry(new ZipEntry(imagePath));
+        zipOut.putNextEntry(imageEntry);
         zipOut.write(imageFileData.data);
         zipOut.closeEntry();
       }
@@ -366,18 +374,20 @@ public class DatasetExportService {
           for (ImageLabel label : labels) {
             Integer classIndex = classIdToIndex.get(label.getProjectClass().getId());
             if (classIndex != null && label.getPosition() != null) {
-              // Parse position JSON: {"type":"rectangle","x": 0.5, "y": 0.5, "width": 0.1,
+              // Position JSON: {"type":"rectangle","x": 0.5, "y": 0.5, "width": 0.1,
               // "height": 0.1}
-              String position = label.getPosition();
+              LabelGeometry position =
+                  labelGeometryCache.get(Source.IMAGE_LABEL, label.getId(), label.getPosition());
               String labelLine = formatObjectDetectionLabel(classIndex, position);
               labelContent.append(labelLine).append("\n");
             }
           }
 
           // Write label file: dataset/labels/train/unique_image.txt
+          byte[] labelBytes = labelContent.toString().getBytes();
           synchronized (zipOut) {
             zipOut.putNextEntry(new ZipEntry(labelPath));
-            zipOut.write(labelContent.toString().getBytes());
+            zipOut.write(labelBytes);
             zipOut.closeEntry();
           }
         }
@@ -385,44 +395,23 @@ public class DatasetExportService {
     }
   }
 
-  /** Format label line for object detection: ClassIndex x y width height */
-  private String formatObjectDetectionLabel(Integer classIndex, String positionJson) {
-    try {
-      // Simple JSON parsing - extract only numeric fields
-      positionJson =
-          positionJson.replace("{", "").replace("}", "").replace("\"", "").replace(" ", "");
-
-      Map<String, String> values = new HashMap<>();
-      for (String pair : positionJson.split(",")) {
-        String[] kv = pair.split(":");
-        if (kv.length == 2) {
-          values.put(kv[0], kv[1]);
-        }
-      }
-
-      // Only parse numeric fields, skip "type" field
-      double x = parseDouble(values.get("x"), 0.0);
-      double y = parseDouble(values.get("y"), 0.0);
-      double width = parseDouble(values.get("width"), 0.0);
-      double height = parseDouble(values.get("height"), 0.0);
-
-      return String.format("%d %.6f %.6f %.6f %.6f", classIndex, x, y, width, height);
-    } catch (Exception e) {
-      log.error("Failed to parse position JSON: {}", positionJson, e);
+  /**
+   * Format label line for object detection: ClassIndex x y width height. Missing coordinates are
+   * written as 0, an unparsable position as an all-zero box.
+   */
+  private String formatObjectDetectionLabel(Integer classIndex, LabelGeometry position) {
+    if (position == null) {
       return classIndex + " 0 0 0 0";
     }
+    double x = orZero(position.getX());
+    double y = orZero(position.getY());
+    double width = orZero(position.getWidth());
+    double height = orZero(position.getHeight());
+    return String.format("%d %.6f %.6f %.6f %.6f", classIndex, x, y, width, height);
   }
 
-  /** Safely parse double value */
-  private double parseDouble(String value, double defaultValue) {
-    if (value == null || value.isEmpty()) {
-      return defaultValue;
-    }
-    try {
-      return Double.parseDouble(value);
-    } catch (NumberFormatException e) {
-      return defaultValue;
-    }
+  private static double orZero(double value) {
+    return Double.isNaN(value) ? 0.0 : value;
   }
 
   /** Get split folder name (train/val/test/unassigned) */
@@ -448,19 +437,19 @@ public class DatasetExportService {
     }
   }
 
-  /** Get image file data from database and return both data and unique filename */
+  /** Get image file data from its storage backend and return both data and unique filename */
   private ImageFileData getImageFileData(Long fileId) {
     if (fileId == null) {
       return null;
     }
 
-    Optional<ImageFile> imageFileOpt = imageFileRepository.findById(fileId);
-    if (imageFileOpt.isEmpty()) {
+    List<Object[]> fileNames = imageFileRepository.findFileNamesByIdIn(List.of(fileId));
+    if (fileNames.isEmpty()) {
       return null;
     }
 
-    ImageFile imageFile = imageFileOpt.get();
-    return new ImageFileData(imageFile.getImageFileStream(), imageFile.getFileName());
+    byte[] data = imageFileStore.read(fileId).orElse(null);
+    return new ImageFileData(data, (String) fileNames.get(0)[1]);
   }
 
   /** Helper class to return both image data and unique filename */
@@ -503,7 +492,7 @@ public class DatasetExportService {
         BufferedOutputStream bos = new BufferedOutputStream(fos, 64 * 1024);
         ZipOutputStream zipOut = new ZipOutputStream(bos)) {
 
-      // Use fast compression for better performance
+      // Fast compression for labels and YAML; images are STORED, see DatasetZipEntries
       zipOut.setLevel(Deflater.BEST_SPEED);
 
       // Export based on project type
@@ -593,9 +582,10 @@ public class DatasetExportService {
       String zipPath =
           String.format("%s/%s/%s", splitFolder, className, imageFileData.uniqueFileName);
 
+      ZipEntry zipEntry = DatasetZipEntries.forContent(zipPath, imageFileData.data);
       // Write to ZIP
       synchronized (zipOut) {
-        zipOut.putNextEntry(new ZipEntry(zipPath));
+        zipOut.putNextEntry(zipEntry);
         zipOut.write(imageFileData.data);
         zipOut.closeEntry();
       }
@@ -688,8 +678,9 @@ public class DatasetExportService {
       // Write image file
       String imagePath =
           String.format("dataset/images/%s/%s", splitFolder, imageFileData.uniqueFileName);
+      ZipEntry imageEntry = DatasetZipEntries.forContent(imagePath, imageFileData.data);
       synchronized (zipOut) {
-        zipOut.putNextEntry(new ZipEntry(imagePath));
+        zipOut.putNextEntry(imageEntry);
         zipOut.write(imageFileData.data);
         zipOut.closeEntry();
       }
@@ -715,15 +706,18 @@ public class DatasetExportService {
           for (SnapshotImageLabel label : labels) {
             Integer classIndex = classIdToIndex.get(label.getClassId());
             if (classIndex != null && label.getPosition() != null) {
-              String labelLine = formatObjectDetectionLabel(classIndex, label.getPosition());
+              LabelGeometry position =
+                  labelGeometryCache.get(Source.SNAPSHOT_LABEL, label.getId(), label.getPosition());
+              String labelLine = formatObjectDetectionLabel(classIndex, position);
               labelContent.append(labelLine).append("\n");
             }
           }
 
           // Write label file
+          byte[] labelBytes = labelContent.toString().getBytes();
           synchronized (zipOut) {
             zipOut.putNextEntry(new ZipEntry(labelPath));
-            zipOut.write(labelContent.toString().getBytes());
+            zipOut.write(labelBytes);
             zipOut.closeEntry();
           }
         }
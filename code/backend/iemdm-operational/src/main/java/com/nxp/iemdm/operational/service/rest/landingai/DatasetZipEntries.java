@@ -0,0 +1,57 @@
+package com.nxp.iemdm.operational.service.rest.landingai;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Builds the ZIP entries of training dataset archives. Image payloads (JPEG, PNG, ...) are already
+ * compressed and do not shrink under DEFLATE, so they are written as {@link ZipEntry#STORED}
+ * entries; label text and JSON keep the stream's DEFLATE method.
+ *
+ * <p>A STORED entry needs its size and CRC-32 before {@code putNextEntry}. Build the entry in the
+ * worker thread that loaded the image, so the section synchronized on the shared {@code
+ * ZipOutputStream} only copies bytes.
+ */
+public final class DatasetZipEntries {
+
+  private static final Set<String> PRECOMPRESSED_EXTENSIONS =
+      Set.of("jpg", "jpeg", "png", "gif", "webp");
+
+  private DatasetZipEntries() {}
+
+  /**
+   * Create the entry for a file of a dataset archive.
+   *
+   * @param path the path inside the archive
+   * @param data the file content
+   * @return a STORED entry with size and CRC set for compressed images, a default entry otherwise
+   */
+  public static ZipEntry forContent(String path, byte[] data) {
+    ZipEntry entry = new ZipEntry(path);
+    if (isPrecompressed(path)) {
+      CRC32 crc = new CRC32();
+      crc.update(data);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(data.length);
+      entry.setCompressedSize(data.length);
+      entry.setCrc(crc.getValue());
+    }
+    return entry;
+  }
+
+  /**
+   * Whether a file is stored as is because its format is already compressed.
+   *
+   * @param path the path inside the archive
+   * @return true for compressed image formats
+   */
+  public static boolean isPrecompressed(String path) {
+    int dot = path.lastIndexOf('.');
+    if (dot < 0 || dot < path.lastIndexOf('/')) {
+      return false;
+    }
+    return PRECOMPRESSED_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,573 @@
+package com.nxp.iemdm.operational.service.rest.landingai;
+
+import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the image list query for a project or a snapshot. The complete {@link ImageFilterRequest}
+ * is turned into one SQL statement (EXISTS sub-queries for labels, predictions, tags, labeler and
+ * metadata), ordered in the database for every sort mode supported by {@link SortService} and paged
+ * either by offset or by keyset (seek) cursor. Only image IDs and sort keys are selected, so the
+ * cost of a page depends on the page size and not on the size of the project.
+ */
+@Slf4j
+@Service
+public class ImageQueryBuilder {
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * Query one page of image IDs (or, for the instances view, image/label ID pairs).
+   *
+   * @param projectId the project ID
+   * @param filters the filter criteria (may be null)
+   * @param sortBy the sort method (see {@link SortService#sortImages})
+   * @param instances true to page over ground truth label instances instead of images
+   * @param page the page number (0-indexed), ignored when a cursor is given
+   * @param size the page size
+   * @param cursor the keyset cursor returned with the previous page (images view only), or null
+   * @return the page of IDs with total count and the cursor for the next page
+   */
+  public ImageIdPage queryPage(
+      Long projectId,
+      ImageFilterRequest filters,
+      String sortBy,
+      boolean instances,
+      int page,
+      int size,
+      String cursor) {
+    return queryPage(Scope.project(projectId), filters, sortBy, instances, page, size, cursor);
+  }
+
+  /**
+   * Query one page of image IDs of a snapshot. Filters and sort modes are those of {@link
+   * #queryPage}, evaluated against the snapshot's images, labels, tags and metadata; prediction
+   * filters do not apply because predictions are not part of snapshots.
+   *
+   * @param snapshotId the snapshot ID
+   * @param filters the filter criteria (may be null)
+   * @param sortBy the sort method (see {@link SortService#sortImages})
+   * @param page the page number (0-indexed), ignored when a cursor is given
+   * @param size the page size
+   * @param cursor the keyset cursor returned with the previous page, or null
+   * @return the page of IDs with total count and the cursor for the next page
+   */
+  public ImageIdPage querySnapshotPage(
+      Long snapshotId,
+      ImageFilterRequest filters,
+      String sortBy,
+      int page,
+      int size,
+      String cursor) {
+    return queryPage(Scope.snapshot(snapshotId), filters, sortBy, false, page, size, cursor);
+  }
+
+  private ImageIdPage queryPage(
+      Scope scope,
+      ImageFilterRequest filters,
+      String sortBy,
+      boolean instances,
+      int page,
+      int size,
+      String cursor) {
+    Map<String, Object> filterParams = new LinkedHashMap<>();
+    filterParams.put(scope.keyParam, scope.key);
+
+    String from =
+        instances
+            ? " FROM " + scope.images + " i JOIN " + scope.labels + " inst ON inst.image_id = i.id"
+            : " FROM " + scope.images + " i";
+    String where =
+        " WHERE i."
+            + scope.keyColumn
+            + " = :"
+            + scope.keyParam
+            + buildFilterClause(scope, filters, filterParams);
+
+    Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*)" + from + where);
+    filterParams.forEach(countQuery::setParameter);
+    long totalElements = ((Number) countQuery.getSingleResult()).longValue();
+
+    // The page query binds the sort and seek parameters on top of the filter parameters
+    Map<String, Object> params = new LinkedHashMap<>(filterParams);
+    SortKey sortKey = sortKeyFor(scope, sortBy, filters, params);
+
+    StringBuilder select =
+        new StringBuilder("SELECT i.id, ")
+            .append(sortKey.expression)
+            .append(" AS sort_key")
+            .append(instances ? ", inst.id AS label_id" : "")
+            .append(from)
+            .append(where);
+
+    boolean seek = cursor != null && !cursor.isEmpty() && !instances;
+    if (seek) {
+      select.append(" AND (").append(seekClause(sortKey, decodeCursor(cursor), params)).append(")");
+    }
+
+    select.append(" ORDER BY ").append(sortKey.orderBy()).append(", i.id DESC");
+    if (instances) {
+      select.append(", inst.id ASC");
+    }
+    select.append(" LIMIT :limit");
+    params.put("limit", size + 1);
+    if (!seek) {
+      select.append(" OFFSET :offset");
+      params.put("offset", (long) page * size);
+    }
+
+    Query query = entityManager.createNativeQuery(select.toString());
+    params.forEach(query::setParameter);
+
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = query.getResultList();
+    boolean hasNext = rows.size() > size;
+    if (hasNext) {
+      rows = rows.subList(0, size);
+    }
+
+    List<Long> imageIds = new ArrayList<>(rows.size());
+    List<Long> labelIds = new ArrayList<>(instances ? rows.size() : 0);
+    for (Object[] row : rows) {
+      imageIds.add(((Number) row[0]).longValue());
+      if (instances) {
+        labelIds.add(((Number) row[2]).longValue());
+      }
+    }
+
+    String nextCursor = null;
+    if (hasNext && !instances) {
+      Object[] last = rows.get(rows.size() - 1);
+      nextCursor = encodeCursor(sortKey, last[1], ((Number) last[0]).longValue());
+    }
+
+    log.debug(
+        "Image query for {} {} returned {} rows of {} (sort: {}, seek: {})",
+        scope.keyParam,
+        scope.key,
+        imageIds.size(),
+        totalElements,
+        sortBy,
+        seek);
+
+    return new ImageIdPage(imageIds, labelIds, totalElements, hasNext, nextCursor);
+  }
+
+  /** Build the AND-ed filter predicates. Parameters are added to the given map. */
+  private String buildFilterClause(
+      Scope scope, ImageFilterRequest filters, Map<String, Object> params) {
+    if (filters == null) {
+      return "";
+    }
+    StringBuilder where = new StringBuilder();
+
+    // Media status: labeled = is_labeled true, unlabeled = is_labeled false or null
+    if (filters.getMediaStatus() != null && !filters.getMediaStatus().isEmpty()) {
+      boolean labeled =
+          filters.getMediaStatus().stream().anyMatch(s -> "labeled".equalsIgnoreCase(s));
+      boolean unlabeled =
+          filters.getMediaStatus().stream().anyMatch(s -> "unlabeled".equalsIgnoreCase(s));
+      if (labeled && !unlabeled) {
+        where.append(" AND i.is_labeled = true");
+      } else if (unlabeled && !labeled) {
+        where.append(" AND (i.is_labeled = false OR i.is_labeled IS NULL)");
+      } else if (!labeled) {
+        where.append(" AND 1 = 0");
+      }
+    }
+
+    // No Class: is_labeled=true AND is_no_class=true
+    if (Boolean.TRUE.equals(filters.getNoClass())) {
+      where.append(" AND i.is_labeled = true AND i.is_no_class = true");
+    }
+
+    if (filters.getGroundTruthLabels() != null && !filters.getGroundTruthLabels().isEmpty()) {
+      where.append(
+          " AND EXISTS (SELECT 1 FROM "
+              + scope.labels
+              + " gl WHERE gl.image_id = i.id"
+              + scope.restrict("gl")
+              + " AND gl.class_id IN (:gtClassIds))");
+      params.put("gtClassIds", filters.getGroundTruthLabels());
+    }
+
+    // Predictions belong to the live images, snapshots don't keep them
+    if (!scope.snapshot
+        && filters.getPredictionLabels() != null
+        && !filters.getPredictionLabels().isEmpty()) {
+      where.append(
+          " AND EXISTS (SELECT 1 FROM la_images_prediction_label pl"
+              + " WHERE pl.image_id = i.id AND pl.class_id IN (:predClassIds)");
+      if (filters.getModelId() != null) {
+        where.append(" AND pl.model_id = :modelId");
+        params.put("modelId", filters.getModelId());
+      }
+      where.append(")");
+      params.put("predClassIds", filters.getPredictionLabels());
+    }
+
+    // Prediction "No Class": no prediction labels at all for the selected model
+    if (!scope.snapshot && Boolean.TRUE.equals(filters.getPredictionNoClass())) {
+      if (filters.getModelId() != null) {
+        where.append(
+            " AND NOT EXISTS (SELECT 1 FROM la_images_prediction_label np"
+                + " WHERE np.image_id = i.id AND np.model_id = :modelId)");
+        params.put("modelId", filters.getModelId());
+      } else {
+        log.warn("predictionNoClass filter requires modelId to be set");
+      }
+    }
+
+    if (filters.getLabeler() != null && !filters.getLabeler().isEmpty()) {
+      where.append(
+          " AND EXISTS (SELECT 1 FROM "
+              + scope.labels
+              + " ll WHERE ll.image_id = i.id"
+              + scope.restrict("ll")
+              + " AND LOWER(ll.created_by) LIKE :labeler ESCAPE '\\')");
+      params.put("labeler", containsPattern(filters.getLabeler()));
+    }
+
+    if (filters.getSplit() != null && !filters.getSplit().isEmpty()) {
+      boolean includeUnassigned =
+          filters.getSplit().stream().anyMatch(s -> "unassigned".equalsIgnoreCase(s));
+      List<String> assignedSplits =
+          filters.getSplit().stream()
+              .filter(s -> !"unassigned".equalsIgnoreCase(s))
+              .map(String::toLowerCase)
+              .collect(Collectors.toList());
+
+      List<String> splitPredicates = new ArrayList<>();
+      if (!assignedSplits.isEmpty()) {
+        splitPredicates.add("LOWER(i.split) IN (:splits)");
+        params.put("splits", assignedSplits);
+      }
+      if (includeUnassigned) {
+        splitPredicates.add("i.split IS NULL OR i.split = ''");
+      }
+      where.append(" AND (").append(String.join(" OR ", splitPredicates)).append(")");
+    }
+
+    if (filters.getTags() != null && !filters.getTags().isEmpty()) {
+      where.append(
+          " AND EXISTS (SELECT 1 FROM "
+              + scope.tags
+              + " tg WHERE tg.image_id = i.id"
+              + scope.restrict("tg")
+              + " AND tg.tag_id IN (:tagIds))");
+      params.put("tagIds", filters.getTags());
+    }
+
+    if (filters.getMediaName() != null && !filters.getMediaName().isEmpty()) {
+      where.append(" AND LOWER(i.file_name) LIKE :mediaName ESCAPE '\\'");
+      params.put("mediaName", containsPattern(filters.getMediaName()));
+    }
+
+    if (filters.getMediaId() != null && !filters.getMediaId().isEmpty()) {
+      try {
+        params.put("mediaId", Long.parseLong(filters.getMediaId().trim()));
+        where.append(" AND i.id = :mediaId");
+      } catch (NumberFormatException e) {
+        where.append(" AND 1 = 0");
+      }
+    }
+
+    if (filters.getMetadata() != null && !filters.getMetadata().isEmpty()) {
+      int index = 0;
+      for (Map.Entry<String, String> entry : filters.getMetadata().entrySet()) {
+        String nameParam = "metaName" + index;
+        String valueParam = "metaValue" + index;
+        Long metadataId = scope.snapshot ? parseId(entry.getKey()) : null;
+        if (metadataId != null) {
+          // The snapshot browser filters by metadata ID
+          where.append(
+              String.format(
+                  " AND EXISTS (SELECT 1 FROM %s im WHERE im.image_id = i.id%s"
+                      + " AND im.metadata_id = :%s AND im.value = :%s)",
+                  scope.metadata, scope.restrict("im"), nameParam, valueParam));
+          params.put(nameParam, metadataId);
+        } else {
+          where.append(
+              String.format(
+                  " AND EXISTS (SELECT 1 FROM %s im"
+                      + " JOIN %s pm ON pm.id = im.metadata_id%s"
+                      + " WHERE im.image_id = i.id%s AND pm.name = :%s AND im.value = :%s)",
+                  scope.metadata,
+                  scope.projectMetadata,
+                  scope.restrict("pm"),
+                  scope.restrict("im"),
+                  nameParam,
+                  valueParam));
+          params.put(nameParam, entry.getKey());
+        }
+        params.put(valueParam, entry.getValue());
+        index++;
+      }
+    }
+
+    // annotationType and modelId only select which labels are shown, they don't filter images
+
+    return where.toString();
+  }
+
+  /** Map a sort method to its SQL sort key. Unknown methods fall back to upload_time_desc. */
+  private SortKey sortKeyFor(
+      Scope scope, String sortBy, ImageFilterRequest filters, Map<String, Object> params) {
+    String method = sortBy == null || sortBy.isEmpty() ? "upload_time_desc" : sortBy;
+    switch (method) {
+      case "upload_time_asc":
+        return new SortKey("i.created_at", true, false, SortKey.TIMESTAMP);
+      case "label_time_desc":
+        // Labeled images newest first, unlabeled images at the end
+        return new SortKey(
+            labelTimeExpression(scope, filters, params), false, false, SortKey.TIMESTAMP);
+      case "label_time_asc":
+        // Unlabeled images first, then labeled images oldest first
+        return new SortKey(
+            labelTimeExpression(scope, filters, params), true, true, SortKey.TIMESTAMP);
+      case "name_asc":
+        return new SortKey("LOWER(i.file_name)", true, false, SortKey.STRING);
+      case "name_desc":
+        return new SortKey("LOWER(i.file_name)", false, false, SortKey.STRING);
+      case "upload_time_desc":
+        return new SortKey("i.created_at", false, false, SortKey.TIMESTAMP);
+      default:
+        log.warn("Unknown sort method: {}, defaulting to upload_time_desc", sortBy);
+        return new SortKey("i.created_at", false, false, SortKey.TIMESTAMP);
+    }
+  }
+
+  /**
+   * Latest label time of an image, restricted to the labels that are shown for the requested
+   * annotation type and model (the same labels {@link SortService#sortByLabelTime} looks at).
+   */
+  private String labelTimeExpression(
+      Scope scope, ImageFilterRequest filters, Map<String, Object> params) {
+    String groundTruthLabelTime =
+        "(SELECT MAX(lt.created_at) FROM "
+            + scope.labels
+            + " lt WHERE lt.image_id = i.id"
+            + scope.restrict("lt")
+            + ")";
+    if (scope.snapshot) {
+      return groundTruthLabelTime;
+    }
+
+    String annotationType =
+        filters != null && filters.getAnnotationType() != null
+            ? filters.getAnnotationType().trim()
+            : null;
+    Long modelId = filters != null ? filters.getModelId() : null;
+
+    String predictionTime =
+        "(SELECT MAX(pt.created_at) FROM la_images_prediction_label pt WHERE pt.image_id = i.id"
+            + (modelId != null ? " AND pt.model_id = :modelId)" : ")");
+    if (modelId != null) {
+      params.put("modelId", modelId);
+    }
+
+    if (annotationType == null || annotationType.isEmpty()) {
+      return "GREATEST(" + groundTruthLabelTime + ", " + predictionTime + ")";
+    }
+    if ("Prediction".equalsIgnoreCase(annotationType)) {
+      return predictionTime;
+    }
+    return groundTruthLabelTime;
+  }
+
+  /**
+   * Rows strictly after the cursor row in (key, id DESC) order, taking the NULL placement of the
+   * key into account.
+   */
+  private String seekClause(SortKey key, Cursor cursor, Map<String, Object> params) {
+    params.put("cursorId", cursor.id);
+    String k = key.expression;
+    if (cursor.value == null) {
+      return key.nullsFirst
+          ? "(" + k + " IS NULL AND i.id < :cursorId) OR " + k + " IS NOT NULL"
+          : k + " IS NULL AND i.id < :cursorId";
+    }
+
+    params.put("cursorKey", cursor.value);
+    String comparison = key.ascending ? " > " : " < ";
+    String clause =
+        k + comparison + ":cursorKey OR (" + k + " = :cursorKey AND i.id < :cursorId)";
+    return key.nullsFirst ? clause : clause + " OR " + k + " IS NULL";
+  }
+
+  private static Long parseId(String value) {
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String containsPattern(String value) {
+    String escaped =
+        value.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    return "%" + escaped + "%";
+  }
+
+  private static String encodeCursor(SortKey key, Object value, long id) {
+    String encodedValue;
+    if (value == null) {
+      encodedValue = "";
+    } else if (SortKey.TIMESTAMP.equals(key.type)) {
+      encodedValue = toInstant(value).toString();
+    } else {
+      encodedValue = value.toString();
+    }
+    String raw = key.type + ":" + id + ":" + (value == null ? "N" : "V") + encodedValue;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Cursor decodeCursor(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int first = raw.indexOf(':');
+      int second = raw.indexOf(':', first + 1);
+      String type = raw.substring(0, first);
+      long id = Long.parseLong(raw.substring(first + 1, second));
+      String rest = raw.substring(second + 1);
+      if (rest.startsWith("N")) {
+        return new Cursor(null, id);
+      }
+      String value = rest.substring(1);
+      Object key =
+          SortKey.TIMESTAMP.equals(type) ? Timestamp.from(Instant.parse(value)) : (Object) value;
+      return new Cursor(key, id);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+    }
+  }
+
+  private static Instant toInstant(Object value) {
+    if (value instanceof Timestamp) {
+      return ((Timestamp) value).toInstant();
+    }
+    if (value instanceof Instant) {
+      return (Instant) value;
+    }
+    if (value instanceof OffsetDateTime) {
+      return ((OffsetDateTime) value).toInstant();
+    }
+    if (value instanceof LocalDateTime) {
+      return Timestamp.valueOf((LocalDateTime) value).toInstant();
+    }
+    throw new IllegalArgumentException("Unsupported sort key type: " + value.getClass());
+  }
+
+  /** SQL sort key with direction and NULL placement; ties are always broken by image ID DESC. */
+  private static class SortKey {
+    static final String TIMESTAMP = "T";
+    static final String STRING = "S";
+
+    final String expression;
+    final boolean ascending;
+    final boolean nullsFirst;
+    final String type;
+
+    SortKey(String expression, boolean ascending, boolean nullsFirst, String type) {
+      this.expression = expression;
+      this.ascending = ascending;
+      this.nullsFirst = nullsFirst;
+      this.type = type;
+    }
+
+    String orderBy() {
+      return expression
+          + (ascending ? " ASC" : " DESC")
+          + (nullsFirst ? " NULLS FIRST" : " NULLS LAST");
+    }
+  }
+
+  /** The image tables queried: the live images of a project or the images of a snapshot. */
+  private static class Scope {
+    final boolean snapshot;
+    final String keyColumn;
+    final String keyParam;
+    final Long key;
+    final String images;
+    final String labels;
+    final String tags;
+    final String metadata;
+    final String projectMetadata;
+
+    private Scope(boolean snapshot, Long key) {
+      this.snapshot = snapshot;
+      this.keyColumn = snapshot ? "snapshot_id" : "project_id";
+      this.keyParam = snapshot ? "snapshotId" : "projectId";
+      this.key = key;
+      String suffix = snapshot ? "_ss" : "";
+      this.images = "la_images" + suffix;
+      this.labels = "la_images_label" + suffix;
+      this.tags = "la_images_tag" + suffix;
+      this.metadata = "la_images_metadata" + suffix;
+      this.projectMetadata = "la_project_metadata" + suffix;
+    }
+
+    static Scope project(Long projectId) {
+      return new Scope(false, projectId);
+    }
+
+    static Scope snapshot(Long snapshotId) {
+      return new Scope(true, snapshotId);
+    }
+
+    /** Predicate restricting a joined table to the snapshot; empty for live images. */
+    String restrict(String alias) {
+      return snapshot ? " AND " + alias + ".snapshot_id = :snapshotId" : "";
+    }
+  }
+
+  /** Decoded keyset cursor: sort key value and image ID of the last row of the previous page. */
+  private static class Cursor {
+    final Object value;
+    final long id;
+
+    Cursor(Object value, long id) {
+      this.value = value;
+      this.id = id;
+    }
+  }
+
+  /** One page of the image list query. */
+  public static class ImageIdPage {
+    public final List<Long> imageIds;
+    public final List<Long> labelIds; // instances view only, parallel to imageIds
+    public final long totalElements;
+    public final boolean hasNext;
+    public final String nextCursor;
+
+    public ImageIdPage(
+        List<Long> imageIds,
+        List<Long> labelIds,
+        long totalElements,
+        boolean hasNext,
+        String nextCursor) {
+      this.imageIds = imageIds;
+      this.labelIds = labelIds;
+      this.totalElements = totalElements;
+      this.hasNext = hasNext;
+      this.nextCursor = nextCursor;
+    }
+  }
+}
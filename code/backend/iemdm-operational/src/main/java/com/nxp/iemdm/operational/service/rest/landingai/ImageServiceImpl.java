@@ -3,17 +3,20 @@ package com.nxp.iemdm.operational.service.rest.landingai;
 import com.nxp.iemdm.exception.landingai.ImageProcessingException;
 import com.nxp.iemdm.exception.landingai.InvalidImageFormatException;
 import com.nxp.iemdm.model.landingai.Image;
-import com.nxp.iemdm.model.landingai.ImageFile;
 import com.nxp.iemdm.model.landingai.ImageLabel;
-import com.nxp.iemdm.model.landingai.ImagePredictionLabel;
 import com.nxp.iemdm.model.landingai.Project;
+import com.nxp.iemdm.operational.service.landingai.ImageFileStore;
+import com.nxp.iemdm.operational.service.landingai.ImageIngestPipeline;
+import com.nxp.iemdm.operational.service.landingai.ImageUploadChunkWriter;
+import com.nxp.iemdm.operational.service.landingai.ImageZipIngestService;
+import com.nxp.iemdm.operational.service.landingai.ThumbnailCache;
 import com.nxp.iemdm.shared.aop.annotations.MethodLog;
 import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
 import com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO;
+import com.nxp.iemdm.shared.dto.landingai.ImageUploadJobStatusDTO;
 import com.nxp.iemdm.shared.dto.landingai.ImageUploadResponse;
 import com.nxp.iemdm.shared.dto.landingai.LabelOverlayDTO;
 import com.nxp.iemdm.shared.dto.landingai.PaginatedResponse;
-import com.nxp.iemdm.shared.repository.jpa.landingai.ImageFileRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImageLabelRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImageMetadataRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ImagePredictionLabelRepository;
@@ -22,26 +25,23 @@ import com.nxp.iemdm.shared.repository.jpa.landingai.ImageTagRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectClassRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectMetadataRepository;
 import com.nxp.iemdm.shared.repository.jpa.landingai.ProjectRepository;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.TypedQuery;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -51,6 +51,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -67,12 +68,11 @@ import org.springframework.web.multipart.MultipartFile;
 public class ImageServiceImpl {
 
   private static final Set<String> ALLOWED_FORMATS = Set.of("png", "jpg", "jpeg");
-  private static final int THUMBNAIL_MAX_SIZE = 200;
-  private static final float THUMBNAIL_QUALITY = 0.7f;
   private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+  private static final int MAX_THUMBNAIL_BATCH_SIZE = 500;
 
   private final ImageRepository imageRepository;
-  private final ImageFileRepository imageFileRepository;
+  private final ImageFileStore imageFileStore;
   private final ProjectRepository projectRepository;
   private final ProjectClassRepository projectClassRepository;
   private final ImageLabelRepository imageLabelRepository;
@@ -80,16 +80,17 @@ public class ImageServiceImpl {
   private final ImageMetadataRepository imageMetadataRepository;
   private final ProjectMetadataRepository projectMetadataRepository;
   private final ImageTagRepository imageTagRepository;
-  private final FilterService filterService;
-  private final SortService sortService;
+  private final ImageQueryBuilder imageQueryBuilder;
+  private final LabelOverlayHydrator labelOverlayHydrator;
   private final com.nxp.iemdm.operational.service.landingai.ImageService imageService;
-
-  @PersistenceContext private EntityManager entityManager;
+  private final ImageIngestPipeline imageIngestPipeline;
+  private final ImageZipIngestService imageZipIngestService;
+  private final ThumbnailCache thumbnailCache;
 
   @Autowired
   public ImageServiceImpl(
       ImageRepository imageRepository,
-      ImageFileRepository imageFileRepository,
+      ImageFileStore imageFileStore,
       ProjectRepository projectRepository,
       ProjectClassRepository projectClassRepository,
       ImageLabelRepository imageLabelRepository,
@@ -97,11 +98,14 @@ public class ImageServiceImpl {
       ImageMetadataRepository imageMetadataRepository,
       ProjectMetadataRepository projectMetadataRepository,
       ImageTagRepository imageTagRepository,
-      FilterService filterService,
-      SortService sortService,
-      com.nxp.iemdm.operational.service.landingai.ImageService imageService) {
+      ImageQueryBuilder imageQueryBuilder,
+      LabelOverlayHydrator labelOverlayHydrator,
+      com.nxp.iemdm.operational.service.landingai.ImageService imageService,
+      ImageIngestPipeline imageIngestPipeline,
+      ImageZipIngestService imageZipIngestService,
+      ThumbnailCache thumbnailCache) {
     this.imageRepository = imageRepository;
-    this.imageFileRepository = imageFileRepository;
+    this.imageFileStore = imageFileStore;
     this.projectRepository = projectRepository;
     this.projectClassRepository = projectClassRepository;
     this.imageLabelRepository = imageLabelRepository;
@@ -109,9 +113,12 @@ public class ImageServiceImpl {
     this.imageMetadataRepository = imageMetadataRepository;
     this.projectMetadataRepository = projectMetadataRepository;
     this.imageTagRepository = imageTagRepository;
-    this.filterService = filterService;
-    this.sortService = sortService;
+    this.imageQueryBuilder = imageQueryBuilder;
+    this.labelOverlayHydrator = labelOverlayHydrator;
     this.imageService = imageService;
+    this.imageIngestPipeline = imageIngestPipeline;
+    this.imageZipIngestService = imageZipIngestService;
+    this.thumbnailCache = thumbnailCache;
   }
 
   /**
@@ -143,36 +150,24 @@ public class ImageServiceImpl {
         // Validate file
         validateImageFile(file);
 
-        // Extract metadata
-        ImageMetadata metadata = extractMetadata(file);
-
-        // Generate thumbnail (always as JPG)
-        byte[] thumbnail = generateThumbnail(file);
-
-        // Calculate thumbnail dimensions for scale ratios
-        BufferedImage thumbnailImg = ImageIO.read(new java.io.ByteArrayInputStream(thumbnail));
-        int thumbnailWidth = thumbnailImg.getWidth();
-        int thumbnailHeight = thumbnailImg.getHeight();
-
-        // Calculate scale ratios
-        ThumbnailRatios ratios = calculateThumbnailRatios(file, thumbnailWidth, thumbnailHeight);
-
-        // Convert image to JPG format if it's PNG or JPEG
-        byte[] fileContent = convertToJpg(file);
+        // Decode once: dimensions, thumbnail, scale ratios and JPG content
+        ImageIngestPipeline.IngestedImage ingested =
+            imageIngestPipeline.ingest(file.getOriginalFilename(), file.getBytes());
+        byte[] fileContent = ingested.fileContent;
+        long persistStart = System.nanoTime();
 
         // Get original filename and convert extension to .jpg
         String originalFilename = file.getOriginalFilename();
-        String jpgFilename = convertFilenameToJpg(originalFilename);
+        String jpgFilename = ImageIngestPipeline.convertFilenameToJpg(originalFilename);
 
         // Create image entity
         Image image = new Image();
         image.setFileName(jpgFilename); // Store filename with .jpg extension
         image.setFileSize((long) fileContent.length); // Use converted file size
-        image.setWidth(metadata.width);
-        image.setHeight(metadata.height);
-        image.setThumbnailImage(thumbnail);
-        image.setThumbnailWidthRatio(ratios.widthRatio);
-        image.setThumbnailHeightRatio(ratios.heightRatio);
+        image.setWidth(ingested.width);
+        image.setHeight(ingested.height);
+        image.setThumbnailWidthRatio(ingested.thumbnailWidthRatio);
+        image.setThumbnailHeightRatio(ingested.thumbnailHeightRatio);
         image.setCreatedBy(userId);
 
         // Set project reference
@@ -180,21 +175,18 @@ public class ImageServiceImpl {
         project.setId(projectId);
         image.setProject(project);
 
-        // Create and save image file FIRST to get the file ID
-        String uniqueFilename = generateUniqueFilename(System.currentTimeMillis(), jpgFilename);
-        ImageFile imageFile = new ImageFile();
-        imageFile.setFileName(uniqueFilename); // Store unique filename with .jpg extension
-        imageFile.setImageFileStream(fileContent); // Store converted JPG content
-        imageFile.setCreatedBy(userId);
-
-        // Save image file to database and get generated ID
-        ImageFile savedImageFile = imageFileRepository.save(imageFile);
+        // Store image file FIRST to get the file ID, reusing an identical file if one exists
+        String uniqueFilename =
+            ImageIngestPipeline.generateUniqueFilename(System.currentTimeMillis(), jpgFilename);
+        Long fileId =
+            imageFileStore.store(uniqueFilename, fileContent, ingested.contentHash, userId);
 
         // Set file_id reference in image
-        image.setFileId(savedImageFile.getId());
+        image.setFileId(fileId);
 
         // Save image with file reference
         Image savedImage = imageRepository.save(image);
+        thumbnailCache.save(savedImage.getId(), ingested.thumbnail);
 
         log.info(
             "Uploaded image with id: {} to database, original: {}, converted to: {}, file size: {} bytes, width ratio: {}, height ratio: {}",
@@ -202,17 +194,22 @@ public class ImageServiceImpl {
             originalFilename,
             jpgFilename,
             fileContent.length,
-            ratios.widthRatio,
-            ratios.heightRatio);
+            ingested.thumbnailWidthRatio,
+            ingested.thumbnailHeightRatio);
+
+        ingested.stageTimingsMs.put(
+            ImageIngestPipeline.STAGE_PERSIST, (System.nanoTime() - persistStart) / 1_000_000);
 
         // Create success response
-        responses.add(
+        ImageUploadResponse response =
             new ImageUploadResponse(
                 savedImage.getId(),
                 savedImage.getFileName(),
                 savedImage.getFileSize(),
                 savedImage.getWidth(),
-                savedImage.getHeight()));
+                savedImage.getHeight());
+        response.setStageTimingsMs(ingested.stageTimingsMs);
+        responses.add(response);
 
       } catch (InvalidImageFormatException | ImageProcessingException e) {
         log.error("Failed to upload image: {}", file.getOriginalFilename(), e);
@@ -255,6 +252,7 @@ public class ImageServiceImpl {
     int totalImages = 0;
     int classesCreated = 0;
     int classesReused = 0;
+    java.util.Map<String, Long> stageTimings = new java.util.LinkedHashMap<>();
 
     // Map to cache class name -> ProjectClass
     java.util.Map<String, com.nxp.iemdm.model.landingai.ProjectClass> classCache =
@@ -315,7 +313,7 @@ public class ImageServiceImpl {
           // Create new class
           projectClass = new com.nxp.iemdm.model.landingai.ProjectClass();
           projectClass.setClassName(className);
-          projectClass.setColorCode(generateRandomColor(usedColors));
+          projectClass.setColorCode(ImageUploadChunkWriter.generateRandomColor(usedColors));
           projectClass.setCreatedBy(userId);
 
           Project project = new Project();
@@ -342,53 +340,40 @@ public class ImageServiceImpl {
           // Validate file
           validateImageFile(imageFile);
 
-          // Extract metadata
-          ImageMetadata metadata = extractMetadata(imageFile);
-
-          // Generate thumbnail
-          byte[] thumbnail = generateThumbnail(imageFile);
-
-          // Calculate thumbnail dimensions
-          BufferedImage thumbnailImg = ImageIO.read(new java.io.ByteArrayInputStream(thumbnail));
-          int thumbnailWidth = thumbnailImg.getWidth();
-          int thumbnailHeight = thumbnailImg.getHeight();
-
-          // Calculate scale ratios
-          ThumbnailRatios ratios =
-              calculateThumbnailRatios(imageFile, thumbnailWidth, thumbnailHeight);
-
-          // Convert to JPG
-          byte[] fileContent = convertToJpg(imageFile);
-          String jpgFilename = convertFilenameToJpg(fileName);
+          // Decode once: dimensions, thumbnail, scale ratios and JPG content
+          ImageIngestPipeline.IngestedImage ingested =
+              imageIngestPipeline.ingest(fileName, imageData);
+          ImageIngestPipeline.accumulate(stageTimings, ingested.stageTimingsMs);
+          byte[] fileContent = ingested.fileContent;
+          long persistStart = System.nanoTime();
+          String jpgFilename = ImageIngestPipeline.convertFilenameToJpg(fileName);
 
           // Create image entity
           Image image = new Image();
           image.setFileName(jpgFilename);
           image.setFileSize((long) fileContent.length);
-          image.setWidth(metadata.width);
-          image.setHeight(metadata.height);
-          image.setThumbnailImage(thumbnail);
-          image.setThumbnailWidthRatio(ratios.widthRatio);
-          image.setThumbnailHeightRatio(ratios.heightRatio);
+          image.setWidth(ingested.width);
+          image.setHeight(ingested.height);
+          image.setThumbnailWidthRatio(ingested.thumbnailWidthRatio);
+          image.setThumbnailHeightRatio(ingested.thumbnailHeightRatio);
           image.setCreatedBy(userId);
 
           Project project = new Project();
           project.setId(projectId);
           image.setProject(project);
 
-          // Create and save image file FIRST to get the file ID
-          String uniqueFilename = generateUniqueFilename(System.currentTimeMillis(), jpgFilename);
-          ImageFile imgFile = new ImageFile();
-          imgFile.setFileName(uniqueFilename);
-          imgFile.setImageFileStream(fileContent);
-          imgFile.setCreatedBy(userId);
-          ImageFile savedImgFile = imageFileRepository.save(imgFile);
+          // Store image file FIRST to get the file ID, reusing an identical file if one exists
+          String uniqueFilename =
+              ImageIngestPipeline.generateUniqueFilename(System.currentTimeMillis(), jpgFilename);
+          Long fileId =
+              imageFileStore.store(uniqueFilename, fileContent, ingested.contentHash, userId);
 
           // Set file_id reference in image
-          image.setFileId(savedImgFile.getId());
+          image.setFileId(fileId);
 
           // Save image with file reference
           Image savedImage = imageRepository.save(image);
+          thumbnailCache.save(savedImage.getId(), ingested.thumbnail);
 
           // Create label for the image (ground truth)
           ImageLabel label = new ImageLabel();
@@ -396,6 +381,10 @@ public class ImageServiceImpl {
           label.setProjectClass(projectClass);
           label.setCreatedBy(userId);
           imageLabelRepository.save(label);
+          stageTimings.merge(
+              ImageIngestPipeline.STAGE_PERSIST,
+              (System.nanoTime() - persistStart) / 1_000_000,
+              Long::sum);
 
           totalImages++;
           log.info("Uploaded classified image: {} with class: {}", jpgFilename, className);
@@ -422,6 +411,7 @@ public class ImageServiceImpl {
     result.put("classesCreated", classesCreated);
     result.put("classesReused", classesReused);
     result.put("errors", errors);
+    result.put("stageTimingsMs", stageTimings);
 
     log.info(
         "Classified upload complete: {} images, {} classes created, {} classes reused, {} errors",
@@ -444,40 +434,6 @@ public class ImageServiceImpl {
     return baos.toByteArray();
   }
 
-  /** Generate a random hex color code that is not already used. */
-  private String generateRandomColor(java.util.Set<String> usedColors) {
-    // Predefined set of visually distinct colors
-    String[] predefinedColors = {
-      "#FF6B6B", "#4ECDC4", "#45B7D1", "#96CEB4", "#FFEAA7",
-      "#DDA0DD", "#98D8C8", "#F7DC6F", "#BB8FCE", "#85C1E9",
-      "#F8B500", "#00CED1", "#FF69B4", "#32CD32", "#FF7F50",
-      "#9370DB", "#20B2AA", "#FFD700", "#87CEEB", "#FFA07A",
-      "#8FBC8F", "#DEB887", "#5F9EA0", "#D2691E", "#6495ED",
-      "#DC143C", "#00FFFF", "#008B8B", "#B8860B", "#A9A9A9"
-    };
-
-    // Try predefined colors first
-    for (String color : predefinedColors) {
-      if (!usedColors.contains(color)) {
-        return color;
-      }
-    }
-
-    // Generate random color if all predefined are used
-    java.util.Random random = new java.util.Random();
-    String color;
-    int attempts = 0;
-    do {
-      int r = random.nextInt(200) + 55; // Avoid too dark colors
-      int g = random.nextInt(200) + 55;
-      int b = random.nextInt(200) + 55;
-      color = String.format("#%02X%02X%02X", r, g, b);
-      attempts++;
-    } while (usedColors.contains(color) && attempts < 100);
-
-    return color;
-  }
-
   /**
    * Upload a ZIP file containing batch images. The ZIP should contain images directly at the root
    * level (no class folders). This is for Object Detection and Segmentation projects.
@@ -503,6 +459,7 @@ public class ImageServiceImpl {
     java.util.Map<String, Object> result = new java.util.HashMap<>();
     java.util.List<String> errors = new java.util.ArrayList<>();
     int totalImages = 0;
+    java.util.Map<String, Long> stageTimings = new java.util.LinkedHashMap<>();
 
     try (java.util.zip.ZipInputStream zipInputStream =
         new java.util.zip.ZipInputStream(file.getInputStream())) {
@@ -547,53 +504,44 @@ public class ImageServiceImpl {
           // Validate file
           validateImageFile(imageFile);
 
-          // Extract metadata
-          ImageMetadata metadata = extractMetadata(imageFile);
-
-          // Generate thumbnail
-          byte[] thumbnail = generateThumbnail(imageFile);
-
-          // Calculate thumbnail dimensions
-          BufferedImage thumbnailImg = ImageIO.read(new java.io.ByteArrayInputStream(thumbnail));
-          int thumbnailWidth = thumbnailImg.getWidth();
-          int thumbnailHeight = thumbnailImg.getHeight();
-
-          // Calculate scale ratios
-          ThumbnailRatios ratios =
-              calculateThumbnailRatios(imageFile, thumbnailWidth, thumbnailHeight);
-
-          // Convert to JPG
-          byte[] fileContent = convertToJpg(imageFile);
-          String jpgFilename = convertFilenameToJpg(fileName);
+          // Decode once: dimensions, thumbnail, scale ratios and JPG content
+          ImageIngestPipeline.IngestedImage ingested =
+              imageIngestPipeline.ingest(fileName, imageData);
+          ImageIngestPipeline.accumulate(stageTimings, ingested.stageTimingsMs);
+          byte[] fileContent = ingested.fileContent;
+          long persistStart = System.nanoTime();
+          String jpgFilename = ImageIngestPipeline.convertFilenameToJpg(fileName);
 
           // Create image entity
           Image image = new Image();
           image.setFileName(jpgFilename);
           image.setFileSize((long) fileContent.length);
-          image.setWidth(metadata.width);
-          image.setHeight(metadata.height);
-          image.setThumbnailImage(thumbnail);
-          image.setThumbnailWidthRatio(ratios.widthRatio);
-          image.setThumbnailHeightRatio(ratios.heightRatio);
+          image.setWidth(ingested.width);
+          image.setHeight(ingested.height);
+          image.setThumbnailWidthRatio(ingested.thumbnailWidthRatio);
+          image.setThumbnailHeightRatio(ingested.thumbnailHeightRatio);
           image.setCreatedBy(userId);
 
           Project project = new Project();
           project.setId(projectId);
           image.setProject(project);
 
-          // Create and save image file FIRST to get the file ID
-          String uniqueFilename = generateUniqueFilename(System.currentTimeMillis(), jpgFilename);
-          ImageFile imgFile = new ImageFile();
-          imgFile.setFileName(uniqueFilename);
-          imgFile.setImageFileStream(fileContent);
-          imgFile.setCreatedBy(userId);
-          ImageFile savedImgFile = imageFileRepository.save(imgFile);
+          // Store image file FIRST to get the file ID, reusing an identical file if one exists
+          String uniqueFilename =
+              ImageIngestPipeline.generateUniqueFilename(System.currentTimeMillis(), jpgFilename);
+          Long fileId =
+              imageFileStore.store(uniqueFilename, fileContent, ingested.contentHash, userId);
 
           // Set file_id reference in image
-          image.setFileId(savedImgFile.getId());
+          image.setFileId(fileId);
 
           // Save image with file reference
           Image savedImage = imageRepository.save(image);
+          thumbnailCache.save(savedImage.getId(), ingested.thumbnail);
+          stageTimings.merge(
+              ImageIngestPipeline.STAGE_PERSIST,
+              (System.nanoTime() - persistStart) / 1_000_000,
+              Long::sum);
 
           totalImages++;
           log.info("Uploaded batch image: {}", jpgFilename);
@@ -616,12 +564,61 @@ public class ImageServiceImpl {
     result.put("success", errors.isEmpty() || totalImages > 0);
     result.put("totalImages", totalImages);
     result.put("errors", errors);
+    result.put("stageTimingsMs", stageTimings);
 
     log.info("Batch upload complete: {} images, {} errors", totalImages, errors.size());
 
     return result;
   }
 
+  /**
+   * Start an asynchronous ZIP upload. Images are decoded on a bounded worker pool and committed in
+   * chunks, so a failure late in the archive keeps everything imported before it. Poll {@link
+   * #getUploadJobStatus(String)} with the returned job ID for progress.
+   *
+   * @param file the ZIP file to upload
+   * @param projectId the project ID
+   * @param userId the user identifier
+   * @param classified true if the ZIP contains class folders (classification projects)
+   * @return the initial job status including the job ID
+   */
+  @MethodLog
+  @PostMapping(path = "/upload-zip-jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<ImageUploadJobStatusDTO> startZipUploadJob(
+      @RequestParam("file") MultipartFile file,
+      @RequestParam("projectId") @NotNull Long projectId,
+      @RequestParam("userId") String userId,
+      @RequestParam(value = "classified", defaultValue = "false") boolean classified) {
+
+    log.info(
+        "Operational REST: Starting ZIP upload job for project: {} by user: {}, classified: {}",
+        projectId,
+        userId,
+        classified);
+
+    try {
+      return ResponseEntity.ok(imageZipIngestService.startJob(file, projectId, userId, classified));
+    } catch (IOException e) {
+      throw new ImageProcessingException("Failed to store uploaded ZIP file", e);
+    }
+  }
+
+  /**
+   * Get the progress of an asynchronous ZIP upload job.
+   *
+   * @param jobId the job ID returned when the upload was started
+   * @return the job status, or 404 if the job is unknown or has expired
+   */
+  @GetMapping(path = "/upload-zip-jobs/{jobId}")
+  public ResponseEntity<ImageUploadJobStatusDTO> getUploadJobStatus(
+      @PathVariable("jobId") String jobId) {
+    ImageUploadJobStatusDTO status = imageZipIngestService.getJobStatus(jobId);
+    if (status == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(status);
+  }
+
   /** Simple mock MultipartFile implementation for processing images from ZIP. */
   private static class MockMultipartFile implements MultipartFile {
     private final String name;
@@ -693,136 +690,135 @@ public class ImageServiceImpl {
 
     log.info("Operational REST: Getting thumbnail for image: {}", id);
 
-    Image image =
-        imageRepository
-            .findById(id)
-            .orElseThrow(
-                () ->
-                    new jakarta.persistence.EntityNotFoundException(
-                        "Image not found with id: " + id));
+    if (!imageRepository.existsById(id)) {
+      throw new jakarta.persistence.EntityNotFoundException("Image not found with id: " + id);
+    }
 
-    return image.getThumbnailImage();
+    return thumbnailCache.get(id);
   }
 
   /**
-   * Get full image file for an image. This retrieves the full binary data from la_images_file
-   * table. Use thumbnail endpoint for better performance when displaying previews.
+   * Get the thumbnails of several images as one length-prefixed binary stream. For every requested
+   * ID, in request order, the stream holds the image ID (8 bytes), the thumbnail length (4 bytes, 0
+   * if the image has no thumbnail) and the JPEG bytes.
    *
-   * @param id the image ID
-   * @return the full image file as byte array
+   * @param ids the image IDs
+   * @return the thumbnail stream
    */
   @MethodLog
-  @GetMapping(path = "/{id}/file")
+  @GetMapping(path = "/thumbnails", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
   @Transactional(readOnly = true)
-  public ResponseEntity<byte[]> getImageFile(@PathVariable("id") @NotNull Long id) {
-
-    log.info("Operational REST: Getting full image file for image: {}", id);
+  public ResponseEntity<byte[]> getThumbnails(@RequestParam("ids") List<Long> ids)
+      throws IOException {
 
-    // Get image to retrieve file_id
-    Image image =
-        imageRepository
-            .findById(id)
-            .orElseThrow(
-                () ->
-                    new jakarta.persistence.EntityNotFoundException(
-                        "Image not found with id: " + id));
-
-    // Get image file using file_id
-    if (image.getFileId() == null) {
-      log.error("Image {} has no file_id reference", id);
-      return ResponseEntity.notFound().build();
+    if (ids.size() > MAX_THUMBNAIL_BATCH_SIZE) {
+      return ResponseEntity.badRequest().build();
     }
 
-    ImageFile imageFile = imageFileRepository.findById(image.getFileId()).orElse(null);
+    Map<Long, byte[]> thumbnails = thumbnailCache.getAll(ids);
 
-    if (imageFile == null || imageFile.getImageFileStream() == null) {
-      log.error("Image file not found or empty for file_id: {}", image.getFileId());
-      return ResponseEntity.notFound().build();
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(buffer)) {
+      for (Long id : ids) {
+        byte[] thumbnail = thumbnails.get(id);
+        out.writeLong(id);
+        out.writeInt(thumbnail != null ? thumbnail.length : 0);
+        if (thumbnail != null) {
+          out.write(thumbnail);
+        }
+      }
     }
 
-    byte[] fileData = imageFile.getImageFileStream();
-    log.info("Returning image file for image {}, size: {} bytes", id, fileData.length);
-
+    log.debug("Returning {} of {} requested thumbnails", thumbnails.size(), ids.size());
     return ResponseEntity.ok()
         .contentType(MediaType.APPLICATION_OCTET_STREAM)
-        .contentLength(fileData.length)
-        .body(fileData);
+        .body(buffer.toByteArray());
   }
 
   /**
-   * Convert image file to JPG format. If the image is already JPG, returns the original bytes. For
-   * PNG and other formats, converts to JPG.
+   * Stream the full image file of an image from its storage backend. The content is copied in
+   * slices or channel transfers, so memory use does not grow with the file size. Supports a single
+   * byte range ({@code Range}) and conditional requests ({@code If-None-Match}) against an ETag
+   * derived from the file ID. Use thumbnail endpoint for better performance when displaying
+   * previews.
    *
-   * @param file the image file to convert
-   * @return the image as JPG byte array
-   * @throws ImageProcessingException if conversion fails
+   * @param id the image ID
+   * @param rangeHeader the Range request header (optional)
+   * @param ifNoneMatch the If-None-Match request header (optional)
+   * @param response the servlet response the file is written to
+   * @throws IOException if writing the response fails
    */
-  private byte[] convertToJpg(MultipartFile file) {
-    try {
-      String extension = getFileExtension(file.getOriginalFilename()).toLowerCase();
-
-      // If already JPG, return original bytes
-      if ("jpg".equals(extension)) {
-        return file.getBytes();
-      }
-
-      // Read the image
-      BufferedImage originalImage = ImageIO.read(file.getInputStream());
-      if (originalImage == null) {
-        throw new ImageProcessingException(
-            file.getOriginalFilename(), "convert to JPG", new IOException("Unable to read image"));
-      }
-
-      // Create a new BufferedImage with RGB color model (no alpha channel for JPG)
-      BufferedImage rgbImage =
-          new BufferedImage(
-              originalImage.getWidth(), originalImage.getHeight(), BufferedImage.TYPE_INT_RGB);
+  @MethodLog
+  @GetMapping(path = "/{id}/file")
+  @Transactional(readOnly = true)
+  public void getImageFile(
+      @PathVariable("id") @NotNull Long id,
+      @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      HttpServletResponse response)
+      throws IOException {
 
-      // Draw the original image onto the RGB image (handles transparency by filling with white)
-      Graphics2D graphics = rgbImage.createGraphics();
-      graphics.setColor(java.awt.Color.WHITE);
-      graphics.fillRect(0, 0, rgbImage.getWidth(), rgbImage.getHeight());
-      graphics.drawImage(originalImage, 0, 0, null);
-      graphics.dispose();
+    log.info("Operational REST: Streaming image file for image: {}, range: {}", id, rangeHeader);
 
-      // Write as JPG
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-      ImageIO.write(rgbImage, "jpg", outputStream);
-      byte[] jpgBytes = outputStream.toByteArray();
+    // Get image to retrieve file_id
+    Image image =
+        imageRepository
+            .findById(id)
+            .orElseThrow(
+                () ->
+                    new jakarta.persistence.EntityNotFoundException(
+                        "Image not found with id: " + id));
 
-      log.info(
-          "Converted {} from {} to JPG, original size: {} bytes, converted size: {} bytes",
-          file.getOriginalFilename(),
-          extension.toUpperCase(),
-          file.getSize(),
-          jpgBytes.length);
+    Long fileId = image.getFileId();
+    Long fileLength = fileId != null ? imageFileStore.getFileLength(fileId) : null;
+    if (fileLength == null) {
+      log.error("Image file not found or empty for image {}, file_id: {}", id, fileId);
+      response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
 
-      return jpgBytes;
+    String etag = ImageFileStore.etagFor(fileId);
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
 
-    } catch (IOException e) {
-      throw new ImageProcessingException(file.getOriginalFilename(), "convert to JPG", e);
+    if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
     }
-  }
 
-  /**
-   * Convert filename extension to .jpg. Handles .png, .jpeg, and .jpg extensions.
-   *
-   * @param originalFilename the original filename
-   * @return filename with .jpg extension
-   */
-  private String convertFilenameToJpg(String originalFilename) {
-    if (originalFilename == null || originalFilename.isEmpty()) {
-      return "image.jpg";
+    long start = 0;
+    long length = fileLength;
+    if (rangeHeader != null && !rangeHeader.isEmpty()) {
+      List<HttpRange> ranges;
+      try {
+        ranges = HttpRange.parseRanges(rangeHeader);
+      } catch (IllegalArgumentException e) {
+        ranges = List.of();
+      }
+      if (ranges.size() == 1) {
+        HttpRange range = ranges.get(0);
+        try {
+          start = range.getRangeStart(fileLength);
+          length = range.getRangeEnd(fileLength) - start + 1;
+        } catch (IllegalArgumentException e) {
+          response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+          response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength);
+          return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(
+            HttpHeaders.CONTENT_RANGE,
+            "bytes " + start + "-" + (start + length - 1) + "/" + fileLength);
+      }
+      // Multiple or malformed ranges: ignore the header and send the whole file
     }
 
-    int lastDotIndex = originalFilename.lastIndexOf('.');
-    if (lastDotIndex > 0) {
-      // Replace extension with .jpg
-      return originalFilename.substring(0, lastDotIndex) + ".jpg";
-    }
+    response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    response.setContentLengthLong(length);
+    imageFileStore.copyRange(fileId, start, length, response.getOutputStream());
 
-    // No extension found, append .jpg
-    return originalFilename + ".jpg";
+    log.info("Streamed {} of {} bytes of image file for image {}", length, fileLength, id);
   }
 
   /**
@@ -831,7 +827,7 @@ public class ImageServiceImpl {
    * @param projectId the project ID
    * @param page the page number (0-indexed)
    * @param size the page size
-   * @param viewMode the view mode (images or instances)
+   * @param viewMode the view mode (images or instances; instances are ground truth labels)
    * @param mediaStatus filter by media status (comma-separated)
    * @param groundTruthLabels filter by ground truth label class IDs (comma-separated)
    * @param predictionLabels filter by prediction label class IDs (comma-separated)
@@ -843,6 +839,9 @@ public class ImageServiceImpl {
    * @param labeler filter by labeler
    * @param mediaId filter by media ID
    * @param sortBy the sort method (optional)
+   * @param includeThumbnails whether to include thumbnail bytes in the list items
+   * @param cursor keyset cursor from the previous page's nextCursor (images view only); when set,
+   *     the page number is ignored and the page continues right after the cursor row
    * @return paginated response with image list items
    */
   @MethodLog
@@ -866,7 +865,8 @@ public class ImageServiceImpl {
       @RequestParam(value = "noClass", required = false) Boolean noClass,
       @RequestParam(value = "predictionNoClass", required = false) Boolean predictionNoClass,
       @RequestParam(value = "sortBy", defaultValue = "upload_time_desc") String sortBy,
-      @RequestParam(value = "includeThumbnails", defaultValue = "true") boolean includeThumbnails) {
+      @RequestParam(value = "includeThumbnails", defaultValue = "false") boolean includeThumbnails,
+      @RequestParam(value = "cursor", required = false) String cursor) {
 
     log.info(
         "Operational REST: Getting images for project: {}, page: {}, size: {}, viewMode: {}, sortBy: {}, annotationType: {}, modelId: {}",
@@ -928,344 +928,68 @@ public class ImageServiceImpl {
 
     log.info("Filters: {}", filters);
 
-    // Check if we need to sort by label time - this requires fetching all images first
-    boolean sortByLabelTime =
-        sortBy != null && (sortBy.equals("label_time_desc") || sortBy.equals("label_time_asc"));
-
-    // Pre-filter image IDs at database level for label-based filters
-    Set<Long> allowedImageIds = null;
-
-    // Handle media status filter at database level for "labeled" and "unlabeled"
-    // Logic:
-    // - Labeled: is_labeled=true
-    // - Unlabeled: is_labeled=false
-    if (filters.getMediaStatus() != null && !filters.getMediaStatus().isEmpty()) {
-      Set<Long> mediaStatusImageIds = new java.util.HashSet<>();
-      boolean includeLabeled =
-          filters.getMediaStatus().stream().anyMatch(s -> "labeled".equalsIgnoreCase(s));
-      boolean includeUnlabeled =
-          filters.getMediaStatus().stream().anyMatch(s -> "unlabeled".equalsIgnoreCase(s));
-
-      if (includeLabeled) {
-        List<Long> labeledIds = imageRepository.findLabeledImageIds(projectId);
-        log.info("Found {} labeled images", labeledIds.size());
-        mediaStatusImageIds.addAll(labeledIds);
-      }
-      if (includeUnlabeled) {
-        List<Long> unlabeledIds = imageRepository.findUnlabeledImageIds(projectId);
-        log.info("Found {} unlabeled images", unlabeledIds.size());
-        mediaStatusImageIds.addAll(unlabeledIds);
-      }
-
-      log.info("Total {} images matching media status filter", mediaStatusImageIds.size());
-
-      if (allowedImageIds == null) {
-        allowedImageIds = mediaStatusImageIds;
-      } else {
-        allowedImageIds.retainAll(mediaStatusImageIds);
-      }
-    }
-
-    // Filter by ground truth labels at database level
-    if (filters.getGroundTruthLabels() != null && !filters.getGroundTruthLabels().isEmpty()) {
-      List<Long> gtImageIds =
-          imageLabelRepository.findImageIdsByGroundTruthClassIds(
-              projectId, filters.getGroundTruthLabels());
-      log.info("Found {} images with ground truth labels matching filter", gtImageIds.size());
-      if (allowedImageIds == null) {
-        allowedImageIds = new java.util.HashSet<>(gtImageIds);
-      } else {
-        // AND logic: keep only images that match both filters
-        allowedImageIds.retainAll(gtImageIds);
-      }
-    }
-
-    // Filter by prediction labels at database level (requires model_id)
-    if (filters.getPredictionLabels() != null && !filters.getPredictionLabels().isEmpty()) {
-      Long filterModelId = filters.getModelId();
-      List<Long> predImageIds;
-
-      if (filterModelId != null) {
-        // Filter by both model_id and class_ids
-        predImageIds =
-            imagePredictionLabelRepository.findImageIdsByPredictionClassIdsAndModelId(
-                projectId, filterModelId, filters.getPredictionLabels());
-        log.info(
-            "Found {} images with prediction labels matching filter for model {}",
-            predImageIds.size(),
-            filterModelId);
-      } else {
-        // Fallback: filter by class_ids only (all models)
-        predImageIds =
-            imagePredictionLabelRepository.findImageIdsByPredictionClassIds(
-                projectId, filters.getPredictionLabels());
-        log.info(
-            "Found {} images with prediction labels matching filter (all models)",
-            predImageIds.size());
-      }
-
-      if (allowedImageIds == null) {
-        allowedImageIds = new java.util.HashSet<>(predImageIds);
-      } else {
-        // AND logic: keep only images that match both filters
-        allowedImageIds.retainAll(predImageIds);
-      }
-    }
-
-    // Filter by prediction "No Class" - images without any prediction labels for the selected model
-    if (filters.getPredictionNoClass() != null && filters.getPredictionNoClass()) {
-      Long filterModelId = filters.getModelId();
-      if (filterModelId != null) {
-        // Get all image IDs that have prediction labels for this model
-        List<Long> imagesWithPredictions =
-            imagePredictionLabelRepository.findImageIdsWithPredictionLabelsForModel(
-                projectId, filterModelId);
-        log.info(
-            "Found {} images with prediction labels for model {}",
-            imagesWithPredictions.size(),
-            filterModelId);
-
-        // Get all image IDs for the project
-        List<Long> allProjectImageIds = imageRepository.findImageIdsByProjectId(projectId);
-        log.info("Total {} images in project {}", allProjectImageIds.size(), projectId);
-
-        // Images without predictions = all images - images with predictions
-        Set<Long> imagesWithoutPredictions = new java.util.HashSet<>(allProjectImageIds);
-        imagesWithoutPredictions.removeAll(imagesWithPredictions);
-        log.info(
-            "Found {} images without prediction labels for model {}",
-            imagesWithoutPredictions.size(),
-            filterModelId);
-
-        if (allowedImageIds == null) {
-          allowedImageIds = imagesWithoutPredictions;
-        } else {
-          // AND logic: keep only images that match both filters
-          allowedImageIds.retainAll(imagesWithoutPredictions);
-        }
-      } else {
-        log.warn("predictionNoClass filter requires modelId to be set");
-      }
-    }
-
-    // Filter by labeler at database level
-    if (filters.getLabeler() != null && !filters.getLabeler().isEmpty()) {
-      List<Long> labelerImageIds =
-          imageLabelRepository.findImageIdsByLabeler(projectId, filters.getLabeler());
-      log.info(
-          "Found {} images with labels by labeler '{}' matching filter",
-          labelerImageIds.size(),
-          filters.getLabeler());
-      if (allowedImageIds == null) {
-        allowedImageIds = new java.util.HashSet<>(labelerImageIds);
-      } else {
-        // AND logic: keep only images that match both filters
-        allowedImageIds.retainAll(labelerImageIds);
-      }
-    }
+    // Filter, sort and page in the database; only the IDs of this page come back
+    boolean instancesView = "instances".equalsIgnoreCase(viewMode);
+    ImageQueryBuilder.ImageIdPage idPage =
+        imageQueryBuilder.queryPage(projectId, filters, sortBy, instancesView, page, size, cursor);
 
-    // Filter by split at database level
-    if (filters.getSplit() != null && !filters.getSplit().isEmpty()) {
-      // Check if "unassigned" is in the filter list
-      boolean includeUnassigned =
-          filters.getSplit().stream().anyMatch(s -> "unassigned".equalsIgnoreCase(s));
-
-      // Get the non-unassigned splits (training, dev, test) in lowercase
-      List<String> assignedSplits =
-          filters.getSplit().stream()
-              .filter(s -> !"unassigned".equalsIgnoreCase(s))
-              .map(String::toLowerCase)
-              .collect(java.util.stream.Collectors.toList());
-
-      log.info(
-          "Split filter - includeUnassigned: {}, assignedSplits: {}",
-          includeUnassigned,
-          assignedSplits);
-
-      Set<Long> splitImageIds = new java.util.HashSet<>();
-
-      // Get images with assigned splits (training, dev, test)
-      if (!assignedSplits.isEmpty()) {
-        List<Long> assignedIds =
-            imageRepository.findImageIdsByAssignedSplits(projectId, assignedSplits);
-        log.info("Found {} images with assigned splits: {}", assignedIds.size(), assignedSplits);
-        splitImageIds.addAll(assignedIds);
-      }
-
-      // Get images with unassigned split (null or empty)
-      if (includeUnassigned) {
-        List<Long> unassignedIds = imageRepository.findImageIdsWithUnassignedSplit(projectId);
-        log.info("Found {} images with unassigned split", unassignedIds.size());
-        splitImageIds.addAll(unassignedIds);
-      }
-
-      log.info("Total {} images matching split filter", splitImageIds.size());
-
-      if (allowedImageIds == null) {
-        allowedImageIds = splitImageIds;
-      } else {
-        // AND logic: keep only images that match both filters
-        allowedImageIds.retainAll(splitImageIds);
-      }
-    }
+    List<Long> pageImageIds = idPage.imageIds.stream().distinct().collect(Collectors.toList());
+    Map<Long, Image> imagesById =
+        imageRepository.findAllById(pageImageIds).stream()
+            .collect(Collectors.toMap(Image::getId, image -> image));
 
-    // Filter by tags at database level
-    if (filters.getTags() != null && !filters.getTags().isEmpty()) {
-      List<Long> tagImageIds =
-          imageTagRepository.findImageIdsByProjectIdAndTagIds(projectId, filters.getTags());
-      log.info(
-          "Found {} images with tags matching filter: {}", tagImageIds.size(), filters.getTags());
-      if (allowedImageIds == null) {
-        allowedImageIds = new java.util.HashSet<>(tagImageIds);
-      } else {
-        // AND logic: keep only images that match both filters
-        allowedImageIds.retainAll(tagImageIds);
-      }
-    }
-
-    // Create pageable with sort by created_at descending, then by id descending for stable ordering
-    // This ensures consistent pagination even when timestamps are identical
-    Sort sort;
-    if ("upload_time_asc".equals(sortBy)) {
-      sort = Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
-    } else {
-      // Default to upload_time_desc
-      sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
-    }
-    Pageable pageable = PageRequest.of(page, size, sort);
-
-    // Get images - either filtered by IDs or all for project
-    List<Image> allImages;
-    long totalElements;
-    int totalPages;
-    boolean isFirst;
-    boolean isLast;
-
-    // Determine if we need to fetch all images first
-    boolean needsFetchAll = allowedImageIds != null || sortByLabelTime;
-
-    if (needsFetchAll) {
-      // If we have pre-filtered IDs OR need to sort by label time, fetch all images first
-      if (allowedImageIds != null && allowedImageIds.isEmpty()) {
-        // No images match the label filters
-        allImages = new ArrayList<>();
-        totalElements = 0;
-        totalPages = 0;
-        isFirst = true;
-        isLast = true;
-      } else if (allowedImageIds != null) {
-        // Fetch images by IDs
-        allImages =
-            imageRepository.findByIdInAndProject_Id(new ArrayList<>(allowedImageIds), projectId);
-        // Apply other filters in memory
-        if (filters.hasFilters()) {
-          allImages = filterService.applyFilters(allImages, filters);
-        }
-        totalElements = allImages.size();
-        totalPages = (int) Math.ceil((double) totalElements / size);
-        isFirst = page == 0;
-        isLast = page >= totalPages - 1;
-      } else {
-        // sortByLabelTime is true - fetch all images for the project
-        allImages = imageRepository.findByProject_Id(projectId);
-        // Apply other filters in memory
-        if (filters.hasFilters()) {
-          log.info("Applying filters: {}", filters);
-          allImages = filterService.applyFilters(allImages, filters);
-        }
-        totalElements = allImages.size();
-        totalPages = (int) Math.ceil((double) totalElements / size);
-        isFirst = page == 0;
-        isLast = page >= totalPages - 1;
-      }
-    } else {
-      // No label filters and not sorting by label time, use standard pagination
-      // BUT we still need to handle other filters properly
-      if (filters.hasFilters()) {
-        // If we have any filters, we need to fetch all images first
-        log.info("Filters present, fetching all images for project {}", projectId);
-        allImages = imageRepository.findByProject_Id(projectId);
-
-        // Apply filters in memory
-        log.info("Applying filters: {}", filters);
-        allImages = filterService.applyFilters(allImages, filters);
-
-        totalElements = allImages.size();
-        totalPages = (int) Math.ceil((double) totalElements / size);
-        isFirst = page == 0;
-        isLast = page >= totalPages - 1;
-      } else {
-        // No filters at all, use efficient database pagination
-        Page<Image> imagePage = imageRepository.findByProject_Id(projectId, pageable);
-        allImages = new ArrayList<>(imagePage.getContent());
-
-        totalElements = imagePage.getTotalElements();
-        totalPages = imagePage.getTotalPages();
-        isFirst = imagePage.isFirst();
-        isLast = imagePage.isLast();
-      }
-    }
-
-    List<Image> filteredImages = allImages;
-
-    // Get annotation type filter for label filtering
-    final String annotationTypeFilter = filters.getAnnotationType();
+    // Trim the annotation type filter to handle any whitespace issues
+    final String trimmedAnnotationType =
+        filters.getAnnotationType() != null ? filters.getAnnotationType().trim() : null;
     final Long modelIdFilter = filters.getModelId();
 
-    log.info(
-        "Label filtering - annotationTypeFilter: '{}' (length: {}), modelIdFilter: {}",
-        annotationTypeFilter,
-        annotationTypeFilter != null ? annotationTypeFilter.length() : 0,
-        modelIdFilter);
+    // Load the label overlays of the whole page in one query per annotation type. Instances are
+    // the ground truth labels the page was counted and paged by, whatever the annotation type
+    Map<Long, List<LabelOverlayDTO>> overlaysByImage =
+        labelOverlayHydrator.loadOverlays(
+            pageImageIds, instancesView ? "Ground-Truth" : trimmedAnnotationType, modelIdFilter);
 
-    // Trim the annotation type filter to handle any whitespace issues
-    final String trimmedAnnotationType =
-        annotationTypeFilter != null ? annotationTypeFilter.trim() : null;
+    // Thumbnails live in their own table; cached ones are served from memory
+    Map<Long, byte[]> thumbnails =
+        includeThumbnails ? thumbnailCache.getAll(pageImageIds) : new HashMap<>();
 
-    // Convert to DTOs with label information (filtered by annotation type and model)
+    // Convert to DTOs with label information (filtered by annotation type and model), keeping the
+    // database order
     List<ImageListItemDTO> imageListItems =
-        filteredImages.stream()
+        pageImageIds.stream()
+            .map(imagesById::get)
+            .filter(java.util.Objects::nonNull)
             .map(
                 image ->
                     convertToImageListItemDTO(
-                        image, trimmedAnnotationType, modelIdFilter, includeThumbnails))
+                        image,
+                        overlaysByImage.getOrDefault(image.getId(), new ArrayList<>()),
+                        thumbnails.get(image.getId())))
             .collect(Collectors.toList());
 
-    // Expand to instances view if requested
-    if ("instances".equalsIgnoreCase(viewMode)) {
-      log.info("Expanding images to instances view");
-      imageListItems = expandToInstances(imageListItems);
+    // Expand to instances view if requested, keeping only the label instances of this page
+    if (instancesView) {
+      Map<Long, ImageListItemDTO> instancesByLabelId =
+          expandToInstances(imageListItems).stream()
+              .filter(instance -> instance.getInstanceLabelId() != null)
+              .collect(
+                  Collectors.toMap(
+                      ImageListItemDTO::getInstanceLabelId,
+                      instance -> instance,
+                      (first, second) -> first));
+      imageListItems =
+          idPage.labelIds.stream()
+              .map(instancesByLabelId::get)
+              .filter(java.util.Objects::nonNull)
+              .collect(Collectors.toList());
       log.info("Expanded to {} instances", imageListItems.size());
-
-      // Recalculate pagination for instances
-      totalElements = imageListItems.size();
-      totalPages = (int) Math.ceil((double) totalElements / size);
-      isFirst = page == 0;
-      isLast = page >= totalPages - 1;
-    }
-
-    // Apply sorting if provided
-    if (sortBy != null && !sortBy.isEmpty()) {
-      log.info("Applying sort method: {}", sortBy);
-      imageListItems = sortService.sortImages(imageListItems, sortBy);
-    }
-
-    // Apply pagination manually if we fetched all images (for label time sorting or label filters
-    // or any filters)
-    // OR if we're in instances view (which changes the total count)
-    if (allowedImageIds != null
-        || sortByLabelTime
-        || filters.hasFilters()
-        || "instances".equalsIgnoreCase(viewMode)) {
-      int fromIndex = page * size;
-      int toIndex = Math.min(fromIndex + size, imageListItems.size());
-      if (fromIndex < imageListItems.size()) {
-        imageListItems = imageListItems.subList(fromIndex, toIndex);
-      } else {
-        imageListItems = new ArrayList<>();
-      }
     }
 
+    long totalElements = idPage.totalElements;
+    int totalPages = (int) Math.ceil((double) totalElements / size);
+    boolean isFirst = page == 0 && (cursor == null || cursor.isEmpty());
+    boolean isLast = !idPage.hasNext;
+
     // Build paginated response
     PaginatedResponse<ImageListItemDTO> response = new PaginatedResponse<>();
     response.setContent(imageListItems);
@@ -1275,6 +999,7 @@ public class ImageServiceImpl {
     response.setTotalPages(totalPages);
     response.setFirst(isFirst);
     response.setLast(isLast);
+    response.setNextCursor(idPage.nextCursor);
 
     log.info(
         "Returning {} images for project {}, total elements: {}",
@@ -1289,91 +1014,13 @@ public class ImageServiceImpl {
    * Convert Image entity to ImageListItemDTO with label overlay information.
    *
    * @param image the image entity
-   * @param annotationType the annotation type filter (null for all, "Ground truth" or "Prediction")
-   * @param modelId the model ID filter (null for all models, specific ID for that model's
-   *     predictions)
+   * @param labelOverlays the label overlays of the image, already filtered by annotation type and
+   *     model (see {@link LabelOverlayHydrator})
+   * @param thumbnail the thumbnail bytes, or null if thumbnails are not included
    * @return the image list item DTO
    */
   private ImageListItemDTO convertToImageListItemDTO(
-      Image image, String annotationType, Long modelId, boolean includeThumbnails) {
-    List<LabelOverlayDTO> labelOverlays = new ArrayList<>();
-
-    log.debug(
-        "Converting image {} to DTO with annotationType: '{}', modelId: {}",
-        image.getId(),
-        annotationType,
-        modelId);
-
-    // Query ground truth labels if not filtered to Prediction only
-    // Accept both "Ground-Truth" (from frontend) and "Ground truth" for backwards compatibility
-    boolean isGroundTruthFilter =
-        annotationType == null
-            || "Ground-Truth".equalsIgnoreCase(annotationType)
-            || "Ground truth".equalsIgnoreCase(annotationType);
-
-    if (isGroundTruthFilter) {
-      log.debug("Querying ground truth labels for image {}", image.getId());
-      TypedQuery<ImageLabel> gtQuery =
-          entityManager.createQuery(
-              "SELECT il FROM ImageLabel il "
-                  + "JOIN FETCH il.projectClass "
-                  + "WHERE il.image.id = :imageId",
-              ImageLabel.class);
-      gtQuery.setParameter("imageId", image.getId());
-      List<ImageLabel> gtLabels = gtQuery.getResultList();
-      log.debug("Found {} ground truth labels for image {}", gtLabels.size(), image.getId());
-
-      // Convert ground truth labels to DTOs - use "Ground Truth" to match database value
-      labelOverlays.addAll(
-          gtLabels.stream()
-              .map(label -> convertToLabelOverlayDTO(label, "Ground Truth"))
-              .collect(Collectors.toList()));
-    } else {
-      log.debug(
-          "Skipping ground truth labels for image {} because annotationType='{}' doesn't match 'Ground-Truth'",
-          image.getId(),
-          annotationType);
-    }
-
-    // Query prediction labels if not filtered to Ground-Truth only
-    if (annotationType == null || "Prediction".equalsIgnoreCase(annotationType)) {
-      log.info(
-          "Querying prediction labels for image {} with modelId filter: {}",
-          image.getId(),
-          modelId);
-
-      // Use unified repository method for consistency with labelling page
-      List<ImagePredictionLabel> predLabels;
-      if (modelId != null) {
-        // Filter by both image_id and model_id (unified approach)
-        predLabels =
-            imagePredictionLabelRepository.findByImage_IdAndModel_Id(image.getId(), modelId);
-      } else {
-        // No model filter - get all predictions for this image
-        predLabels = imagePredictionLabelRepository.findByImage_Id(image.getId());
-      }
-
-      log.info(
-          "Found {} prediction labels for image {} with modelId filter: {}",
-          predLabels.size(),
-          image.getId(),
-          modelId);
-
-      // Convert prediction labels to DTOs
-      labelOverlays.addAll(
-          predLabels.stream()
-              .map(label -> convertPredictionToLabelOverlayDTO(label))
-              .collect(Collectors.toList()));
-    } else {
-      log.info(
-          "Skipping prediction labels for image {} because annotationType='{}' is not 'Prediction'",
-          image.getId(),
-          annotationType);
-    }
-
-    // Calculate label count
-    Integer labelCount = labelOverlays.size();
-
+      Image image, List<LabelOverlayDTO> labelOverlays, byte[] thumbnail) {
     // Create and populate DTO
     ImageListItemDTO dto = new ImageListItemDTO();
     dto.setId(image.getId());
@@ -1384,8 +1031,8 @@ public class ImageServiceImpl {
     dto.setSplit(image.getSplit());
     dto.setIsLabeled(image.getIsLabeled());
     dto.setIsNoClass(image.getIsNoClass());
-    dto.setLabelCount(labelCount);
-    dto.setThumbnailImage(includeThumbnails ? image.getThumbnailImage() : null);
+    dto.setLabelCount(labelOverlays.size());
+    dto.setThumbnailImage(thumbnail);
     dto.setThumbnailWidthRatio(image.getThumbnailWidthRatio());
     dto.setThumbnailHeightRatio(image.getThumbnailHeightRatio());
     dto.setCreatedAt(image.getCreatedAt());
@@ -1394,48 +1041,6 @@ public class ImageServiceImpl {
     return dto;
   }
 
-  /**
-   * Convert ImageLabel entity to LabelOverlayDTO.
-   *
-   * <p>Convert ImageLabel entity to LabelOverlayDTO. Ground truth labels always have
-   * annotationType="Ground Truth" and confidenceRate=null
-   *
-   * @param label the image label entity (ground truth)
-   * @param annotationType the annotation type to set (should always be "Ground Truth")
-   * @return the label overlay DTO
-   */
-  private LabelOverlayDTO convertToLabelOverlayDTO(ImageLabel label, String annotationType) {
-    LabelOverlayDTO dto = new LabelOverlayDTO();
-    dto.setId(label.getId());
-    dto.setClassId(label.getProjectClass().getId());
-    dto.setClassName(label.getProjectClass().getClassName());
-    dto.setColorCode(label.getProjectClass().getColorCode());
-    dto.setPosition(label.getPosition());
-    dto.setConfidenceRate(null); // Ground truth labels don't have confidence rate
-    dto.setAnnotationType(annotationType); // Always "Ground Truth" for ImageLabel
-    dto.setCreatedAt(label.getCreatedAt());
-    return dto;
-  }
-
-  /**
-   * Convert ImagePredictionLabel entity to LabelOverlayDTO.
-   *
-   * @param label the image prediction label entity
-   * @return the label overlay DTO
-   */
-  private LabelOverlayDTO convertPredictionToLabelOverlayDTO(ImagePredictionLabel label) {
-    LabelOverlayDTO dto = new LabelOverlayDTO();
-    dto.setId(label.getId());
-    dto.setClassId(label.getProjectClass().getId());
-    dto.setClassName(label.getProjectClass().getClassName());
-    dto.setColorCode(label.getProjectClass().getColorCode());
-    dto.setPosition(label.getPosition());
-    dto.setConfidenceRate(label.getConfidenceRate());
-    dto.setAnnotationType("Prediction");
-    dto.setCreatedAt(label.getCreatedAt());
-    return dto;
-  }
-
   /**
    * Expand images with multiple labels into separate instances (one per label). For instances view,
    * only ground truth labels are included. Images without ground truth labels are filtered out. For
@@ -1510,138 +1115,6 @@ public class ImageServiceImpl {
     return instances;
   }
 
-  /**
-   * Generate a compressed thumbnail for an image.
-   *
-   * @param file the image file
-   * @return the thumbnail as byte array
-   * @throws ImageProcessingException if thumbnail generation fails
-   */
-  private byte[] generateThumbnail(MultipartFile file) {
-    try {
-      // Read original image
-      BufferedImage originalImage = ImageIO.read(file.getInputStream());
-      if (originalImage == null) {
-        throw new ImageProcessingException(
-            file.getOriginalFilename(), "read image", new IOException("Unable to read image"));
-      }
-
-      // Calculate thumbnail dimensions maintaining aspect ratio
-      int originalWidth = originalImage.getWidth();
-      int originalHeight = originalImage.getHeight();
-      int thumbnailWidth;
-      int thumbnailHeight;
-
-      if (originalWidth > originalHeight) {
-        thumbnailWidth = THUMBNAIL_MAX_SIZE;
-        thumbnailHeight = (int) ((double) originalHeight / originalWidth * THUMBNAIL_MAX_SIZE);
-      } else {
-        thumbnailHeight = THUMBNAIL_MAX_SIZE;
-        thumbnailWidth = (int) ((double) originalWidth / originalHeight * THUMBNAIL_MAX_SIZE);
-      }
-
-      // Create thumbnail image
-      BufferedImage thumbnailImage =
-          new BufferedImage(thumbnailWidth, thumbnailHeight, BufferedImage.TYPE_INT_RGB);
-      Graphics2D graphics = thumbnailImage.createGraphics();
-      graphics.drawImage(originalImage, 0, 0, thumbnailWidth, thumbnailHeight, null);
-      graphics.dispose();
-
-      // Convert to byte array (JPEG format for compression)
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-      ImageIO.write(thumbnailImage, "jpg", outputStream);
-      byte[] thumbnailBytes = outputStream.toByteArray();
-
-      log.debug(
-          "Generated thumbnail for {}: {}x{} -> {}x{}, size: {} bytes",
-          file.getOriginalFilename(),
-          originalWidth,
-          originalHeight,
-          thumbnailWidth,
-          thumbnailHeight,
-          thumbnailBytes.length);
-
-      return thumbnailBytes;
-
-    } catch (IOException e) {
-      throw new ImageProcessingException(file.getOriginalFilename(), "generate thumbnail", e);
-    }
-  }
-
-  /**
-   * Calculate the scale ratios between thumbnail and original image. These ratios are used to scale
-   * label coordinates when displaying them on thumbnails.
-   *
-   * @param file the original image file
-   * @param thumbnailWidth the thumbnail width
-   * @param thumbnailHeight the thumbnail height
-   * @return the thumbnail ratios (width and height ratios separately)
-   * @throws ImageProcessingException if calculation fails
-   */
-  private ThumbnailRatios calculateThumbnailRatios(
-      MultipartFile file, int thumbnailWidth, int thumbnailHeight) {
-    try {
-      BufferedImage originalImage = ImageIO.read(file.getInputStream());
-      if (originalImage == null) {
-        throw new ImageProcessingException(
-            file.getOriginalFilename(),
-            "calculate scale ratios",
-            new IOException("Unable to read image"));
-      }
-
-      int originalWidth = originalImage.getWidth();
-      int originalHeight = originalImage.getHeight();
-
-      // Calculate both width and height ratios separately
-      double widthRatio = (double) thumbnailWidth / originalWidth;
-      double heightRatio = (double) thumbnailHeight / originalHeight;
-
-      log.debug(
-          "Calculated scale ratios for {}: width={}, height={} (thumbnail: {}x{}, original: {}x{})",
-          file.getOriginalFilename(),
-          widthRatio,
-          heightRatio,
-          thumbnailWidth,
-          thumbnailHeight,
-          originalWidth,
-          originalHeight);
-
-      return new ThumbnailRatios(widthRatio, heightRatio);
-
-    } catch (IOException e) {
-      throw new ImageProcessingException(file.getOriginalFilename(), "calculate scale ratios", e);
-    }
-  }
-
-  /**
-   * Extract metadata (width and height) from an image file.
-   *
-   * @param file the image file
-   * @return the image metadata
-   * @throws ImageProcessingException if metadata extraction fails
-   */
-  private ImageMetadata extractMetadata(MultipartFile file) {
-    try {
-      BufferedImage image = ImageIO.read(file.getInputStream());
-      if (image == null) {
-        throw new ImageProcessingException(
-            file.getOriginalFilename(),
-            "extract metadata",
-            new IOException("Unable to read image"));
-      }
-
-      int width = image.getWidth();
-      int height = image.getHeight();
-
-      log.debug("Extracted metadata for {}: {}x{}", file.getOriginalFilename(), width, height);
-
-      return new ImageMetadata(width, height);
-
-    } catch (IOException e) {
-      throw new ImageProcessingException(file.getOriginalFilename(), "extract metadata", e);
-    }
-  }
-
   /**
    * Validate image file format and size.
    *
@@ -1686,31 +1159,6 @@ public class ImageServiceImpl {
     return "";
   }
 
-  /**
-   * Generate a unique filename to prevent overwrites during export. Format:
-   * {imageId}_{timestamp}_{originalFilename}
-   *
-   * @param imageId the image ID
-   * @param originalFilename the original filename
-   * @return unique filename
-   */
-  private String generateUniqueFilename(Long imageId, String originalFilename) {
-    if (originalFilename == null || originalFilename.isEmpty()) {
-      originalFilename = "image.jpg";
-    }
-
-    // Sanitize original filename (remove path separators and special chars)
-    String sanitized = originalFilename.replaceAll("[/\\\\:*?\"<>|]", "_");
-
-    // Generate unique filename: {imageId}_{timestamp}_{originalFilename}
-    String timestamp = String.valueOf(System.currentTimeMillis());
-    String uniqueFilename = imageId + "_" + timestamp + "_" + sanitized;
-
-    log.debug("Generated unique filename: {} from original: {}", uniqueFilename, originalFilename);
-
-    return uniqueFilename;
-  }
-
   /**
    * Batch set metadata for multiple images
    *
@@ -2007,12 +1455,15 @@ public class ImageServiceImpl {
 
     log.info("Batch deleting {} images", imageIds.size());
 
+    Set<Long> fileIds = new HashSet<>();
     for (Long imageId : imageIds) {
       try {
-        if (!imageRepository.existsById(imageId)) {
+        Optional<Image> image = imageRepository.findById(imageId);
+        if (image.isEmpty()) {
           log.warn("Image not found during batch delete: {}", imageId);
           continue;
         }
+        fileIds.add(image.get().getFileId());
 
         // Cascade delete associated data
         imageLabelRepository.deleteByImage_Id(imageId);
@@ -2020,8 +1471,9 @@ public class ImageServiceImpl {
         imageTagRepository.deleteByImage_Id(imageId);
         imageMetadataRepository.deleteByImage_Id(imageId);
 
-        // Delete the image record
+        // Delete the image record, the thumbnail row is removed by ON DELETE CASCADE
         imageRepository.deleteById(imageId);
+        thumbnailCache.evict(imageId);
 
         log.debug("Deleted image {} and all associated data", imageId);
       } catch (Exception e) {
@@ -2030,7 +1482,13 @@ public class ImageServiceImpl {
       }
     }
 
-    log.info("Batch delete complete for {} images", imageIds.size());
+    // Image files are shared by content; drop the ones no image or snapshot uses anymore
+    int releasedFiles = imageFileStore.release(fileIds);
+
+    log.info(
+        "Batch delete complete for {} images, released {} image files",
+        imageIds.size(),
+        releasedFiles);
     return ResponseEntity.noContent().build();
   }
 
@@ -2519,26 +1977,4 @@ public class ImageServiceImpl {
         return "image/jpeg"; // default fallback
     }
   }
-
-  /** Inner class to hold image metadata. */
-  private static class ImageMetadata {
-    public final int width;
-    public final int height;
-
-    public ImageMetadata(int width, int height) {
-      this.width = width;
-      this.height = height;
-    }
-  }
-
-  /** Inner class to hold thumbnail scale ratios. */
-  private static class ThumbnailRatios {
-    public final double widthRatio;
-    public final double heightRatio;
-
-    public ThumbnailRatios(double widthRatio, double heightRatio) {
-      this.widthRatio = widthRatio;
-      this.heightRatio = heightRatio;
-    }
-  }
 }
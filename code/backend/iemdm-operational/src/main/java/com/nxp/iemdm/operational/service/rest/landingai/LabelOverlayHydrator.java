@@ -0,0 +1,179 @@
+package com.nxp.iemdm.operational.service.rest.landingai;
+
+import com.nxp.iemdm.shared.dto.landingai.LabelOverlayDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loads the label overlays of a whole page of images at once. Ground truth labels and predictions
+ * are each fetched with a single {@code IN (...)} query that selects the overlay columns directly,
+ * so neither the label entities nor the {@code ProjectClass} entity graph are loaded and the number
+ * of queries per page does not depend on the page size.
+ */
+@Slf4j
+@Service
+public class LabelOverlayHydrator {
+
+  public static final String GROUND_TRUTH = "Ground Truth";
+  public static final String PREDICTION = "Prediction";
+
+  /** Upper bound of IDs bound into one IN list, well below the PostgreSQL parameter limit. */
+  private static final int MAX_IDS_PER_QUERY = 1000;
+
+  private static final String GROUND_TRUTH_QUERY =
+      "SELECT il.image.id, il.id, pc.id, pc.className, pc.colorCode, il.position, il.createdAt "
+          + "FROM ImageLabel il JOIN il.projectClass pc "
+          + "WHERE il.image.id IN :imageIds "
+          + "ORDER BY il.image.id, il.id";
+
+  private static final String PREDICTION_QUERY =
+      "SELECT pl.image.id, pl.id, pc.id, pc.className, pc.colorCode, pl.position, pl.createdAt, "
+          + "pl.confidenceRate "
+          + "FROM ImagePredictionLabel pl JOIN pl.projectClass pc "
+          + "WHERE pl.image.id IN :imageIds";
+
+  private static final String SNAPSHOT_QUERY =
+      "SELECT sl.imageId, sl.id, sl.classId, pc.className, pc.colorCode, sl.position, sl.createdAt "
+          + "FROM SnapshotImageLabel sl LEFT JOIN SnapshotProjectClass pc "
+          + "ON pc.id = sl.classId AND pc.snapshotId = sl.snapshotId "
+          + "WHERE sl.snapshotId = :snapshotId AND sl.imageId IN :imageIds "
+          + "ORDER BY sl.imageId, sl.id";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * Load the label overlays for a set of images.
+   *
+   * @param imageIds the image IDs of the page
+   * @param annotationType the annotation type filter (null for all, "Ground truth"/"Ground-Truth"
+   *     or "Prediction")
+   * @param modelId the model ID filter for predictions (null for predictions of all models)
+   * @return image ID to overlays (ground truth first, then predictions); images without labels are
+   *     absent from the map
+   */
+  public Map<Long, List<LabelOverlayDTO>> loadOverlays(
+      Collection<Long> imageIds, String annotationType, Long modelId) {
+    Map<Long, List<LabelOverlayDTO>> overlaysByImage = new HashMap<>();
+    if (imageIds == null || imageIds.isEmpty()) {
+      return overlaysByImage;
+    }
+
+    long start = System.currentTimeMillis();
+    int queries = 0;
+    List<List<Long>> batches = partition(imageIds);
+
+    if (includesGroundTruth(annotationType)) {
+      for (List<Long> batch : batches) {
+        TypedQuery<Object[]> query = entityManager.createQuery(GROUND_TRUTH_QUERY, Object[].class);
+        query.setParameter("imageIds", batch);
+        for (Object[] row : query.getResultList()) {
+          addOverlay(overlaysByImage, row, null, GROUND_TRUTH);
+        }
+        queries++;
+      }
+    }
+
+    if (includesPredictions(annotationType)) {
+      String jpql =
+          modelId != null
+              ? PREDICTION_QUERY + " AND pl.model.id = :modelId ORDER BY pl.image.id, pl.id"
+              : PREDICTION_QUERY + " ORDER BY pl.image.id, pl.id";
+      for (List<Long> batch : batches) {
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        query.setParameter("imageIds", batch);
+        if (modelId != null) {
+          query.setParameter("modelId", modelId);
+        }
+        for (Object[] row : query.getResultList()) {
+          addOverlay(overlaysByImage, row, (Integer) row[7], PREDICTION);
+        }
+        queries++;
+      }
+    }
+
+    log.debug(
+        "Hydrated label overlays for {} images with {} queries in {} ms",
+        imageIds.size(),
+        queries,
+        System.currentTimeMillis() - start);
+    return overlaysByImage;
+  }
+
+  /**
+   * Load the label overlays for a set of images of a snapshot. Snapshots only hold ground truth
+   * labels.
+   *
+   * @param snapshotId the snapshot ID
+   * @param imageIds the image IDs of the page
+   * @return image ID to overlays; images without labels are absent from the map
+   */
+  public Map<Long, List<LabelOverlayDTO>> loadSnapshotOverlays(
+      Long snapshotId, Collection<Long> imageIds) {
+    Map<Long, List<LabelOverlayDTO>> overlaysByImage = new HashMap<>();
+    if (imageIds == null || imageIds.isEmpty()) {
+      return overlaysByImage;
+    }
+
+    for (List<Long> batch : partition(imageIds)) {
+      TypedQuery<Object[]> query = entityManager.createQuery(SNAPSHOT_QUERY, Object[].class);
+      query.setParameter("snapshotId", snapshotId);
+      query.setParameter("imageIds", batch);
+      for (Object[] row : query.getResultList()) {
+        addOverlay(overlaysByImage, row, null, GROUND_TRUTH);
+      }
+    }
+    return overlaysByImage;
+  }
+
+  /**
+   * Whether ground truth labels are shown for the annotation type filter. Accepts both
+   * "Ground-Truth" (from frontend) and "Ground truth" for backwards compatibility.
+   */
+  public static boolean includesGroundTruth(String annotationType) {
+    return annotationType == null
+        || "Ground-Truth".equalsIgnoreCase(annotationType)
+        || "Ground truth".equalsIgnoreCase(annotationType);
+  }
+
+  /** Whether predictions are shown for the annotation type filter. */
+  public static boolean includesPredictions(String annotationType) {
+    return annotationType == null || PREDICTION.equalsIgnoreCase(annotationType);
+  }
+
+  private static void addOverlay(
+      Map<Long, List<LabelOverlayDTO>> overlaysByImage,
+      Object[] row,
+      Integer confidenceRate,
+      String annotationType) {
+    LabelOverlayDTO dto =
+        new LabelOverlayDTO(
+            (Long) row[1],
+            (Long) row[2],
+            (String) row[3],
+            (String) row[4],
+            (String) row[5],
+            confidenceRate,
+            annotationType,
+            (Instant) row[6]);
+    overlaysByImage.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(dto);
+  }
+
+  private static List<List<Long>> partition(Collection<Long> imageIds) {
+    List<Long> distinctIds = imageIds.stream().distinct().collect(Collectors.toList());
+    List<List<Long>> batches = new ArrayList<>();
+    for (int i = 0; i < distinctIds.size(); i += MAX_IDS_PER_QUERY) {
+      batches.add(distinctIds.subList(i, Math.min(i + MAX_IDS_PER_QUERY, distinctIds.size())));
+    }
+    return batches;
+  }
+}
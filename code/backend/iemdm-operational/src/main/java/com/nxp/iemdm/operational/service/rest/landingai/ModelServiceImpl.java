@@ -2,10 +2,13 @@ package com.nxp.iemdm.operational.service.rest.landingai;
 
 import com.nxp.iemdm.exception.NotFoundException;
 import com.nxp.iemdm.model.landingai.*;
+import com.nxp.iemdm.operational.service.landingai.ModelEvaluationService;
+import com.nxp.iemdm.operational.service.landingai.ThresholdSweep;
 import com.nxp.iemdm.shared.aop.annotations.MethodLog;
 import com.nxp.iemdm.shared.dto.landingai.GenerateModelRequest;
 import com.nxp.iemdm.shared.dto.landingai.GenerateModelResponse;
 import com.nxp.iemdm.shared.dto.landingai.ModelWithMetricsDto;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallPointDTO;
 import com.nxp.iemdm.shared.dto.landingai.RecalculatedMetrics;
 import com.nxp.iemdm.shared.repository.jpa.landingai.*;
 import jakarta.persistence.EntityManager;
@@ -40,6 +43,7 @@ public class ModelServiceImpl {
   private final SnapshotImageLabelRepository snapshotImageLabelRepository;
   private final LossChartRepository lossChartRepository;
   private final ValidationChartRepository validationChartRepository;
+  private final ModelEvaluationService modelEvaluationService;
   private final EntityManager entityManager;
 
   /**
@@ -276,6 +280,23 @@ public class ModelServiceImpl {
               .orElseThrow(
                   () -> new NotFoundException("Source model not found with ID: " + sourceModelId));
 
+      // 計算 threshold（從 0.0-0.99 轉換為 0-99）
+      int thresholdInt = (int) Math.round(request.getNewThreshold() * 100);
+
+      // 未提供 metrics 時由 server 依 snapshot 的 ground truth 計算
+      RecalculatedMetrics metrics = request.getRecalculatedMetrics();
+      if (metrics == null) {
+        Long sourceSnapshotId = sourceModel.getTrainingRecord().getSnapshotId();
+        if (sourceSnapshotId == null) {
+          throw new IllegalArgumentException(
+              "Recalculated metrics are required for models without a snapshot");
+        }
+        metrics = calculateMetrics(sourceModelId, sourceSnapshotId, thresholdInt);
+
+        // The evaluation clears the persistence context, so load the source model again
+        sourceModel = modelRepository.findById(sourceModelId).orElseThrow();
+      }
+
       // 2. 建�??��? Model（�?製�?位�??��? ID?�threshold?�metrics�?
       Model newModel = new Model();
       newModel.setProjectId(sourceModel.getProjectId());
@@ -290,10 +311,7 @@ public class ModelServiceImpl {
 
       // 設定新的 metrics（從 request 中取得重新計算的值）
       // 前端傳來的值是百分比格式 (0-100)，直接儲存到資料庫（與舊 model 格式一致）
-      RecalculatedMetrics metrics = request.getRecalculatedMetrics();
-
-      // Log 前端傳來的 metrics 數值（用於 debug）
-      log.info("Recalculated metrics from frontend:");
+      log.info("Recalculated metrics:");
       log.info(
           "  Train - F1: {}, Precision: {}, Recall: {}",
           metrics.getTrainF1(),
@@ -442,31 +460,13 @@ public class ModelServiceImpl {
       // 注意：需要複製所有 evaluation sets 的 prediction labels
       // 但只有 confidence rate >= 新 threshold 的 predictions 會被保留
       // 這樣新 Model 才能在所有 evaluation sets 中正確顯示混淆矩陣
-      List<ImagePredictionLabel> sourcePredictionLabels =
-          imagePredictionLabelRepository.findByModelId(sourceModelId);
-
-      // 計算 threshold（從 0.0-0.99 轉換為 0-99）
-      int thresholdInt = (int) Math.round(request.getNewThreshold() * 100);
-
-      int copiedPredictionCount = 0;
-      for (ImagePredictionLabel sourcePredictionLabel : sourcePredictionLabels) {
-        // 只複製 confidence rate >= threshold 的 prediction labels
-        if (sourcePredictionLabel.getConfidenceRate() >= thresholdInt) {
-          ImagePredictionLabel newPredictionLabel = new ImagePredictionLabel();
-          newPredictionLabel.setImage(sourcePredictionLabel.getImage());
-          newPredictionLabel.setProjectClass(sourcePredictionLabel.getProjectClass());
-          newPredictionLabel.setModel(savedModel); // 關聯到新的 Model
-          newPredictionLabel.setPosition(sourcePredictionLabel.getPosition());
-          newPredictionLabel.setConfidenceRate(sourcePredictionLabel.getConfidenceRate());
-          newPredictionLabel.setCreatedBy(sourcePredictionLabel.getCreatedBy());
-          imagePredictionLabelRepository.save(newPredictionLabel);
-          copiedPredictionCount++;
-        }
-      }
+      // 以單一 INSERT ... SELECT 複製，不需載入 prediction labels
+      int copiedPredictionCount =
+          imagePredictionLabelRepository.copyToModel(
+              sourceModelId, savedModel.getId(), thresholdInt);
       log.info(
-          "Copied {} ImagePredictionLabel records out of {} (filtered by threshold {})",
+          "Copied {} ImagePredictionLabel records (filtered by threshold {})",
           copiedPredictionCount,
-          sourcePredictionLabels.size(),
           request.getNewThreshold());
 
       // 6. 複製 la_loss_chart records（新 IDs + model association）
@@ -499,8 +499,7 @@ public class ModelServiceImpl {
       ConfidentialReport newConfidentialReport = new ConfidentialReport();
       newConfidentialReport.setModel(savedModel);
       // 從 Double threshold (0.00-0.99) 轉換為 Integer (0-99)
-      newConfidentialReport.setConfidenceThreshold(
-          (int) Math.round(request.getNewThreshold() * 100));
+      newConfidentialReport.setConfidenceThreshold(thresholdInt);
 
       // 設定 correct rate：前端傳來的 F1 rate 已經是百分比格式 (0-100)
       // 因為 correct rate 是前端 Model List 顯示的主要指標
@@ -540,12 +539,49 @@ public class ModelServiceImpl {
     } catch (NotFoundException e) {
       log.error("Model not found: {}", e.getMessage());
       return ResponseEntity.notFound().build();
+    } catch (IllegalArgumentException e) {
+      log.error("Invalid request: {}", e.getMessage());
+      return ResponseEntity.badRequest().build();
     } catch (Exception e) {
       log.error("Error generating model from source {}: {}", sourceModelId, e.getMessage(), e);
       return ResponseEntity.internalServerError().build();
     }
   }
 
+  /**
+   * Calculate the metrics of a model at a confidence threshold from the precision-recall sweep of
+   * every evaluation set.
+   */
+  private RecalculatedMetrics calculateMetrics(Long modelId, Long snapshotId, int threshold) {
+    int index = Math.max(0, Math.min(ThresholdSweep.THRESHOLDS - 1, threshold));
+    PrecisionRecallPointDTO train =
+        modelEvaluationService
+            .sweepThresholds(modelId, snapshotId, "training", null)
+            .getPoint(null, index);
+    PrecisionRecallPointDTO dev =
+        modelEvaluationService
+            .sweepThresholds(modelId, snapshotId, "dev", null)
+            .getPoint(null, index);
+    PrecisionRecallPointDTO test =
+        modelEvaluationService
+            .sweepThresholds(modelId, snapshotId, "test", null)
+            .getPoint(null, index);
+    return new RecalculatedMetrics(
+        rate(train.getF1()),
+        rate(train.getPrecision()),
+        rate(train.getRecall()),
+        rate(dev.getF1()),
+        rate(dev.getPrecision()),
+        rate(dev.getRecall()),
+        rate(test.getF1()),
+        rate(test.getPrecision()),
+        rate(test.getRecall()));
+  }
+
+  private static Double rate(Double value) {
+    return value != null ? value : 0.0;
+  }
+
   /**
    * Get all prediction labels for a model (包含 Image 的 split 資訊). Frontend 可根據 Image.split 欄位進行過濾中選擇
    * train/dev/test. Requirements: 26.5, 31.1, 35.3
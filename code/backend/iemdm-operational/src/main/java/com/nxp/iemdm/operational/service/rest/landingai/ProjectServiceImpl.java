@@ -5,6 +5,8 @@ import com.nxp.iemdm.exception.landingai.InvalidProjectTypeException;
 import com.nxp.iemdm.model.landingai.Image;
 import com.nxp.iemdm.model.landingai.Project;
 import com.nxp.iemdm.model.location.Location;
+import com.nxp.iemdm.operational.service.landingai.ImageFileStore;
+import com.nxp.iemdm.operational.service.landingai.ThumbnailCache;
 import com.nxp.iemdm.shared.aop.annotations.MethodLog;
 import com.nxp.iemdm.shared.dto.landingai.ProjectCreateRequest;
 import com.nxp.iemdm.shared.dto.landingai.ProjectDTO;
@@ -48,13 +50,21 @@ public class ProjectServiceImpl {
 
   private final ProjectRepository projectRepository;
   private final ImageRepository imageRepository;
+  private final ThumbnailCache thumbnailCache;
+  private final ImageFileStore imageFileStore;
 
   @PersistenceContext private EntityManager entityManager;
 
   @Autowired
-  public ProjectServiceImpl(ProjectRepository projectRepository, ImageRepository imageRepository) {
+  public ProjectServiceImpl(
+      ProjectRepository projectRepository,
+      ImageRepository imageRepository,
+      ThumbnailCache thumbnailCache,
+      ImageFileStore imageFileStore) {
     this.projectRepository = projectRepository;
     this.imageRepository = imageRepository;
+    this.thumbnailCache = thumbnailCache;
+    this.imageFileStore = imageFileStore;
   }
 
   /**
@@ -269,6 +279,10 @@ public class ProjectServiceImpl {
       imageRepository.deleteAll(images);
       // Flush to ensure images are deleted before project deletion
       entityManager.flush();
+
+      // Files shared with other projects or kept by snapshots stay in place
+      imageFileStore.release(images.stream().map(Image::getFileId).collect(Collectors.toSet()));
+      images.forEach(image -> thumbnailCache.evict(image.getId()));
     }
 
     // Delete project (cascade will handle related entities like ProjectClass, ProjectTag, etc.)
@@ -330,7 +344,7 @@ public class ProjectServiceImpl {
     Optional<Image> firstImage =
         imageRepository.findFirstByProject_IdOrderByCreatedAtAsc(project.getId());
     if (firstImage.isPresent()) {
-      thumbnail = firstImage.get().getThumbnailImage();
+      thumbnail = thumbnailCache.get(firstImage.get().getId());
     }
 
     // Convert counts to Integer, defaulting to 0 if null
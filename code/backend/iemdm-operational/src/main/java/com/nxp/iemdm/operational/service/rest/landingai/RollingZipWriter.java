@@ -0,0 +1,187 @@
+package com.nxp.iemdm.operational.service.rest.landingai;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes a dataset as a series of self-contained ZIP volumes in a single pass. A new volume is
+ * started at an entry boundary when the next entry would push the current one past the byte
+ * budget, so every volume is a valid archive and extracting all of them into one directory yields
+ * the whole dataset. Nothing is re-read from disk and no oversized intermediate archive is written.
+ *
+ * <p>Volumes are named {@code <baseName>_1.zip}, {@code <baseName>_2.zip}, ...; a dataset that fits
+ * into one volume is renamed to {@code <baseName>.zip}. Each volume except the last is handed to
+ * the volume listener as soon as it is closed, so it can be uploaded while the next one is being
+ * written.
+ *
+ * <p>{@link #write} is thread safe. Build entries with {@link DatasetZipEntries} before calling it,
+ * so the synchronized section only copies bytes.
+ */
+@Slf4j
+public class RollingZipWriter implements Closeable {
+
+  /** Local file header plus ZIP64 extra field, without the name */
+  private static final int LOCAL_HEADER_SIZE = 30 + 20;
+
+  /** Data descriptor written after DEFLATED entries (ZIP64 sized) */
+  private static final int DATA_DESCRIPTOR_SIZE = 24;
+
+  /** Central directory record plus ZIP64 extra field, without the name */
+  private static final int CENTRAL_HEADER_SIZE = 46 + 28;
+
+  /** End of central directory records including the ZIP64 variants */
+  private static final int END_RECORDS_SIZE = 22 + 56 + 20;
+
+  private final Path baseDir;
+  private final String baseName;
+  private final long maxVolumeBytes;
+  private final Consumer<Path> volumeListener;
+  private final List<Path> volumes = new ArrayList<>();
+
+  private ZipOutputStream zos;
+  private CountingOutputStream counter;
+  private long centralDirectoryBytes;
+  private int entriesInVolume;
+  private boolean finished;
+
+  /**
+   * @param baseDir the directory the volumes are written to
+   * @param baseName the volume name without suffix, usually the training track ID
+   * @param maxVolumeBytes the byte budget of one volume; an entry larger than the budget gets a
+   *     volume of its own
+   * @param volumeListener called with every volume that is closed before the last one (may be
+   *     null)
+   */
+  public RollingZipWriter(
+      Path baseDir, String baseName, long maxVolumeBytes, Consumer<Path> volumeListener) {
+    this.baseDir = baseDir;
+    this.baseName = baseName;
+    this.maxVolumeBytes = maxVolumeBytes;
+    this.volumeListener = volumeListener;
+  }
+
+  /**
+   * Append one entry, starting a new volume first if the entry does not fit into the current one.
+   *
+   * @param entry the entry, STORED entries must have size and CRC set
+   * @param data the entry content
+   * @throws IOException if writing fails
+   */
+  public synchronized void write(ZipEntry entry, byte[] data) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("Writer is already finished");
+    }
+
+    int nameLength = entry.getName().length() * 3; // worst case UTF-8
+    long entryBytes = LOCAL_HEADER_SIZE + nameLength + data.length + DATA_DESCRIPTOR_SIZE;
+    long directoryBytes = CENTRAL_HEADER_SIZE + nameLength;
+
+    if (zos == null) {
+      openVolume();
+    } else if (entriesInVolume > 0
+        && counter.count + entryBytes + centralDirectoryBytes + directoryBytes + END_RECORDS_SIZE
+            > maxVolumeBytes) {
+      closeVolume(true);
+      openVolume();
+    }
+
+    zos.putNextEntry(entry);
+    zos.write(data);
+    zos.closeEntry();
+    centralDirectoryBytes += directoryBytes;
+    entriesInVolume++;
+  }
+
+  /**
+   * Close the last volume and return all volumes in order. A single volume is renamed to {@code
+   * <baseName>.zip}.
+   *
+   * @return paths of the written volumes
+   * @throws IOException if closing or renaming fails
+   */
+  public synchronized List<Path> finish() throws IOException {
+    if (finished) {
+      return volumes;
+    }
+    if (zos == null) {
+      openVolume(); // empty dataset: still produce one valid archive
+    }
+    closeVolume(false);
+    finished = true;
+
+    if (volumes.size() == 1) {
+      Path single = baseDir.resolve(baseName + ".zip");
+      Files.move(volumes.get(0), single, StandardCopyOption.REPLACE_EXISTING);
+      volumes.set(0, single);
+    }
+    log.info("Wrote dataset {} as {} volume(s)", baseName, volumes.size());
+    return volumes;
+  }
+
+  /** Close the open volume without notifying the listener, e.g. after a failure. */
+  @Override
+  public synchronized void close() throws IOException {
+    if (zos != null) {
+      zos.close();
+      zos = null;
+    }
+    finished = true;
+  }
+
+  private void openVolume() throws IOException {
+    Path volume = baseDir.resolve(baseName + "_" + (volumes.size() + 1) + ".zip");
+    counter =
+        new CountingOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(volume), 64 * 1024));
+    zos = new ZipOutputStream(counter);
+    zos.setLevel(Deflater.BEST_SPEED);
+    volumes.add(volume);
+    centralDirectoryBytes = 0;
+    entriesInVolume = 0;
+  }
+
+  private void closeVolume(boolean notify) throws IOException {
+    zos.close();
+    zos = null;
+    Path volume = volumes.get(volumes.size() - 1);
+    log.info(
+        "Closed dataset volume {} ({} entries, {} bytes)", volume, entriesInVolume, counter.count);
+    if (notify && volumeListener != null) {
+      volumeListener.accept(volume);
+    }
+  }
+
+  /** Counts the bytes the ZIP stream has written so far. */
+  private static class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
+}
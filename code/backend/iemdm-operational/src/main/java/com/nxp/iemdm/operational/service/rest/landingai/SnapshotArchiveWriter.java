@@ -0,0 +1,261 @@
+package com.nxp.iemdm.operational.service.rest.landingai;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nxp.iemdm.model.landingai.Snapshot;
+import com.nxp.iemdm.model.landingai.SnapshotImageLabel;
+import com.nxp.iemdm.model.landingai.SnapshotImageMetadata;
+import com.nxp.iemdm.model.landingai.SnapshotImageTag;
+import com.nxp.iemdm.operational.service.landingai.ImageFileStore;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageLabelRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageMetadataRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotImageTagRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotProjectClassRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotProjectMetadataRepository;
+import com.nxp.iemdm.shared.repository.jpa.landingai.SnapshotProjectTagRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the dataset archive of a snapshot (images with their labels, tags and metadata) as a ZIP
+ * stream. Images are read in ID order in batches, annotations.json is written with a streaming JSON
+ * generator and the image files of a batch are fetched with one batch read, so the first bytes are
+ * sent right away. Image data and annotations in memory are bounded by the batch size; only the
+ * file names already written are kept for the whole snapshot, to skip duplicate names. Run inside
+ * a read-only transaction.
+ */
+@Slf4j
+@Component
+public class SnapshotArchiveWriter {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final SnapshotImageRepository snapshotImageRepository;
+  private final SnapshotImageLabelRepository snapshotImageLabelRepository;
+  private final SnapshotImageTagRepository snapshotImageTagRepository;
+  private final SnapshotImageMetadataRepository snapshotImageMetadataRepository;
+  private final SnapshotProjectClassRepository snapshotProjectClassRepository;
+  private final SnapshotProjectTagRepository snapshotProjectTagRepository;
+  private final SnapshotProjectMetadataRepository snapshotProjectMetadataRepository;
+  private final ImageFileStore imageFileStore;
+  private final int batchSize;
+  private final ObjectMapper mapper;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Autowired
+  public SnapshotArchiveWriter(
+      SnapshotImageRepository snapshotImageRepository,
+      SnapshotImageLabelRepository snapshotImageLabelRepository,
+      SnapshotImageTagRepository snapshotImageTagRepository,
+      SnapshotImageMetadataRepository snapshotImageMetadataRepository,
+      SnapshotProjectClassRepository snapshotProjectClassRepository,
+      SnapshotProjectTagRepository snapshotProjectTagRepository,
+      SnapshotProjectMetadataRepository snapshotProjectMetadataRepository,
+      ImageFileStore imageFileStore,
+      @Value("${landingai.snapshot.download.batch-size:100}") int batchSize) {
+    this.snapshotImageRepository = snapshotImageRepository;
+    this.snapshotImageLabelRepository = snapshotImageLabelRepository;
+    this.snapshotImageTagRepository = snapshotImageTagRepository;
+    this.snapshotImageMetadataRepository = snapshotImageMetadataRepository;
+    this.snapshotProjectClassRepository = snapshotProjectClassRepository;
+    this.snapshotProjectTagRepository = snapshotProjectTagRepository;
+    this.snapshotProjectMetadataRepository = snapshotProjectMetadataRepository;
+    this.imageFileStore = imageFileStore;
+    this.batchSize = Math.max(1, batchSize);
+
+    this.mapper = new ObjectMapper();
+    this.mapper.registerModule(new JavaTimeModule());
+    this.mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    // Entries are written to the shared ZIP stream, which must stay open between them
+    this.mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Write the dataset archive of a snapshot. The output stream is finished but not closed.
+   *
+   * @param snapshot the snapshot
+   * @param out the stream to write the ZIP archive to
+   * @return number of images in the archive
+   * @throws IOException if writing to the stream fails
+   */
+  public long write(Snapshot snapshot, OutputStream out) throws IOException {
+    Long snapshotId = snapshot.getId();
+    BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+    ZipOutputStream zos = new ZipOutputStream(buffered);
+    // Fast compression for JSON; images are STORED, see DatasetZipEntries
+    zos.setLevel(Deflater.BEST_SPEED);
+
+    writeJson(zos, "metadata.json", snapshotInfo(snapshot));
+    writeJson(zos, "classes.json", snapshotProjectClassRepository.findBySnapshotId(snapshotId));
+    writeJson(zos, "tags.json", snapshotProjectTagRepository.findBySnapshotId(snapshotId));
+    writeJson(
+        zos,
+        "project_metadata.json",
+        snapshotProjectMetadataRepository.findBySnapshotId(snapshotId));
+
+    writeAnnotations(zos, snapshotId);
+    long images = writeImages(zos, snapshotId);
+
+    zos.finish();
+    buffered.flush();
+    return images;
+  }
+
+  private Map<String, Object> snapshotInfo(Snapshot snapshot) {
+    Map<String, Object> info = new LinkedHashMap<>();
+    info.put("snapshotId", snapshot.getId());
+    info.put("snapshotName", snapshot.getSnapshotName());
+    info.put("description", snapshot.getDescription());
+    info.put("createdAt", snapshot.getCreatedAt());
+    info.put("createdBy", snapshot.getCreatedBy());
+    info.put("projectId", snapshot.getProject().getId());
+    info.put("projectName", snapshot.getProject().getName());
+    info.put("projectType", snapshot.getProject().getType());
+    info.put("imageCount", snapshotImageRepository.countBySnapshotId(snapshot.getId()));
+    info.put("classCount", snapshotProjectClassRepository.countBySnapshotId(snapshot.getId()));
+    return info;
+  }
+
+  private void writeJson(ZipOutputStream zos, String name, Object value) throws IOException {
+    zos.putNextEntry(new ZipEntry(name));
+    mapper.writerWithDefaultPrettyPrinter().writeValue(zos, value);
+    zos.closeEntry();
+  }
+
+  /**
+   * Write annotations.json: one object per image with its labels, tags and metadata. The labels,
+   * tags and metadata of a batch are loaded with one query each and grouped by image.
+   */
+  private void writeAnnotations(ZipOutputStream zos, Long snapshotId) throws IOException {
+    zos.putNextEntry(new ZipEntry("annotations.json"));
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(zos)) {
+      generator.useDefaultPrettyPrinter();
+      generator.writeStartArray();
+
+      long afterId = 0;
+      List<Object[]> rows;
+      while (!(rows = nextBatch(snapshotId, afterId)).isEmpty()) {
+        List<Long> imageIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+          imageIds.add((Long) row[0]);
+        }
+
+        Map<Long, List<SnapshotImageLabel>> labels =
+            groupByImage(
+                snapshotImageLabelRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds),
+                SnapshotImageLabel::getImageId);
+        Map<Long, List<SnapshotImageTag>> tags =
+            groupByImage(
+                snapshotImageTagRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds),
+                SnapshotImageTag::getImageId);
+        Map<Long, List<SnapshotImageMetadata>> metadata =
+            groupByImage(
+                snapshotImageMetadataRepository.findBySnapshotIdAndImageIdIn(snapshotId, imageIds),
+                SnapshotImageMetadata::getImageId);
+
+        for (Object[] row : rows) {
+          Long imageId = (Long) row[0];
+          generator.writeStartObject();
+          generator.writeObjectField("id", imageId);
+          generator.writeObjectField("fileName", row[1]);
+          generator.writeObjectField("fileSize", row[2]);
+          generator.writeObjectField("width", row[3]);
+          generator.writeObjectField("height", row[4]);
+          generator.writeObjectField("split", row[5]);
+          generator.writeObjectField("isNoClass", row[6]);
+          generator.writeObjectField("isLabeled", row[7]);
+          generator.writeObjectField(
+              "labels", labels.getOrDefault(imageId, Collections.emptyList()));
+          generator.writeObjectField("tags", tags.getOrDefault(imageId, Collections.emptyList()));
+          generator.writeObjectField(
+              "metadata", metadata.getOrDefault(imageId, Collections.emptyList()));
+          generator.writeEndObject();
+        }
+
+        afterId = imageIds.get(imageIds.size() - 1);
+        // The loaded labels are not needed anymore; keep the persistence context small
+        entityManager.clear();
+      }
+
+      generator.writeEndArray();
+    }
+    zos.closeEntry();
+  }
+
+  /**
+   * Write the image files under images/. The files of a batch are read with one batch read and
+   * written in image ID order; images sharing a file name are written once.
+   */
+  private long writeImages(ZipOutputStream zos, Long snapshotId) throws IOException {
+    Set<String> written = new HashSet<>();
+    long count = 0;
+
+    long afterId = 0;
+    List<Object[]> rows;
+    while (!(rows = nextBatch(snapshotId, afterId)).isEmpty()) {
+      List<Long> fileIds = new ArrayList<>(rows.size());
+      for (Object[] row : rows) {
+        if (row[8] != null) {
+          fileIds.add((Long) row[8]);
+        }
+      }
+      Map<Long, byte[]> contents = imageFileStore.readAll(fileIds);
+
+      for (Object[] row : rows) {
+        byte[] content = row[8] != null ? contents.get((Long) row[8]) : null;
+        if (content == null) {
+          continue;
+        }
+        String path = "images/" + row[1];
+        if (!written.add(path)) {
+          log.warn("Skipping duplicate file name {} in snapshot {}", path, snapshotId);
+          continue;
+        }
+        zos.putNextEntry(DatasetZipEntries.forContent(path, content));
+        zos.write(content);
+        zos.closeEntry();
+        count++;
+      }
+
+      afterId = (Long) rows.get(rows.size() - 1)[0];
+    }
+    return count;
+  }
+
+  private List<Object[]> nextBatch(Long snapshotId, long afterId) {
+    return snapshotImageRepository.findArchiveRowsBySnapshotIdAfter(
+        snapshotId, afterId, PageRequest.of(0, batchSize));
+  }
+
+  private static <T> Map<Long, List<T>> groupByImage(List<T> rows, Function<T, Long> imageIdOf) {
+    Map<Long, List<T>> byImage = new HashMap<>();
+    for (T row : rows) {
+      byImage.computeIfAbsent(imageIdOf.apply(row), id -> new ArrayList<>()).add(row);
+    }
+    return byImage;
+  }
+}
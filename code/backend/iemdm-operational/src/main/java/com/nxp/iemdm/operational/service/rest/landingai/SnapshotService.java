@@ -1,10 +1,12 @@
 package com.nxp.iemdm.operational.service.rest.landingai;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.nxp.iemdm.model.landingai.*;
+import com.nxp.iemdm.operational.service.landingai.ImageFileStore;
 import com.nxp.iemdm.shared.dto.landingai.CreateProjectFromSnapshotRequest;
+import com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest;
+import com.nxp.iemdm.shared.dto.landingai.ImageListItemDTO;
+import com.nxp.iemdm.shared.dto.landingai.LabelOverlayDTO;
+import com.nxp.iemdm.shared.dto.landingai.PaginatedResponse;
 import com.nxp.iemdm.shared.dto.landingai.ProjectDTO;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotCreateRequest;
 import com.nxp.iemdm.shared.dto.landingai.SnapshotDTO;
@@ -16,16 +18,16 @@ import com.nxp.iemdm.shared.exception.landingai.SnapshotRevertException;
 import com.nxp.iemdm.shared.repository.jpa.landingai.*;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import java.io.ByteArrayOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -44,7 +46,7 @@ public class SnapshotService {
   private final ImageLabelRepository imageLabelRepository;
   private final ImageTagRepository imageTagRepository;
   private final ImageMetadataRepository imageMetadataRepository;
-  private final ImageFileRepository imageFileRepository;
+  private final ImageFileStore imageFileStore;
   private final ProjectClassRepository projectClassRepository;
   private final ProjectTagRepository projectTagRepository;
   private final ProjectSplitRepository projectSplitRepository;
@@ -52,16 +54,18 @@ public class SnapshotService {
 
   // Snapshot data repositories
   private final SnapshotImageRepository snapshotImageRepository;
-  private final SnapshotImageLabelRepository snapshotImageLabelRepository;
-  private final SnapshotImageTagRepository snapshotImageTagRepository;
-  private final SnapshotImageMetadataRepository snapshotImageMetadataRepository;
   private final SnapshotProjectClassRepository snapshotProjectClassRepository;
   private final SnapshotProjectTagRepository snapshotProjectTagRepository;
   private final SnapshotProjectSplitRepository snapshotProjectSplitRepository;
   private final SnapshotProjectMetadataRepository snapshotProjectMetadataRepository;
 
-  // Export service
+  // Export services
   private final DatasetExportService datasetExportService;
+  private final SnapshotArchiveWriter snapshotArchiveWriter;
+
+  // Image browsing shared with the live image list
+  private final ImageQueryBuilder imageQueryBuilder;
+  private final LabelOverlayHydrator labelOverlayHydrator;
 
   /**
    * Create a new snapshot for a project. Note: The database trigger tgf_do_snapshot automatically
@@ -128,13 +132,22 @@ public class SnapshotService {
   public void deleteSnapshot(
       @PathVariable("id") Long snapshotId, @RequestParam("userId") String userId) {
     log.info("Deleting snapshot with ID: {} by user: {}", snapshotId, userId);
-    if (!snapshotRepository.existsById(snapshotId)) {
-      throw new SnapshotNotFoundException(snapshotId);
-    }
+    Snapshot snapshot =
+        snapshotRepository
+            .findById(snapshotId)
+            .orElseThrow(() -> new SnapshotNotFoundException(snapshotId));
+    Long projectId = snapshot.getProject().getId();
+    List<Long> fileIds = snapshotImageRepository.findFileIdsBySnapshotId(snapshotId);
     // Delete snapshot data from _ss tables first
     deleteSnapshotData(snapshotId);
     // Delete the snapshot record
-    snapshotRepository.deleteById(snapshotId);
+    snapshotRepository.delete(snapshot);
+    snapshotRepository.flush();
+    // Image data versions are shared between snapshots, drop those no other snapshot can see
+    int purged = snapshotImageRepository.purgeUnusedVersions(projectId);
+    log.debug("Purged {} snapshot versions of project {}", purged, projectId);
+    // Drop image files that were only kept alive by this snapshot
+    imageFileStore.release(fileIds);
     log.info("Snapshot deleted with ID: {}", snapshotId);
   }
 
@@ -173,19 +186,21 @@ public class SnapshotService {
    * @param page the page number (0-indexed)
    * @param size the page size
    * @param sortBy the sort method
+   * @param cursor keyset cursor from the previous page's nextCursor; when set, the page number is
+   *     ignored and the page continues right after the cursor row
    * @param filterRequest the filter criteria (optional)
    * @return paginated response with image list items
    */
   @GetMapping("/{snapshotId}/images")
   @Transactional(readOnly = true)
-  public Map<String, Object> getSnapshotImages(
+  public PaginatedResponse<ImageListItemDTO> getSnapshotImages(
       @PathVariable("snapshotId") Long snapshotId,
       @RequestParam(value = "page", defaultValue = "0") int page,
       @RequestParam(value = "size", defaultValue = "20") int size,
       @RequestParam(value = "sortBy", defaultValue = "upload_time_desc") String sortBy,
-      @RequestBody(required = false)
-          com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest filterRequest) {
-    return getSnapshotImagesInternal(snapshotId, page, size, sortBy, filterRequest);
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestBody(required = false) ImageFilterRequest filterRequest) {
+    return getSnapshotImagesInternal(snapshotId, page, size, sortBy, cursor, filterRequest);
   }
 
   /**
@@ -199,31 +214,49 @@ public class SnapshotService {
    * @param page the page number (0-indexed)
    * @param size the page size
    * @param sortBy the sort method
+   * @param cursor keyset cursor from the previous page's nextCursor (optional)
    * @param filterRequest the filter criteria (optional, sent in request body)
    * @return paginated response with image list items
    */
   @PostMapping("/{snapshotId}/images/search")
   @Transactional(readOnly = true)
-  public Map<String, Object> getSnapshotImagesPost(
+  public PaginatedResponse<ImageListItemDTO> getSnapshotImagesPost(
       @PathVariable("snapshotId") Long snapshotId,
       @RequestParam(value = "page", defaultValue = "0") int page,
       @RequestParam(value = "size", defaultValue = "20") int size,
       @RequestParam(value = "sortBy", defaultValue = "upload_time_desc") String sortBy,
-      @RequestBody(required = false)
-          com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest filterRequest) {
-    return getSnapshotImagesInternal(snapshotId, page, size, sortBy, filterRequest);
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestBody(required = false) ImageFilterRequest filterRequest) {
+    return getSnapshotImagesInternal(snapshotId, page, size, sortBy, cursor, filterRequest);
+  }
+
+  /**
+   * Get the thumbnail of a snapshot image as it was when the snapshot was taken.
+   *
+   * @param snapshotId the snapshot ID
+   * @param imageId the image ID
+   * @return the thumbnail bytes, or null if the image has no thumbnail
+   */
+  @GetMapping("/{snapshotId}/images/{imageId}/thumbnail")
+  @Transactional(readOnly = true)
+  public byte[] getSnapshotImageThumbnail(
+      @PathVariable("snapshotId") Long snapshotId, @PathVariable("imageId") Long imageId) {
+    return snapshotImageRepository.findThumbnail(snapshotId, imageId).orElse(null);
   }
 
   /**
    * Internal method to get snapshot images with filtering and sorting. Shared by both GET and POST
-   * endpoints.
+   * endpoints. Filtering, sorting and paging run in the database through {@link
+   * ImageQueryBuilder}, like the live image list; only the rows and labels of the page are loaded
+   * and thumbnails are left to the thumbnail endpoint.
    */
-  private Map<String, Object> getSnapshotImagesInternal(
+  private PaginatedResponse<ImageListItemDTO> getSnapshotImagesInternal(
       Long snapshotId,
       int page,
       int size,
       String sortBy,
-      com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest filterRequest) {
+      String cursor,
+      ImageFilterRequest filterRequest) {
     log.info(
         "Getting images for snapshot ID: {} (page: {}, size: {}, sortBy: {}, filters: {})",
         snapshotId,
@@ -237,326 +270,72 @@ public class SnapshotService {
       throw new SnapshotNotFoundException(snapshotId);
     }
 
-    // Get all snapshot images from _ss table
-    List<SnapshotImage> snapshotImages = snapshotImageRepository.findBySnapshotId(snapshotId);
-    log.info("Found {} images for snapshot ID: {}", snapshotImages.size(), snapshotId);
-
-    // Load all labels for this snapshot once (performance optimization)
-    List<SnapshotImageLabel> allSnapshotLabels =
-        snapshotImageLabelRepository.findBySnapshotId(snapshotId);
-    log.info("Found {} labels for snapshot ID: {}", allSnapshotLabels.size(), snapshotId);
-
-    // Load all tags for this snapshot once
-    List<SnapshotImageTag> allSnapshotTags =
-        snapshotImageTagRepository.findBySnapshotId(snapshotId);
-    log.info("Found {} image tags for snapshot ID: {}", allSnapshotTags.size(), snapshotId);
-
-    // Load all metadata for this snapshot once
-    List<SnapshotImageMetadata> allSnapshotMetadata =
-        snapshotImageMetadataRepository.findBySnapshotId(snapshotId);
-    log.info("Found {} image metadata for snapshot ID: {}", allSnapshotMetadata.size(), snapshotId);
+    ImageQueryBuilder.ImageIdPage idPage =
+        imageQueryBuilder.querySnapshotPage(snapshotId, filterRequest, sortBy, page, size, cursor);
 
-    // Load all classes for this snapshot to enrich labels with class info
-    List<SnapshotProjectClass> allSnapshotClasses =
-        snapshotProjectClassRepository.findBySnapshotId(snapshotId);
-    log.info("Found {} classes for snapshot ID: {}", allSnapshotClasses.size(), snapshotId);
-
-    // Group labels, tags, and metadata by image ID for efficient lookup
-    Map<Long, List<SnapshotImageLabel>> labelsByImageId =
-        allSnapshotLabels.stream().collect(Collectors.groupingBy(SnapshotImageLabel::getImageId));
-    Map<Long, List<SnapshotImageTag>> tagsByImageId =
-        allSnapshotTags.stream().collect(Collectors.groupingBy(SnapshotImageTag::getImageId));
-    Map<Long, List<SnapshotImageMetadata>> metadataByImageId =
-        allSnapshotMetadata.stream()
-            .collect(Collectors.groupingBy(SnapshotImageMetadata::getImageId));
-
-    // Create a map of class ID to class info for efficient lookup
-    Map<Long, SnapshotProjectClass> classesById =
-        allSnapshotClasses.stream().collect(Collectors.toMap(SnapshotProjectClass::getId, c -> c));
-
-    // Convert to DTOs with thumbnail, labels, tags, and metadata
-    List<Map<String, Object>> imageDTOs = new ArrayList<>();
-    for (SnapshotImage snapshotImage : snapshotImages) {
-      Map<String, Object> imageDTO = new HashMap<>();
-      imageDTO.put("id", snapshotImage.getId());
-      imageDTO.put("fileName", snapshotImage.getFileName());
-      imageDTO.put("fileSize", snapshotImage.getFileSize());
-      imageDTO.put("width", snapshotImage.getWidth());
-      imageDTO.put("height", snapshotImage.getHeight());
-      imageDTO.put("split", snapshotImage.getSplit());
-      imageDTO.put("isLabeled", snapshotImage.getIsLabeled());
-      imageDTO.put("isNoClass", snapshotImage.getIsNoClass());
-      imageDTO.put("createdAt", snapshotImage.getCreatedAt());
-
-      // Include thumbnail image data
-      imageDTO.put("thumbnailImage", snapshotImage.getThumbnailImage());
-      imageDTO.put("thumbnailWidthRatio", snapshotImage.getThumbnailWidthRatio());
-      imageDTO.put("thumbnailHeightRatio", snapshotImage.getThumbnailHeightRatio());
-
-      // Get labels for this specific image from the grouped map
-      List<SnapshotImageLabel> snapshotLabels =
-          labelsByImageId.getOrDefault(snapshotImage.getId(), Collections.emptyList());
-
-      List<Map<String, Object>> labels = new ArrayList<>();
-      for (SnapshotImageLabel label : snapshotLabels) {
-        Map<String, Object> labelDTO = new HashMap<>();
-        labelDTO.put("id", label.getId());
-        labelDTO.put("classId", label.getClassId());
-        labelDTO.put("position", label.getPosition());
-
-        // Enrich with class information from snapshot classes
-        SnapshotProjectClass projectClass = classesById.get(label.getClassId());
-        if (projectClass != null) {
-          labelDTO.put("className", projectClass.getClassName());
-          labelDTO.put("colorCode", projectClass.getColorCode());
-        }
-
-        labels.add(labelDTO);
-      }
-      imageDTO.put("labels", labels);
-      imageDTO.put("labelCount", labels.size());
-
-      // Get tags for this specific image
-      List<SnapshotImageTag> snapshotImageTags =
-          tagsByImageId.getOrDefault(snapshotImage.getId(), Collections.emptyList());
-
-      List<Map<String, Object>> tags = new ArrayList<>();
-      for (SnapshotImageTag tag : snapshotImageTags) {
-        Map<String, Object> tagDTO = new HashMap<>();
-        tagDTO.put("id", tag.getId());
-        tagDTO.put("tagId", tag.getTagId());
-        tags.add(tagDTO);
-      }
-      imageDTO.put("tags", tags);
-
-      // Get metadata for this specific image
-      List<SnapshotImageMetadata> snapshotImageMetadata =
-          metadataByImageId.getOrDefault(snapshotImage.getId(), Collections.emptyList());
-
-      List<Map<String, Object>> metadata = new ArrayList<>();
-      for (SnapshotImageMetadata meta : snapshotImageMetadata) {
-        Map<String, Object> metaDTO = new HashMap<>();
-        metaDTO.put("id", meta.getId());
-        metaDTO.put("metadataId", meta.getMetadataId());
-        metaDTO.put("value", meta.getValue());
-        metadata.add(metaDTO);
+    Map<Long, Object[]> rowsById = new HashMap<>();
+    if (!idPage.imageIds.isEmpty()) {
+      for (Object[] row :
+          snapshotImageRepository.findListItemsBySnapshotIdAndIdIn(snapshotId, idPage.imageIds)) {
+        rowsById.put((Long) row[0], row);
       }
-      imageDTO.put("metadata", metadata);
-
-      imageDTOs.add(imageDTO);
     }
-
-    // Apply filters if provided
-    if (filterRequest != null && filterRequest.hasFilters()) {
-      imageDTOs = applyFilters(imageDTOs, filterRequest);
-      log.info("After filtering: {} images remain", imageDTOs.size());
+    Map<Long, List<LabelOverlayDTO>> overlaysByImage =
+        labelOverlayHydrator.loadSnapshotOverlays(snapshotId, idPage.imageIds);
+
+    // Keep the database order
+    List<ImageListItemDTO> content = new ArrayList<>(idPage.imageIds.size());
+    for (Long imageId : idPage.imageIds) {
+      Object[] row = rowsById.get(imageId);
+      if (row != null) {
+        content.add(
+            convertToImageListItemDTO(
+                row, overlaysByImage.getOrDefault(imageId, Collections.emptyList())));
+      }
     }
 
-    // Apply sorting
-    imageDTOs.sort(
-        (a, b) -> {
-          switch (sortBy) {
-            case "upload_time_desc":
-              return ((java.time.Instant) b.get("createdAt"))
-                  .compareTo((java.time.Instant) a.get("createdAt"));
-            case "upload_time_asc":
-              return ((java.time.Instant) a.get("createdAt"))
-                  .compareTo((java.time.Instant) b.get("createdAt"));
-            case "label_time_desc":
-              // TODO: Implement label time sorting when labels are loaded
-              return ((java.time.Instant) b.get("createdAt"))
-                  .compareTo((java.time.Instant) a.get("createdAt"));
-            case "label_time_asc":
-              // TODO: Implement label time sorting when labels are loaded
-              return ((java.time.Instant) a.get("createdAt"))
-                  .compareTo((java.time.Instant) b.get("createdAt"));
-            case "name_asc":
-              return ((String) a.get("fileName")).compareToIgnoreCase((String) b.get("fileName"));
-            case "name_desc":
-              return ((String) b.get("fileName")).compareToIgnoreCase((String) a.get("fileName"));
-            default:
-              return ((java.time.Instant) b.get("createdAt"))
-                  .compareTo((java.time.Instant) a.get("createdAt"));
-          }
-        });
-
-    // Apply pagination
-    int totalElements = imageDTOs.size();
+    long totalElements = idPage.totalElements;
     int totalPages = (int) Math.ceil((double) totalElements / size);
-    int startIndex = page * size;
-    int endIndex = Math.min(startIndex + size, totalElements);
-
-    List<Map<String, Object>> pageContent = imageDTOs.subList(startIndex, endIndex);
 
     // Build paginated response
-    Map<String, Object> response = new HashMap<>();
-    response.put("content", pageContent);
-    response.put("page", page);
-    response.put("size", size);
-    response.put("totalElements", totalElements);
-    response.put("totalPages", totalPages);
-    response.put("first", page == 0);
-    response.put("last", page >= totalPages - 1);
+    PaginatedResponse<ImageListItemDTO> response = new PaginatedResponse<>();
+    response.setContent(content);
+    response.setPage(page);
+    response.setSize(size);
+    response.setTotalElements(totalElements);
+    response.setTotalPages(totalPages);
+    response.setFirst(page == 0 && (cursor == null || cursor.isEmpty()));
+    response.setLast(!idPage.hasNext);
+    response.setNextCursor(idPage.nextCursor);
 
+    log.info(
+        "Returning {} images for snapshot {}, total elements: {}",
+        content.size(),
+        snapshotId,
+        totalElements);
     return response;
   }
 
   /**
-   * Apply filters to snapshot image DTOs Filters images based on various criteria like media
-   * status, labels, split, tags, etc.
-   *
-   * @param imageDTOs the list of image DTOs to filter
-   * @param filterRequest the filter criteria
-   * @return filtered list of image DTOs
+   * Convert a snapshot image row (see {@link
+   * SnapshotImageRepository#findListItemsBySnapshotIdAndIdIn}) to a list item without thumbnail.
    */
-  private List<Map<String, Object>> applyFilters(
-      List<Map<String, Object>> imageDTOs,
-      com.nxp.iemdm.shared.dto.landingai.ImageFilterRequest filterRequest) {
-
-    return imageDTOs.stream()
-        .filter(
-            imageDTO -> {
-              // Filter by media status (labeled/unlabeled)
-              if (filterRequest.getMediaStatus() != null
-                  && !filterRequest.getMediaStatus().isEmpty()) {
-                Boolean isLabeled = (Boolean) imageDTO.get("isLabeled");
-                // Handle null values - treat null as false
-                boolean isLabeledValue = isLabeled != null && isLabeled;
-                boolean matchesStatus = false;
-                for (String status : filterRequest.getMediaStatus()) {
-                  if ("labeled".equalsIgnoreCase(status) && isLabeledValue) {
-                    matchesStatus = true;
-                    break;
-                  } else if ("unlabeled".equalsIgnoreCase(status) && !isLabeledValue) {
-                    matchesStatus = true;
-                    break;
-                  }
-                }
-                if (!matchesStatus) {
-                  return false;
-                }
-              }
-
-              // Filter by ground truth labels (class IDs)
-              if (filterRequest.getGroundTruthLabels() != null
-                  && !filterRequest.getGroundTruthLabels().isEmpty()) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> labels =
-                    (List<Map<String, Object>>) imageDTO.get("labels");
-                boolean hasMatchingLabel =
-                    labels.stream()
-                        .anyMatch(
-                            label ->
-                                filterRequest
-                                    .getGroundTruthLabels()
-                                    .contains(((Number) label.get("classId")).longValue()));
-                if (!hasMatchingLabel) {
-                  return false;
-                }
-              }
-
-              // Filter by split (training/dev/test)
-              if (filterRequest.getSplit() != null && !filterRequest.getSplit().isEmpty()) {
-                String imageSplit = (String) imageDTO.get("split");
-                boolean matchesSplit =
-                    filterRequest.getSplit().stream()
-                        .anyMatch(
-                            split -> {
-                              if (split == null || split.isEmpty()) {
-                                return imageSplit == null || imageSplit.isEmpty();
-                              }
-                              return split.equalsIgnoreCase(imageSplit);
-                            });
-                if (!matchesSplit) {
-                  return false;
-                }
-              }
-
-              // Filter by tags
-              if (filterRequest.getTags() != null && !filterRequest.getTags().isEmpty()) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> imageTags =
-                    (List<Map<String, Object>>) imageDTO.get("tags");
-                boolean hasMatchingTag =
-                    imageTags.stream()
-                        .anyMatch(
-                            tag ->
-                                filterRequest
-                                    .getTags()
-                                    .contains(((Number) tag.get("tagId")).longValue()));
-                if (!hasMatchingTag) {
-                  return false;
-                }
-              }
-
-              // Filter by media name (partial match, case-insensitive)
-              if (filterRequest.getMediaName() != null && !filterRequest.getMediaName().isEmpty()) {
-                String fileName = (String) imageDTO.get("fileName");
-                if (fileName == null
-                    || !fileName
-                        .toLowerCase()
-                        .contains(filterRequest.getMediaName().toLowerCase())) {
-                  return false;
-                }
-              }
-
-              // Filter by media ID (exact match)
-              if (filterRequest.getMediaId() != null && !filterRequest.getMediaId().isEmpty()) {
-                Long imageId = ((Number) imageDTO.get("id")).longValue();
-                try {
-                  Long filterMediaId = Long.parseLong(filterRequest.getMediaId());
-                  if (!imageId.equals(filterMediaId)) {
-                    return false;
-                  }
-                } catch (NumberFormatException e) {
-                  // If media ID is not a valid number, no match
-                  return false;
-                }
-              }
-
-              // Filter by No Class (is_labeled=true AND is_no_class=true)
-              if (filterRequest.getNoClass() != null && filterRequest.getNoClass()) {
-                Boolean isLabeled = (Boolean) imageDTO.get("isLabeled");
-                Boolean isNoClass = (Boolean) imageDTO.get("isNoClass");
-                // Handle null values - treat null as false
-                boolean isLabeledValue = isLabeled != null && isLabeled;
-                boolean isNoClassValue = isNoClass != null && isNoClass;
-                if (!(isLabeledValue && isNoClassValue)) {
-                  return false;
-                }
-              }
-
-              // Filter by metadata (key-value pairs)
-              if (filterRequest.getMetadata() != null && !filterRequest.getMetadata().isEmpty()) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> imageMetadata =
-                    (List<Map<String, Object>>) imageDTO.get("metadata");
-
-                // Check if all requested metadata filters match
-                for (Map.Entry<String, String> metadataFilter :
-                    filterRequest.getMetadata().entrySet()) {
-                  Long metadataId = Long.parseLong(metadataFilter.getKey());
-                  String expectedValue = metadataFilter.getValue();
-
-                  boolean hasMatchingMetadata =
-                      imageMetadata.stream()
-                          .anyMatch(
-                              meta -> {
-                                Long metaId = ((Number) meta.get("metadataId")).longValue();
-                                String metaValue = (String) meta.get("value");
-                                return metaId.equals(metadataId) && expectedValue.equals(metaValue);
-                              });
-
-                  if (!hasMatchingMetadata) {
-                    return false;
-                  }
-                }
-              }
-
-              // All filters passed
-              return true;
-            })
-        .collect(Collectors.toList());
+  private ImageListItemDTO convertToImageListItemDTO(Object[] row, List<LabelOverlayDTO> labels) {
+    ImageListItemDTO dto = new ImageListItemDTO();
+    dto.setId((Long) row[0]);
+    dto.setFileName((String) row[1]);
+    dto.setFileSize((Long) row[2]);
+    dto.setWidth((Integer) row[3]);
+    dto.setHeight((Integer) row[4]);
+    dto.setSplit((String) row[5]);
+    dto.setIsLabeled((Boolean) row[6]);
+    dto.setIsNoClass((Boolean) row[7]);
+    dto.setThumbnailWidthRatio((Double) row[8]);
+    dto.setThumbnailHeightRatio((Double) row[9]);
+    dto.setCreatedAt((Instant) row[10]);
+    dto.setLabels(labels);
+    dto.setLabelCount(labels.size());
+    return dto;
   }
 
   /**
@@ -684,8 +463,9 @@ public class SnapshotService {
   }
 
   /**
-   * Create a new project from a snapshot. Reads data from _ss tables and copies to new project
-   * tables with new IDs. Requirements: 4.3, 4.4
+   * Create a new project from a snapshot. Copies the data of the _ss tables to the new project
+   * with new IDs, set-based in the database (see {@link #cloneSnapshotData}). Requirements: 4.3,
+   * 4.4
    *
    * @param snapshotId the snapshot ID to create project from
    * @param request the request containing the new project name
@@ -722,19 +502,12 @@ public class SnapshotService {
       newProject.setGroupName(sourceProject.getGroupName());
       newProject.setLocation(sourceProject.getLocation());
       newProject.setCreatedBy(userId);
-      newProject = projectRepository.save(newProject);
+      // Flush so the copy in the database can reference the project
+      newProject = projectRepository.saveAndFlush(newProject);
       log.info("Created new project with ID: {}", newProject.getId());
 
-      // 3. Copy data from _ss tables to new project tables with ID mappings
-      Map<Long, Long> classIdMapping = copySnapshotProjectClasses(snapshotId, newProject, userId);
-      Map<Long, Long> tagIdMapping = copySnapshotProjectTags(snapshotId, newProject, userId);
-      Map<Long, Long> metadataIdMapping =
-          copySnapshotProjectMetadata(snapshotId, newProject, userId);
-      copySnapshotProjectSplits(snapshotId, newProject, classIdMapping, userId);
-      Map<Long, Long> imageIdMapping = copySnapshotImages(snapshotId, newProject, userId);
-      copySnapshotImageLabels(snapshotId, imageIdMapping, classIdMapping, userId);
-      copySnapshotImageTags(snapshotId, imageIdMapping, tagIdMapping, userId);
-      copySnapshotImageMetadata(snapshotId, imageIdMapping, metadataIdMapping, userId);
+      // 3. Copy data from _ss tables to new project tables with new IDs
+      cloneSnapshotData(snapshotId, newProject, userId);
 
       log.info(
           "Successfully created project '{}' from snapshot ID: {}",
@@ -825,155 +598,45 @@ public class SnapshotService {
   }
 
   /**
-   * Download snapshot dataset as a ZIP archive. Queries snapshot data from _ss tables and creates a
-   * ZIP with images and JSON metadata. Requirements: 6.3
+   * Download snapshot dataset as a ZIP archive with images and JSON metadata from the _ss tables.
+   * The archive is streamed to the response while it is written, see {@link
+   * SnapshotArchiveWriter}. Requirements: 6.3
    *
    * @param snapshotId the snapshot ID to download
-   * @return byte array containing the ZIP archive
+   * @param response the response the ZIP archive is streamed to
+   * @throws IOException if writing the archive fails
    */
   @GetMapping("/{snapshotId}/download")
   @Transactional(readOnly = true)
-  public byte[] downloadSnapshotDataset(@PathVariable("snapshotId") Long snapshotId) {
+  public void downloadSnapshotDataset(
+      @PathVariable("snapshotId") Long snapshotId, HttpServletResponse response)
+      throws IOException {
     log.info("Downloading snapshot dataset for snapshot ID: {}", snapshotId);
 
-    // Validate snapshot exists
+    // Validate snapshot exists before the response is committed
     Snapshot snapshot =
         snapshotRepository
             .findById(snapshotId)
             .orElseThrow(() -> new SnapshotNotFoundException(snapshotId));
 
-    try {
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      ZipOutputStream zos = new ZipOutputStream(baos);
-
-      // Get snapshot data
-      List<SnapshotImage> images = snapshotImageRepository.findBySnapshotId(snapshotId);
-      List<SnapshotImageLabel> labels = snapshotImageLabelRepository.findBySnapshotId(snapshotId);
-      List<SnapshotImageTag> imageTags = snapshotImageTagRepository.findBySnapshotId(snapshotId);
-      List<SnapshotImageMetadata> imageMetadata =
-          snapshotImageMetadataRepository.findBySnapshotId(snapshotId);
-      List<SnapshotProjectClass> classes =
-          snapshotProjectClassRepository.findBySnapshotId(snapshotId);
-      List<SnapshotProjectTag> tags = snapshotProjectTagRepository.findBySnapshotId(snapshotId);
-      List<SnapshotProjectMetadata> metadata =
-          snapshotProjectMetadataRepository.findBySnapshotId(snapshotId);
-
-      // Create JSON metadata
-      ObjectMapper mapper = new ObjectMapper();
-      mapper.registerModule(new JavaTimeModule());
-      mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-      // Add metadata.json
-      Map<String, Object> metadataJson = new HashMap<>();
-      metadataJson.put("snapshotId", snapshotId);
-      metadataJson.put("snapshotName", snapshot.getSnapshotName());
-      metadataJson.put("description", snapshot.getDescription());
-      metadataJson.put("createdAt", snapshot.getCreatedAt());
-      metadataJson.put("createdBy", snapshot.getCreatedBy());
-      metadataJson.put("projectId", snapshot.getProject().getId());
-      metadataJson.put("projectName", snapshot.getProject().getName());
-      metadataJson.put("projectType", snapshot.getProject().getType());
-      metadataJson.put("imageCount", images.size());
-      metadataJson.put("classCount", classes.size());
-
-      ZipEntry metadataEntry = new ZipEntry("metadata.json");
-      zos.putNextEntry(metadataEntry);
-      zos.write(mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(metadataJson));
-      zos.closeEntry();
-
-      // Add classes.json
-      ZipEntry classesEntry = new ZipEntry("classes.json");
-      zos.putNextEntry(classesEntry);
-      zos.write(mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(classes));
-      zos.closeEntry();
-
-      // Add tags.json
-      ZipEntry tagsEntry = new ZipEntry("tags.json");
-      zos.putNextEntry(tagsEntry);
-      zos.write(mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(tags));
-      zos.closeEntry();
-
-      // Add project_metadata.json
-      ZipEntry projectMetadataEntry = new ZipEntry("project_metadata.json");
-      zos.putNextEntry(projectMetadataEntry);
-      zos.write(mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(metadata));
-      zos.closeEntry();
-
-      // Add images with their labels and metadata
-      List<Map<String, Object>> imageAnnotations = new ArrayList<>();
-      for (SnapshotImage image : images) {
-        Map<String, Object> imageData = new HashMap<>();
-        imageData.put("id", image.getId());
-        imageData.put("fileName", image.getFileName());
-        imageData.put("fileSize", image.getFileSize());
-        imageData.put("width", image.getWidth());
-        imageData.put("height", image.getHeight());
-        imageData.put("split", image.getSplit());
-        imageData.put("isNoClass", image.getIsNoClass());
-        imageData.put("isLabeled", image.getIsLabeled());
-
-        // Get labels for this image
-        List<SnapshotImageLabel> imageLabels =
-            labels.stream()
-                .filter(l -> l.getImageId().equals(image.getId()))
-                .collect(Collectors.toList());
-        imageData.put("labels", imageLabels);
-
-        // Get tags for this image
-        List<SnapshotImageTag> imageTagList =
-            imageTags.stream()
-                .filter(t -> t.getImageId().equals(image.getId()))
-                .collect(Collectors.toList());
-        imageData.put("tags", imageTagList);
-
-        // Get metadata for this image
-        List<SnapshotImageMetadata> imageMetadataList =
-            imageMetadata.stream()
-                .filter(m -> m.getImageId().equals(image.getId()))
-                .collect(Collectors.toList());
-        imageData.put("metadata", imageMetadataList);
-
-        imageAnnotations.add(imageData);
-
-        // Add image file if available (using file_id)
-        if (image.getFileId() != null) {
-          Optional<byte[]> imageFileStream =
-              imageFileRepository.findImageFileStreamById(image.getFileId());
-          if (imageFileStream.isPresent()) {
-            ZipEntry imageEntry = new ZipEntry("images/" + image.getFileName());
-            zos.putNextEntry(imageEntry);
-            zos.write(imageFileStream.get());
-            zos.closeEntry();
-          }
-        }
-      }
-
-      // Add annotations.json
-      ZipEntry annotationsEntry = new ZipEntry("annotations.json");
-      zos.putNextEntry(annotationsEntry);
-      zos.write(mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(imageAnnotations));
-      zos.closeEntry();
+    response.setContentType("application/zip");
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"snapshot-" + snapshotId + ".zip\"");
 
-      zos.close();
-      log.info("Successfully created snapshot dataset ZIP for snapshot ID: {}", snapshotId);
-      return baos.toByteArray();
-
-    } catch (IOException e) {
-      log.error("Failed to create snapshot dataset ZIP: {}", e.getMessage(), e);
-      throw new RuntimeException("Failed to create snapshot dataset: " + e.getMessage(), e);
-    }
+    long images = snapshotArchiveWriter.write(snapshot, response.getOutputStream());
+    log.info("Streamed snapshot dataset ZIP for snapshot ID: {} ({} images)", snapshotId, images);
   }
 
   // ==================== Helper Methods ====================
 
-  /** Delete all snapshot data from _ss tables. */
+  /**
+   * Delete the project level snapshot data from _ss tables. Image data (la_images_ss and its label,
+   * tag and metadata views) is versioned and purged with {@link
+   * SnapshotImageRepository#purgeUnusedVersions} once the snapshot record is gone.
+   */
   private void deleteSnapshotData(Long snapshotId) {
     log.debug("Deleting snapshot data for snapshot ID: {}", snapshotId);
-    // Delete in order to avoid FK constraint issues (if any)
-    snapshotImageMetadataRepository.deleteBySnapshotId(snapshotId);
-    snapshotImageTagRepository.deleteBySnapshotId(snapshotId);
-    snapshotImageLabelRepository.deleteBySnapshotId(snapshotId);
-    snapshotImageRepository.deleteBySnapshotId(snapshotId);
     snapshotProjectSplitRepository.deleteBySnapshotId(snapshotId);
     snapshotProjectMetadataRepository.deleteBySnapshotId(snapshotId);
     snapshotProjectTagRepository.deleteBySnapshotId(snapshotId);
@@ -1066,276 +729,27 @@ public class SnapshotService {
   // restore_snapshot_data() which preserves IDs and handles all restoration in a single transaction
 
   /**
-   * Copy project classes from snapshot _ss table to project table. Returns mapping of old class ID
-   * to new class ID.
-   */
-  private Map<Long, Long> copySnapshotProjectClasses(
-      Long snapshotId, Project project, String userId) {
-    Map<Long, Long> idMapping = new HashMap<>();
-    List<SnapshotProjectClass> snapshotClasses =
-        snapshotProjectClassRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotProjectClass sc : snapshotClasses) {
-      ProjectClass newClass = new ProjectClass();
-      newClass.setProject(project);
-      newClass.setClassName(sc.getClassName());
-      newClass.setDescription(sc.getDescription());
-      newClass.setColorCode(sc.getColorCode());
-      newClass.setCreatedBy(userId);
-      newClass = projectClassRepository.save(newClass);
-      idMapping.put(sc.getId(), newClass.getId());
-    }
-
-    log.debug("Copied {} project classes from snapshot", snapshotClasses.size());
-    return idMapping;
-  }
-
-  /**
-   * Copy project tags from snapshot _ss table to project table. Returns mapping of old tag ID to
-   * new tag ID.
-   */
-  private Map<Long, Long> copySnapshotProjectTags(Long snapshotId, Project project, String userId) {
-    Map<Long, Long> idMapping = new HashMap<>();
-    List<SnapshotProjectTag> snapshotTags =
-        snapshotProjectTagRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotProjectTag st : snapshotTags) {
-      ProjectTag newTag = new ProjectTag();
-      newTag.setProject(project);
-      newTag.setName(st.getName());
-      newTag.setCreatedBy(userId);
-      newTag = projectTagRepository.save(newTag);
-      idMapping.put(st.getId(), newTag.getId());
-    }
-
-    log.debug("Copied {} project tags from snapshot", snapshotTags.size());
-    return idMapping;
-  }
-
-  /**
-   * Copy project metadata from snapshot _ss table to project table. Returns mapping of old metadata
-   * ID to new metadata ID.
-   */
-  private Map<Long, Long> copySnapshotProjectMetadata(
-      Long snapshotId, Project project, String userId) {
-    Map<Long, Long> idMapping = new HashMap<>();
-    List<SnapshotProjectMetadata> snapshotMetadata =
-        snapshotProjectMetadataRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotProjectMetadata sm : snapshotMetadata) {
-      ProjectMetadata newMetadata = new ProjectMetadata();
-      newMetadata.setProject(project);
-      newMetadata.setName(sm.getName());
-      newMetadata.setType(sm.getType());
-      newMetadata.setValueFrom(sm.getValueFrom());
-      newMetadata.setPredefinedValues(sm.getPredefinedValues());
-      newMetadata.setMultipleValues(sm.getMultipleValues());
-      newMetadata.setCreatedBy(userId);
-      newMetadata = projectMetadataRepository.save(newMetadata);
-      idMapping.put(sm.getId(), newMetadata.getId());
-    }
-
-    log.debug("Copied {} project metadata from snapshot", snapshotMetadata.size());
-    return idMapping;
-  }
-
-  /**
-   * Copy project splits from snapshot _ss table to project table. Uses class ID mapping to update
-   * foreign key references.
-   */
-  private void copySnapshotProjectSplits(
-      Long snapshotId, Project project, Map<Long, Long> classIdMapping, String userId) {
-    List<SnapshotProjectSplit> snapshotSplits =
-        snapshotProjectSplitRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotProjectSplit ss : snapshotSplits) {
-      ProjectSplit newSplit = new ProjectSplit();
-      newSplit.setProject(project);
-      newSplit.setTrainRatio(ss.getTrainRatio());
-      newSplit.setDevRatio(ss.getDevRatio());
-      newSplit.setTestRatio(ss.getTestRatio());
-      newSplit.setCreatedBy(userId);
-
-      // Map class ID if present
-      if (ss.getClassId() != null && classIdMapping.containsKey(ss.getClassId())) {
-        Long newClassId = classIdMapping.get(ss.getClassId());
-        ProjectClass projectClass = projectClassRepository.findById(newClassId).orElse(null);
-        newSplit.setProjectClass(projectClass);
-      }
-
-      projectSplitRepository.save(newSplit);
-    }
-
-    log.debug("Copied {} project splits from snapshot", snapshotSplits.size());
-  }
-
-  /**
-   * Copy images from snapshot _ss table to project table. Returns mapping of old image ID to new
-   * image ID. IMPORTANT: Preserves file_id to share image files across projects.
-   */
-  private Map<Long, Long> copySnapshotImages(Long snapshotId, Project project, String userId) {
-    Map<Long, Long> idMapping = new HashMap<>();
-    List<SnapshotImage> snapshotImages = snapshotImageRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotImage si : snapshotImages) {
-      Image newImage = new Image();
-      newImage.setProject(project);
-      newImage.setFileName(si.getFileName());
-      newImage.setFileSize(si.getFileSize());
-      newImage.setWidth(si.getWidth());
-      newImage.setHeight(si.getHeight());
-      newImage.setSplit(si.getSplit());
-      newImage.setIsNoClass(si.getIsNoClass());
-      // Note: is_labeled is NOT set here - it will be managed by database triggers
-      // based on is_no_class flag and label existence after labels are copied
-      newImage.setThumbnailImage(si.getThumbnailImage());
-      newImage.setThumbnailWidthRatio(si.getThumbnailWidthRatio());
-      newImage.setThumbnailHeightRatio(si.getThumbnailHeightRatio());
-      newImage.setFileId(si.getFileId()); // Share the same image file
-      newImage.setCreatedBy(userId);
-      newImage = imageRepository.save(newImage);
-      idMapping.put(si.getId(), newImage.getId());
-    }
-
-    log.debug("Copied {} images from snapshot (sharing image files)", snapshotImages.size());
-    return idMapping;
-  }
-
-  /**
-   * Copy image labels from snapshot _ss table to project table. Uses image ID and class ID mappings
-   * to update foreign key references.
-   */
-  private void copySnapshotImageLabels(
-      Long snapshotId,
-      Map<Long, Long> imageIdMapping,
-      Map<Long, Long> classIdMapping,
-      String userId) {
-    List<SnapshotImageLabel> snapshotLabels =
-        snapshotImageLabelRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotImageLabel sl : snapshotLabels) {
-      // Skip if image or class mapping not found
-      if (!imageIdMapping.containsKey(sl.getImageId())
-          || !classIdMapping.containsKey(sl.getClassId())) {
-        log.warn(
-            "Skipping label - missing mapping for image {} or class {}",
-            sl.getImageId(),
-            sl.getClassId());
-        continue;
-      }
-
-      Long newImageId = imageIdMapping.get(sl.getImageId());
-      Long newClassId = classIdMapping.get(sl.getClassId());
-
-      Image image = imageRepository.findById(newImageId).orElse(null);
-      ProjectClass projectClass = projectClassRepository.findById(newClassId).orElse(null);
-
-      if (image == null || projectClass == null) {
-        log.warn("Skipping label - image or class not found");
-        continue;
-      }
-
-      ImageLabel newLabel = new ImageLabel();
-      newLabel.setImage(image);
-      newLabel.setProjectClass(projectClass);
-      newLabel.setPosition(sl.getPosition());
-      // Note: confidenceRate and annotationType are not set as ImageLabel no longer has these
-      // fields
-      // Copied labels are always ground truth
-      newLabel.setCreatedBy(userId);
-      imageLabelRepository.save(newLabel);
-    }
-
-    log.debug("Copied {} image labels from snapshot", snapshotLabels.size());
-  }
-
-  /**
-   * Copy image tags from snapshot _ss table to project table. Uses image ID and tag ID mappings to
-   * update foreign key references.
-   */
-  private void copySnapshotImageTags(
-      Long snapshotId,
-      Map<Long, Long> imageIdMapping,
-      Map<Long, Long> tagIdMapping,
-      String userId) {
-    List<SnapshotImageTag> snapshotTags = snapshotImageTagRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotImageTag st : snapshotTags) {
-      // Skip if image or tag mapping not found
-      if (!imageIdMapping.containsKey(st.getImageId())
-          || !tagIdMapping.containsKey(st.getTagId())) {
-        log.warn(
-            "Skipping image tag - missing mapping for image {} or tag {}",
-            st.getImageId(),
-            st.getTagId());
-        continue;
-      }
-
-      Long newImageId = imageIdMapping.get(st.getImageId());
-      Long newTagId = tagIdMapping.get(st.getTagId());
-
-      Image image = imageRepository.findById(newImageId).orElse(null);
-      ProjectTag projectTag = projectTagRepository.findById(newTagId).orElse(null);
-
-      if (image == null || projectTag == null) {
-        log.warn("Skipping image tag - image or tag not found");
-        continue;
-      }
-
-      ImageTag newImageTag = new ImageTag();
-      newImageTag.setImage(image);
-      newImageTag.setProjectTag(projectTag);
-      newImageTag.setCreatedBy(userId);
-      imageTagRepository.save(newImageTag);
-    }
-
-    log.debug("Copied {} image tags from snapshot", snapshotTags.size());
-  }
-
-  /**
-   * Copy image metadata from snapshot _ss table to project table. Uses image ID and metadata ID
-   * mappings to update foreign key references.
+   * Copy snapshot data from _ss tables to a new project using PostgreSQL stored procedure. Every
+   * table is copied with one INSERT ... SELECT through temporary tables that map old IDs to new
+   * ones; image files are shared through file_id.
    */
-  private void copySnapshotImageMetadata(
-      Long snapshotId,
-      Map<Long, Long> imageIdMapping,
-      Map<Long, Long> metadataIdMapping,
-      String userId) {
-    List<SnapshotImageMetadata> snapshotMetadata =
-        snapshotImageMetadataRepository.findBySnapshotId(snapshotId);
-
-    for (SnapshotImageMetadata sm : snapshotMetadata) {
-      // Skip if image or metadata mapping not found
-      if (!imageIdMapping.containsKey(sm.getImageId())
-          || !metadataIdMapping.containsKey(sm.getMetadataId())) {
-        log.warn(
-            "Skipping image metadata - missing mapping for image {} or metadata {}",
-            sm.getImageId(),
-            sm.getMetadataId());
-        continue;
-      }
-
-      Long newImageId = imageIdMapping.get(sm.getImageId());
-      Long newMetadataId = metadataIdMapping.get(sm.getMetadataId());
-
-      Image image = imageRepository.findById(newImageId).orElse(null);
-      ProjectMetadata projectMetadata =
-          projectMetadataRepository.findById(newMetadataId).orElse(null);
-
-      if (image == null || projectMetadata == null) {
-        log.warn("Skipping image metadata - image or metadata not found");
-        continue;
-      }
-
-      ImageMetadata newImageMetadata = new ImageMetadata();
-      newImageMetadata.setImage(image);
-      newImageMetadata.setProjectMetadata(projectMetadata);
-      newImageMetadata.setValue(sm.getValue());
-      newImageMetadata.setCreatedBy(userId);
-      imageMetadataRepository.save(newImageMetadata);
-    }
+  private void cloneSnapshotData(Long snapshotId, Project project, String userId) {
+    log.info(
+        "Copying snapshot data for snapshot ID: {} to new project ID: {} using stored procedure",
+        snapshotId,
+        project.getId());
 
-    log.debug("Copied {} image metadata from snapshot", snapshotMetadata.size());
+    String sql = "SELECT CAST(clone_snapshot_to_project(:snapshotId, :projectId, :userId) AS text)";
+    String resultJson =
+        (String)
+            entityManager
+                .createNativeQuery(sql)
+                .setParameter("snapshotId", snapshotId)
+                .setParameter("projectId", project.getId())
+                .setParameter("userId", userId)
+                .getSingleResult();
+
+    log.info("Snapshot copy completed. Result: {}", resultJson);
   }
 
   // ==================== DTO Conversion Methods ====================
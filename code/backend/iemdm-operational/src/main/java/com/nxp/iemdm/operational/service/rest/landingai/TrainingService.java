@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nxp.iemdm.model.landingai.DatabricksRequest;
 import com.nxp.iemdm.model.landingai.Image;
-import com.nxp.iemdm.model.landingai.ImageFile;
 import com.nxp.iemdm.model.landingai.ImageLabel;
 import com.nxp.iemdm.model.landingai.Project;
 import com.nxp.iemdm.model.landingai.ProjectClass;
@@ -14,6 +13,10 @@ import com.nxp.iemdm.model.landingai.SnapshotImage;
 import com.nxp.iemdm.model.landingai.SnapshotImageLabel;
 import com.nxp.iemdm.model.landingai.SnapshotProjectClass;
 import com.nxp.iemdm.model.landingai.TrainingRecord;
+import com.nxp.iemdm.operational.service.landingai.ImageFileStore;
+import com.nxp.iemdm.operational.service.landingai.LabelGeometry;
+import com.nxp.iemdm.operational.service.landingai.LabelGeometryCache;
+import com.nxp.iemdm.operational.service.landingai.LabelGeometryCache.Source;
 import com.nxp.iemdm.shared.dto.landingai.AugmentationConfigDTO;
 import com.nxp.iemdm.shared.dto.landingai.ModelConfigDTO;
 import com.nxp.iemdm.shared.dto.landingai.TrainingRecordDTO;
@@ -38,7 +41,6 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -51,6 +53,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -59,8 +62,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import lombok.extern.slf4j.Slf4j;
@@ -102,6 +105,9 @@ public class TrainingService {
   private final ObjectMapper objectMapper;
   private final ImageLabelRepository imageLabelRepository;
   private final ImageFileRepository imageFileRepository;
+  private final ImageFileStore imageFileStore;
+  private final DatasetArtifactCache datasetArtifactCache;
+  private final LabelGeometryCache labelGeometryCache;
   private final EntityManager entityManager;
   private final RestTemplate restTemplate;
   private final ConfigurationValueService configurationValueService;
@@ -112,6 +118,9 @@ public class TrainingService {
   /** Thread pool for async YOLO dataset generation */
   private final ExecutorService yoloDatasetExecutor = Executors.newFixedThreadPool(3);
 
+  /** Uploads finished dataset volumes while the next volume is being written */
+  private final ExecutorService volumeUploadExecutor = Executors.newSingleThreadExecutor();
+
   @Autowired
   public TrainingService(
       TrainingRecordRepository trainingRecordRepository,
@@ -124,6 +133,9 @@ public class TrainingService {
       ObjectMapper objectMapper,
       ImageLabelRepository imageLabelRepository,
       ImageFileRepository imageFileRepository,
+      ImageFileStore imageFileStore,
+      DatasetArtifactCache datasetArtifactCache,
+      LabelGeometryCache labelGeometryCache,
       EntityManager entityManager,
       RestTemplate restTemplate,
       ConfigurationValueService configurationValueService) {
@@ -137,6 +149,9 @@ public class TrainingService {
     this.objectMapper = objectMapper;
     this.imageLabelRepository = imageLabelRepository;
     this.imageFileRepository = imageFileRepository;
+    this.imageFileStore = imageFileStore;
+    this.datasetArtifactCache = datasetArtifactCache;
+    this.labelGeometryCache = labelGeometryCache;
     this.entityManager = entityManager;
     this.restTemplate = restTemplate;
     this.configurationValueService = configurationValueService;
@@ -147,6 +162,7 @@ public class TrainingService {
   public void shutdown() {
     log.info("Shutting down YOLO dataset executor service");
     yoloDatasetExecutor.shutdown();
+    volumeUploadExecutor.shutdown();
   }
 
   /**
@@ -856,56 +872,53 @@ public class TrainingService {
               .filter(img -> "test".equals(img.getSplit()))
               .collect(Collectors.toList());
 
-      // Reset fileName from ImageFile for all snapshot images
-      resetFileNamesFromImageFile(trainingImages);
-      resetFileNamesFromImageFile(devImages);
-      resetFileNamesFromImageFile(testImages);
-
-      // Get all labels from snapshot table
-      List<SnapshotImageLabel> allSnapshotLabels =
-          snapshotImageLabelRepository.findBySnapshotId(snapshotId);
-
-      // Generate dataset based on project type
-      List<String> zipFilePaths;
-      switch (projectType) {
-        case PROJECT_TYPE_OBJECT_DETECTION:
-          zipFilePaths =
-              generateObjectDetectionDatasetFromSnapshot(
-                  baseDir,
-                  snapshotClasses,
-                  classIdToIndex,
-                  trainingImages,
-                  devImages,
-                  testImages,
-                  allSnapshotLabels,
-                  trainRecord);
-          break;
-        case PROJECT_TYPE_SEGMENTATION:
-          zipFilePaths =
-              generateSegmentationDatasetFromSnapshot(
-                  baseDir,
-                  snapshotClasses,
-                  classIdToIndex,
-                  trainingImages,
-                  devImages,
-                  testImages,
-                  allSnapshotLabels,
-                  trainRecord);
-          break;
-        case PROJECT_TYPE_CLASSIFICATION:
-          zipFilePaths =
-              generateClassificationDatasetFromSnapshot(
-                  baseDir,
-                  snapshotClasses,
-                  classIdToIndex,
-                  trainingImages,
-                  devImages,
-                  testImages,
-                  allSnapshotLabels,
-                  trainRecord);
-          break;
-        default:
-          throw new TrainingException("Unsupported project type: " + projectType);
+      // Upload every finished volume while the next one is being written, the last volume is
+      // uploaded by the training submit
+      String zipPath = basePath + "/";
+      String trackId = trainRecord.getTrackId();
+      List<Future<String>> volumeUploads = Collections.synchronizedList(new ArrayList<>());
+      Consumer<Path> volumeListener =
+          volume -> {
+            try {
+              Path runVolume =
+                  baseDir.resolve(
+                      DatasetArtifactCache.runVolumeName(volume.getFileName().toString(), trackId));
+              DatasetArtifactCache.linkOrCopy(volume, runVolume);
+              volumeUploads.add(
+                  volumeUploadExecutor.submit(
+                      () -> uploadTrainingVolume(trackId, zipPath, runVolume)));
+            } catch (IOException e) {
+              log.warn("Cannot stage dataset volume {} for upload: {}", volume, e.getMessage());
+            }
+          };
+
+      // Snapshots are immutable: all runs on the same snapshot share one cached dataset build
+      List<Path> datasetVolumes =
+          datasetArtifactCache.linkVolumes(
+              snapshotId,
+              projectType,
+              (buildDir, volumeBaseName) ->
+                  buildSnapshotDataset(
+                      projectType,
+                      snapshotId,
+                      buildDir,
+                      volumeBaseName,
+                      snapshotClasses,
+                      classIdToIndex,
+                      trainingImages,
+                      devImages,
+                      testImages,
+                      volumeListener),
+              baseDir,
+              trackId);
+      List<String> zipFilePaths =
+          datasetVolumes.stream()
+              .map(Path::toString)
+              .collect(Collectors.toCollection(ArrayList::new));
+
+      // Training parameters differ per run, they go into a small volume of their own
+      if (PROJECT_TYPE_OBJECT_DETECTION.equals(projectType)) {
+        zipFilePaths.add(writeModelMetadataVolume(baseDir, trainRecord).toString());
       }
 
       // Calculate total size
@@ -917,7 +930,8 @@ public class TrainingService {
       DatabricksRequest databricksRequest = new DatabricksRequest();
       databricksRequest.setTrackId(trainRecord.getTrackId());
       databricksRequest.setZipFilenames(zipFilenames);
-      databricksRequest.setZipPath(basePath + "/");
+      databricksRequest.setZipPath(zipPath);
+      databricksRequest.setUploadedZipFilenames(awaitVolumeUploads(volumeUploads));
       log.info(
           "Successfully generated DatabricksRequest {}, for project ID: {}",
           databricksRequest,
@@ -958,6 +972,69 @@ public class TrainingService {
     }
   }
 
+  /**
+   * Upload one finished dataset volume ahead of the training submit. A failed upload is only
+   * logged, the volume is then uploaded again by the submit.
+   *
+   * @param trackId the training track ID
+   * @param zipPath the directory of the volumes, with trailing slash
+   * @param volume the closed volume
+   * @return the volume file name if the upload succeeded, null otherwise
+   */
+  private String uploadTrainingVolume(String trackId, String zipPath, Path volume) {
+    String volumeName = volume.getFileName().toString();
+    try {
+      DatabricksRequest volumeRequest = new DatabricksRequest();
+      volumeRequest.setTrackId(trackId);
+      volumeRequest.setZipFilenames(List.of(volumeName));
+      volumeRequest.setZipPath(zipPath);
+
+      HttpHeaders headers = new HttpHeaders();
+      headers.setContentType(MediaType.APPLICATION_JSON);
+      HttpEntity<String> requestEntity =
+          new HttpEntity<>(objectMapper.writeValueAsString(volumeRequest), headers);
+
+      String url = iemdmInterfaceUri + "/infc/databricks/training/volumes";
+      ResponseEntity<String> response =
+          restTemplate.postForEntity(url, requestEntity, String.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        log.info("Uploaded dataset volume {} for trackId: {}", volumeName, trackId);
+        return volumeName;
+      }
+      log.warn(
+          "Upload of dataset volume {} returned status {}, it is uploaded on submit instead",
+          volumeName,
+          response.getStatusCode());
+    } catch (Exception e) {
+      log.warn(
+          "Upload of dataset volume {} failed, it is uploaded on submit instead: {}",
+          volumeName,
+          e.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * Wait for the volume uploads started during dataset generation.
+   *
+   * @return file names of the volumes that were uploaded successfully
+   */
+  private List<String> awaitVolumeUploads(List<Future<String>> volumeUploads)
+      throws InterruptedException {
+    List<String> uploaded = new ArrayList<>();
+    for (Future<String> upload : volumeUploads) {
+      try {
+        String volumeName = upload.get();
+        if (volumeName != null) {
+          uploaded.add(volumeName);
+        }
+      } catch (java.util.concurrent.ExecutionException e) {
+        log.warn("Volume upload task failed: {}", e.getCause().getMessage());
+      }
+    }
+    return uploaded;
+  }
+
   /**
    * Submit training request to DatabricksController via REST API.
    *
@@ -1046,12 +1123,11 @@ public class TrainingService {
       return;
     }
 
-    // Batch query ImageFile entities
-    List<ImageFile> imageFiles = imageFileRepository.findAllById(fileIds);
-
-    // Create a map of fileId to fileName
-    Map<Long, String> fileIdToFileName =
-        imageFiles.stream().collect(Collectors.toMap(ImageFile::getId, ImageFile::getFileName));
+    // Batch query file names without loading the file content
+    Map<Long, String> fileIdToFileName = new HashMap<>();
+    for (Object[] row : imageFileRepository.findFileNamesByIdIn(fileIds)) {
+      fileIdToFileName.put((Long) row[0], (String) row[1]);
+    }
 
     // Update each SnapshotImage's fileName
     for (SnapshotImage snapshotImage : snapshotImages) {
@@ -1172,16 +1248,98 @@ public class TrainingService {
 
   // ==================== Snapshot-based dataset generation methods ====================
 
+  /**
+   * Build the dataset volumes of a snapshot. Only snapshot content goes into the volumes, so they
+   * can be cached and shared by all training runs on the snapshot, see {@link
+   * DatasetArtifactCache}.
+   */
+  private List<Path> buildSnapshotDataset(
+      String projectType,
+      Long snapshotId,
+      Path buildDir,
+      String volumeBaseName,
+      List<SnapshotProjectClass> snapshotClasses,
+      Map<Long, Integer> classIdToIndex,
+      List<SnapshotImage> trainingImages,
+      List<SnapshotImage> devImages,
+      List<SnapshotImage> testImages,
+      Consumer<Path> volumeListener)
+      throws IOException {
+
+    // Reset fileName from ImageFile for all snapshot images
+    resetFileNamesFromImageFile(trainingImages);
+    resetFileNamesFromImageFile(devImages);
+    resetFileNamesFromImageFile(testImages);
+
+    // Get all labels from snapshot table
+    List<SnapshotImageLabel> allSnapshotLabels =
+        snapshotImageLabelRepository.findBySnapshotId(snapshotId);
+
+    switch (projectType) {
+      case PROJECT_TYPE_OBJECT_DETECTION:
+        return generateObjectDetectionDatasetFromSnapshot(
+            buildDir,
+            snapshotClasses,
+            classIdToIndex,
+            trainingImages,
+            devImages,
+            testImages,
+            allSnapshotLabels,
+            volumeBaseName,
+            volumeListener);
+      case PROJECT_TYPE_SEGMENTATION:
+        return generateSegmentationDatasetFromSnapshot(
+            buildDir,
+            snapshotClasses,
+            classIdToIndex,
+            trainingImages,
+            devImages,
+            testImages,
+            allSnapshotLabels,
+            volumeBaseName,
+            volumeListener);
+      case PROJECT_TYPE_CLASSIFICATION:
+        return generateClassificationDatasetFromSnapshot(
+            buildDir,
+            snapshotClasses,
+            classIdToIndex,
+            trainingImages,
+            devImages,
+            testImages,
+            allSnapshotLabels,
+            volumeBaseName,
+            volumeListener);
+      default:
+        throw new TrainingException("Unsupported project type: " + projectType);
+    }
+  }
+
+  /**
+   * Write dataset/model_metadata.json with the run's training parameters into {@code
+   * <trackId>_metadata.zip}. It is extracted together with the dataset volumes, next to data.yaml.
+   */
+  private Path writeModelMetadataVolume(Path baseDir, TrainingRecord trainRecord)
+      throws IOException {
+    Path metadataVolume = baseDir.resolve(trainRecord.getTrackId() + "_metadata.zip");
+    try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(metadataVolume))) {
+      zos.putNextEntry(new ZipEntry("dataset/model_metadata.json"));
+      zos.write(generateModelMetadataJson(trainRecord).getBytes(StandardCharsets.UTF_8));
+      zos.closeEntry();
+    }
+    return metadataVolume;
+  }
+
   /**
    * Generate Object Detection dataset in YOLO format from snapshot data. Structure (inside zip,
    * root folder is 'dataset/'): - dataset/images/train/, dataset/images/val/, dataset/images/test/
    * - dataset/labels/train/, dataset/labels/val/, dataset/labels/test/ - dataset/data.yaml -
-   * dataset/model_metadata.json (training parameters)
+   * dataset/model_metadata.json (training parameters, written per run by writeModelMetadataVolume)
    *
-   * <p>Optimized with streaming pipeline: BufferedOutputStream, BEST_SPEED compression, parallel
-   * batch processing, and batch database queries.
+   * <p>Optimized with streaming pipeline: single-pass {@link RollingZipWriter} volumes of at most
+   * yoloZipFileMaxSize bytes, STORED image entries prepared in the workers, BEST_SPEED compression
+   * for labels and JSON, parallel batch processing, and batch database queries.
    */
-  private List<String> generateObjectDetectionDatasetFromSnapshot(
+  private List<Path> generateObjectDetectionDatasetFromSnapshot(
       Path baseDir,
       List<SnapshotProjectClass> classes,
       Map<Long, Integer> classIdToIndex,
@@ -1189,53 +1347,44 @@ public class TrainingService {
       List<SnapshotImage> devImages,
       List<SnapshotImage> testImages,
       List<SnapshotImageLabel> allLabels,
-      TrainingRecord trainRecord)
+      String volumeBaseName,
+      Consumer<Path> volumeListener)
       throws IOException {
 
-    List<String> zipFilePaths = new ArrayList<>();
-    String zipFileName = trainRecord.getTrackId() + ".zip";
-    Path zipPath = baseDir.resolve(zipFileName);
+    List<Path> volumes;
 
     // Pre-build labels map for efficient lookup
     Map<Long, List<SnapshotImageLabel>> labelsByImageId =
         allLabels.stream().collect(Collectors.groupingBy(SnapshotImageLabel::getImageId));
 
-    // Use streaming pipeline with BufferedOutputStream and fast compression
+    // Stream entries into size-limited volumes, finished volumes go to the listener right away
     // Collect all written entry paths for generating model_file_structure.json
     List<String> writtenEntryPaths = Collections.synchronizedList(new ArrayList<>());
+    RollingZipWriter zipWriter =
+        new RollingZipWriter(baseDir, volumeBaseName, yoloZipFileMaxSize, volumeListener);
 
-    try (FileOutputStream fos = new FileOutputStream(zipPath.toFile());
-        BufferedOutputStream bos = new BufferedOutputStream(fos, 64 * 1024);
-        ZipOutputStream zos = new ZipOutputStream(bos)) {
-
-      // Use fast compression for better performance
-      zos.setLevel(Deflater.BEST_SPEED);
+    try (zipWriter) {
 
       // Generate data.yaml content (placed in dataset/ root)
       String dataYaml = generateDataYamlFromSnapshot(baseDir.toString(), classes, "detect");
-      zos.putNextEntry(new ZipEntry("dataset/data.yaml"));
-      zos.write(dataYaml.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(new ZipEntry("dataset/data.yaml"), dataYaml.getBytes(StandardCharsets.UTF_8));
       writtenEntryPaths.add("dataset/data.yaml");
 
-      // Generate model_metadata.json content (placed in dataset/ root alongside data.yaml)
-      String modelMetadataJson = generateModelMetadataJson(trainRecord);
-      zos.putNextEntry(new ZipEntry("dataset/model_metadata.json"));
-      zos.write(modelMetadataJson.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      // model_metadata.json holds the run's training parameters and is written per run next to
+      // the shared volumes, see writeModelMetadataVolume
       writtenEntryPaths.add("dataset/model_metadata.json");
 
       // Generate model_image_structure.json content (placed in dataset/ root)
       String imageStructureJson =
           generateImageStructureJson(
               trainingImages, devImages, testImages, labelsByImageId, null, false);
-      zos.putNextEntry(new ZipEntry("dataset/model_image_structure.json"));
-      zos.write(imageStructureJson.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(
+          new ZipEntry("dataset/model_image_structure.json"),
+          imageStructureJson.getBytes(StandardCharsets.UTF_8));
       writtenEntryPaths.add("dataset/model_image_structure.json");
 
       // Write empty directory entries to ensure folder structure exists
-      writeEmptyDirectoryEntries(zos);
+      writeEmptyDirectoryEntries(zipWriter);
 
       // Process images in parallel batches
       ExecutorService executor = Executors.newFixedThreadPool(zipThreadPoolSize);
@@ -1249,7 +1398,7 @@ public class TrainingService {
               "train",
               classIdToIndex,
               labelsByImageId,
-              zos,
+              zipWriter,
               false,
               writtenEntryPaths));
 
@@ -1261,7 +1410,7 @@ public class TrainingService {
               "val",
               classIdToIndex,
               labelsByImageId,
-              zos,
+              zipWriter,
               false,
               writtenEntryPaths));
 
@@ -1273,7 +1422,7 @@ public class TrainingService {
               "test",
               classIdToIndex,
               labelsByImageId,
-              zos,
+              zipWriter,
               false,
               writtenEntryPaths));
 
@@ -1284,9 +1433,11 @@ public class TrainingService {
 
       // Generate model_file_structure.json as the last entry (placed in dataset/ root)
       String fileStructureJson = generateFileStructureJson(writtenEntryPaths);
-      zos.putNextEntry(new ZipEntry("dataset/model_file_structure.json"));
-      zos.write(fileStructureJson.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(
+          new ZipEntry("dataset/model_file_structure.json"),
+          fileStructureJson.getBytes(StandardCharsets.UTF_8));
+
+      volumes = zipWriter.finish();
 
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
@@ -1295,21 +1446,7 @@ public class TrainingService {
       throw new IOException("Failed to generate dataset: " + e.getMessage(), e);
     }
 
-    zipFilePaths.add(zipPath.toString());
-
-    // Check if file exceeds size limit and split if necessary
-    File zipFile = zipPath.toFile();
-    if (zipFile.length() > yoloZipFileMaxSize) {
-      log.info(
-          "Zip file exceeds size limit ({} > {}), splitting into parts",
-          zipFile.length(),
-          yoloZipFileMaxSize);
-      zipFilePaths.clear();
-      zipFilePaths.addAll(splitZipFileByBytes(zipFile, baseDir, trainRecord.getTrackId()));
-      Files.deleteIfExists(zipPath);
-    }
-
-    return zipFilePaths;
+    return volumes;
   }
 
   /**
@@ -1318,10 +1455,11 @@ public class TrainingService {
    * dataset/images/val/, dataset/images/test/ - dataset/labels/train/, dataset/labels/val/,
    * dataset/labels/test/ - dataset/data.yaml
    *
-   * <p>Optimized with streaming pipeline: BufferedOutputStream, BEST_SPEED compression, parallel
-   * batch processing, and batch database queries.
+   * <p>Optimized with streaming pipeline: single-pass {@link RollingZipWriter} volumes of at most
+   * yoloZipFileMaxSize bytes, STORED image entries prepared in the workers, BEST_SPEED compression
+   * for labels and JSON, parallel batch processing, and batch database queries.
    */
-  private List<String> generateSegmentationDatasetFromSnapshot(
+  private List<Path> generateSegmentationDatasetFromSnapshot(
       Path baseDir,
       List<SnapshotProjectClass> classes,
       Map<Long, Integer> classIdToIndex,
@@ -1329,46 +1467,40 @@ public class TrainingService {
       List<SnapshotImage> devImages,
       List<SnapshotImage> testImages,
       List<SnapshotImageLabel> allLabels,
-      TrainingRecord trainRecord)
+      String volumeBaseName,
+      Consumer<Path> volumeListener)
       throws IOException {
 
-    List<String> zipFilePaths = new ArrayList<>();
-    String zipFileName = trainRecord.getTrackId() + ".zip";
-    Path zipPath = baseDir.resolve(zipFileName);
+    List<Path> volumes;
 
     // Pre-build labels map for efficient lookup
     Map<Long, List<SnapshotImageLabel>> labelsByImageId =
         allLabels.stream().collect(Collectors.groupingBy(SnapshotImageLabel::getImageId));
 
-    // Use streaming pipeline with BufferedOutputStream and fast compression
+    // Stream entries into size-limited volumes, finished volumes go to the listener right away
     // Collect all written entry paths for generating model_file_structure.json
     List<String> writtenEntryPaths = Collections.synchronizedList(new ArrayList<>());
+    RollingZipWriter zipWriter =
+        new RollingZipWriter(baseDir, volumeBaseName, yoloZipFileMaxSize, volumeListener);
 
-    try (FileOutputStream fos = new FileOutputStream(zipPath.toFile());
-        BufferedOutputStream bos = new BufferedOutputStream(fos, 64 * 1024);
-        ZipOutputStream zos = new ZipOutputStream(bos)) {
-
-      // Use fast compression for better performance
-      zos.setLevel(Deflater.BEST_SPEED);
+    try (zipWriter) {
 
       // Generate data.yaml content (same format as detection)
       String dataYaml = generateDataYamlFromSnapshot(baseDir.toString(), classes, "segment");
-      zos.putNextEntry(new ZipEntry("dataset/data.yaml"));
-      zos.write(dataYaml.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(new ZipEntry("dataset/data.yaml"), dataYaml.getBytes(StandardCharsets.UTF_8));
       writtenEntryPaths.add("dataset/data.yaml");
 
       // Generate model_image_structure.json content (placed in dataset/ root)
       String imageStructureJson =
           generateImageStructureJson(
               trainingImages, devImages, testImages, labelsByImageId, null, false);
-      zos.putNextEntry(new ZipEntry("dataset/model_image_structure.json"));
-      zos.write(imageStructureJson.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(
+          new ZipEntry("dataset/model_image_structure.json"),
+          imageStructureJson.getBytes(StandardCharsets.UTF_8));
       writtenEntryPaths.add("dataset/model_image_structure.json");
 
       // Write empty directory entries to ensure folder structure exists
-      writeEmptyDirectoryEntries(zos);
+      writeEmptyDirectoryEntries(zipWriter);
 
       // Process images in parallel batches
       ExecutorService executor = Executors.newFixedThreadPool(zipThreadPoolSize);
@@ -1382,7 +1514,7 @@ public class TrainingService {
               "train",
               classIdToIndex,
               labelsByImageId,
-              zos,
+              zipWriter,
               true,
               writtenEntryPaths));
 
@@ -1394,7 +1526,7 @@ public class TrainingService {
               "val",
               classIdToIndex,
               labelsByImageId,
-              zos,
+              zipWriter,
               true,
               writtenEntryPaths));
 
@@ -1406,7 +1538,7 @@ public class TrainingService {
               "test",
               classIdToIndex,
               labelsByImageId,
-              zos,
+              zipWriter,
               true,
               writtenEntryPaths));
 
@@ -1417,9 +1549,11 @@ public class TrainingService {
 
       // Generate model_file_structure.json as the last entry (placed in dataset/ root)
       String fileStructureJson = generateFileStructureJson(writtenEntryPaths);
-      zos.putNextEntry(new ZipEntry("dataset/model_file_structure.json"));
-      zos.write(fileStructureJson.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(
+          new ZipEntry("dataset/model_file_structure.json"),
+          fileStructureJson.getBytes(StandardCharsets.UTF_8));
+
+      volumes = zipWriter.finish();
 
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
@@ -1428,21 +1562,7 @@ public class TrainingService {
       throw new IOException("Failed to generate dataset: " + e.getMessage(), e);
     }
 
-    zipFilePaths.add(zipPath.toString());
-
-    // Check if file exceeds size limit and split if necessary
-    File zipFile = zipPath.toFile();
-    if (zipFile.length() > yoloZipFileMaxSize) {
-      log.info(
-          "Zip file exceeds size limit ({} > {}), splitting into parts",
-          zipFile.length(),
-          yoloZipFileMaxSize);
-      zipFilePaths.clear();
-      zipFilePaths.addAll(splitZipFileByBytes(zipFile, baseDir, trainRecord.getTrackId()));
-      Files.deleteIfExists(zipPath);
-    }
-
-    return zipFilePaths;
+    return volumes;
   }
 
   /**
@@ -1450,10 +1570,11 @@ public class TrainingService {
    * needed - YOLO auto-infers class from folder names): - train/class_name/image.jpg -
    * val/class_name/image.jpg - test/class_name/image.jpg
    *
-   * <p>Optimized with streaming pipeline: BufferedOutputStream, BEST_SPEED compression, parallel
-   * batch processing, and batch database queries.
+   * <p>Optimized with streaming pipeline: single-pass {@link RollingZipWriter} volumes of at most
+   * yoloZipFileMaxSize bytes, STORED image entries prepared in the workers, BEST_SPEED compression
+   * for labels and JSON, parallel batch processing, and batch database queries.
    */
-  private List<String> generateClassificationDatasetFromSnapshot(
+  private List<Path> generateClassificationDatasetFromSnapshot(
       Path baseDir,
       List<SnapshotProjectClass> classes,
       Map<Long, Integer> classIdToIndex,
@@ -1461,12 +1582,11 @@ public class TrainingService {
       List<SnapshotImage> devImages,
       List<SnapshotImage> testImages,
       List<SnapshotImageLabel> allLabels,
-      TrainingRecord trainRecord)
+      String volumeBaseName,
+      Consumer<Path> volumeListener)
       throws IOException {
 
-    List<String> zipFilePaths = new ArrayList<>();
-    String zipFileName = trainRecord.getTrackId() + ".zip";
-    Path zipPath = baseDir.resolve(zipFileName);
+    List<Path> volumes;
 
     // Pre-build labels map for efficient lookup
     Map<Long, List<SnapshotImageLabel>> labelsByImageId =
@@ -1478,16 +1598,13 @@ public class TrainingService {
             .collect(
                 Collectors.toMap(SnapshotProjectClass::getId, SnapshotProjectClass::getClassName));
 
-    // Use streaming pipeline with BufferedOutputStream and fast compression
+    // Stream entries into size-limited volumes, finished volumes go to the listener right away
     // Collect all written entry paths for generating model_file_structure.json
     List<String> writtenEntryPaths = Collections.synchronizedList(new ArrayList<>());
+    RollingZipWriter zipWriter =
+        new RollingZipWriter(baseDir, volumeBaseName, yoloZipFileMaxSize, volumeListener);
 
-    try (FileOutputStream fos = new FileOutputStream(zipPath.toFile());
-        BufferedOutputStream bos = new BufferedOutputStream(fos, 64 * 1024);
-        ZipOutputStream zos = new ZipOutputStream(bos)) {
-
-      // Use fast compression for better performance
-      zos.setLevel(Deflater.BEST_SPEED);
+    try (zipWriter) {
 
       // NOTE: Classification does NOT need data.yaml file
       // YOLO automatically maps folder names to class IDs (0-indexed)
@@ -1496,13 +1613,13 @@ public class TrainingService {
       String imageStructureJson =
           generateImageStructureJson(
               trainingImages, devImages, testImages, labelsByImageId, classIdToName, true);
-      zos.putNextEntry(new ZipEntry("model_image_structure.json"));
-      zos.write(imageStructureJson.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(
+          new ZipEntry("model_image_structure.json"),
+          imageStructureJson.getBytes(StandardCharsets.UTF_8));
       writtenEntryPaths.add("model_image_structure.json");
 
       // Write empty directory entries for classification to ensure folder structure exists
-      writeEmptyClassificationDirectoryEntries(zos, classes);
+      writeEmptyClassificationDirectoryEntries(zipWriter, classes);
 
       // Process images in parallel batches
       ExecutorService executor = Executors.newFixedThreadPool(zipThreadPoolSize);
@@ -1516,11 +1633,17 @@ public class TrainingService {
               "train",
               classIdToName,
               labelsByImageId,
-              zos,
+              zipWriter,
               writtenEntryPaths));
       futures.addAll(
           processSnapshotClassificationImagesInBatches(
-              executor, devImages, "val", classIdToName, labelsByImageId, zos, writtenEntryPaths));
+              executor,
+              devImages,
+              "val",
+              classIdToName,
+              labelsByImageId,
+              zipWriter,
+              writtenEntryPaths));
       futures.addAll(
           processSnapshotClassificationImagesInBatches(
               executor,
@@ -1528,7 +1651,7 @@ public class TrainingService {
               "test",
               classIdToName,
               labelsByImageId,
-              zos,
+              zipWriter,
               writtenEntryPaths));
 
       // Wait for all batches to complete
@@ -1538,9 +1661,11 @@ public class TrainingService {
 
       // Generate model_file_structure.json as the last entry (same level as train/val/test)
       String fileStructureJson = generateFileStructureJson(writtenEntryPaths);
-      zos.putNextEntry(new ZipEntry("model_file_structure.json"));
-      zos.write(fileStructureJson.getBytes(StandardCharsets.UTF_8));
-      zos.closeEntry();
+      zipWriter.write(
+          new ZipEntry("model_file_structure.json"),
+          fileStructureJson.getBytes(StandardCharsets.UTF_8));
+
+      volumes = zipWriter.finish();
 
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
@@ -1549,21 +1674,7 @@ public class TrainingService {
       throw new IOException("Failed to generate dataset: " + e.getMessage(), e);
     }
 
-    zipFilePaths.add(zipPath.toString());
-
-    // Check if file exceeds size limit and split if necessary
-    File zipFile = zipPath.toFile();
-    if (zipFile.length() > yoloZipFileMaxSize) {
-      log.info(
-          "Zip file exceeds size limit ({} > {}), splitting into parts",
-          zipFile.length(),
-          yoloZipFileMaxSize);
-      zipFilePaths.clear();
-      zipFilePaths.addAll(splitZipFileByBytes(zipFile, baseDir, trainRecord.getTrackId()));
-      Files.deleteIfExists(zipPath);
-    }
-
-    return zipFilePaths;
+    return volumes;
   }
 
   /** Generate data.yaml content for YOLO detection/segmentation from snapshot classes. */
@@ -1788,34 +1899,30 @@ public class TrainingService {
 
   /**
    * Write empty directory entries for YOLO detection/segmentation dataset structure directly to
-   * ZipOutputStream. This ensures train/val/test folders exist even when there are no images.
+   * the dataset volumes. This ensures train/val/test folders exist even when there are no images.
    */
-  private void writeEmptyDirectoryEntries(ZipOutputStream zos) throws IOException {
+  private void writeEmptyDirectoryEntries(RollingZipWriter zipWriter) throws IOException {
     String[] splits = {"train", "val", "test"};
     for (String split : splits) {
-      zos.putNextEntry(new ZipEntry("dataset/images/" + split + "/"));
-      zos.closeEntry();
-      zos.putNextEntry(new ZipEntry("dataset/labels/" + split + "/"));
-      zos.closeEntry();
+      zipWriter.write(new ZipEntry("dataset/images/" + split + "/"), new byte[0]);
+      zipWriter.write(new ZipEntry("dataset/labels/" + split + "/"), new byte[0]);
     }
   }
 
   /**
    * Write empty directory entries for YOLO classification dataset structure directly to
-   * ZipOutputStream. This ensures train/val/test folders with class subfolders exist.
+   * the dataset volumes. This ensures train/val/test folders with class subfolders exist.
    */
   private void writeEmptyClassificationDirectoryEntries(
-      ZipOutputStream zos, List<SnapshotProjectClass> classes) throws IOException {
+      RollingZipWriter zipWriter, List<SnapshotProjectClass> classes) throws IOException {
     String[] splits = {"train", "val", "test"};
     for (String split : splits) {
       // Add split directory
-      zos.putNextEntry(new ZipEntry(split + "/"));
-      zos.closeEntry();
+      zipWriter.write(new ZipEntry(split + "/"), new byte[0]);
       // Add class subdirectories for each split
       for (SnapshotProjectClass cls : classes) {
         String safeClassName = cls.getClassName().replaceAll("[^a-zA-Z0-9_-]", "_");
-        zos.putNextEntry(new ZipEntry(split + "/" + safeClassName + "/"));
-        zos.closeEntry();
+        zipWriter.write(new ZipEntry(split + "/" + safeClassName + "/"), new byte[0]);
       }
     }
   }
@@ -1828,7 +1935,7 @@ public class TrainingService {
    * @param split the split name (train/val/test)
    * @param classIdToIndex mapping from class ID to YOLO index
    * @param labelsByImageId pre-built map of image ID to labels
-   * @param zos the ZipOutputStream to write to
+   * @param zipWriter the volume writer to write to
    * @param isSegmentation whether to use segmentation format
    * @return list of futures for tracking completion
    */
@@ -1838,7 +1945,7 @@ public class TrainingService {
       String split,
       Map<Long, Integer> classIdToIndex,
       Map<Long, List<SnapshotImageLabel>> labelsByImageId,
-      ZipOutputStream zos,
+      RollingZipWriter zipWriter,
       boolean isSegmentation,
       List<String> writtenEntryPaths) {
 
@@ -1856,7 +1963,7 @@ public class TrainingService {
                     split,
                     classIdToIndex,
                     labelsByImageId,
-                    zos,
+                    zipWriter,
                     isSegmentation,
                     writtenEntryPaths);
                 return null;
@@ -1875,7 +1982,7 @@ public class TrainingService {
       String split,
       Map<Long, Integer> classIdToIndex,
       Map<Long, List<SnapshotImageLabel>> labelsByImageId,
-      ZipOutputStream zos,
+      RollingZipWriter zipWriter,
       boolean isSegmentation,
       List<String> writtenEntryPaths)
       throws IOException {
@@ -1893,10 +2000,7 @@ public class TrainingService {
     }
 
     // Batch fetch image files
-    List<ImageFile> imageFiles = imageFileRepository.findAllById(fileIds);
-    Map<Long, byte[]> imageDataMap =
-        imageFiles.stream()
-            .collect(Collectors.toMap(ImageFile::getId, ImageFile::getImageFileStream));
+    Map<Long, byte[]> imageDataMap = imageFileStore.readAll(fileIds);
 
     for (SnapshotImage image : batch) {
       if (image.getFileId() == null) {
@@ -1910,11 +2014,8 @@ public class TrainingService {
 
       // Write image file: dataset/images/{split}/{filename}
       String imagePath = "dataset/images/" + split + "/" + image.getFileName();
-      synchronized (zos) {
-        zos.putNextEntry(new ZipEntry(imagePath));
-        zos.write(imageData);
-        zos.closeEntry();
-      }
+      ZipEntry imageEntry = DatasetZipEntries.forContent(imagePath, imageData);
+      zipWriter.write(imageEntry, imageData);
       writtenEntryPaths.add(imagePath);
 
       // Generate and write label file
@@ -1926,11 +2027,8 @@ public class TrainingService {
 
       String labelFileName = image.getFileName().replaceAll("\\.[^.]+$", ".txt");
       String labelPath = "dataset/labels/" + split + "/" + labelFileName;
-      synchronized (zos) {
-        zos.putNextEntry(new ZipEntry(labelPath));
-        zos.write(labelContent.getBytes(StandardCharsets.UTF_8));
-        zos.closeEntry();
-      }
+      byte[] labelBytes = labelContent.getBytes(StandardCharsets.UTF_8);
+      zipWriter.write(new ZipEntry(labelPath), labelBytes);
       writtenEntryPaths.add(labelPath);
     }
   }
@@ -1943,7 +2041,7 @@ public class TrainingService {
    * @param split the split name (train/val/test)
    * @param classIdToName mapping from class ID to class name
    * @param labelsByImageId pre-built map of image ID to labels
-   * @param zos the ZipOutputStream to write to
+   * @param zipWriter the volume writer to write to
    * @return list of futures for tracking completion
    */
   private List<Future<Void>> processSnapshotClassificationImagesInBatches(
@@ -1952,7 +2050,7 @@ public class TrainingService {
       String split,
       Map<Long, String> classIdToName,
       Map<Long, List<SnapshotImageLabel>> labelsByImageId,
-      ZipOutputStream zos,
+      RollingZipWriter zipWriter,
       List<String> writtenEntryPaths) {
 
     List<Future<Void>> futures = new ArrayList<>();
@@ -1965,7 +2063,7 @@ public class TrainingService {
           executor.submit(
               () -> {
                 processSnapshotClassificationBatch(
-                    batch, split, classIdToName, labelsByImageId, zos, writtenEntryPaths);
+                    batch, split, classIdToName, labelsByImageId, zipWriter, writtenEntryPaths);
                 return null;
               }));
     }
@@ -1982,7 +2080,7 @@ public class TrainingService {
       String split,
       Map<Long, String> classIdToName,
       Map<Long, List<SnapshotImageLabel>> labelsByImageId,
-      ZipOutputStream zos,
+      RollingZipWriter zipWriter,
       List<String> writtenEntryPaths)
       throws IOException {
 
@@ -1999,10 +2097,7 @@ public class TrainingService {
     }
 
     // Batch fetch image files
-    List<ImageFile> imageFiles = imageFileRepository.findAllById(fileIds);
-    Map<Long, byte[]> imageDataMap =
-        imageFiles.stream()
-            .collect(Collectors.toMap(ImageFile::getId, ImageFile::getImageFileStream));
+    Map<Long, byte[]> imageDataMap = imageFileStore.readAll(fileIds);
 
     for (SnapshotImage image : batch) {
       if (image.getFileId() == null) {
@@ -2035,12 +2130,9 @@ public class TrainingService {
       String safeClassName = className.replaceAll("[^a-zA-Z0-9_-]", "_");
       String imagePath = split + "/" + safeClassName + "/" + image.getFileName();
 
-      // Write to ZIP (synchronized for thread safety)
-      synchronized (zos) {
-        zos.putNextEntry(new ZipEntry(imagePath));
-        zos.write(imageData);
-        zos.closeEntry();
-      }
+      ZipEntry imageEntry = DatasetZipEntries.forContent(imagePath, imageData);
+      // Write to ZIP (the writer is thread safe)
+      zipWriter.write(imageEntry, imageData);
       writtenEntryPaths.add(imagePath);
     }
   }
@@ -2100,7 +2192,7 @@ public class TrainingService {
     for (SnapshotImage image : images) {
       // Get image file
       if (image.getFileId() != null) {
-        Optional<byte[]> imageData = imageFileRepository.findImageFileStreamById(image.getFileId());
+        Optional<byte[]> imageData = imageFileStore.read(image.getFileId());
         if (imageData.isPresent()) {
           // Image path: dataset/images/{split}/{filename}
           String imagePath = "dataset/images/" + split + "/" + image.getFileName();
@@ -2153,25 +2245,21 @@ public class TrainingService {
         continue;
       }
 
-      try {
-        // Parse position JSON
-        @SuppressWarnings("unchecked")
-        Map<String, Object> position = objectMapper.readValue(label.getPosition(), Map.class);
-        log.info("position is {}", position);
-
-        if (isSegmentation) {
-          // For segmentation, use polygon points if available
-          content.append(generateSegmentationLabel(classIndex, position, imageWidth, imageHeight));
-        } else {
-          // For detection, use bounding box
-          if ("obb".equalsIgnoreCase((String) position.get("type"))) {
-            content.append(generateObbLabel(classIndex, position, imageWidth, imageHeight));
-          } else {
-            content.append(generateDetectionLabel(classIndex, position, imageWidth, imageHeight));
-          }
-        }
-      } catch (JsonProcessingException e) {
-        log.warn("Failed to parse label position for snapshot label ID: {}", label.getId());
+      // Compiled position, parsed once per label
+      LabelGeometry position =
+          labelGeometryCache.get(Source.SNAPSHOT_LABEL, label.getId(), label.getPosition());
+      if (position == null) {
+        continue;
+      }
+
+      if (isSegmentation) {
+        // For segmentation, use polygon points if available
+        content.append(generateSegmentationLabel(classIndex, position, imageWidth, imageHeight));
+      } else if (position.isObb()) {
+        content.append(generateObbLabel(classIndex, position, imageWidth, imageHeight));
+      } else {
+        // For detection, use bounding box
+        content.append(generateDetectionLabel(classIndex, position, imageWidth, imageHeight));
       }
     }
 
@@ -2197,7 +2285,7 @@ public class TrainingService {
 
     for (SnapshotImage image : images) {
       if (image.getFileId() != null) {
-        Optional<byte[]> imageData = imageFileRepository.findImageFileStreamById(image.getFileId());
+        Optional<byte[]> imageData = imageFileStore.read(image.getFileId());
         if (imageData.isPresent()) {
           // Get the primary class for this image from the pre-loaded map
           List<SnapshotImageLabel> labels =
@@ -2256,7 +2344,7 @@ public class TrainingService {
     for (Image image : images) {
       // Get image file
       if (image.getFileId() != null) {
-        Optional<byte[]> imageData = imageFileRepository.findImageFileStreamById(image.getFileId());
+        Optional<byte[]> imageData = imageFileStore.read(image.getFileId());
         if (imageData.isPresent()) {
           // Image path: dataset/images/{split}/{filename}
           String imagePath = "dataset/images/" + split + "/" + image.getFileName();
@@ -2304,20 +2392,19 @@ public class TrainingService {
         continue;
       }
 
-      try {
-        // Parse position JSON
-        @SuppressWarnings("unchecked")
-        Map<String, Object> position = objectMapper.readValue(label.getPosition(), Map.class);
-
-        if (isSegmentation) {
-          // For segmentation, use polygon points if available
-          content.append(generateSegmentationLabel(classIndex, position, imageWidth, imageHeight));
-        } else {
-          // For detection, use bounding box
-          content.append(generateDetectionLabel(classIndex, position, imageWidth, imageHeight));
-        }
-      } catch (JsonProcessingException e) {
-        log.warn("Failed to parse label position for label ID: {}", label.getId());
+      // Compiled position, parsed once per label
+      LabelGeometry position =
+          labelGeometryCache.get(Source.IMAGE_LABEL, label.getId(), label.getPosition());
+      if (position == null) {
+        continue;
+      }
+
+      if (isSegmentation) {
+        // For segmentation, use polygon points if available
+        content.append(generateSegmentationLabel(classIndex, position, imageWidth, imageHeight));
+      } else {
+        // For detection, use bounding box
+        content.append(generateDetectionLabel(classIndex, position, imageWidth, imageHeight));
       }
     }
 
@@ -2326,56 +2413,34 @@ public class TrainingService {
 
   /** Generate detection label line in YOLO format. */
   private String generateDetectionLabel(
-      Integer classIndex, Map<String, Object> position, Integer imageWidth, Integer imageHeight) {
+      Integer classIndex, LabelGeometry position, Integer imageWidth, Integer imageHeight) {
 
     // Try to get bounding box coordinates
-    Double x = getDoubleValue(position, "x");
-    Double y = getDoubleValue(position, "y");
-    Double width = getDoubleValue(position, "width");
-    Double height = getDoubleValue(position, "height");
-
-    if (x == null || y == null || width == null || height == null) {
+    if (!position.hasBox()) {
       return "";
     }
 
     // Convert to YOLO format (center_x, center_y, width, height) normalized to 0-1
-    double centerX = x; // (x + width / 2.0) / imageWidth;
-    double centerY = y; // (y + height / 2.0) / imageHeight;
-    double normWidth = width; // / imageWidth;
-    double normHeight = height; // / imageHeight;
+    double centerX = position.getX(); // (x + width / 2.0) / imageWidth;
+    double centerY = position.getY(); // (y + height / 2.0) / imageHeight;
+    double normWidth = position.getWidth(); // / imageWidth;
+    double normHeight = position.getHeight(); // / imageHeight;
 
     return String.format(
         "%d %.6f %.6f %.6f %.6f\n", classIndex, centerX, centerY, normWidth, normHeight);
   }
 
   /** Generate segmentation label line in YOLO format. */
-  @SuppressWarnings("unchecked")
   private String generateSegmentationLabel(
-      Integer classIndex, Map<String, Object> position, Integer imageWidth, Integer imageHeight) {
+      Integer classIndex, LabelGeometry position, Integer imageWidth, Integer imageHeight) {
 
     // Try to get polygon points
-    Object pointsObj = position.get("points");
-    if (pointsObj instanceof List) {
-      List<Object> points = (List<Object>) pointsObj;
+    if (position.hasPolygon()) {
+      double[] points = position.getPolygon();
       StringBuilder sb = new StringBuilder();
       sb.append(classIndex);
-
-      for (Object point : points) {
-        if (point instanceof Map) {
-          Map<String, Object> p = (Map<String, Object>) point;
-          Double px = getDoubleValue(p, "x");
-          Double py = getDoubleValue(p, "y");
-          if (px != null && py != null) {
-            sb.append(String.format(" %.6f %.6f", px / imageWidth, py / imageHeight));
-          }
-        } else if (point instanceof List) {
-          List<Object> coords = (List<Object>) point;
-          if (coords.size() >= 2) {
-            Double px = ((Number) coords.get(0)).doubleValue();
-            Double py = ((Number) coords.get(1)).doubleValue();
-            sb.append(String.format(" %.6f %.6f", px / imageWidth, py / imageHeight));
-          }
-        }
+      for (int i = 0; i + 1 < points.length; i += 2) {
+        sb.append(String.format(" %.6f %.6f", points[i] / imageWidth, points[i + 1] / imageHeight));
       }
       sb.append("\n");
       return sb.toString();
@@ -2389,42 +2454,20 @@ public class TrainingService {
    * Generate OBB (Oriented Bounding Box) label line in YOLO OBB format. Format: class_id x1 y1 x2
    * y2 x3 y3 x4 y4 (4 corner points, normalized 0-1)
    *
-   * <p>Supports two position formats: 1. Rotated rectangle: {"x", "y", "width", "height",
-   * "rotation"} where (x,y) is the top-left corner and rotation is in degrees. 2. Four corner
-   * points: {"points": [{"x":x1,"y":y1}, {"x":x2,"y":y2}, {"x":x3,"y":y3}, {"x":x4,"y":y4}]}
+   * <p>Position structure: {type=obb, x1=..., y1=..., x2=..., y2=..., x3=..., y3=..., x4=...,
+   * y4=...}. Values are already normalized (0-1 range).
    */
-  @SuppressWarnings("unchecked")
   private String generateObbLabel(
-      Integer classIndex, Map<String, Object> position, Integer imageWidth, Integer imageHeight) {
-
-    // Try to read x1,y1,x2,y2,x3,y3,x4,y4 directly from position
-    // Position structure: {type=obb, x1=..., y1=..., x2=..., y2=..., x3=..., y3=..., x4=...,
-    // y4=...}
-    // Values are already normalized (0-1 range)
-    Double x1 = getDoubleValue(position, "x1");
-    Double y1 = getDoubleValue(position, "y1");
-    Double x2 = getDoubleValue(position, "x2");
-    Double y2 = getDoubleValue(position, "y2");
-    Double x3 = getDoubleValue(position, "x3");
-    Double y3 = getDoubleValue(position, "y3");
-    Double x4 = getDoubleValue(position, "x4");
-    Double y4 = getDoubleValue(position, "y4");
+      Integer classIndex, LabelGeometry position, Integer imageWidth, Integer imageHeight) {
 
+    double[] corners = position.getCorners();
     StringBuilder strBuilder = new StringBuilder();
 
-    if (x1 != null
-        && y1 != null
-        && x2 != null
-        && y2 != null
-        && x3 != null
-        && y3 != null
-        && x4 != null
-        && y4 != null) {
+    if (corners != null) {
       strBuilder.append(classIndex);
-      strBuilder.append(String.format(" %.6f %.6f", x1, y1));
-      strBuilder.append(String.format(" %.6f %.6f", x2, y2));
-      strBuilder.append(String.format(" %.6f %.6f", x3, y3));
-      strBuilder.append(String.format(" %.6f %.6f", x4, y4));
+      for (int i = 0; i < corners.length; i += 2) {
+        strBuilder.append(String.format(" %.6f %.6f", corners[i], corners[i + 1]));
+      }
     }
 
     strBuilder.append("\n");
@@ -2441,7 +2484,7 @@ public class TrainingService {
 
     for (Image image : images) {
       if (image.getFileId() != null) {
-        Optional<byte[]> imageData = imageFileRepository.findImageFileStreamById(image.getFileId());
+        Optional<byte[]> imageData = imageFileStore.read(image.getFileId());
         if (imageData.isPresent()) {
           // Get the primary class for this image
           List<ImageLabel> labels = imageLabelRepository.findByImageId(image.getId());
@@ -2598,8 +2641,7 @@ public class TrainingService {
         ZipOutputStream zos = new ZipOutputStream(fos)) {
 
       for (ZipEntryData entry : entries) {
-        ZipEntry zipEntry = new ZipEntry(entry.path);
-        zos.putNextEntry(zipEntry);
+        zos.putNextEntry(DatasetZipEntries.forContent(entry.path, entry.data));
         zos.write(entry.data);
         zos.closeEntry();
       }
@@ -2609,15 +2651,6 @@ public class TrainingService {
     return zipPath.toString();
   }
 
-  /** Helper method to get Double value from map. */
-  private Double getDoubleValue(Map<String, Object> map, String key) {
-    Object value = map.get(key);
-    if (value instanceof Number) {
-      return ((Number) value).doubleValue();
-    }
-    return null;
-  }
-
   /**
    * Generate model_file_structure.json content recording all file paths and file names in the zip.
    * The output is a JSON array of objects, each with "path" (relative path inside zip) and
@@ -0,0 +1,161 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nxp.iemdm.shared.repository.jpa.landingai.ImageFileRepository;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Image files written to, read from and released on the file system backend. */
+public class ImageFileStoreTest {
+
+  @TempDir Path root;
+
+  private ImageFileRepository imageFileRepository;
+  private FileSystemImageBlobStore blobStore;
+  private ImageFileStore imageFileStore;
+
+  @BeforeEach
+  public void setUp() {
+    imageFileRepository = mock(ImageFileRepository.class);
+    blobStore = new FileSystemImageBlobStore(root.toString());
+    imageFileStore = new ImageFileStore(imageFileRepository, List.of(blobStore));
+    ReflectionTestUtils.setField(imageFileStore, "activeBackend", FileSystemImageBlobStore.BACKEND);
+    imageFileStore.init();
+
+    when(imageFileRepository.findIdByContentHashForKeyShare(anyString()))
+        .thenReturn(Optional.empty());
+    when(imageFileRepository.findStorageBackendById(any()))
+        .thenReturn(Optional.of(FileSystemImageBlobStore.BACKEND));
+    when(imageFileRepository.findStorageBackendsByIdIn(anyCollection()))
+        .thenAnswer(invocation -> backendRows(invocation.getArgument(0)));
+  }
+
+  @Test
+  public void storeWritesContentBelowTheRoot() throws Exception {
+    byte[] content = content("first image");
+
+    Long fileId = store(0x0201L, "first.png", content);
+
+    assertEquals(0x0201L, fileId);
+    Path file = root.toAbsolutePath().resolve("01").resolve("02").resolve("513.bin");
+    assertArrayEquals(content, Files.readAllBytes(file));
+    try (var files = Files.list(file.getParent())) {
+      assertEquals(1, files.count(), "no temporary file is left behind");
+    }
+  }
+
+  @Test
+  public void storeReusesFileWithIdenticalContent() {
+    byte[] content = content("duplicate");
+    String hash = ImageIngestPipeline.sha256Hex(content);
+    when(imageFileRepository.findIdByContentHashForKeyShare(hash)).thenReturn(Optional.of(7L));
+
+    Long fileId = imageFileStore.store("copy.png", content, hash, "user");
+
+    assertEquals(7L, fileId);
+    verify(imageFileRepository, never()).insertIfAbsent(any(), any(), any(), any());
+    assertFalse(Files.exists(blobStore.pathFor(7L)));
+  }
+
+  @Test
+  public void readReturnsStoredContent() throws Exception {
+    byte[] content = content("read me");
+    Long fileId = store(42L, "read.png", content);
+
+    assertArrayEquals(content, imageFileStore.read(fileId).orElseThrow());
+    assertEquals((long) content.length, imageFileStore.getFileLength(fileId));
+  }
+
+  @Test
+  public void readOfMissingFileIsEmpty() {
+    assertTrue(imageFileStore.read(99L).isEmpty());
+    assertTrue(imageFileStore.read(null).isEmpty());
+  }
+
+  @Test
+  public void readAllReturnsEveryStoredFile() {
+    byte[] first = content("first");
+    byte[] second = content("second");
+    store(1L, "first.png", first);
+    store(300L, "second.png", second);
+
+    Map<Long, byte[]> contents = imageFileStore.readAll(Arrays.asList(1L, 300L, 1L, null, 500L));
+
+    assertEquals(2, contents.size());
+    assertArrayEquals(first, contents.get(1L));
+    assertArrayEquals(second, contents.get(300L));
+  }
+
+  @Test
+  public void copyRangeCopiesPartOfTheContent() throws Exception {
+    Long fileId = store(5L, "range.png", content("0123456789"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    imageFileStore.copyRange(fileId, 2, 5, out);
+
+    assertEquals("23456", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void releaseDeletesUnreferencedFilesOnly() {
+    store(10L, "released.png", content("released"));
+    store(11L, "kept.png", content("kept"));
+    when(imageFileRepository.deleteUnreferenced(anyCollection()))
+        .thenReturn(List.<Object[]>of(new Object[] {10L, FileSystemImageBlobStore.BACKEND}));
+
+    int released = imageFileStore.release(Arrays.asList(10L, 11L, null));
+
+    assertEquals(1, released);
+    assertFalse(Files.exists(blobStore.pathFor(10L)));
+    assertTrue(Files.exists(blobStore.pathFor(11L)));
+  }
+
+  @Test
+  public void releaseWithoutCandidatesDoesNotQuery() {
+    assertEquals(0, imageFileStore.release(Arrays.asList((Long) null)));
+    verify(imageFileRepository, never()).deleteUnreferenced(anyCollection());
+  }
+
+  private Long store(Long fileId, String fileName, byte[] content) {
+    String hash = ImageIngestPipeline.sha256Hex(content);
+    when(imageFileRepository.insertIfAbsent(
+            fileName, hash, FileSystemImageBlobStore.BACKEND, "user"))
+        .thenReturn(Optional.of(fileId));
+    return imageFileStore.store(fileName, content, hash, "user");
+  }
+
+  private static List<Object[]> backendRows(Collection<Long> fileIds) {
+    List<Object[]> rows = new ArrayList<>();
+    for (Long fileId : fileIds) {
+      rows.add(new Object[] {fileId, FileSystemImageBlobStore.BACKEND});
+    }
+    return rows;
+  }
+
+  private static byte[] content(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+}
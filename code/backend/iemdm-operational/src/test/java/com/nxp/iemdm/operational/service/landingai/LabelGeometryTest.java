@@ -0,0 +1,63 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/** Parsing of stored label positions. */
+public class LabelGeometryTest {
+
+  @Test
+  public void numericBoxIsParsed() throws IOException {
+    LabelGeometry geometry =
+        LabelGeometry.parse(
+            "{\"type\":\"rectangle\",\"x\":0.5,\"y\":0.25,\"width\":0.1,\"height\":0.2}");
+
+    assertEquals("rectangle", geometry.getType());
+    assertTrue(geometry.hasBox());
+    assertEquals(0.5, geometry.getX());
+    assertEquals(0.25, geometry.getY());
+    assertEquals(0.1, geometry.getWidth());
+    assertEquals(0.2, geometry.getHeight());
+  }
+
+  @Test
+  public void quotedNumbersAreParsed() throws IOException {
+    LabelGeometry geometry =
+        LabelGeometry.parse(
+            "{\"type\":\"rectangle\",\"x\":\"0.5\",\"y\":\" 0.25\",\"width\":\"1e-1\","
+                + "\"height\":\"0.2\"}");
+
+    assertTrue(geometry.hasBox());
+    assertEquals(0.5, geometry.getX());
+    assertEquals(0.25, geometry.getY());
+    assertEquals(0.1, geometry.getWidth());
+    assertEquals(0.2, geometry.getHeight());
+  }
+
+  @Test
+  public void quotedCornersAndPointsAreParsed() throws IOException {
+    LabelGeometry obb =
+        LabelGeometry.parse(
+            "{\"type\":\"obb\",\"x1\":\"0.1\",\"y1\":0.1,\"x2\":0.3,\"y2\":\"0.1\","
+                + "\"x3\":0.3,\"y3\":0.3,\"x4\":0.1,\"y4\":\"0.3\"}");
+    assertArrayEquals(new double[] {0.1, 0.1, 0.3, 0.1, 0.3, 0.3, 0.1, 0.3}, obb.getCorners(), 0);
+
+    LabelGeometry polygon =
+        LabelGeometry.parse("{\"points\":[{\"x\":\"0.1\",\"y\":\"0.2\"},[\"0.3\",0.4]]}");
+    assertArrayEquals(new double[] {0.1, 0.2, 0.3, 0.4}, polygon.getPolygon(), 0);
+  }
+
+  @Test
+  public void nonNumericStringIsMissing() throws IOException {
+    LabelGeometry geometry =
+        LabelGeometry.parse("{\"x\":\"left\",\"y\":0.5,\"width\":0.1,\"height\":0.1}");
+
+    assertTrue(Double.isNaN(geometry.getX()));
+    assertFalse(geometry.hasBox());
+  }
+}
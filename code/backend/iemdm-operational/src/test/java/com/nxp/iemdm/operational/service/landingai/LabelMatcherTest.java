@@ -0,0 +1,85 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/** IoU matching of stored label positions, as loaded by the model evaluation. */
+public class LabelMatcherTest {
+
+  private static final String GT_OBJECT =
+      "{\"type\":\"rectangle\",\"x\":0.5,\"y\":0.5,\"width\":0.2,\"height\":0.4}";
+
+  @Test
+  public void boxArrayParsesAsCenterFormatBox() throws IOException {
+    LabelGeometry geometry = LabelGeometry.parse("[0.5,0.5,0.2,0.4]");
+
+    assertTrue(geometry.hasBox());
+    assertEquals(0.5, geometry.getX());
+    assertEquals(0.5, geometry.getY());
+    assertEquals(0.2, geometry.getWidth());
+    assertEquals(0.4, geometry.getHeight());
+  }
+
+  @Test
+  public void arrayOfOtherLengthIsRejected() {
+    assertThrows(IOException.class, () -> LabelGeometry.parse("[]"));
+    assertThrows(IOException.class, () -> LabelGeometry.parse("[0.5,0.5,0.2]"));
+    assertThrows(IOException.class, () -> LabelGeometry.parse("[0.5,0.5,0.2,0.4,1]"));
+  }
+
+  @Test
+  public void arrayPredictionMatchesObjectGroundTruth() throws IOException {
+    EvaluationShape gt = shape(GT_OBJECT);
+    EvaluationShape pred = shape("[0.5,0.5,0.2,0.4]");
+    assertNotNull(pred);
+    assertEquals(1.0, EvaluationShape.iou(gt, pred), 1e-9);
+
+    int[] gtToPred =
+        LabelMatcher.match(
+            new EvaluationShape[] {gt},
+            new Long[] {1L},
+            new EvaluationShape[] {shape("[0.9,0.9,0.1,0.1]"), pred},
+            new Long[] {1L, 1L},
+            new int[] {95, 80},
+            0.5);
+
+    assertArrayEquals(new int[] {1}, gtToPred);
+  }
+
+  @Test
+  public void shiftedArrayPredictionMatchesAboveThresholdOnly() throws IOException {
+    EvaluationShape gt = shape(GT_OBJECT);
+    // Shifted by a quarter of the width: intersection 0.15 x 0.4, union 0.25 x 0.4
+    EvaluationShape pred = shape("[0.55,0.5,0.2,0.4]");
+
+    assertEquals(0.6, EvaluationShape.iou(gt, pred), 1e-9);
+    assertArrayEquals(
+        new int[] {0},
+        LabelMatcher.matchInConfidenceOrder(
+            new EvaluationShape[] {gt},
+            new Long[] {1L},
+            new EvaluationShape[] {pred},
+            new Long[] {1L},
+            new int[] {90},
+            0.5));
+    assertArrayEquals(
+        new int[] {-1},
+        LabelMatcher.matchInConfidenceOrder(
+            new EvaluationShape[] {gt},
+            new Long[] {1L},
+            new EvaluationShape[] {pred},
+            new Long[] {1L},
+            new int[] {90},
+            0.75));
+  }
+
+  private static EvaluationShape shape(String position) throws IOException {
+    return EvaluationShape.of(position, LabelGeometry.parse(position));
+  }
+}
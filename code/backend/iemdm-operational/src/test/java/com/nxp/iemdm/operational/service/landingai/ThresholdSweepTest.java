@@ -0,0 +1,151 @@
+package com.nxp.iemdm.operational.service.landingai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nxp.iemdm.operational.service.landingai.TrainingResultReader.PredictionRecord;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallPointDTO;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Threshold sweep over predictions as the training job reports them: {@code [xc, yc, w, h]} bbox
+ * arrays read by {@link TrainingResultReader}, matched against ground truth position objects.
+ */
+public class ThresholdSweepTest {
+
+  private static final String TRAINING_RESULT =
+      """
+      {
+        "metrics": {},
+        "prediction_images": [
+          {
+            "image": "a.jpg",
+            "predictions": [
+              {"class_id": 0, "confidence": 0.9, "bbox": [0.5, 0.5, 0.2, 0.4]},
+              {"class_id": 0, "confidence": 0.4, "bbox": [0.1, 0.1, 0.05, 0.05]}
+            ]
+          },
+          {
+            "image": "b.jpg",
+            "predictions": [
+              {"class_id": 1, "confidence": 0.7, "bbox": [0.31, 0.3, 0.2, 0.2]}
+            ]
+          }
+        ]
+      }
+      """;
+
+  /** Ground truth positions and class IDs by image */
+  private static final Map<String, String[][]> GROUND_TRUTH =
+      Map.of(
+          "a.jpg",
+          new String[][] {{"1", "{\"x\":0.5,\"y\":0.5,\"width\":0.2,\"height\":0.4}"}},
+          "b.jpg",
+          new String[][] {
+            {"2", "{\"x\":0.3,\"y\":0.3,\"width\":0.2,\"height\":0.2}"},
+            {"1", "{\"x\":0.8,\"y\":0.8,\"width\":0.1,\"height\":0.1}"}
+          });
+
+  @TempDir Path dir;
+
+  private ThresholdSweep sweep;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    Path file = dir.resolve("training_result.json");
+    Files.writeString(file, TRAINING_RESULT);
+    List<PredictionRecord> predictions = new ArrayList<>();
+    TrainingResultReader.readPredictions(new ObjectMapper(), file, 10, predictions::addAll);
+
+    sweep = new ThresholdSweep();
+    for (Map.Entry<String, String[][]> image : GROUND_TRUTH.entrySet()) {
+      String[][] gt = image.getValue();
+      EvaluationShape[] gtShapes = new EvaluationShape[gt.length];
+      Long[] gtClasses = new Long[gt.length];
+      for (int g = 0; g < gt.length; g++) {
+        gtClasses[g] = Long.valueOf(gt[g][0]);
+        gtShapes[g] = shape(gt[g][1]);
+      }
+
+      List<PredictionRecord> imagePredictions =
+          predictions.stream().filter(p -> p.image.equals(image.getKey())).toList();
+      EvaluationShape[] predShapes = new EvaluationShape[imagePredictions.size()];
+      Long[] predClasses = new Long[imagePredictions.size()];
+      int[] predConfidence = new int[imagePredictions.size()];
+      for (int p = 0; p < predShapes.length; p++) {
+        PredictionRecord prediction = imagePredictions.get(p);
+        // Class sequence 0 is class ID 1, as mapped when the predictions are stored
+        predClasses[p] = prediction.classId + 1L;
+        predShapes[p] = shape(prediction.bbox);
+        predConfidence[p] = (int) Math.round(prediction.confidence * 100);
+      }
+
+      int[] predToGt =
+          LabelMatcher.matchInConfidenceOrder(
+              gtShapes, gtClasses, predShapes, predClasses, predConfidence, 0.5);
+      sweep.addImage(gtClasses, predClasses, predConfidence, predToGt);
+    }
+    sweep.finish();
+  }
+
+  @Test
+  public void allPredictionsCountAtThresholdZero() {
+    PrecisionRecallPointDTO point = sweep.getPoint(null, 0);
+
+    assertEquals(3, sweep.getGroundTruthCount(null));
+    assertEquals(2, point.getTruePositives());
+    assertEquals(1, point.getFalsePositives());
+    assertEquals(1, point.getFalseNegatives());
+    assertEquals(200.0 / 3, point.getPrecision(), 1e-9);
+    assertEquals(200.0 / 3, point.getRecall(), 1e-9);
+  }
+
+  @Test
+  public void lowConfidenceFalsePositiveDropsOutAboveItsConfidence() {
+    assertEquals(1, sweep.getPoint(null, 40).getFalsePositives());
+    PrecisionRecallPointDTO point = sweep.getPoint(null, 41);
+
+    assertEquals(2, point.getTruePositives());
+    assertEquals(0, point.getFalsePositives());
+    assertEquals(100.0, point.getPrecision(), 1e-9);
+    assertEquals(200.0 / 3, point.getRecall(), 1e-9);
+  }
+
+  @Test
+  public void highThresholdsKeepOnlyConfidentPredictions() {
+    PrecisionRecallPointDTO atSeventyOne = sweep.getPoint(null, 71);
+    assertEquals(1, atSeventyOne.getTruePositives());
+    assertEquals(100.0 / 3, atSeventyOne.getRecall(), 1e-9);
+
+    PrecisionRecallPointDTO atNinetyOne = sweep.getPoint(null, 91);
+    assertEquals(0, atNinetyOne.getTruePositives());
+    assertNull(atNinetyOne.getPrecision());
+    assertEquals(0.0, atNinetyOne.getRecall(), 1e-9);
+  }
+
+  @Test
+  public void classesAreCountedSeparately() {
+    PrecisionRecallPointDTO first = sweep.getPoint(1L, 0);
+    assertEquals(1, first.getTruePositives());
+    assertEquals(1, first.getFalsePositives());
+    assertEquals(1, first.getFalseNegatives());
+
+    PrecisionRecallPointDTO second = sweep.getPoint(2L, 0);
+    assertEquals(1, second.getTruePositives());
+    assertEquals(0, second.getFalsePositives());
+    assertEquals(100.0, second.getRecall(), 1e-9);
+  }
+
+  private static EvaluationShape shape(String position) throws IOException {
+    return EvaluationShape.of(position, LabelGeometry.parse(position));
+  }
+}
@@ -0,0 +1,141 @@
+package com.nxp.iemdm.operational.service.rest.landingai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nxp.iemdm.shared.dto.landingai.LabelOverlayDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Statement counts of the overlay hydration. The overlay queries select scalar columns only, so
+ * every executed query is exactly one SQL statement and no entities are loaded lazily afterwards.
+ */
+public class LabelOverlayHydratorTest {
+
+  private static final int LABELS_PER_IMAGE = 3;
+
+  private final AtomicInteger statements = new AtomicInteger();
+
+  private LabelOverlayHydrator hydrator;
+
+  @BeforeEach
+  public void setUp() {
+    EntityManager entityManager = mock(EntityManager.class);
+    when(entityManager.createQuery(anyString(), eq(Object[].class)))
+        .thenAnswer(invocation -> overlayQuery(invocation.getArgument(0)));
+    hydrator = new LabelOverlayHydrator();
+    ReflectionTestUtils.setField(hydrator, "entityManager", entityManager);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {20, 200})
+  public void pageTakesOneStatementPerAnnotationType(int pageSize) {
+    Map<Long, List<LabelOverlayDTO>> overlays = hydrator.loadOverlays(imageIds(pageSize), null, 7L);
+
+    assertEquals(2, statements.get());
+    assertEquals(pageSize, overlays.size());
+    overlays.values().forEach(list -> assertEquals(2 * LABELS_PER_IMAGE, list.size()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {20, 200})
+  public void groundTruthPageTakesOneStatement(int pageSize) {
+    Map<Long, List<LabelOverlayDTO>> overlays =
+        hydrator.loadOverlays(imageIds(pageSize), "Ground-Truth", null);
+
+    assertEquals(1, statements.get());
+    assertEquals(pageSize, overlays.size());
+    overlays
+        .values()
+        .forEach(
+            list ->
+                list.forEach(
+                    overlay ->
+                        assertEquals(
+                            LabelOverlayHydrator.GROUND_TRUTH, overlay.getAnnotationType())));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {20, 200})
+  public void snapshotPageTakesOneStatement(int pageSize) {
+    Map<Long, List<LabelOverlayDTO>> overlays =
+        hydrator.loadSnapshotOverlays(5L, imageIds(pageSize));
+
+    assertEquals(1, statements.get());
+    assertEquals(pageSize, overlays.size());
+  }
+
+  @Test
+  public void largeSetIsSplitIntoBoundedInLists() {
+    hydrator.loadOverlays(imageIds(2500), null, null);
+
+    // 1000 IDs per IN list: 3 statements for ground truth and 3 for predictions
+    assertEquals(6, statements.get());
+  }
+
+  @Test
+  public void emptyPageTakesNoStatement() {
+    hydrator.loadOverlays(List.of(), null, null);
+
+    assertEquals(0, statements.get());
+  }
+
+  /** A query returning {@link #LABELS_PER_IMAGE} rows for every bound image ID */
+  @SuppressWarnings("unchecked")
+  private TypedQuery<Object[]> overlayQuery(String jpql) {
+    TypedQuery<Object[]> query = mock(TypedQuery.class);
+    List<Long> boundIds = new ArrayList<>();
+    when(query.setParameter(anyString(), any()))
+        .thenAnswer(
+            invocation -> {
+              if ("imageIds".equals(invocation.getArgument(0))) {
+                boundIds.addAll((Collection<Long>) invocation.getArgument(1));
+              }
+              return query;
+            });
+    when(query.getResultList())
+        .thenAnswer(
+            invocation -> {
+              statements.incrementAndGet();
+              return rows(boundIds, jpql.contains("confidenceRate"));
+            });
+    return query;
+  }
+
+  private static List<Object[]> rows(List<Long> imageIds, boolean prediction) {
+    List<Object[]> rows = new ArrayList<>();
+    Integer confidenceRate = prediction ? 90 : null;
+    long labelId = 1;
+    for (Long imageId : imageIds) {
+      for (int i = 0; i < LABELS_PER_IMAGE; i++) {
+        rows.add(
+            new Object[] {
+              imageId, labelId++, 10L, "class", "#ff0000", "{}", Instant.EPOCH, confidenceRate
+            });
+      }
+    }
+    return rows;
+  }
+
+  private static List<Long> imageIds(int count) {
+    return LongStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+  }
+}
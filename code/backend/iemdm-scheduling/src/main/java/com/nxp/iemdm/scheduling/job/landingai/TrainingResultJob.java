@@ -14,8 +14,11 @@ import org.springframework.stereotype.Component;
  * training records with status WAITFORRESULT, fetches their results, and persists them to the
  * database.
  *
- * <p>This job is configured to disallow concurrent execution to prevent overlapping processing of
- * the same training records.
+ * <p>Records are processed concurrently, each in its own transaction, and records whose results
+ * are not ready are polled again with exponential backoff. A run waits for its records only up to a
+ * cycle timeout; records still running after that continue in the background and are skipped by
+ * later runs until they finish, so a slow download does not hold up the next run. The job disallows
+ * concurrent execution so runs do not overlap while they submit records.
  */
 @DisallowConcurrentExecution
 @Component
@@ -33,10 +36,15 @@ public class TrainingResultJob implements IemdmQuartzJob {
       ProcessingResult result = trainingResultService.processWaitingTrainingRecords();
 
       log.info(
-          "TrainingResultJob completed. Total: {}, Success: {}, Failure: {}",
+          "TrainingResultJob completed. Total: {}, Success: {}, Not ready: {}, Failure: {},"
+              + " Deferred: {}, In progress: {}, Queue depth: {}",
           result.getTotalRecords(),
           result.getSuccessCount(),
-          result.getFailureCount());
+          result.getNotReadyCount(),
+          result.getFailureCount(),
+          result.getDeferredCount(),
+          result.getInProgressCount(),
+          result.getQueueDepth());
 
       if (result.getFailureCount() > 0) {
         log.warn("TrainingResultJob had {} failures:", result.getFailureCount());
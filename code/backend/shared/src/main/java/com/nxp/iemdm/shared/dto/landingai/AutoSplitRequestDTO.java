@@ -16,6 +16,7 @@ public class AutoSplitRequestDTO {
   private Integer devRatio;
   private Integer testRatio;
   private Map<Long, ClassRatioDTO> classRatios;
+  private Long seed; // Same seed and images give the same assignment; random if null
 
   @Data
   @NoArgsConstructor
@@ -19,6 +19,6 @@ public class GenerateModelRequest {
   /** New confidence threshold (0.0 - 1.0) */
   private Double newThreshold;
 
-  /** Recalculated metrics for all evaluation sets */
+  /** Recalculated metrics for all evaluation sets, null to calculate them on the server */
   private RecalculatedMetrics recalculatedMetrics;
 }
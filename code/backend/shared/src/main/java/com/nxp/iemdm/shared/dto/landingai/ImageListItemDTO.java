@@ -18,7 +18,8 @@ public class ImageListItemDTO {
   private Boolean isLabeled;
   private Boolean isNoClass;
   private Integer labelCount;
-  private byte[] thumbnailImage;
+  private byte[] thumbnailImage; // Only filled when the list is requested with thumbnails
+  private String thumbnailUrl; // Cacheable thumbnail URL, see GET .../images/{id}/thumbnail
   private Double thumbnailWidthRatio;
   private Double thumbnailHeightRatio;
   private Instant createdAt;
@@ -136,6 +137,14 @@ public class ImageListItemDTO {
     this.thumbnailImage = thumbnailImage;
   }
 
+  public String getThumbnailUrl() {
+    return thumbnailUrl;
+  }
+
+  public void setThumbnailUrl(String thumbnailUrl) {
+    this.thumbnailUrl = thumbnailUrl;
+  }
+
   public Double getThumbnailWidthRatio() {
     return thumbnailWidthRatio;
   }
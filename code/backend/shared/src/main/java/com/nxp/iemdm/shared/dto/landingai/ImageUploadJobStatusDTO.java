@@ -0,0 +1,71 @@
+package com.nxp.iemdm.shared.dto.landingai;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the progress of an asynchronous ZIP image upload job. Returned when the job is started
+ * and on every poll of the job status endpoint.
+ */
+@Data
+@NoArgsConstructor
+public class ImageUploadJobStatusDTO {
+
+  public static final String STATUS_RUNNING = "RUNNING";
+  public static final String STATUS_COMPLETED = "COMPLETED";
+  public static final String STATUS_FAILED = "FAILED";
+
+  private String jobId;
+  private Long projectId;
+  private String status;
+
+  /** Number of image entries found in the ZIP */
+  private int totalEntries;
+
+  /** Number of entries processed so far (imported or failed) */
+  private int processedEntries;
+
+  /** Number of images committed to the database */
+  private int importedImages;
+
+  /** Number of entries that failed to import */
+  private int failedImages;
+
+  /** Number of chunks committed so far */
+  private int committedChunks;
+
+  private int classesCreated;
+  private int classesReused;
+  private List<String> errors = new ArrayList<>();
+
+  /** Accumulated ingest stage timings in milliseconds (summed over all worker threads) */
+  private Map<String, Long> stageTimingsMs = new LinkedHashMap<>();
+
+  private Instant startedAt;
+  private Instant finishedAt;
+  private String errorMessage;
+
+  /** Copy constructor used to hand out consistent snapshots of a running job. */
+  public ImageUploadJobStatusDTO(ImageUploadJobStatusDTO other) {
+    this.jobId = other.jobId;
+    this.projectId = other.projectId;
+    this.status = other.status;
+    this.totalEntries = other.totalEntries;
+    this.processedEntries = other.processedEntries;
+    this.importedImages = other.importedImages;
+    this.failedImages = other.failedImages;
+    this.committedChunks = other.committedChunks;
+    this.classesCreated = other.classesCreated;
+    this.classesReused = other.classesReused;
+    this.errors = new ArrayList<>(other.errors);
+    this.stageTimingsMs = new LinkedHashMap<>(other.stageTimingsMs);
+    this.startedAt = other.startedAt;
+    this.finishedAt = other.finishedAt;
+    this.errorMessage = other.errorMessage;
+  }
+}
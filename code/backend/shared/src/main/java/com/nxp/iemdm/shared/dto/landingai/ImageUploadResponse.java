@@ -1,5 +1,7 @@
 package com.nxp.iemdm.shared.dto.landingai;
 
+import java.util.Map;
+
 /** DTO for image upload results. Contains upload status and metadata for each uploaded image. */
 public class ImageUploadResponse {
 
@@ -10,6 +12,7 @@ public class ImageUploadResponse {
   private Integer height;
   private boolean success;
   private String errorMessage;
+  private Map<String, Long> stageTimingsMs;
 
   public ImageUploadResponse() {}
 
@@ -104,4 +107,12 @@ public class ImageUploadResponse {
   public void setErrorMessage(String errorMessage) {
     this.errorMessage = errorMessage;
   }
+
+  public Map<String, Long> getStageTimingsMs() {
+    return stageTimingsMs;
+  }
+
+  public void setStageTimingsMs(Map<String, Long> stageTimingsMs) {
+    this.stageTimingsMs = stageTimingsMs;
+  }
 }
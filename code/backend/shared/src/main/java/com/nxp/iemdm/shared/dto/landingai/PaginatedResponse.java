@@ -17,6 +17,9 @@ public class PaginatedResponse<T> {
   private boolean first;
   private boolean last;
 
+  /** Keyset cursor for the next page, null when this is the last page or not supported */
+  private String nextCursor;
+
   public PaginatedResponse() {}
 
   public PaginatedResponse(
@@ -91,4 +94,12 @@ public class PaginatedResponse<T> {
   public void setLast(boolean last) {
     this.last = last;
   }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
 }
@@ -0,0 +1,30 @@
+package com.nxp.iemdm.shared.dto.landingai;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO for the precision-recall curve of one class, or of all classes micro-averaged. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecisionRecallCurveDTO {
+
+  /** Class ID, null for the micro-averaged curve of all classes */
+  private Long classId;
+
+  /** Class name */
+  private String className;
+
+  /** Class color (hex format) */
+  private String classColor;
+
+  /** Number of ground truth labels */
+  private Integer groundTruthCount;
+
+  /** Metrics for every confidence threshold from 0 to 99 */
+  private List<PrecisionRecallPointDTO> points;
+}
@@ -0,0 +1,30 @@
+package com.nxp.iemdm.shared.dto.landingai;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Response DTO for precision-recall curves of a model on one evaluation set. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecisionRecallCurveResponse {
+
+  /** Model ID */
+  private Long modelId;
+
+  /** Evaluation set (TRAIN, DEV, TEST) */
+  private String evaluationSet;
+
+  /** Minimum IoU of a matching GT×Pred pair */
+  private Double iouThreshold;
+
+  /** Micro-averaged curve of all classes */
+  private PrecisionRecallCurveDTO overall;
+
+  /** Curve per class, in class sequence order */
+  private List<PrecisionRecallCurveDTO> classes;
+}
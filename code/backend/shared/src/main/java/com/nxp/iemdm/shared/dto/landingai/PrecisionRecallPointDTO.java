@@ -0,0 +1,35 @@
+package com.nxp.iemdm.shared.dto.landingai;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO for the metrics at one confidence threshold of a precision-recall curve. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecisionRecallPointDTO {
+
+  /** Confidence threshold (0-99), predictions with a confidence rate below it are dropped */
+  private Integer threshold;
+
+  /** True Positives count */
+  private Integer truePositives;
+
+  /** False Positives count */
+  private Integer falsePositives;
+
+  /** False Negatives count */
+  private Integer falseNegatives;
+
+  /** Precision in percent (TP / (TP + FP) * 100), null if undefined */
+  private Double precision;
+
+  /** Recall in percent (TP / (TP + FN) * 100), null if undefined */
+  private Double recall;
+
+  /** F1 score in percent, null if precision or recall is undefined */
+  private Double f1;
+}
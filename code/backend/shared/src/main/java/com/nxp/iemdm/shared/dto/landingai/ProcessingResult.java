@@ -20,6 +20,18 @@ public class ProcessingResult {
   /** Number of failed records */
   private int failureCount;
 
+  /** Number of records whose results are not available yet */
+  private int notReadyCount;
+
+  /** Number of records skipped because their next poll is not due yet */
+  private int deferredCount;
+
+  /** Number of records still being processed when the cycle ended */
+  private int inProgressCount;
+
+  /** Number of records waiting for a worker when the cycle ended */
+  private int queueDepth;
+
   /** List of error messages */
   private List<String> errors;
 
@@ -49,4 +61,9 @@ public class ProcessingResult {
   public void incrementFailure() {
     this.failureCount++;
   }
+
+  /** Increment not ready count */
+  public void incrementNotReady() {
+    this.notReadyCount++;
+  }
 }
@@ -69,6 +69,7 @@ public class TrainingResultResponse {
   @JsonProperty("validation_chart")
   private List<ValidationChartPoint> validationChart;
 
+  /** Null when read by the training result poll, which streams the prediction images instead */
   @JsonProperty("prediction_images")
   private List<PredictionImage> predictionImages;
 
@@ -4,6 +4,7 @@ import com.nxp.iemdm.shared.dto.landingai.CellDetailResponse;
 import com.nxp.iemdm.shared.dto.landingai.ConfusionMatrixResponse;
 import com.nxp.iemdm.shared.dto.landingai.GroundTruthLabelDTO;
 import com.nxp.iemdm.shared.dto.landingai.ImageWithLabelsDTO;
+import com.nxp.iemdm.shared.dto.landingai.PrecisionRecallCurveResponse;
 import com.nxp.iemdm.shared.dto.landingai.PredictionLabelDTO;
 import java.util.List;
 
@@ -11,13 +12,16 @@ import java.util.List;
 public interface ConfusionMatrixService {
 
   /**
-   * Calculate confusion matrix for a model and evaluation set.
+   * Calculate confusion matrix for a model and evaluation set. Ground truth labels and predictions
+   * are paired per image by IoU.
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching pair, null for the configured default
    * @return Confusion matrix response with grid, classes, and metrics
    */
-  ConfusionMatrixResponse calculateConfusionMatrix(Long modelId, String evaluationSet);
+  ConfusionMatrixResponse calculateConfusionMatrix(
+      Long modelId, String evaluationSet, Double iouThreshold);
 
   /**
    * Get detail for a specific cell (GT×Pred combination).
@@ -26,19 +30,33 @@ public interface ConfusionMatrixService {
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
    * @param gtClassId Ground truth class ID
    * @param predClassId Prediction class ID
+   * @param iouThreshold Minimum IoU of a matching pair, null for the configured default
    * @return Cell detail response with images
    */
   CellDetailResponse getCellDetail(
-      Long modelId, String evaluationSet, Long gtClassId, Long predClassId);
+      Long modelId, String evaluationSet, Long gtClassId, Long predClassId, Double iouThreshold);
 
   /**
    * Get all images in evaluation set with correctness indicators.
    *
    * @param modelId Model ID
    * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching pair, null for the configured default
    * @return List of images with ground truth and prediction labels
    */
-  List<ImageWithLabelsDTO> getAllImages(Long modelId, String evaluationSet);
+  List<ImageWithLabelsDTO> getAllImages(Long modelId, String evaluationSet, Double iouThreshold);
+
+  /**
+   * Get precision, recall and F1 for every confidence threshold from 0 to 99, per class and over
+   * all classes.
+   *
+   * @param modelId Model ID
+   * @param evaluationSet Evaluation set (TRAIN, DEV, TEST)
+   * @param iouThreshold Minimum IoU of a matching pair, null for the configured default
+   * @return Precision-recall curves
+   */
+  PrecisionRecallCurveResponse getPrecisionRecallCurve(
+      Long modelId, String evaluationSet, Double iouThreshold);
 
   /**
    * Get prediction labels for a model filtered by evaluation set. Backend 根據 evaluationSet 參數過濾資料，
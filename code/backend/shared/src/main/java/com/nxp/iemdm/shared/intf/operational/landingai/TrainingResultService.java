@@ -11,7 +11,8 @@ public interface TrainingResultService {
   /**
    * Process all training records with status WAITFORRESULT. Queries the database for pending
    * training records, calls the Databricks API, and persists the results to multiple related
-   * tables.
+   * tables. Records are processed concurrently, each in its own transaction; records polled
+   * recently without result are skipped until their backoff expires.
    *
    * @return ProcessingResult containing success/failure counts and error details
    */
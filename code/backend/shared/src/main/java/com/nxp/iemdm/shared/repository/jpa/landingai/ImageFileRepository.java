@@ -1,8 +1,12 @@
 package com.nxp.iemdm.shared.repository.jpa.landingai;
 
 import com.nxp.iemdm.model.landingai.ImageFile;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,19 +23,120 @@ public interface ImageFileRepository extends JpaRepository<ImageFile, Long> {
   boolean existsById(Long fileId);
 
   /**
-   * Get only the file stream for a file (optimized query).
+   * Find image file by legacy image ID (for migration support).
+   *
+   * @param legacyImageId the legacy image ID
+   * @return the image file if found
+   */
+  Optional<ImageFile> findByLegacyImageId(Long legacyImageId);
+
+  /**
+   * Insert a file row unless a file with the same content hash already exists. Safe against
+   * concurrent uploads of the same content. The content itself is written afterwards by the
+   * storage backend.
+   *
+   * @param fileName the stored file name
+   * @param contentHash SHA-256 of the content (hex)
+   * @param storageBackend the storage backend that will hold the content
+   * @param createdBy the user identifier
+   * @return the new file ID, or empty if a file with this hash already exists
+   */
+  @Query(
+      value =
+          "INSERT INTO la_images_file"
+              + " (id, file_name, content_hash, storage_backend, created_at, created_by)"
+              + " VALUES (nextval('image_sequence'), :fileName, :contentHash, :storageBackend,"
+              + " CURRENT_TIMESTAMP, :createdBy)"
+              + " ON CONFLICT (content_hash) DO NOTHING RETURNING id",
+      nativeQuery = true)
+  Optional<Long> insertIfAbsent(
+      @Param("fileName") String fileName,
+      @Param("contentHash") String contentHash,
+      @Param("storageBackend") String storageBackend,
+      @Param("createdBy") String createdBy);
+
+  /**
+   * Find the ID of the file with the given content hash and key-share lock its row until the end
+   * of the transaction, so the file cannot be deleted by {@link #deleteUnreferenced} before the
+   * image that reuses it is committed. Must run in a transaction.
+   *
+   * @param contentHash SHA-256 of the content (hex)
+   * @return the file ID if a file with this hash exists
+   */
+  @Query(
+      value = "SELECT f.id FROM la_images_file f WHERE f.content_hash = :contentHash FOR KEY SHARE",
+      nativeQuery = true)
+  Optional<Long> findIdByContentHashForKeyShare(@Param("contentHash") String contentHash);
+
+  /**
+   * Find the storage backend of a file.
    *
    * @param fileId the file ID
-   * @return the image file stream as byte array
+   * @return the backend name if the file exists
    */
-  @Query("SELECT imf.imageFileStream FROM ImageFile imf WHERE imf.id = :fileId")
-  Optional<byte[]> findImageFileStreamById(@Param("fileId") Long fileId);
+  @Query("SELECT imf.storageBackend FROM ImageFile imf WHERE imf.id = :fileId")
+  Optional<String> findStorageBackendById(@Param("fileId") Long fileId);
 
   /**
-   * Find image file by legacy image ID (for migration support).
+   * Find the storage backends of several files.
    *
-   * @param legacyImageId the legacy image ID
-   * @return the image file if found
+   * @param fileIds the file IDs
+   * @return rows of [file ID, backend name]
    */
-  Optional<ImageFile> findByLegacyImageId(Long legacyImageId);
+  @Query("SELECT imf.id, imf.storageBackend FROM ImageFile imf WHERE imf.id IN :fileIds")
+  List<Object[]> findStorageBackendsByIdIn(@Param("fileIds") Collection<Long> fileIds);
+
+  /**
+   * Find the stored file names of several files without loading their content.
+   *
+   * @param fileIds the file IDs
+   * @return rows of [file ID, file name]
+   */
+  @Query("SELECT imf.id, imf.fileName FROM ImageFile imf WHERE imf.id IN :fileIds")
+  List<Object[]> findFileNamesByIdIn(@Param("fileIds") Collection<Long> fileIds);
+
+  /**
+   * Find files whose content is not kept by the given backend, oldest first.
+   *
+   * @param storageBackend the target backend
+   * @param pageable the batch size
+   * @return file IDs to migrate
+   */
+  @Query(
+      "SELECT imf.id FROM ImageFile imf WHERE imf.storageBackend <> :storageBackend"
+          + " ORDER BY imf.id")
+  List<Long> findIdsNotInBackend(
+      @Param("storageBackend") String storageBackend, Pageable pageable);
+
+  /**
+   * Record the backend that holds the content of a file.
+   *
+   * @param fileId the file ID
+   * @param storageBackend the backend name
+   * @return number of rows updated
+   */
+  @Modifying
+  @Query("UPDATE ImageFile imf SET imf.storageBackend = :storageBackend WHERE imf.id = :fileId")
+  int updateStorageBackend(
+      @Param("fileId") Long fileId, @Param("storageBackend") String storageBackend);
+
+  /**
+   * Delete the given files that are no longer referenced by any image or snapshot image. Files are
+   * shared between projects and snapshots, so a file is only removed with its last reference.
+   * Candidates are locked with {@code FOR UPDATE SKIP LOCKED}: a file that an upload in progress
+   * is reusing (see {@link #findIdByContentHashForKeyShare}) is skipped rather than deleted.
+   *
+   * @param fileIds candidate file IDs, typically those of just deleted images
+   * @return rows of [file ID, storage backend] of the deleted files
+   */
+  @Query(
+      value =
+          "DELETE FROM la_images_file f WHERE f.id IN ("
+              + "SELECT c.id FROM la_images_file c WHERE c.id IN (:fileIds)"
+              + " AND NOT EXISTS (SELECT 1 FROM la_images i WHERE i.file_id = c.id)"
+              + " AND NOT EXISTS (SELECT 1 FROM la_images_ver v WHERE v.file_id = c.id)"
+              + " FOR UPDATE SKIP LOCKED)"
+              + " RETURNING f.id, f.storage_backend",
+      nativeQuery = true)
+  List<Object[]> deleteUnreferenced(@Param("fileIds") Collection<Long> fileIds);
 }
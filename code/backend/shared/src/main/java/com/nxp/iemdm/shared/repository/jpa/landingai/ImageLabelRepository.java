@@ -58,35 +58,43 @@ public interface ImageLabelRepository extends JpaRepository<ImageLabel, Long> {
   void deleteByImage_Id(Long imageId);
 
   /**
-   * Count distinct images that have labels for a project (excluding images with split assigned).
+   * Count distinct images that have labels per class and in total, with one grouped query.
+   *
+   * @param projectId the project ID
+   * @param includeAssigned whether to count images that already have a split assigned
+   * @return rows of [classId, imageCount]; the row with a null classId holds the total
    */
   @Transactional(readOnly = true)
   @Query(
-      "SELECT COUNT(DISTINCT il.image.id) FROM ImageLabel il WHERE il.image.project.id = :projectId AND (il.image.split IS NULL OR il.image.split = '')")
-  long countDistinctImagesWithLabelsNoSplit(@Param("projectId") Long projectId);
-
-  /** Count distinct images that have labels for a project (including all images). */
-  @Transactional(readOnly = true)
-  @Query(
-      "SELECT COUNT(DISTINCT il.image.id) FROM ImageLabel il WHERE il.image.project.id = :projectId")
-  long countDistinctImagesWithLabels(@Param("projectId") Long projectId);
+      value =
+          "SELECT il.class_id, COUNT(DISTINCT il.image_id) FROM la_images_label il"
+              + " JOIN la_images i ON i.id = il.image_id"
+              + " WHERE i.project_id = :projectId"
+              + " AND (:includeAssigned = TRUE OR i.split IS NULL OR i.split = '')"
+              + " GROUP BY GROUPING SETS ((il.class_id), ())",
+      nativeQuery = true)
+  List<Object[]> countDistinctImagesPerClass(
+      @Param("projectId") Long projectId, @Param("includeAssigned") boolean includeAssigned);
 
   /**
-   * Count distinct images that have labels for a specific class (excluding images with split
-   * assigned).
+   * Find the labeled images of a project to assign splits to, with the class of their first label
+   * and their current split. Nothing else of the image is loaded.
+   *
+   * @param projectId the project ID
+   * @param includeAssigned whether to include images that already have a split assigned
+   * @return rows of [imageId, classId, split] ordered by image ID
    */
   @Transactional(readOnly = true)
   @Query(
-      "SELECT COUNT(DISTINCT il.image.id) FROM ImageLabel il WHERE il.image.project.id = :projectId AND il.projectClass.id = :classId AND (il.image.split IS NULL OR il.image.split = '')")
-  long countDistinctImagesByClassNoSplit(
-      @Param("projectId") Long projectId, @Param("classId") Long classId);
-
-  /** Count distinct images that have labels for a specific class (including all images). */
-  @Transactional(readOnly = true)
-  @Query(
-      "SELECT COUNT(DISTINCT il.image.id) FROM ImageLabel il WHERE il.image.project.id = :projectId AND il.projectClass.id = :classId")
-  long countDistinctImagesByClass(
-      @Param("projectId") Long projectId, @Param("classId") Long classId);
+      value =
+          "SELECT DISTINCT ON (il.image_id) il.image_id, il.class_id, i.split"
+              + " FROM la_images_label il JOIN la_images i ON i.id = il.image_id"
+              + " WHERE i.project_id = :projectId"
+              + " AND (:includeAssigned = TRUE OR i.split IS NULL OR i.split = '')"
+              + " ORDER BY il.image_id, il.id",
+      nativeQuery = true)
+  List<Object[]> findSplitCandidates(
+      @Param("projectId") Long projectId, @Param("includeAssigned") boolean includeAssigned);
 
   /** Find distinct image IDs that have ground truth labels with specific class IDs. */
   @Transactional(readOnly = true)
@@ -3,6 +3,7 @@ package com.nxp.iemdm.shared.repository.jpa.landingai;
 import com.nxp.iemdm.model.landingai.ImagePredictionLabel;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,6 +21,56 @@ public interface ImagePredictionLabelRepository extends JpaRepository<ImagePredi
   @Transactional(readOnly = true)
   List<ImagePredictionLabel> findByModelId(Long modelId);
 
+  /**
+   * Find the prediction labels of a model for a batch of images, with their classes, ordered by
+   * image.
+   */
+  @Transactional(readOnly = true)
+  @Query(
+      "SELECT ipl FROM ImagePredictionLabel ipl LEFT JOIN FETCH ipl.projectClass"
+          + " WHERE ipl.model.id = :modelId AND ipl.image.id IN :imageIds"
+          + " ORDER BY ipl.image.id, ipl.id")
+  List<ImagePredictionLabel> findByModelIdAndImageIdIn(
+      @Param("modelId") Long modelId, @Param("imageIds") List<Long> imageIds);
+
+  /**
+   * Count and highest ID of the prediction labels of a model. Predictions are only inserted and
+   * deleted, so the pair changes whenever the predictions of the model change.
+   *
+   * @return a single row of [count, maxId]
+   */
+  @Transactional(readOnly = true)
+  @Query(
+      "SELECT COUNT(ipl), MAX(ipl.id) FROM ImagePredictionLabel ipl WHERE ipl.model.id = :modelId")
+  List<Object[]> findPredictionVersionByModelId(@Param("modelId") Long modelId);
+
+  /**
+   * Copy the prediction labels of a model at or above a confidence rate to another model with a
+   * single INSERT ... SELECT, without loading them.
+   *
+   * @param sourceModelId the model to copy from
+   * @param targetModelId the model to copy to
+   * @param minConfidence the lowest confidence rate to copy (0-100)
+   * @return number of labels copied
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO la_images_prediction_label"
+              + " (id, image_id, class_id, model_id, position, confidence_rate, created_at,"
+              + " created_by)"
+              + " SELECT nextval('hibernate_sequence'), image_id, class_id, :targetModelId,"
+              + " position, confidence_rate, CURRENT_TIMESTAMP, created_by"
+              + " FROM la_images_prediction_label"
+              + " WHERE model_id = :sourceModelId AND confidence_rate >= :minConfidence"
+              + " ORDER BY id",
+      nativeQuery = true)
+  int copyToModel(
+      @Param("sourceModelId") Long sourceModelId,
+      @Param("targetModelId") Long targetModelId,
+      @Param("minConfidence") int minConfidence);
+
   @Transactional
   void deleteByImage_Id(Long imageId);
 
@@ -233,4 +233,16 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
       @org.springframework.data.repository.query.Param("projectId") Long projectId,
       @org.springframework.data.repository.query.Param("offset") int offset,
       @org.springframework.data.repository.query.Param("limit") int limit);
+
+  /**
+   * Find the ID and file name of every image of a project, without loading the images.
+   *
+   * @param projectId the project ID
+   * @return rows of [id, fileName] ordered by ID
+   */
+  @Transactional(readOnly = true)
+  @org.springframework.data.jpa.repository.Query(
+      "SELECT i.id, i.fileName FROM Image i WHERE i.project.id = :projectId ORDER BY i.id")
+  List<Object[]> findIdAndFileNameByProjectId(
+      @org.springframework.data.repository.query.Param("projectId") Long projectId);
 }
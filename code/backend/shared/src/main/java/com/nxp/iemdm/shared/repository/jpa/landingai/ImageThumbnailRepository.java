@@ -0,0 +1,31 @@
+package com.nxp.iemdm.shared.repository.jpa.landingai;
+
+import com.nxp.iemdm.model.landingai.ImageThumbnail;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImageThumbnailRepository extends JpaRepository<ImageThumbnail, Long> {
+
+  /**
+   * Get only the thumbnail bytes of an image.
+   *
+   * @param imageId the image ID
+   * @return the thumbnail as byte array
+   */
+  @Query("SELECT t.thumbnailImage FROM ImageThumbnail t WHERE t.imageId = :imageId")
+  Optional<byte[]> findThumbnailImageByImageId(@Param("imageId") Long imageId);
+
+  /**
+   * Find the thumbnails of several images in one query.
+   *
+   * @param imageIds the image IDs
+   * @return the thumbnails that exist for the given images
+   */
+  List<ImageThumbnail> findByImageIdIn(Collection<Long> imageIds);
+}
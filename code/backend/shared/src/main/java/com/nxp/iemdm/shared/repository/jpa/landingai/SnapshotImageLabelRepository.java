@@ -3,7 +3,6 @@ package com.nxp.iemdm.shared.repository.jpa.landingai;
 import com.nxp.iemdm.model.landingai.SnapshotImageLabel;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,15 +28,6 @@ public interface SnapshotImageLabelRepository extends JpaRepository<SnapshotImag
   @Transactional(readOnly = true)
   long countBySnapshotId(Long snapshotId);
 
-  /**
-   * Delete all labels for a specific snapshot.
-   *
-   * @param snapshotId the snapshot ID
-   */
-  @Modifying
-  @Transactional
-  void deleteBySnapshotId(Long snapshotId);
-
   /**
    * Find labels by snapshot ID and image IDs.
    *
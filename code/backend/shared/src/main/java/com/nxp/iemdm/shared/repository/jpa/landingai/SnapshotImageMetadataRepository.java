@@ -1,9 +1,9 @@
 package com.nxp.iemdm.shared.repository.jpa.landingai;
 
 import com.nxp.iemdm.model.landingai.SnapshotImageMetadata;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,11 +22,13 @@ public interface SnapshotImageMetadataRepository
   List<SnapshotImageMetadata> findBySnapshotId(Long snapshotId);
 
   /**
-   * Delete all metadata for a specific snapshot.
+   * Find metadata by snapshot ID and image IDs.
    *
    * @param snapshotId the snapshot ID
+   * @param imageIds the image IDs
+   * @return list of snapshot image metadata
    */
-  @Modifying
-  @Transactional
-  void deleteBySnapshotId(Long snapshotId);
+  @Transactional(readOnly = true)
+  List<SnapshotImageMetadata> findBySnapshotIdAndImageIdIn(
+      Long snapshotId, Collection<Long> imageIds);
 }
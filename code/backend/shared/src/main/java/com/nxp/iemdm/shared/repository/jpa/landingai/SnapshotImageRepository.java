@@ -1,9 +1,11 @@
 package com.nxp.iemdm.shared.repository.jpa.landingai;
 
 import com.nxp.iemdm.model.landingai.SnapshotImage;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -32,13 +34,16 @@ public interface SnapshotImageRepository extends JpaRepository<SnapshotImage, Lo
   long countBySnapshotId(Long snapshotId);
 
   /**
-   * Delete all images for a specific snapshot.
+   * Delete the image, label, tag, metadata and thumbnail versions of a project that none of its
+   * remaining snapshots can see. Versions are shared between snapshots, so they are purged after
+   * snapshots are deleted instead of being deleted per snapshot.
    *
-   * @param snapshotId the snapshot ID
+   * @param projectId the project ID
+   * @return number of versions deleted
    */
-  @Modifying
   @Transactional
-  void deleteBySnapshotId(Long snapshotId);
+  @Query(value = "SELECT purge_snapshot_versions(:projectId)", nativeQuery = true)
+  int purgeUnusedVersions(@Param("projectId") Long projectId);
 
   /**
    * Find image IDs for a specific snapshot.
@@ -50,6 +55,18 @@ public interface SnapshotImageRepository extends JpaRepository<SnapshotImage, Lo
   @Query("SELECT si.id FROM SnapshotImage si WHERE si.snapshotId = :snapshotId")
   List<Long> findImageIdsBySnapshotId(@Param("snapshotId") Long snapshotId);
 
+  /**
+   * Find the distinct image file IDs referenced by a specific snapshot.
+   *
+   * @param snapshotId the snapshot ID
+   * @return list of file IDs
+   */
+  @Transactional(readOnly = true)
+  @Query(
+      "SELECT DISTINCT si.fileId FROM SnapshotImage si"
+          + " WHERE si.snapshotId = :snapshotId AND si.fileId IS NOT NULL")
+  List<Long> findFileIdsBySnapshotId(@Param("snapshotId") Long snapshotId);
+
   /**
    * Count images for a specific snapshot and split.
    *
@@ -80,6 +97,67 @@ public interface SnapshotImageRepository extends JpaRepository<SnapshotImage, Lo
   @Transactional(readOnly = true)
   List<SnapshotImage> findBySnapshotIdAndSplit(Long snapshotId, String split);
 
+  /**
+   * Find ID and file name of the images of a snapshot split, without loading thumbnails.
+   *
+   * @param snapshotId the snapshot ID
+   * @param split the split value (training/dev/test)
+   * @return rows of [id, fileName] ordered by image ID
+   */
+  @Transactional(readOnly = true)
+  @Query(
+      "SELECT si.id, si.fileName FROM SnapshotImage si"
+          + " WHERE si.snapshotId = :snapshotId AND si.split = :split ORDER BY si.id")
+  List<Object[]> findImageNamesBySnapshotIdAndSplit(
+      @Param("snapshotId") Long snapshotId, @Param("split") String split);
+
+  /**
+   * Find the list columns of the given images of a snapshot, without loading thumbnails.
+   *
+   * @param snapshotId the snapshot ID
+   * @param ids the image IDs
+   * @return rows of [id, fileName, fileSize, width, height, split, isLabeled, isNoClass,
+   *     thumbnailWidthRatio, thumbnailHeightRatio, createdAt]
+   */
+  @Transactional(readOnly = true)
+  @Query(
+      "SELECT si.id, si.fileName, si.fileSize, si.width, si.height, si.split, si.isLabeled,"
+          + " si.isNoClass, si.thumbnailWidthRatio, si.thumbnailHeightRatio, si.createdAt"
+          + " FROM SnapshotImage si WHERE si.snapshotId = :snapshotId AND si.id IN :ids")
+  List<Object[]> findListItemsBySnapshotIdAndIdIn(
+      @Param("snapshotId") Long snapshotId, @Param("ids") Collection<Long> ids);
+
+  /**
+   * Find the next images of a snapshot in ID order for the dataset archive, without loading
+   * thumbnails. Page through all images by passing the last ID of the previous batch.
+   *
+   * @param snapshotId the snapshot ID
+   * @param afterId return images with a greater ID only (0 for the first batch)
+   * @param pageable the batch size (page 0)
+   * @return rows of [id, fileName, fileSize, width, height, split, isNoClass, isLabeled, fileId]
+   */
+  @Transactional(readOnly = true)
+  @Query(
+      "SELECT si.id, si.fileName, si.fileSize, si.width, si.height, si.split, si.isNoClass,"
+          + " si.isLabeled, si.fileId FROM SnapshotImage si"
+          + " WHERE si.snapshotId = :snapshotId AND si.id > :afterId ORDER BY si.id")
+  List<Object[]> findArchiveRowsBySnapshotIdAfter(
+      @Param("snapshotId") Long snapshotId, @Param("afterId") Long afterId, Pageable pageable);
+
+  /**
+   * Find the thumbnail of an image of a snapshot.
+   *
+   * @param snapshotId the snapshot ID
+   * @param imageId the image ID
+   * @return the thumbnail bytes, empty if the image is not in the snapshot or has no thumbnail
+   */
+  @Transactional(readOnly = true)
+  @Query(
+      "SELECT si.thumbnailImage FROM SnapshotImage si"
+          + " WHERE si.snapshotId = :snapshotId AND si.id = :imageId")
+  Optional<byte[]> findThumbnail(
+      @Param("snapshotId") Long snapshotId, @Param("imageId") Long imageId);
+
   /**
    * Find all labeled images for a specific snapshot (isLabeled = true).
    *
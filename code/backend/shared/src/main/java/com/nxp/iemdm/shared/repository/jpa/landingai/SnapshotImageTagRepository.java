@@ -1,9 +1,9 @@
 package com.nxp.iemdm.shared.repository.jpa.landingai;
 
 import com.nxp.iemdm.model.landingai.SnapshotImageTag;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,11 +21,12 @@ public interface SnapshotImageTagRepository extends JpaRepository<SnapshotImageT
   List<SnapshotImageTag> findBySnapshotId(Long snapshotId);
 
   /**
-   * Delete all tags for a specific snapshot.
+   * Find tags by snapshot ID and image IDs.
    *
    * @param snapshotId the snapshot ID
+   * @param imageIds the image IDs
+   * @return list of snapshot image tags
    */
-  @Modifying
-  @Transactional
-  void deleteBySnapshotId(Long snapshotId);
+  @Transactional(readOnly = true)
+  List<SnapshotImageTag> findBySnapshotIdAndImageIdIn(Long snapshotId, Collection<Long> imageIds);
 }
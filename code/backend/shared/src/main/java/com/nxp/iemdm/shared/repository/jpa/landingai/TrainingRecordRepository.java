@@ -1,9 +1,11 @@
 package com.nxp.iemdm.shared.repository.jpa.landingai;
 
 import com.nxp.iemdm.model.landingai.TrainingRecord;
+import jakarta.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -30,6 +32,17 @@ public interface TrainingRecordRepository extends JpaRepository<TrainingRecord,
   @Query("SELECT tr FROM TrainingRecord tr JOIN FETCH tr.project WHERE tr.id = :id")
   Optional<TrainingRecord> findByIdWithProject(@Param("id") Long id);
 
+  /**
+   * Find a training record by ID and lock its row until the end of the transaction
+   * (SELECT ... FOR UPDATE). Used to persist training results once per record.
+   *
+   * @param id the training record ID
+   * @return the locked training record, or empty if not found
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT tr FROM TrainingRecord tr WHERE tr.id = :id")
+  Optional<TrainingRecord> findByIdForUpdate(@Param("id") Long id);
+
   /**
    * Find all training records for a specific project that have snapshot_id and status is PENDING.
    *
@@ -18,6 +18,7 @@ export interface AutoSplitRequest {
   devRatio: number;
   testRatio: number;
   classRatios: { [classId: number]: ClassRatio };
+  seed?: number; // Same seed and images give the same assignment; random if omitted
 }
 
 export interface ClassRatio {
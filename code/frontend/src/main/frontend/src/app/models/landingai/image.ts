@@ -13,6 +13,7 @@ export interface Image {
   split: "Unassigned" | "Train" | "Dev" | "Test";
   isNoClass: boolean;
   thumbnailImage?: string; // Base64 encoded or URL
+  thumbnailUrl?: string; // Cacheable thumbnail URL, used when thumbnailImage is not sent
   createdAt: Date;
   createdBy: string;
 
@@ -129,6 +129,10 @@ export class ImageCardComponent {
       // If thumbnailImage is a base64 string without prefix
       return `data:image/jpeg;base64,${this.image.thumbnailImage}`;
     }
+    // Thumbnail served by URL (e.g. snapshot images)
+    if (this.image.thumbnailUrl) {
+      return this.image.thumbnailUrl;
+    }
     // Fallback to file URL
     return this.image.fileUrl || "";
   }
@@ -6,7 +6,7 @@ import {
   HttpParams,
 } from "@angular/common/http";
 import { Injectable } from "@angular/core";
-import { Observable, throwError } from "rxjs";
+import { forkJoin, Observable, of, throwError } from "rxjs";
 import { Image, ImageUploadResult } from "app/models/landingai/image";
 import { catchError, map } from "rxjs/operators";
 import { Configuration } from "app/utils/configuration";
@@ -36,6 +36,12 @@ export class ImageService {
   // Mock image path (local asset)
   private readonly mockImagePath: string = "assets/images/mock-image.jpg";
 
+  // Maximum number of IDs per batch thumbnail request, as the server accepts
+  private readonly thumbnailBatchSize: number = 500;
+
+  // Object URLs of the last thumbnail batch, revoked by the next batch
+  private thumbnailObjectUrls: string[] = [];
+
   constructor(
     private http: HttpClient,
     private configuration: Configuration
@@ -161,7 +167,7 @@ export class ImageService {
     viewMode: ViewMode = "images",
     filters: FilterState = {},
     sortBy: SortMethod = "upload_time_desc",
-    includeThumbnails: boolean = true
+    includeThumbnails: boolean = false
   ): Observable<PaginatedResponse<Image>> {
     let params = new HttpParams()
       .set("page", page.toString())
@@ -227,7 +233,20 @@ export class ImageService {
           params,
         }
       )
-      .pipe(catchError(this.handleError));
+      .pipe(
+        map((response) => {
+          // Thumbnails are served by URL; resolve them against the server
+          response.content?.forEach((image) => {
+            if (image.thumbnailUrl) {
+              image.thumbnailUrl =
+                this.configuration.Server +
+                image.thumbnailUrl.replace(/^\//, "");
+            }
+          });
+          return response;
+        }),
+        catchError(this.handleError)
+      );
   }
 
   /**
@@ -354,6 +373,76 @@ export class ImageService {
     return this.actionUrl + `${imageId}/thumbnail`;
   }
 
+  /**
+   * Load the thumbnails of a page of images with the batch thumbnail endpoint
+   * and point every image at an object URL of its thumbnail. The response is
+   * a length-prefixed stream: for every requested ID the image ID (8 bytes,
+   * big endian), the thumbnail length (4 bytes) and the JPEG bytes. Object
+   * URLs of the previous batch are revoked. If the batch fails, the images
+   * keep their thumbnailUrl and the thumbnails are loaded one by one.
+   * @param images The images of the page
+   * @returns Observable of the same images
+   */
+  public loadThumbnails(images: Image[]): Observable<Image[]> {
+    const ids = Array.from(new Set(images.map((image) => image.id)));
+    if (ids.length === 0) {
+      return of(images);
+    }
+
+    const batches: Observable<ArrayBuffer>[] = [];
+    for (let i = 0; i < ids.length; i += this.thumbnailBatchSize) {
+      const params = new HttpParams().set(
+        "ids",
+        ids.slice(i, i + this.thumbnailBatchSize).join(",")
+      );
+      batches.push(
+        this.http.get(`${this.actionUrl}thumbnails`, {
+          params,
+          responseType: "arraybuffer",
+        })
+      );
+    }
+
+    return forkJoin(batches).pipe(
+      map((buffers) => {
+        this.thumbnailObjectUrls.forEach((url) => URL.revokeObjectURL(url));
+        this.thumbnailObjectUrls = [];
+
+        const urlsById = new Map<number, string>();
+        buffers.forEach((buffer) => {
+          const view = new DataView(buffer);
+          let offset = 0;
+          while (offset + 12 <= buffer.byteLength) {
+            const id = Number(view.getBigInt64(offset));
+            const length = view.getInt32(offset + 8);
+            offset += 12;
+            if (length > 0) {
+              const blob = new Blob([buffer.slice(offset, offset + length)], {
+                type: "image/jpeg",
+              });
+              const url = URL.createObjectURL(blob);
+              urlsById.set(id, url);
+              this.thumbnailObjectUrls.push(url);
+            }
+            offset += length;
+          }
+        });
+
+        images.forEach((image) => {
+          const url = urlsById.get(image.id);
+          if (url) {
+            image.thumbnailUrl = url;
+          }
+        });
+        return images;
+      }),
+      catchError((error) => {
+        console.error("Batch thumbnail request failed:", error);
+        return of(images);
+      })
+    );
+  }
+
   /**
    * Get image file content by file name (deprecated - use getImageFileByImageId instead)
    * @param fileName The file name
@@ -5,7 +5,7 @@ import {
   HttpParams,
 } from "@angular/common/http";
 import { Observable, throwError } from "rxjs";
-import { catchError } from "rxjs/operators";
+import { catchError, map } from "rxjs/operators";
 import { environment } from "environments/environment";
 import { Project } from "app/models/landingai/project";
 
@@ -68,7 +68,8 @@ export interface ImageListItemDTO {
   isLabeled: boolean;
   isNoClass: boolean;
   labelCount: number;
-  thumbnailImage: string; // Base64 encoded
+  thumbnailImage?: string; // Base64 encoded
+  thumbnailUrl?: string; // Cacheable thumbnail URL, relative to the server
   thumbnailWidthRatio: number;
   thumbnailHeightRatio: number;
   createdAt: Date;
@@ -89,6 +90,7 @@ export interface PaginatedResponse<T> {
   totalPages: number;
   first: boolean;
   last: boolean;
+  nextCursor?: string; // Keyset cursor of the next page, if any
 }
 
 /**
@@ -155,6 +157,7 @@ export class SnapshotService {
    * @param size The page size
    * @param sortBy The sort method (optional)
    * @param filters The filter criteria (optional)
+   * @param cursor The nextCursor of the previous page (optional)
    * @returns Observable of PaginatedResponse containing ImageListItemDTO
    */
   getSnapshotImages(
@@ -162,7 +165,8 @@ export class SnapshotService {
     page: number,
     size: number,
     sortBy?: string,
-    filters?: any
+    filters?: any,
+    cursor?: string
   ): Observable<PaginatedResponse<ImageListItemDTO>> {
     console.log("SnapshotService.getSnapshotImages called with:", {
       snapshotId,
@@ -179,6 +183,9 @@ export class SnapshotService {
     if (sortBy) {
       params = params.set("sortBy", sortBy);
     }
+    if (cursor) {
+      params = params.set("cursor", cursor);
+    }
 
     console.log(
       "SnapshotService: Making HTTP POST request with filters:",
@@ -190,7 +197,19 @@ export class SnapshotService {
       .post<
         PaginatedResponse<ImageListItemDTO>
       >(`${this.apiUrl}/${snapshotId}/images/search`, filters || null, { params })
-      .pipe(catchError(this.handleError));
+      .pipe(
+        map((response) => {
+          // Thumbnails are served by URL; resolve them against the server
+          response.content?.forEach((item) => {
+            if (item.thumbnailUrl) {
+              item.thumbnailUrl =
+                environment.server + item.thumbnailUrl.replace(/^\//, "");
+            }
+          });
+          return response;
+        }),
+        catchError(this.handleError)
+      );
   }
 
   /**
@@ -38,6 +38,12 @@ export class ImageUploadEffects {
             action.sortBy
           )
           .pipe(
+            // One binary request for all thumbnails of the page
+            switchMap((response) =>
+              this.imageService
+                .loadThumbnails(response.content ?? [])
+                .pipe(map((content) => ({ ...response, content })))
+            ),
             map((response) =>
               ImageUploadActions.loadImagesSuccess({ response })
             ),
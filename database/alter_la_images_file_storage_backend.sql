@@ -0,0 +1,31 @@
+-- Pluggable storage backend for image file content
+-- Purpose: Image bytes can live outside PostgreSQL (landingai.image.storage.backend=filesystem).
+-- The la_images_file row stays the source of truth; storage_backend names the store holding the
+-- content, so rows can be moved one by one by the background migrator
+-- (landingai.image.storage.migrate.enabled=true).
+-- Date: 2026-10-17
+
+-- IMPORTANT: Backup your database before running this migration!
+
+-- Step 1: Record where the content of each file is kept; all existing rows are in the database
+ALTER TABLE la_images_file
+  ADD COLUMN storage_backend VARCHAR(16) NOT NULL DEFAULT 'db';
+
+-- Step 2: Content of files kept outside the database is NULL in the row
+ALTER TABLE la_images_file
+  ALTER COLUMN image_file_stream DROP NOT NULL;
+
+-- Step 3: Add comments for documentation
+COMMENT ON COLUMN la_images_file.storage_backend IS 'Storage backend holding the file content: db (image_file_stream) or filesystem';
+
+-- Verification queries (run these to verify migration success)
+-- SELECT storage_backend, COUNT(*) FROM la_images_file GROUP BY storage_backend;
+-- SELECT COUNT(*) FROM la_images_file WHERE storage_backend = 'db' AND image_file_stream IS NULL;
+--   -- Should be 0
+
+-- Success message
+DO $$
+BEGIN
+    RAISE NOTICE 'Migration completed successfully!';
+    RAISE NOTICE 'la_images_file.storage_backend added, existing files stay in the database';
+END $$;
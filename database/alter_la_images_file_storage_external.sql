@@ -0,0 +1,9 @@
+-- Store image file content uncompressed out of line
+-- Purpose: Image files are streamed in slices with substring(); with EXTERNAL storage PostgreSQL
+-- only reads the TOAST chunks of the requested slice instead of decompressing the whole value.
+-- JPEG data does not compress, so this costs no disk space.
+-- Date: 2026-10-17
+
+-- Applies to rows written after the change; existing rows keep their current storage
+ALTER TABLE la_images_file
+  ALTER COLUMN image_file_stream SET STORAGE EXTERNAL;
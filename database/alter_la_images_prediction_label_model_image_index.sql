@@ -0,0 +1,8 @@
+-- Index prediction labels by model and image
+-- Purpose: Model evaluation loads the predictions of one model for a batch of images
+-- (model_id = ? AND image_id IN (...)); the composite index serves this without reading the
+-- predictions of other models for the same images.
+-- Date: 2026-10-17
+
+CREATE INDEX IF NOT EXISTS idx_prediction_label_model_image
+    ON la_images_prediction_label USING btree (model_id ASC NULLS LAST, image_id ASC NULLS LAST);
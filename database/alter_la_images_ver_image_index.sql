@@ -0,0 +1,12 @@
+-- Index snapshot label, tag and metadata versions by image
+-- Purpose: Snapshot image browsing filters and sorts in the database; its EXISTS subqueries and
+-- the label overlay lookup go through the _ss views by image_id, which these indexes serve
+-- without scanning all versions of the project.
+-- Date: 2026-10-17
+
+CREATE INDEX IF NOT EXISTS idx_images_label_ver_image
+    ON la_images_label_ver USING btree (image_id ASC NULLS LAST, valid_from ASC NULLS LAST);
+CREATE INDEX IF NOT EXISTS idx_images_tag_ver_image
+    ON la_images_tag_ver USING btree (image_id ASC NULLS LAST, valid_from ASC NULLS LAST);
+CREATE INDEX IF NOT EXISTS idx_images_metadata_ver_image
+    ON la_images_metadata_ver USING btree (image_id ASC NULLS LAST, valid_from ASC NULLS LAST);
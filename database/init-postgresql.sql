@@ -7,6 +7,7 @@ CREATE SEQUENCE IF NOT EXISTS image_sequence START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE IF NOT EXISTS image_label_sequence START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE IF NOT EXISTS image_metadata_sequence START WITH 1 INCREMENT BY 1;
 CREATE SEQUENCE IF NOT EXISTS image_tag_sequence START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS image_thumbnail_version_sequence START WITH 1 INCREMENT BY 1;
 
 -- la_projects table (must be created first as it's referenced by others)
 CREATE TABLE la_projects (
@@ -79,11 +80,16 @@ CREATE TABLE la_project_metadata (
 CREATE TABLE la_images_file (
     id BIGSERIAL PRIMARY KEY,
     file_name VARCHAR(255),
-    image_file_stream BYTEA NOT NULL,
+    image_file_stream BYTEA,  -- NULL when the content is kept by another storage backend
+    content_hash VARCHAR(64),  -- SHA-256 (hex) of the content, identical uploads share a row
+    storage_backend VARCHAR(16) NOT NULL DEFAULT 'db',  -- 'db' or 'filesystem'
     legacy_image_id BIGINT,  -- Nullable: only populated during migration
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     created_by VARCHAR(36)
 );
+-- Image files are streamed in slices; keep them uncompressed so a slice reads only its TOAST chunks
+ALTER TABLE la_images_file ALTER COLUMN image_file_stream SET STORAGE EXTERNAL;
+CREATE UNIQUE INDEX ux_la_images_file_content_hash ON la_images_file(content_hash);
 
 -- la_images table
 CREATE TABLE la_images (
@@ -96,7 +102,6 @@ CREATE TABLE la_images (
     split VARCHAR(10),
     is_no_class BOOLEAN,
     is_labeled BOOLEAN DEFAULT FALSE,
-    thumbnail_image BYTEA,
     thumbnail_width_ratio DOUBLE PRECISION,
     thumbnail_height_ratio DOUBLE PRECISION,
     file_id BIGINT,
@@ -106,6 +111,14 @@ CREATE TABLE la_images (
     CONSTRAINT fk_images_file FOREIGN KEY (file_id) REFERENCES la_images_file(id)
 );
 
+-- la_images_thumbnail table (thumbnails kept apart so image rows stay small)
+CREATE TABLE la_images_thumbnail (
+    image_id BIGINT PRIMARY KEY,
+    thumbnail_image BYTEA NOT NULL,
+    version BIGINT NOT NULL DEFAULT nextval('image_thumbnail_version_sequence'),
+    CONSTRAINT fk_thumbnail_image FOREIGN KEY (image_id) REFERENCES la_images(id) ON DELETE CASCADE
+);
+
 -- la_images_label table
 CREATE TABLE la_images_label (
     id BIGINT PRIMARY KEY,
@@ -291,10 +304,12 @@ CREATE TABLE la_project_metadata_ss (
     PRIMARY KEY (id, snapshot_id)
 );
 
--- la_images_ss (snapshot) table
-CREATE TABLE la_images_ss (
-    id BIGINT,
-    project_id BIGINT,
+-- Image data of snapshots is stored copy-on-write (see tgf_do_snapshot): a version is visible to
+-- the snapshots of its project with valid_from <= id < valid_to, valid_to is NULL while the
+-- version still matches the live row.
+CREATE TABLE la_images_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
     file_name VARCHAR(255),
     file_size BIGINT,
     width INTEGER,
@@ -302,52 +317,104 @@ CREATE TABLE la_images_ss (
     split VARCHAR(10),
     is_no_class BOOLEAN,
     is_labeled BOOLEAN,
-    thumbnail_image BYTEA,
+    thumbnail_version BIGINT,
     thumbnail_width_ratio DOUBLE PRECISION,
     thumbnail_height_ratio DOUBLE PRECISION,
     file_id BIGINT,
-    snapshot_id BIGINT,
     created_at TIMESTAMP,
     created_by VARCHAR(36),
-    PRIMARY KEY (id, snapshot_id)
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
 );
 
--- la_images_label_ss (snapshot) table
-CREATE TABLE la_images_label_ss (
-    id BIGINT,
+CREATE TABLE la_images_thumbnail_ver (
+    image_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    thumbnail_image BYTEA NOT NULL,
+    PRIMARY KEY (image_id, version)
+);
+
+CREATE TABLE la_images_label_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
     image_id BIGINT,
     class_id BIGINT,
     position TEXT,
-    confidence_rate INTEGER,
-    annotation_type VARCHAR(32),
-    snapshot_id BIGINT,
     created_at TIMESTAMP,
     created_by VARCHAR(36),
-    PRIMARY KEY (id, snapshot_id)
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
 );
 
--- la_images_tag_ss (snapshot) table
-CREATE TABLE la_images_tag_ss (
-    id BIGINT,
+CREATE TABLE la_images_tag_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
     image_id BIGINT,
     tag_id BIGINT,
-    snapshot_id BIGINT,
     created_at TIMESTAMP,
     created_by VARCHAR(36),
-    PRIMARY KEY (id, snapshot_id)
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
 );
 
--- la_images_metadata_ss (snapshot) table
-CREATE TABLE la_images_metadata_ss (
-    id BIGINT,
+CREATE TABLE la_images_metadata_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
     image_id BIGINT,
     metadata_id BIGINT,
     value VARCHAR(500),
-    snapshot_id BIGINT,
     created_at TIMESTAMP,
     created_by VARCHAR(36),
-    PRIMARY KEY (id, snapshot_id)
-);
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
+);
+
+CREATE INDEX idx_images_ver_project ON la_images_ver(project_id, valid_from);
+CREATE INDEX idx_images_ver_open ON la_images_ver(project_id, id) WHERE valid_to IS NULL;
+CREATE INDEX idx_images_ver_file_id ON la_images_ver(file_id);
+CREATE INDEX idx_images_thumbnail_ver_project ON la_images_thumbnail_ver(project_id);
+CREATE INDEX idx_images_label_ver_project ON la_images_label_ver(project_id, valid_from);
+CREATE INDEX idx_images_label_ver_open ON la_images_label_ver(project_id, id) WHERE valid_to IS NULL;
+CREATE INDEX idx_images_tag_ver_project ON la_images_tag_ver(project_id, valid_from);
+CREATE INDEX idx_images_tag_ver_open ON la_images_tag_ver(project_id, id) WHERE valid_to IS NULL;
+CREATE INDEX idx_images_metadata_ver_project ON la_images_metadata_ver(project_id, valid_from);
+CREATE INDEX idx_images_metadata_ver_open ON la_images_metadata_ver(project_id, id) WHERE valid_to IS NULL;
+CREATE INDEX idx_images_label_ver_image ON la_images_label_ver(image_id, valid_from);
+CREATE INDEX idx_images_tag_ver_image ON la_images_tag_ver(image_id, valid_from);
+CREATE INDEX idx_images_metadata_ver_image ON la_images_metadata_ver(image_id, valid_from);
+
+-- la_images_ss, la_images_label_ss, la_images_tag_ss, la_images_metadata_ss (snapshot) views
+CREATE VIEW la_images_ss AS
+SELECT v.id, v.project_id, v.file_name, v.file_size, v.width, v.height, v.split, v.is_no_class,
+       v.is_labeled, t.thumbnail_image, v.thumbnail_width_ratio, v.thumbnail_height_ratio,
+       v.file_id, s.id AS snapshot_id, v.created_at, v.created_by, v.thumbnail_version
+FROM la_snapshot s
+JOIN la_images_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id)
+LEFT JOIN la_images_thumbnail_ver t ON t.image_id = v.id AND t.version = v.thumbnail_version;
+
+CREATE VIEW la_images_label_ss AS
+SELECT v.id, v.image_id, v.class_id, v.position, s.id AS snapshot_id, v.created_at, v.created_by
+FROM la_snapshot s
+JOIN la_images_label_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id);
+
+CREATE VIEW la_images_tag_ss AS
+SELECT v.id, v.image_id, v.tag_id, s.id AS snapshot_id, v.created_at, v.created_by
+FROM la_snapshot s
+JOIN la_images_tag_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id);
+
+CREATE VIEW la_images_metadata_ss AS
+SELECT v.id, v.image_id, v.metadata_id, v.value, s.id AS snapshot_id, v.created_at, v.created_by
+FROM la_snapshot s
+JOIN la_images_metadata_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id);
 
 -- audit tables
 CREATE TABLE la_projects_aud (
@@ -522,6 +589,9 @@ CREATE INDEX fki_fk_prediction_label_image
 
 CREATE INDEX fki_fk_prediction_label_model
     ON la_images_prediction_label USING btree (model_id ASC NULLS LAST);
+
+CREATE INDEX idx_prediction_label_model_image
+    ON la_images_prediction_label USING btree (model_id ASC NULLS LAST, image_id ASC NULLS LAST);
 	
 	
 -- la_loss_chart table
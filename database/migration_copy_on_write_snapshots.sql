@@ -0,0 +1,205 @@
+-- Migration: Copy-on-write snapshot storage
+-- Purpose: Snapshots no longer copy every image, label, tag and metadata row (and thumbnail) of
+-- the project. Rows are kept as versions valid from one snapshot up to another, a snapshot only
+-- writes the rows that changed since the previous one. la_images_ss, la_images_label_ss,
+-- la_images_tag_ss and la_images_metadata_ss become views with the same columns.
+-- Date: 2026-10-17
+
+-- IMPORTANT: Backup your database before running this migration!
+-- Snapshots of the same project must not be created while it runs.
+
+-- Step 1: Version thumbnails, snapshots compare them by version instead of by their bytes
+CREATE SEQUENCE IF NOT EXISTS image_thumbnail_version_sequence START WITH 1 INCREMENT BY 1;
+
+ALTER TABLE la_images_thumbnail
+  ADD COLUMN version BIGINT NOT NULL DEFAULT nextval('image_thumbnail_version_sequence');
+
+-- Run trigger_function_tgf_bump_thumbnail_version.sql and trigger_tg_bump_thumbnail_version.sql
+
+-- Step 2: Create the version tables
+-- A version is visible to the snapshots of its project with valid_from <= id < valid_to,
+-- valid_to is NULL while the version still matches the live row.
+CREATE TABLE la_images_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    file_name VARCHAR(255),
+    file_size BIGINT,
+    width INTEGER,
+    height INTEGER,
+    split VARCHAR(10),
+    is_no_class BOOLEAN,
+    is_labeled BOOLEAN,
+    thumbnail_version BIGINT,
+    thumbnail_width_ratio DOUBLE PRECISION,
+    thumbnail_height_ratio DOUBLE PRECISION,
+    file_id BIGINT,
+    created_at TIMESTAMP,
+    created_by VARCHAR(36),
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
+);
+
+CREATE TABLE la_images_thumbnail_ver (
+    image_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    thumbnail_image BYTEA NOT NULL,
+    PRIMARY KEY (image_id, version)
+);
+
+CREATE TABLE la_images_label_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    image_id BIGINT,
+    class_id BIGINT,
+    position TEXT,
+    created_at TIMESTAMP,
+    created_by VARCHAR(36),
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
+);
+
+CREATE TABLE la_images_tag_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    image_id BIGINT,
+    tag_id BIGINT,
+    created_at TIMESTAMP,
+    created_by VARCHAR(36),
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
+);
+
+CREATE TABLE la_images_metadata_ver (
+    id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    image_id BIGINT,
+    metadata_id BIGINT,
+    value VARCHAR(500),
+    created_at TIMESTAMP,
+    created_by VARCHAR(36),
+    valid_from BIGINT NOT NULL,
+    valid_to BIGINT,
+    PRIMARY KEY (id, valid_from)
+);
+
+-- Step 3: Convert the existing snapshot rows
+-- Every row becomes a version valid for its own snapshot only; the rows of the latest snapshot
+-- of a project stay open, so the next snapshot only writes what changed since then. Rows of
+-- deleted snapshots are dropped.
+ALTER TABLE la_images_ss RENAME TO la_images_ss_old;
+ALTER TABLE la_images_label_ss RENAME TO la_images_label_ss_old;
+ALTER TABLE la_images_tag_ss RENAME TO la_images_tag_ss_old;
+ALTER TABLE la_images_metadata_ss RENAME TO la_images_metadata_ss_old;
+
+CREATE TEMPORARY TABLE tmp_snapshot_next AS
+SELECT s.id, s.project_id, LEAD(s.id) OVER (PARTITION BY s.project_id ORDER BY s.id) AS next_id
+FROM la_snapshot s;
+
+INSERT INTO la_images_ver (
+    id, project_id, file_name, file_size, width, height, split, is_no_class, is_labeled,
+    thumbnail_version, thumbnail_width_ratio, thumbnail_height_ratio, file_id,
+    created_at, created_by, valid_from, valid_to
+)
+SELECT o.id, s.project_id, o.file_name, o.file_size, o.width, o.height, o.split, o.is_no_class,
+       o.is_labeled,
+       CASE WHEN o.thumbnail_image IS NULL THEN NULL
+            ELSE nextval('image_thumbnail_version_sequence') END,
+       o.thumbnail_width_ratio, o.thumbnail_height_ratio, o.file_id,
+       o.created_at, o.created_by, o.snapshot_id, s.next_id
+FROM la_images_ss_old o
+JOIN tmp_snapshot_next s ON s.id = o.snapshot_id;
+
+INSERT INTO la_images_thumbnail_ver (image_id, version, project_id, thumbnail_image)
+SELECT v.id, v.thumbnail_version, v.project_id, o.thumbnail_image
+FROM la_images_ver v
+JOIN la_images_ss_old o ON o.id = v.id AND o.snapshot_id = v.valid_from
+WHERE v.thumbnail_version IS NOT NULL;
+
+INSERT INTO la_images_label_ver (
+    id, project_id, image_id, class_id, position, created_at, created_by, valid_from, valid_to
+)
+SELECT o.id, s.project_id, o.image_id, o.class_id, o.position, o.created_at, o.created_by,
+       o.snapshot_id, s.next_id
+FROM la_images_label_ss_old o
+JOIN tmp_snapshot_next s ON s.id = o.snapshot_id;
+
+INSERT INTO la_images_tag_ver (
+    id, project_id, image_id, tag_id, created_at, created_by, valid_from, valid_to
+)
+SELECT o.id, s.project_id, o.image_id, o.tag_id, o.created_at, o.created_by,
+       o.snapshot_id, s.next_id
+FROM la_images_tag_ss_old o
+JOIN tmp_snapshot_next s ON s.id = o.snapshot_id;
+
+INSERT INTO la_images_metadata_ver (
+    id, project_id, image_id, metadata_id, value, created_at, created_by, valid_from, valid_to
+)
+SELECT o.id, s.project_id, o.image_id, o.metadata_id, o.value, o.created_at, o.created_by,
+       o.snapshot_id, s.next_id
+FROM la_images_metadata_ss_old o
+JOIN tmp_snapshot_next s ON s.id = o.snapshot_id;
+
+DROP TABLE tmp_snapshot_next;
+DROP TABLE la_images_ss_old;
+DROP TABLE la_images_label_ss_old;
+DROP TABLE la_images_tag_ss_old;
+DROP TABLE la_images_metadata_ss_old;
+
+-- Step 4: Indexes
+-- (project_id, valid_from) serves the _ss views, the partial indexes the open version lookups of
+-- tgf_do_snapshot, file_id the unreferenced file check of la_images_file.
+CREATE INDEX idx_images_ver_project ON la_images_ver(project_id, valid_from);
+CREATE INDEX idx_images_ver_open ON la_images_ver(project_id, id) WHERE valid_to IS NULL;
+CREATE INDEX idx_images_ver_file_id ON la_images_ver(file_id);
+CREATE INDEX idx_images_thumbnail_ver_project ON la_images_thumbnail_ver(project_id);
+CREATE INDEX idx_images_label_ver_project ON la_images_label_ver(project_id, valid_from);
+CREATE INDEX idx_images_label_ver_open ON la_images_label_ver(project_id, id) WHERE valid_to IS NULL;
+CREATE INDEX idx_images_tag_ver_project ON la_images_tag_ver(project_id, valid_from);
+CREATE INDEX idx_images_tag_ver_open ON la_images_tag_ver(project_id, id) WHERE valid_to IS NULL;
+CREATE INDEX idx_images_metadata_ver_project ON la_images_metadata_ver(project_id, valid_from);
+CREATE INDEX idx_images_metadata_ver_open ON la_images_metadata_ver(project_id, id) WHERE valid_to IS NULL;
+
+-- Step 5: Snapshot views with the columns of the former tables
+CREATE VIEW la_images_ss AS
+SELECT v.id, v.project_id, v.file_name, v.file_size, v.width, v.height, v.split, v.is_no_class,
+       v.is_labeled, t.thumbnail_image, v.thumbnail_width_ratio, v.thumbnail_height_ratio,
+       v.file_id, s.id AS snapshot_id, v.created_at, v.created_by, v.thumbnail_version
+FROM la_snapshot s
+JOIN la_images_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id)
+LEFT JOIN la_images_thumbnail_ver t ON t.image_id = v.id AND t.version = v.thumbnail_version;
+
+CREATE VIEW la_images_label_ss AS
+SELECT v.id, v.image_id, v.class_id, v.position, s.id AS snapshot_id, v.created_at, v.created_by
+FROM la_snapshot s
+JOIN la_images_label_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id);
+
+CREATE VIEW la_images_tag_ss AS
+SELECT v.id, v.image_id, v.tag_id, s.id AS snapshot_id, v.created_at, v.created_by
+FROM la_snapshot s
+JOIN la_images_tag_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id);
+
+CREATE VIEW la_images_metadata_ss AS
+SELECT v.id, v.image_id, v.metadata_id, v.value, s.id AS snapshot_id, v.created_at, v.created_by
+FROM la_snapshot s
+JOIN la_images_metadata_ver v ON v.project_id = s.project_id
+  AND v.valid_from <= s.id AND (v.valid_to IS NULL OR v.valid_to > s.id);
+
+-- Step 6: Re-create the snapshot trigger function and restore procedure, create the purge function
+-- Run trigger_function_tgf_do_snapshot.sql, procedure_restore_snapshot.sql and
+-- procedure_purge_snapshot_versions.sql.
+
+-- Step 7: Add comments for documentation
+COMMENT ON COLUMN la_images_thumbnail.version IS 'Changes with every new thumbnail, snapshots store the bytes once per version';
+COMMENT ON TABLE la_images_ver IS 'Versions of la_images rows, visible to the snapshots with valid_from <= id < valid_to';
+COMMENT ON TABLE la_images_thumbnail_ver IS 'Thumbnail bytes of the image versions, by image and thumbnail version';
+COMMENT ON TABLE la_images_label_ver IS 'Versions of la_images_label rows, visible to the snapshots with valid_from <= id < valid_to';
+COMMENT ON TABLE la_images_tag_ver IS 'Versions of la_images_tag rows, visible to the snapshots with valid_from <= id < valid_to';
+COMMENT ON TABLE la_images_metadata_ver IS 'Versions of la_images_metadata rows, visible to the snapshots with valid_from <= id < valid_to';
+COMMENT ON VIEW la_images_ss IS 'Images of every snapshot, resolved from la_images_ver';
@@ -0,0 +1,66 @@
+-- Migration: Content-addressed image files
+-- Purpose: Store each distinct image content once; uploads of identical bytes share one la_images_file row
+-- Date: 2026-10-17
+
+-- IMPORTANT: Backup your database before running this migration!
+
+-- Step 1: Add the content hash column
+ALTER TABLE la_images_file
+  ADD COLUMN content_hash VARCHAR(64);
+
+-- Step 2: Hash the existing files (sha256() requires PostgreSQL 11+)
+UPDATE la_images_file
+SET content_hash = encode(sha256(image_file_stream), 'hex')
+WHERE content_hash IS NULL;
+
+-- Step 3: Point images and snapshot images at the oldest file with the same content
+CREATE TEMP TABLE tmp_duplicate_files AS
+SELECT f.id AS duplicate_id, k.keep_id
+FROM la_images_file f
+JOIN (
+    SELECT content_hash, MIN(id) AS keep_id
+    FROM la_images_file
+    GROUP BY content_hash
+    HAVING COUNT(*) > 1
+) k ON k.content_hash = f.content_hash
+WHERE f.id <> k.keep_id;
+
+UPDATE la_images i
+SET file_id = d.keep_id
+FROM tmp_duplicate_files d
+WHERE i.file_id = d.duplicate_id;
+
+UPDATE la_images_ss s
+SET file_id = d.keep_id
+FROM tmp_duplicate_files d
+WHERE s.file_id = d.duplicate_id;
+
+-- la_images_aud keeps the old file IDs; audit rows are history and do not serve file content.
+
+-- Step 4: Remove the duplicate files
+DELETE FROM la_images_file f
+USING tmp_duplicate_files d
+WHERE f.id = d.duplicate_id;
+
+DROP TABLE tmp_duplicate_files;
+
+-- Step 5: Enforce one row per content
+CREATE UNIQUE INDEX ux_la_images_file_content_hash ON la_images_file(content_hash);
+
+-- Step 6: Add comments for documentation
+COMMENT ON COLUMN la_images_file.content_hash IS 'SHA-256 (hex) of image_file_stream, unique; a file is deleted with its last image or snapshot reference';
+
+-- Verification queries (run these to verify migration success)
+-- SELECT content_hash, COUNT(*) FROM la_images_file GROUP BY content_hash HAVING COUNT(*) > 1;
+--   -- Should return no rows
+-- SELECT COUNT(*) FROM la_images i
+--   WHERE NOT EXISTS (SELECT 1 FROM la_images_file f WHERE f.id = i.file_id);
+--   -- Should be 0
+
+-- Success message
+DO $$
+BEGIN
+    RAISE NOTICE 'Migration completed successfully!';
+    RAISE NOTICE 'la_images_file.content_hash added and backfilled';
+    RAISE NOTICE 'Duplicate image files merged into the oldest copy';
+END $$;
@@ -0,0 +1,44 @@
+-- Migration: Move image thumbnails out of la_images
+-- Purpose: Loading image rows (listing, split assignment, snapshots) no longer reads thumbnail bytes
+-- Date: 2026-10-17
+
+-- IMPORTANT: Backup your database before running this migration!
+
+-- Step 1: Create the thumbnail table
+CREATE TABLE la_images_thumbnail (
+    image_id BIGINT PRIMARY KEY,
+    thumbnail_image BYTEA NOT NULL,
+    CONSTRAINT fk_thumbnail_image FOREIGN KEY (image_id) REFERENCES la_images(id) ON DELETE CASCADE
+);
+
+-- Step 2: Copy the existing thumbnails
+INSERT INTO la_images_thumbnail (image_id, thumbnail_image)
+SELECT id, thumbnail_image
+FROM la_images
+WHERE thumbnail_image IS NOT NULL;
+
+-- Step 3: Drop the thumbnail column from la_images
+-- la_images_ss keeps its thumbnail_image column, snapshots still store the thumbnail bytes.
+-- la_images_aud keeps the column for existing audit rows; new revisions leave it NULL.
+ALTER TABLE la_images
+  DROP COLUMN thumbnail_image;
+
+-- Step 4: Re-create the snapshot trigger function and restore procedure
+-- Run trigger_function_tgf_do_snapshot.sql and procedure_restore_snapshot.sql again, both now
+-- read and write thumbnails through la_images_thumbnail.
+
+-- Step 5: Add comments for documentation
+COMMENT ON TABLE la_images_thumbnail IS 'JPEG thumbnail per image, split from la_images to keep image rows small';
+
+-- Verification queries (run these to verify migration success)
+-- SELECT COUNT(*) FROM la_images i
+--   WHERE NOT EXISTS (SELECT 1 FROM la_images_thumbnail t WHERE t.image_id = i.id);
+--   -- Should be the number of images that had no thumbnail before the migration
+
+-- Success message
+DO $$
+BEGIN
+    RAISE NOTICE 'Migration completed successfully!';
+    RAISE NOTICE 'la_images_thumbnail now stores image thumbnails';
+    RAISE NOTICE 'la_images.thumbnail_image has been dropped';
+END $$;
@@ -0,0 +1,17 @@
+-- Migration: Run tg_update_image_isLabeled once per statement
+-- Purpose: Creating a project from a snapshot inserts all labels with one statement. The row level
+-- trigger updated la_images once per label; the statement level trigger updates each image of the
+-- statement once and skips images that are already labeled.
+-- Date: 2026-10-17
+
+-- IMPORTANT: Labels must not be inserted while it runs; the new function only works with the
+-- transition table of the new trigger.
+
+-- Step 1: Drop the row level trigger
+DROP TRIGGER IF EXISTS "tg_update_image_isLabeled" ON public.la_images_label;
+
+-- Step 2: Re-create the trigger function and the trigger
+-- Run trigger_function_tgf_update_isLabeled_fixed.sql and trigger_tg_update_image_isLabeled.sql
+
+-- Step 3: Create the snapshot copy function
+-- Run procedure_clone_snapshot_to_project.sql
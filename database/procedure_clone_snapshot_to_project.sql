@@ -0,0 +1,216 @@
+-- PROCEDURE: public.clone_snapshot_to_project(bigint, bigint, character varying)
+--
+-- Purpose: Copy all snapshot data from _ss tables into a new project with new IDs.
+-- Unlike restore_snapshot_data, the rows get new IDs: old IDs are mapped to new ones in
+-- temporary tables, and every table is copied with a single INSERT ... SELECT through them.
+-- Image files are shared (file_id is kept); thumbnails are copied.
+--
+-- Parameters:
+--   p_snapshot_id: The snapshot ID to copy from
+--   p_project_id: The new, empty project to copy to
+--   p_user_id: The user recorded as creator of the copied rows
+--
+-- Returns: JSON object with copy statistics
+--
+-- Usage: SELECT clone_snapshot_to_project(123, 456, 'user');
+
+CREATE OR REPLACE FUNCTION public.clone_snapshot_to_project(
+    p_snapshot_id bigint,
+    p_project_id bigint,
+    p_user_id character varying
+)
+RETURNS json
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_stats json;
+    v_classes_copied integer := 0;
+    v_tags_copied integer := 0;
+    v_metadata_copied integer := 0;
+    v_splits_copied integer := 0;
+    v_images_copied integer := 0;
+    v_thumbnails_copied integer := 0;
+    v_labels_copied integer := 0;
+    v_image_tags_copied integer := 0;
+    v_image_metadata_copied integer := 0;
+BEGIN
+    RAISE NOTICE 'Starting snapshot copy: snapshot_id=%, project_id=%', p_snapshot_id, p_project_id;
+
+    -- ========================================
+    -- STEP 1: Map old IDs to new IDs
+    -- ========================================
+    -- New IDs come from the sequences the entities use, in the order of the old IDs
+    DROP TABLE IF EXISTS tmp_clone_class_map, tmp_clone_tag_map, tmp_clone_metadata_map,
+        tmp_clone_image_map;
+
+    CREATE TEMP TABLE tmp_clone_class_map ON COMMIT DROP AS
+    SELECT s.id AS old_id, nextval('hibernate_sequence') AS new_id
+    FROM (SELECT id FROM public.la_project_class_ss WHERE snapshot_id = p_snapshot_id ORDER BY id) s;
+
+    CREATE TEMP TABLE tmp_clone_tag_map ON COMMIT DROP AS
+    SELECT s.id AS old_id, nextval('hibernate_sequence') AS new_id
+    FROM (SELECT id FROM public.la_project_tag_ss WHERE snapshot_id = p_snapshot_id ORDER BY id) s;
+
+    CREATE TEMP TABLE tmp_clone_metadata_map ON COMMIT DROP AS
+    SELECT s.id AS old_id, nextval('hibernate_sequence') AS new_id
+    FROM (SELECT id FROM public.la_project_metadata_ss WHERE snapshot_id = p_snapshot_id ORDER BY id) s;
+
+    CREATE TEMP TABLE tmp_clone_image_map ON COMMIT DROP AS
+    SELECT s.id AS old_id, nextval('image_sequence') AS new_id
+    FROM (SELECT id FROM public.la_images_ss WHERE snapshot_id = p_snapshot_id ORDER BY id) s;
+
+    -- The image map joins every label, tag and metadata row; give the planner its size
+    ALTER TABLE tmp_clone_image_map ADD PRIMARY KEY (old_id);
+    ANALYZE tmp_clone_image_map;
+
+    -- ========================================
+    -- STEP 2: Copy Project Classes, Tags, Metadata and Splits
+    -- ========================================
+    INSERT INTO public.la_project_class (id, project_id, class_name, description, color_code, created_by)
+    SELECT m.new_id, p_project_id, sc.class_name, sc.description, sc.color_code, p_user_id
+    FROM public.la_project_class_ss sc
+    JOIN tmp_clone_class_map m ON m.old_id = sc.id
+    WHERE sc.snapshot_id = p_snapshot_id;
+
+    GET DIAGNOSTICS v_classes_copied = ROW_COUNT;
+
+    INSERT INTO public.la_project_tag (id, project_id, name, created_by)
+    SELECT m.new_id, p_project_id, st.name, p_user_id
+    FROM public.la_project_tag_ss st
+    JOIN tmp_clone_tag_map m ON m.old_id = st.id
+    WHERE st.snapshot_id = p_snapshot_id;
+
+    GET DIAGNOSTICS v_tags_copied = ROW_COUNT;
+
+    INSERT INTO public.la_project_metadata (id, project_id, name, type, value_from, predefined_values, multiple_values, created_by)
+    SELECT m.new_id, p_project_id, sm.name, sm.type, sm.value_from, sm.predefined_values, sm.multiple_values, p_user_id
+    FROM public.la_project_metadata_ss sm
+    JOIN tmp_clone_metadata_map m ON m.old_id = sm.id
+    WHERE sm.snapshot_id = p_snapshot_id;
+
+    GET DIAGNOSTICS v_metadata_copied = ROW_COUNT;
+
+    -- A split of a class that is not in the snapshot keeps no class
+    INSERT INTO public.la_project_split (id, project_id, train_ratio, dev_ratio, test_ratio, class_id, created_by)
+    SELECT nextval('hibernate_sequence'), p_project_id, ss.train_ratio, ss.dev_ratio, ss.test_ratio, cm.new_id, p_user_id
+    FROM public.la_project_split_ss ss
+    LEFT JOIN tmp_clone_class_map cm ON cm.old_id = ss.class_id
+    WHERE ss.snapshot_id = p_snapshot_id
+    ORDER BY ss.id;
+
+    GET DIAGNOSTICS v_splits_copied = ROW_COUNT;
+    RAISE NOTICE 'Copied % classes, % tags, % metadata, % splits',
+        v_classes_copied, v_tags_copied, v_metadata_copied, v_splits_copied;
+
+    -- ========================================
+    -- STEP 3: Copy Images and Thumbnails
+    -- ========================================
+    -- Note: is_labeled is NOT set here - tg_update_image_isLabeled sets it when the labels
+    -- are copied, based on is_no_class
+    INSERT INTO public.la_images (
+        id, project_id, file_name, file_size, width, height, split, is_no_class,
+        thumbnail_width_ratio, thumbnail_height_ratio, file_id, created_by
+    )
+    SELECT
+        m.new_id,
+        p_project_id,
+        si.file_name,
+        si.file_size,
+        si.width,
+        si.height,
+        si.split,
+        si.is_no_class,
+        si.thumbnail_width_ratio,
+        si.thumbnail_height_ratio,
+        si.file_id,  -- Share the same image file
+        p_user_id
+    FROM public.la_images_ss si
+    JOIN tmp_clone_image_map m ON m.old_id = si.id
+    WHERE si.snapshot_id = p_snapshot_id;
+
+    GET DIAGNOSTICS v_images_copied = ROW_COUNT;
+
+    INSERT INTO public.la_images_thumbnail (image_id, thumbnail_image)
+    SELECT m.new_id, si.thumbnail_image
+    FROM public.la_images_ss si
+    JOIN tmp_clone_image_map m ON m.old_id = si.id
+    WHERE si.snapshot_id = p_snapshot_id
+      AND si.thumbnail_image IS NOT NULL;
+
+    GET DIAGNOSTICS v_thumbnails_copied = ROW_COUNT;
+    RAISE NOTICE 'Copied % images, % thumbnails', v_images_copied, v_thumbnails_copied;
+
+    -- ========================================
+    -- STEP 4: Copy Image Labels, Tags and Metadata
+    -- ========================================
+    -- Rows whose image or definition is not in the snapshot are skipped by the joins
+    INSERT INTO public.la_images_label (id, image_id, class_id, position, created_by)
+    SELECT nextval('image_label_sequence'), im.new_id, cm.new_id, sl.position, p_user_id
+    FROM public.la_images_label_ss sl
+    JOIN tmp_clone_image_map im ON im.old_id = sl.image_id
+    JOIN tmp_clone_class_map cm ON cm.old_id = sl.class_id
+    WHERE sl.snapshot_id = p_snapshot_id
+    ORDER BY sl.id;
+
+    GET DIAGNOSTICS v_labels_copied = ROW_COUNT;
+
+    INSERT INTO public.la_images_tag (id, image_id, tag_id, created_by)
+    SELECT nextval('image_tag_sequence'), im.new_id, tm.new_id, p_user_id
+    FROM public.la_images_tag_ss st
+    JOIN tmp_clone_image_map im ON im.old_id = st.image_id
+    JOIN tmp_clone_tag_map tm ON tm.old_id = st.tag_id
+    WHERE st.snapshot_id = p_snapshot_id
+    ORDER BY st.id;
+
+    GET DIAGNOSTICS v_image_tags_copied = ROW_COUNT;
+
+    INSERT INTO public.la_images_metadata (id, image_id, metadata_id, value, created_by)
+    SELECT nextval('image_metadata_sequence'), im.new_id, mm.new_id, sm.value, p_user_id
+    FROM public.la_images_metadata_ss sm
+    JOIN tmp_clone_image_map im ON im.old_id = sm.image_id
+    JOIN tmp_clone_metadata_map mm ON mm.old_id = sm.metadata_id
+    WHERE sm.snapshot_id = p_snapshot_id
+    ORDER BY sm.id;
+
+    GET DIAGNOSTICS v_image_metadata_copied = ROW_COUNT;
+    RAISE NOTICE 'Copied % labels, % image tags, % image metadata',
+        v_labels_copied, v_image_tags_copied, v_image_metadata_copied;
+
+    DROP TABLE tmp_clone_class_map, tmp_clone_tag_map, tmp_clone_metadata_map,
+        tmp_clone_image_map;
+
+    -- ========================================
+    -- Build statistics JSON
+    -- ========================================
+    v_stats := json_build_object(
+        'success', true,
+        'snapshot_id', p_snapshot_id,
+        'project_id', p_project_id,
+        'classes_copied', v_classes_copied,
+        'tags_copied', v_tags_copied,
+        'metadata_copied', v_metadata_copied,
+        'splits_copied', v_splits_copied,
+        'images_copied', v_images_copied,
+        'thumbnails_copied', v_thumbnails_copied,
+        'labels_copied', v_labels_copied,
+        'image_tags_copied', v_image_tags_copied,
+        'image_metadata_copied', v_image_metadata_copied
+    );
+
+    RAISE NOTICE 'Snapshot copy completed: %', v_stats;
+
+    RETURN v_stats;
+
+EXCEPTION
+    WHEN OTHERS THEN
+        RAISE EXCEPTION 'Snapshot copy failed: % (SQLSTATE: %)', SQLERRM, SQLSTATE;
+END;
+$$;
+
+-- Grant execute permission
+ALTER FUNCTION public.clone_snapshot_to_project(bigint, bigint, character varying) OWNER TO postgres;
+
+COMMENT ON FUNCTION public.clone_snapshot_to_project(bigint, bigint, character varying) IS
+'Copies all snapshot data from _ss tables into a new project with new IDs, one INSERT ... SELECT
+per table through temporary ID mapping tables. Image files are shared through file_id.
+The is_labeled flag is set by tg_update_image_isLabeled when the labels are copied.';
@@ -0,0 +1,82 @@
+-- FUNCTION: public.purge_snapshot_versions(bigint)
+--
+-- Purpose: Delete the image data versions (la_images_ver, la_images_label_ver, la_images_tag_ver,
+-- la_images_metadata_ver, la_images_thumbnail_ver) of a project that no remaining snapshot of the
+-- project can see. Call it after deleting snapshots; versions are shared between snapshots, so
+-- they cannot be deleted per snapshot.
+--
+-- Parameters:
+--   p_project_id: The project whose snapshots were deleted
+--
+-- Returns: Number of versions deleted
+--
+-- Usage: SELECT purge_snapshot_versions(456);
+
+CREATE OR REPLACE FUNCTION public.purge_snapshot_versions(
+    p_project_id bigint
+)
+RETURNS integer
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_deleted integer := 0;
+    v_count integer;
+BEGIN
+    DELETE FROM public.la_images_metadata_ver v
+    WHERE v.project_id = p_project_id
+      AND NOT EXISTS (
+          SELECT 1 FROM public.la_snapshot s
+          WHERE s.project_id = p_project_id
+            AND s.id >= v.valid_from
+            AND (v.valid_to IS NULL OR s.id < v.valid_to));
+    GET DIAGNOSTICS v_count = ROW_COUNT;
+    v_deleted := v_deleted + v_count;
+
+    DELETE FROM public.la_images_tag_ver v
+    WHERE v.project_id = p_project_id
+      AND NOT EXISTS (
+          SELECT 1 FROM public.la_snapshot s
+          WHERE s.project_id = p_project_id
+            AND s.id >= v.valid_from
+            AND (v.valid_to IS NULL OR s.id < v.valid_to));
+    GET DIAGNOSTICS v_count = ROW_COUNT;
+    v_deleted := v_deleted + v_count;
+
+    DELETE FROM public.la_images_label_ver v
+    WHERE v.project_id = p_project_id
+      AND NOT EXISTS (
+          SELECT 1 FROM public.la_snapshot s
+          WHERE s.project_id = p_project_id
+            AND s.id >= v.valid_from
+            AND (v.valid_to IS NULL OR s.id < v.valid_to));
+    GET DIAGNOSTICS v_count = ROW_COUNT;
+    v_deleted := v_deleted + v_count;
+
+    DELETE FROM public.la_images_ver v
+    WHERE v.project_id = p_project_id
+      AND NOT EXISTS (
+          SELECT 1 FROM public.la_snapshot s
+          WHERE s.project_id = p_project_id
+            AND s.id >= v.valid_from
+            AND (v.valid_to IS NULL OR s.id < v.valid_to));
+    GET DIAGNOSTICS v_count = ROW_COUNT;
+    v_deleted := v_deleted + v_count;
+
+    -- Thumbnail bytes no image version refers to anymore
+    DELETE FROM public.la_images_thumbnail_ver t
+    WHERE t.project_id = p_project_id
+      AND NOT EXISTS (
+          SELECT 1 FROM public.la_images_ver v
+          WHERE v.id = t.image_id AND v.thumbnail_version = t.version);
+    GET DIAGNOSTICS v_count = ROW_COUNT;
+    v_deleted := v_deleted + v_count;
+
+    RAISE NOTICE 'Purged % snapshot versions of project %', v_deleted, p_project_id;
+    RETURN v_deleted;
+END;
+$$;
+
+ALTER FUNCTION public.purge_snapshot_versions(bigint) OWNER TO postgres;
+
+COMMENT ON FUNCTION public.purge_snapshot_versions(bigint) IS
+'Deletes the image data versions of a project that are not visible to any of its snapshots.';
@@ -138,7 +138,7 @@ BEGIN
     -- after labels are restored
     INSERT INTO public.la_images (
         id, project_id, file_name, file_size, width, height, split, is_no_class,
-        thumbnail_image, thumbnail_width_ratio, thumbnail_height_ratio, file_id,
+        thumbnail_width_ratio, thumbnail_height_ratio, file_id,
         created_at, created_by
     )
     SELECT 
@@ -150,7 +150,6 @@ BEGIN
         height,
         split,
         is_no_class,
-        thumbnail_image,
         thumbnail_width_ratio,
         thumbnail_height_ratio,
         file_id,  -- Preserve file_id to maintain link to shared image files
@@ -161,6 +160,14 @@ BEGIN
     
     GET DIAGNOSTICS v_images_restored = ROW_COUNT;
     RAISE NOTICE 'Restored % images', v_images_restored;
+
+    -- Thumbnails are kept in their own table; keeping the version lets the next snapshot reuse
+    -- the stored thumbnail bytes
+    INSERT INTO public.la_images_thumbnail (image_id, thumbnail_image, version)
+    SELECT id, thumbnail_image, thumbnail_version
+    FROM public.la_images_ss
+    WHERE snapshot_id = p_snapshot_id
+      AND thumbnail_image IS NOT NULL;
     
     -- Update sequence for la_images
     SELECT COALESCE(MAX(id), 0) INTO v_max_id FROM public.la_images;
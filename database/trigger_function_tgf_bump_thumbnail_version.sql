@@ -0,0 +1,20 @@
+-- FUNCTION: public.tgf_bump_thumbnail_version()
+
+-- DROP FUNCTION IF EXISTS public.tgf_bump_thumbnail_version();
+
+-- Snapshots compare thumbnails by version instead of by their bytes, see tgf_do_snapshot.
+
+CREATE OR REPLACE FUNCTION public.tgf_bump_thumbnail_version()
+    RETURNS trigger
+    LANGUAGE 'plpgsql'
+    COST 100
+    VOLATILE NOT LEAKPROOF
+AS $BODY$
+BEGIN
+    NEW.version = nextval('image_thumbnail_version_sequence');
+    RETURN NEW;
+END;
+$BODY$;
+
+ALTER FUNCTION public.tgf_bump_thumbnail_version()
+    OWNER TO postgres;
@@ -2,6 +2,15 @@
 
 -- DROP FUNCTION IF EXISTS public.tgf_do_snapshot();
 
+-- Image data is stored copy-on-write: every row of la_images(_thumbnail), la_images_label,
+-- la_images_tag and la_images_metadata is kept in a _ver table as versions valid from one snapshot
+-- id up to (excluding) another. A snapshot closes the open versions that no longer match the live
+-- rows and adds versions for the new and changed rows, so it only writes what changed since the
+-- previous snapshot of the project. The _ss views resolve the versions of one snapshot.
+-- Thumbnails are compared by la_images_thumbnail.version and their bytes are stored once per
+-- version in la_images_thumbnail_ver.
+-- The small project level tables (classes, metadata, splits, tags) are still copied in full.
+
 CREATE OR REPLACE FUNCTION public.tgf_do_snapshot()
     RETURNS trigger
     LANGUAGE 'plpgsql'
@@ -9,9 +18,11 @@ CREATE OR REPLACE FUNCTION public.tgf_do_snapshot()
     VOLATILE NOT LEAKPROOF
 AS $BODY$
 declare
-   v_project_id integer:=NEW.project_id;
-   v_snapshot_id integer := NEW.id;
-   
+   v_project_id bigint := NEW.project_id;
+   v_snapshot_id bigint := NEW.id;
+   v_latest_snapshot_id bigint;
+
+   cn_closed_count integer;
    cn_images_count integer;
    cn_images_tag_count integer;
    cn_images_label_count integer;
@@ -21,68 +32,171 @@ declare
    cn_project_split_count integer;
    cn_project_tag_count integer;
 begin
-   --do snapshot to table la_images_ss
-   select count(1) into cn_images_count from public.la_images
-   where project_id=v_project_id
+   -- one snapshot per project at a time, versions must be written in snapshot id order
+   PERFORM pg_advisory_xact_lock(hashtext('tgf_do_snapshot'), v_project_id::integer);
+
+   select max(greatest(valid_from, coalesce(valid_to, valid_from))) into v_latest_snapshot_id
+   from public.la_images_ver
+   where project_id = v_project_id
    ;
-   if cn_images_count>0 then
-      RAISE NOTICE 'la_images has  % images.', cn_images_count;
-	  INSERT INTO public.la_images_ss
-	  (id, project_id, file_name, file_size, width, height, split, is_no_class, 
-	   thumbnail_image, snapshot_id, created_at, created_by, is_labeled, 
-	   thumbnail_width_ratio, thumbnail_height_ratio, file_id
-	  )
-	  select id, project_id, file_name, file_size, width, height, split, is_no_class, 
-	         thumbnail_image, v_snapshot_id, created_at, created_by, is_labeled, 
-	         thumbnail_width_ratio, thumbnail_height_ratio, file_id
-	  from public.la_images
-	  where project_id=v_project_id
-	  ;
+   if v_latest_snapshot_id >= v_snapshot_id then
+      RAISE EXCEPTION 'Snapshot % of project % is not newer than snapshot %',
+         v_snapshot_id, v_project_id, v_latest_snapshot_id;
    end if;
-   --do snapshot to table la_images_tag_ss 
-   select count(1) into cn_images_tag_count from public.la_images_tag
-   where image_id in (select id from la_images where project_id = v_project_id)
+
+   --versions of la_images (la_images_ss)
+   update public.la_images_ver v
+   set valid_to = v_snapshot_id
+   where v.project_id = v_project_id
+     and v.valid_to is null
+     and not exists (
+        select 1
+        from public.la_images i
+        left join public.la_images_thumbnail t on t.image_id = i.id
+        where i.id = v.id
+          and i.project_id = v_project_id
+          and (i.file_name, i.file_size, i.width, i.height, i.split, i.is_no_class, i.is_labeled,
+               t.version, i.thumbnail_width_ratio, i.thumbnail_height_ratio, i.file_id,
+               i.created_at, i.created_by)
+              is not distinct from
+              (v.file_name, v.file_size, v.width, v.height, v.split, v.is_no_class, v.is_labeled,
+               v.thumbnail_version, v.thumbnail_width_ratio, v.thumbnail_height_ratio, v.file_id,
+               v.created_at, v.created_by)
+     )
    ;
+   GET DIAGNOSTICS cn_closed_count = ROW_COUNT;
 
-   if cn_images_tag_count>0 then
-      RAISE NOTICE 'la_images_tag has % tags', cn_images_tag_count;
-	  INSERT INTO public.la_images_tag_ss
-	  (id, image_id, tag_id, snapshot_id, created_at, created_by)
-	  select id, image_id, tag_id, v_snapshot_id, created_at, created_by
-	  from public.la_images_tag
-	  where image_id in (select id from la_images where project_id = v_project_id)
-	  ;
-   end if;
+   INSERT INTO public.la_images_ver
+   (id, project_id, file_name, file_size, width, height, split, is_no_class, is_labeled,
+    thumbnail_version, thumbnail_width_ratio, thumbnail_height_ratio, file_id,
+    created_at, created_by, valid_from, valid_to
+   )
+   select i.id, i.project_id, i.file_name, i.file_size, i.width, i.height, i.split, i.is_no_class,
+          i.is_labeled, t.version, i.thumbnail_width_ratio, i.thumbnail_height_ratio, i.file_id,
+          i.created_at, i.created_by, v_snapshot_id, null
+   from public.la_images i
+   left join public.la_images_thumbnail t on t.image_id = i.id
+   where i.project_id = v_project_id
+     and not exists (
+        select 1 from public.la_images_ver v
+        where v.project_id = v_project_id and v.id = i.id and v.valid_to is null
+     )
+   ;
+   GET DIAGNOSTICS cn_images_count = ROW_COUNT;
+   RAISE NOTICE 'la_images: % versions closed, % versions added', cn_closed_count, cn_images_count;
 
-   --do snapshot to table la_images_label_ss 
-   select count(1) into cn_images_label_count from public.la_images_label
-   where image_id in (select id from la_images where project_id = v_project_id)
+   --thumbnail bytes of the new versions, unless already stored
+   INSERT INTO public.la_images_thumbnail_ver
+   (image_id, version, project_id, thumbnail_image)
+   select t.image_id, t.version, v_project_id, t.thumbnail_image
+   from public.la_images_ver v
+   join public.la_images_thumbnail t on t.image_id = v.id and t.version = v.thumbnail_version
+   where v.project_id = v_project_id
+     and v.valid_from = v_snapshot_id
+     and not exists (
+        select 1 from public.la_images_thumbnail_ver tv
+        where tv.image_id = t.image_id and tv.version = t.version
+     )
    ;
 
-   if cn_images_label_count>0 then
-      RAISE NOTICE 'la_images_label has % labels', cn_images_label_count;
-	  INSERT INTO public.la_images_label_ss
-	  (id, image_id, class_id, "position", snapshot_id, created_at, created_by)
-	  select id, image_id, class_id, "position", v_snapshot_id, created_at, created_by
-	  from public.la_images_label
-	  where image_id in (select id from la_images where project_id = v_project_id)
-	  ;
-   end if;
+   --versions of la_images_tag (la_images_tag_ss)
+   update public.la_images_tag_ver v
+   set valid_to = v_snapshot_id
+   where v.project_id = v_project_id
+     and v.valid_to is null
+     and not exists (
+        select 1
+        from public.la_images_tag it
+        join public.la_images i on i.id = it.image_id
+        where it.id = v.id
+          and i.project_id = v_project_id
+          and (it.image_id, it.tag_id, it.created_at, it.created_by)
+              is not distinct from (v.image_id, v.tag_id, v.created_at, v.created_by)
+     )
+   ;
+   GET DIAGNOSTICS cn_closed_count = ROW_COUNT;
 
-   --do snapshot to table la_images_metadata_ss 
-   select count(1) into cn_images_metadata_count from public.la_images_metadata
-   where image_id in (select id from la_images where project_id = v_project_id)
+   INSERT INTO public.la_images_tag_ver
+   (id, project_id, image_id, tag_id, created_at, created_by, valid_from, valid_to)
+   select it.id, v_project_id, it.image_id, it.tag_id, it.created_at, it.created_by,
+          v_snapshot_id, null
+   from public.la_images_tag it
+   join public.la_images i on i.id = it.image_id
+   where i.project_id = v_project_id
+     and not exists (
+        select 1 from public.la_images_tag_ver v
+        where v.project_id = v_project_id and v.id = it.id and v.valid_to is null
+     )
    ;
+   GET DIAGNOSTICS cn_images_tag_count = ROW_COUNT;
+   RAISE NOTICE 'la_images_tag: % versions closed, % versions added',
+      cn_closed_count, cn_images_tag_count;
 
-   if cn_images_metadata_count>0 then
-      RAISE NOTICE 'la_images_metadata has % metadatas', cn_images_metadata_count;
-	  INSERT INTO public.la_images_metadata_ss
-	  (id, image_id, metadata_id, value, snapshot_id, created_at, created_by)
-	  select id, image_id, metadata_id, value, v_snapshot_id, created_at, created_by
-	  from public.la_images_metadata
-	  where image_id in (select id from la_images where project_id = v_project_id)
-	  ;
-   end if;
+   --versions of la_images_label (la_images_label_ss)
+   update public.la_images_label_ver v
+   set valid_to = v_snapshot_id
+   where v.project_id = v_project_id
+     and v.valid_to is null
+     and not exists (
+        select 1
+        from public.la_images_label l
+        join public.la_images i on i.id = l.image_id
+        where l.id = v.id
+          and i.project_id = v_project_id
+          and (l.image_id, l.class_id, l."position", l.created_at, l.created_by)
+              is not distinct from (v.image_id, v.class_id, v."position", v.created_at, v.created_by)
+     )
+   ;
+   GET DIAGNOSTICS cn_closed_count = ROW_COUNT;
+
+   INSERT INTO public.la_images_label_ver
+   (id, project_id, image_id, class_id, "position", created_at, created_by, valid_from, valid_to)
+   select l.id, v_project_id, l.image_id, l.class_id, l."position", l.created_at, l.created_by,
+          v_snapshot_id, null
+   from public.la_images_label l
+   join public.la_images i on i.id = l.image_id
+   where i.project_id = v_project_id
+     and not exists (
+        select 1 from public.la_images_label_ver v
+        where v.project_id = v_project_id and v.id = l.id and v.valid_to is null
+     )
+   ;
+   GET DIAGNOSTICS cn_images_label_count = ROW_COUNT;
+   RAISE NOTICE 'la_images_label: % versions closed, % versions added',
+      cn_closed_count, cn_images_label_count;
+
+   --versions of la_images_metadata (la_images_metadata_ss)
+   update public.la_images_metadata_ver v
+   set valid_to = v_snapshot_id
+   where v.project_id = v_project_id
+     and v.valid_to is null
+     and not exists (
+        select 1
+        from public.la_images_metadata m
+        join public.la_images i on i.id = m.image_id
+        where m.id = v.id
+          and i.project_id = v_project_id
+          and (m.image_id, m.metadata_id, m.value, m.created_at, m.created_by)
+              is not distinct from (v.image_id, v.metadata_id, v.value, v.created_at, v.created_by)
+     )
+   ;
+   GET DIAGNOSTICS cn_closed_count = ROW_COUNT;
+
+   INSERT INTO public.la_images_metadata_ver
+   (id, project_id, image_id, metadata_id, value, created_at, created_by, valid_from, valid_to)
+   select m.id, v_project_id, m.image_id, m.metadata_id, m.value, m.created_at, m.created_by,
+          v_snapshot_id, null
+   from public.la_images_metadata m
+   join public.la_images i on i.id = m.image_id
+   where i.project_id = v_project_id
+     and not exists (
+        select 1 from public.la_images_metadata_ver v
+        where v.project_id = v_project_id and v.id = m.id and v.valid_to is null
+     )
+   ;
+   GET DIAGNOSTICS cn_images_metadata_count = ROW_COUNT;
+   RAISE NOTICE 'la_images_metadata: % versions closed, % versions added',
+      cn_closed_count, cn_images_metadata_count;
 
    --do snapshot to table la_project_class_ss 
    select count(1) into cn_project_class_count from public.la_project_class
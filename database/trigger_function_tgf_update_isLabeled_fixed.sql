@@ -1,6 +1,8 @@
 -- FUNCTION: public.tgf_update_isLabeled()
--- This trigger sets is_labeled=true when a label is inserted
+-- This trigger sets is_labeled=true for the images of the inserted labels
 -- BUT only if is_no_class is not true
+-- Statement level: runs once per INSERT with the inserted labels in new_labels, so bulk copies
+-- update every image once instead of once per label
 
 -- DROP FUNCTION IF EXISTS public."tgf_update_isLabeled"();
 
@@ -10,22 +12,15 @@ CREATE OR REPLACE FUNCTION public."tgf_update_isLabeled"()
     COST 100
     VOLATILE NOT LEAKPROOF
 AS $BODY$
-DECLARE
-   is_no_class_flag BOOLEAN;
 BEGIN
-   -- Check if the image is marked as no_class
-   SELECT is_no_class INTO is_no_class_flag 
-   FROM public.la_images
-   WHERE id = NEW.image_id;
-   
-   -- Only set is_labeled=true if is_no_class is false or null
-   IF is_no_class_flag IS NULL OR is_no_class_flag = FALSE THEN
-      UPDATE public.la_images
-      SET is_labeled = TRUE
-      WHERE id = NEW.image_id;
-   END IF;
-   
-   RETURN NEW;
+   -- Only set is_labeled=true if is_no_class is false or null; skip images already labeled
+   UPDATE public.la_images
+   SET is_labeled = TRUE
+   WHERE id IN (SELECT image_id FROM new_labels)
+     AND is_no_class IS NOT TRUE
+     AND is_labeled IS NOT TRUE;
+
+   RETURN NULL;
 END;
 $BODY$;
 
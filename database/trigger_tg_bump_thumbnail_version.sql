@@ -0,0 +1,13 @@
+-- Trigger: tg_bump_thumbnail_version
+
+-- DROP TRIGGER IF EXISTS tg_bump_thumbnail_version ON public.la_images_thumbnail;
+
+CREATE OR REPLACE TRIGGER tg_bump_thumbnail_version
+    BEFORE UPDATE
+    ON public.la_images_thumbnail
+    FOR EACH ROW
+    WHEN (OLD.thumbnail_image IS DISTINCT FROM NEW.thumbnail_image)
+    EXECUTE FUNCTION public.tgf_bump_thumbnail_version();
+
+COMMENT ON TRIGGER tg_bump_thumbnail_version ON public.la_images_thumbnail
+    IS 'new thumbnail version when the thumbnail changes';
@@ -1,12 +1,13 @@
 -- Trigger: tg_update_image_isLabeled
 
--- DROP TRIGGER IF EXISTS "tg_update_image_isLabeled" ON public.la_images_label;
+DROP TRIGGER IF EXISTS "tg_update_image_isLabeled" ON public.la_images_label;
 
-CREATE OR REPLACE TRIGGER "tg_update_image_isLabeled"
+CREATE TRIGGER "tg_update_image_isLabeled"
     AFTER INSERT
     ON public.la_images_label
-    FOR EACH ROW
+    REFERENCING NEW TABLE AS new_labels
+    FOR EACH STATEMENT
     EXECUTE FUNCTION public."tgf_update_isLabeled"();
 
 COMMENT ON TRIGGER "tg_update_image_isLabeled" ON public.la_images_label
-    IS 'update image isLabeled flag';
\ No newline at end of file
+    IS 'update image isLabeled flag';